@@ -0,0 +1,80 @@
+package com.studydocs.manager.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verify JWT có cache (token lặp lại giữa các request) so với parse + kiểm chữ ký mỗi lần.
+ * Biến thể nhiều thread đo tranh chấp trên cache dùng chung.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-with-at-least-256-bits-hs256";
+
+    private JwtTokenProvider cachedProvider;
+    private JwtTokenProvider uncachedProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedProvider = provider(10_000);
+        uncachedProvider = provider(0);
+        User principal = new User("alice", "password", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = cachedProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()), 42L);
+    }
+
+    @Benchmark
+    public Claims verifyCached() {
+        return cachedProvider.verify(token).orElseThrow();
+    }
+
+    @Benchmark
+    public Claims verifyUncached() {
+        return uncachedProvider.verify(token).orElseThrow();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Claims verifyCachedContended() {
+        return cachedProvider.verify(token).orElseThrow();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Claims verifyUncachedContended() {
+        return uncachedProvider.verify(token).orElseThrow();
+    }
+
+    private static JwtTokenProvider provider(int cacheMaxEntries) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxEntries", cacheMaxEntries);
+        provider.init();
+        return provider;
+    }
+}
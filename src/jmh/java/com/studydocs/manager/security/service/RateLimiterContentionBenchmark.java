@@ -0,0 +1,79 @@
+package com.studydocs.manager.security.service;
+
+import com.studydocs.manager.config.RateLimitProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tranh chấp trên {@link RateLimiterService} với 8 thread:
+ * - hotKey: mọi thread cùng một key (CAS trên cùng một counter)
+ * - ownKey: mỗi thread một key (chỉ tranh chấp trên map)
+ * - newKeys: key mới liên tục trên map đã đầy (mỗi request phải bỏ một key để nhường chỗ)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimiterContentionBenchmark {
+
+    private static final int LIMIT = 65_535;
+    private static final long WINDOW_MILLIS = 60_000;
+    private static final int MAX_TRACKED_KEYS = 10_000;
+
+    private final AtomicLong clientSequence = new AtomicLong();
+    private RateLimiterService limiter;
+    private long hotKey;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setMaxTrackedKeys(MAX_TRACKED_KEYS);
+        limiter = new RateLimiterService(props);
+        hotKey = RateLimiterService.hashKey("login", "10.0.0.1");
+        // Lấp đầy map trước để newKeys luôn đi qua nhánh bỏ key
+        for (int i = 0; i < MAX_TRACKED_KEYS; i++) {
+            limiter.tryConsume(RateLimiterService.hashKey("login", "seed-" + i), LIMIT, WINDOW_MILLIS);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKey {
+        long key;
+
+        @Setup
+        public void setUp(RateLimiterContentionBenchmark benchmark) {
+            key = RateLimiterService.hashKey("login", "thread-" + benchmark.clientSequence.incrementAndGet());
+        }
+    }
+
+    @Benchmark
+    public boolean hotKey() {
+        return limiter.tryConsume(hotKey, LIMIT, WINDOW_MILLIS);
+    }
+
+    @Benchmark
+    public boolean ownKey(ThreadKey threadKey) {
+        return limiter.tryConsume(threadKey.key, LIMIT, WINDOW_MILLIS);
+    }
+
+    @Benchmark
+    public boolean newKeys() {
+        long key = RateLimiterService.hashKey("login", Long.toString(clientSequence.incrementAndGet()));
+        return limiter.tryConsume(key, LIMIT, WINDOW_MILLIS);
+    }
+}
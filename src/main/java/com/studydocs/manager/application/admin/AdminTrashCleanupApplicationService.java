@@ -1,12 +1,18 @@
 package com.studydocs.manager.application.admin;
 
+import com.studydocs.manager.application.filemanager.FileManagerJobService;
+import com.studydocs.manager.application.filemanager.FileManagerProgress;
 import com.studydocs.manager.dto.admin.AdminTrashPurgeRequest;
 import com.studydocs.manager.dto.admin.AdminTrashPurgeResponse;
+import com.studydocs.manager.dto.filemanager.FileManagerJobResponse;
 import com.studydocs.manager.entity.Document;
 import com.studydocs.manager.entity.Folder;
 import com.studydocs.manager.enums.DocumentStatus;
+import com.studydocs.manager.enums.FileManagerJobType;
+import com.studydocs.manager.exception.UnauthorizedException;
 import com.studydocs.manager.repository.DocumentRepository;
 import com.studydocs.manager.repository.FolderRepository;
+import com.studydocs.manager.security.utils.SecurityUtils;
 import com.studydocs.manager.service.document.DocumentPurgeService;
 import com.studydocs.manager.service.folder.FolderPurgeService;
 import org.slf4j.Logger;
@@ -25,41 +31,72 @@ public class AdminTrashCleanupApplicationService {
     private final FolderRepository folderRepository;
     private final DocumentPurgeService documentPurgeService;
     private final FolderPurgeService folderPurgeService;
+    private final FileManagerJobService fileManagerJobService;
+    private final SecurityUtils securityUtils;
 
     public AdminTrashCleanupApplicationService(
             DocumentRepository documentRepository,
             FolderRepository folderRepository,
             DocumentPurgeService documentPurgeService,
-            FolderPurgeService folderPurgeService) {
+            FolderPurgeService folderPurgeService,
+            FileManagerJobService fileManagerJobService,
+            SecurityUtils securityUtils) {
         this.documentRepository = documentRepository;
         this.folderRepository = folderRepository;
         this.documentPurgeService = documentPurgeService;
         this.folderPurgeService = folderPurgeService;
+        this.fileManagerJobService = fileManagerJobService;
+        this.securityUtils = securityUtils;
     }
 
     public AdminTrashPurgeResponse purge(AdminTrashPurgeRequest request) {
-        AdminTrashPurgeResponse response = new AdminTrashPurgeResponse();
+        return purge(request, FileManagerProgress.NONE);
+    }
 
-        if (request.getScope() == AdminTrashPurgeRequest.Scope.DOCUMENTS || request.getScope() == AdminTrashPurgeRequest.Scope.ALL) {
-            purgeDocuments(request.getUserId(), response);
+    /**
+     * Chạy purge trên pool job file manager; kết quả lấy qua GET /api/file-manager/jobs/{jobId}.
+     */
+    public FileManagerJobResponse submitPurge(AdminTrashPurgeRequest request) {
+        Long adminId = securityUtils.getCurrentUserId();
+        if (adminId == null) {
+            throw new UnauthorizedException("User not authenticated", "USER_NOT_AUTHENTICATED", null);
         }
+        return fileManagerJobService.submit(adminId, FileManagerJobType.TRASH_PURGE, progress -> purge(request, progress));
+    }
 
-        if (request.getScope() == AdminTrashPurgeRequest.Scope.FOLDERS || request.getScope() == AdminTrashPurgeRequest.Scope.ALL) {
-            purgeFolders(request.getUserId(), response);
-        }
+    private AdminTrashPurgeResponse purge(AdminTrashPurgeRequest request, FileManagerProgress progress) {
+        AdminTrashPurgeResponse response = new AdminTrashPurgeResponse();
+        boolean includeDocuments = request.getScope() == AdminTrashPurgeRequest.Scope.DOCUMENTS
+                || request.getScope() == AdminTrashPurgeRequest.Scope.ALL;
+        boolean includeFolders = request.getScope() == AdminTrashPurgeRequest.Scope.FOLDERS
+                || request.getScope() == AdminTrashPurgeRequest.Scope.ALL;
+
+        List<Document> documents = includeDocuments ? findDeletedDocuments(request.getUserId()) : List.of();
+        List<Folder> roots = includeFolders ? findDeletedFolderRoots(request.getUserId()) : List.of();
+        progress.start(documents.size() + roots.size());
 
+        purgeDocuments(documents, response, progress);
+        purgeFolders(roots, response, progress);
         return response;
     }
 
-    private void purgeDocuments(Long userId, AdminTrashPurgeResponse response) {
-        List<Document> documents = userId == null
+    private List<Document> findDeletedDocuments(Long userId) {
+        return userId == null
                 ? documentRepository.findByStatus(DocumentStatus.DELETED, org.springframework.data.domain.Pageable.unpaged()).getContent().stream()
                         .filter(document -> document.getDeletedRootFolderId() == null)
                         .toList()
                 : documentRepository.findByUserIdAndStatus(userId, DocumentStatus.DELETED).stream()
                         .filter(document -> document.getDeletedRootFolderId() == null)
                         .toList();
+    }
 
+    private List<Folder> findDeletedFolderRoots(Long userId) {
+        return userId == null
+                ? folderRepository.findDeletedRootFolders()
+                : folderRepository.findDeletedRootFoldersByUserId(userId);
+    }
+
+    private void purgeDocuments(List<Document> documents, AdminTrashPurgeResponse response, FileManagerProgress progress) {
         for (Document document : documents) {
             try {
                 documentPurgeService.purge(document);
@@ -68,14 +105,11 @@ public class AdminTrashCleanupApplicationService {
                 response.getFailedDocumentIds().add(document.getId());
                 logger.error("Admin trash purge failed for document id={}: {}", document.getId(), e.getMessage(), e);
             }
+            progress.itemDone(0);
         }
     }
 
-    private void purgeFolders(Long userId, AdminTrashPurgeResponse response) {
-        List<Folder> roots = userId == null
-                ? folderRepository.findDeletedRootFolders()
-                : folderRepository.findDeletedRootFoldersByUserId(userId);
-
+    private void purgeFolders(List<Folder> roots, AdminTrashPurgeResponse response, FileManagerProgress progress) {
         for (Folder root : roots) {
             try {
                 int purgedDocuments = folderPurgeService.purgeDeletedTree(root);
@@ -85,6 +119,7 @@ public class AdminTrashCleanupApplicationService {
                 response.getFailedFolderRootIds().add(root.getId());
                 logger.error("Admin trash purge failed for folder root id={}: {}", root.getId(), e.getMessage(), e);
             }
+            progress.itemDone(0);
         }
     }
 }
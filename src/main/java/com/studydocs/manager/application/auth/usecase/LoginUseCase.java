@@ -41,41 +41,40 @@ public class LoginUseCase {
 
     @Transactional
     public JwtResponse execute(LoginRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new UnauthorizedException(
-                        "Username/password is incorrect", "INVALID_CREDENTIALS", null));
-
+        // Kiểm tra khóa trước (chỉ Redis): tài khoản đang bị brute-force không chạm tới DB
         LocalDateTime unlockTime = loginAttemptService.isAccountLocked(request.getUsername());
         if (unlockTime != null) {
             throw new UnauthorizedException(
                     "Account is locked until " + unlockTime, "ACCOUNT_LOCKED", null);
         }
 
+        User user = userRepository.findByUsername(request.getUsername())
+                .orElseThrow(() -> new UnauthorizedException(
+                        "Username/password is incorrect", "INVALID_CREDENTIALS", null));
+
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()));
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            loginAttemptService.resetFailedAttempts(request.getUsername());
+            boolean databaseDirty = (user.getFailedLoginAttempts() != null && user.getFailedLoginAttempts() > 0)
+                    || user.getLockedUntil() != null;
+            loginAttemptService.resetFailedAttempts(request.getUsername(), databaseDirty);
 
-            String jwt = tokenProvider.generateToken(authentication);
+            String jwt = tokenProvider.generateToken(authentication, user.getId());
             String roleName = "ROLE_" + user.getRole().getName();
             return new JwtResponse(jwt, user.getId(), user.getUsername(), user.getEmail(), roleName);
 
         } catch (org.springframework.security.core.AuthenticationException ex) {
-            boolean isLocked = loginAttemptService.incrementFailedAttempts(request.getUsername());
-            if (isLocked) {
-                LocalDateTime locked = loginAttemptService.isAccountLocked(request.getUsername());
-                logger.warn("Account locked due to multiple failed login attempts - username: {}, unlockTime: {}",
-                        request.getUsername(), locked);
+            LoginAttemptService.FailedAttempt failedAttempt =
+                    loginAttemptService.recordFailedAttempt(request.getUsername());
+            if (failedAttempt.lockedUntil() != null) {
                 throw new UnauthorizedException(
-                        "Account is locked until " + locked + " due to 5 failed login attempts",
+                        "Account is locked until " + failedAttempt.lockedUntil() + " due to 5 failed login attempts",
                         "ACCOUNT_LOCKED", null);
             }
-            if (logger.isDebugEnabled()) {
-                int attempts = loginAttemptService.getFailedAttempts(request.getUsername());
-                logger.debug("Login failed - username: {}, current attempts: {}", request.getUsername(), attempts);
-            }
+            logger.debug("Login failed - username: {}, current attempts: {}",
+                    request.getUsername(), failedAttempt.attempts());
             throw new UnauthorizedException("Username/password is incorrect", "INVALID_CREDENTIALS", null);
         }
     }
@@ -23,6 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Set;
 
 @Service
@@ -75,7 +76,8 @@ public class CreateDocumentUseCase {
                 request.getDisplayName(), request.getFileName(), request.getTitle());
         Set<String> occupiedNormalizedNames = fileManagerNamespaceService.loadNormalizedNames(
                 currentUserId,
-                folder != null ? folder.getId() : null);
+                folder != null ? folder.getId() : null,
+                List.of(requestedDisplayName));
         String resolvedDisplayName = fileManagerNamePolicy.resolveCreateName(
                 requestedDisplayName,
                 occupiedNormalizedNames);
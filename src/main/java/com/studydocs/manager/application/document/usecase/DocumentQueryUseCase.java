@@ -10,9 +10,12 @@ import com.studydocs.manager.repository.DocumentRepository;
 import com.studydocs.manager.service.document.DocumentPermissionService;
 import com.studydocs.manager.service.filemanager.FileManagerResponseMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class DocumentQueryUseCase {
 
@@ -59,29 +62,37 @@ public class DocumentQueryUseCase {
             documents = documentRepository.findByUserIdAndDeletedAtIsNull(currentUserId, pageable);
         }
 
-        return documents.map(fileManagerResponseMapper::toDocumentResponse);
+        return toResponsePage(documents);
     }
 
     public Page<DocumentResponse> getPublicDocuments(String status, Pageable pageable) {
         DocumentStatus docStatus = status != null ? DocumentStatus.valueOf(status) : DocumentStatus.PUBLISHED;
         Page<Document> documents = documentRepository.findByVisibilityAndStatusAndDeletedAtIsNull(
                 DocumentVisibility.PUBLIC, docStatus, pageable);
-        return documents.map(fileManagerResponseMapper::toDocumentResponse);
+        return toResponsePage(documents);
     }
 
     public Page<DocumentResponse> getMyTrash(Pageable pageable) {
         Long currentUserId = permissionService.requireCurrentUserId();
-        return documentRepository
-                .findByUserIdAndStatusAndDeletedAtIsNotNull(currentUserId, DocumentStatus.DELETED, pageable)
-                .map(this::convertToTrashResponse);
+        Page<Document> documents = documentRepository
+                .findByUserIdAndStatusAndDeletedAtIsNotNull(currentUserId, DocumentStatus.DELETED, pageable);
+        Page<DocumentResponse> responses = toResponsePage(documents);
+        for (int i = 0; i < documents.getContent().size(); i++) {
+            markIfFileCleaned(responses.getContent().get(i), documents.getContent().get(i));
+        }
+        return responses;
+    }
+
+    private Page<DocumentResponse> toResponsePage(Page<Document> documents) {
+        List<DocumentResponse> content = fileManagerResponseMapper.toDocumentResponses(documents.getContent());
+        return new PageImpl<>(content, documents.getPageable(), documents.getTotalElements());
     }
 
-    private DocumentResponse convertToTrashResponse(Document document) {
-        DocumentResponse response = fileManagerResponseMapper.toDocumentResponse(document);
-        if (fileManagerResponseMapper.wasFileCleaned(fileManagerResponseMapper.resolveAsset(document))) {
+    private void markIfFileCleaned(DocumentResponse response, Document document) {
+        // Asset đã được fetch cùng trang, không cần resolveAsset (tránh query fallback từng dòng)
+        if (fileManagerResponseMapper.wasFileCleaned(document.getAsset())) {
             response.setReason("FILE_CLEANED");
             response.setMessage("file is not exist");
         }
-        return response;
     }
 }
@@ -5,11 +5,15 @@ import com.studydocs.manager.dto.file.FileDeleteResponse;
 import com.studydocs.manager.dto.file.FileDownloadResult;
 import com.studydocs.manager.dto.file.FileMetadataSummary;
 import com.studydocs.manager.dto.file.FileUploadResponse;
+import com.studydocs.manager.exception.ConflictException;
 import com.studydocs.manager.exception.NotFoundException;
 import com.studydocs.manager.service.file.FileValidationService;
+import com.studydocs.manager.service.file.PresignedUrlCache;
+import com.studydocs.manager.service.file.StorageBlobService;
 import com.studydocs.manager.service.file.TikaMetadataService;
 import com.studydocs.manager.storage.StorageProvider;
 import com.studydocs.manager.storage.StoredFile;
+import com.studydocs.manager.util.TeeInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.InputStreamResource;
@@ -18,9 +22,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
 
 @Service
@@ -58,16 +66,22 @@ public class FileUploadApplicationService {
     private final StorageProperties storageProperties;
     private final TikaMetadataService tikaMetadataService;
     private final FileValidationService fileValidationService;
+    private final StorageBlobService storageBlobService;
+    private final PresignedUrlCache presignedUrlCache;
 
     public FileUploadApplicationService(
             StorageProvider storageProvider,
             StorageProperties storageProperties,
             TikaMetadataService tikaMetadataService,
-            FileValidationService fileValidationService) {
+            FileValidationService fileValidationService,
+            StorageBlobService storageBlobService,
+            PresignedUrlCache presignedUrlCache) {
         this.storageProvider = storageProvider;
         this.storageProperties = storageProperties;
         this.tikaMetadataService = tikaMetadataService;
         this.fileValidationService = fileValidationService;
+        this.storageBlobService = storageBlobService;
+        this.presignedUrlCache = presignedUrlCache;
     }
 
     public FileUploadResponse uploadDocument(MultipartFile file, boolean extractMetadata) throws IOException {
@@ -85,10 +99,27 @@ public class FileUploadApplicationService {
         logger.info("Uploading document: {}, size: {}, extractMetadata: {}", originalFileName, file.getSize(),
                 extractMetadata);
 
+        // Single pass: bytes đọc từ multipart một lần, tee sang SHA-256 và Tika summary
+        TikaMetadataService.SummaryExtraction extraction = extractMetadata ? startSummaryExtraction(file) : null;
+        MessageDigest sha256 = newSha256();
+        StoredFile storedFile;
+        try (InputStream source = file.getInputStream();
+                TeeInputStream tee = new TeeInputStream(source, sha256,
+                        extraction != null ? extraction.sink() : null)) {
+            storedFile = storageProvider.uploadStream(tee, file.getSize(), file.getContentType(),
+                    originalFileName, storageProperties.getDocumentsFolder());
+        } catch (IOException | RuntimeException e) {
+            if (extraction != null) {
+                extraction.abort();
+            }
+            throw e;
+        }
+
         FileMetadataSummary metadata = null;
-        if (extractMetadata) {
+        if (extraction != null) {
+            extraction.complete();
             try {
-                metadata = tikaMetadataService.extractMetadataSummary(file);
+                metadata = extraction.await();
                 logger.debug("Metadata extracted - Title: {}, Pages: {}", metadata.getTitle(), metadata.getPageCount());
             } catch (Exception e) {
                 logger.warn("Failed to extract metadata from {}: {} (Type: {})",
@@ -96,14 +127,22 @@ public class FileUploadApplicationService {
             }
         }
 
-        StoredFile storedFile = storageProvider.uploadFile(file, storageProperties.getDocumentsFolder());
+        // Nội dung đã có trên storage thì dùng lại object cũ thay vì giữ bản trùng
+        String contentHash = HexFormat.of().formatHex(sha256.digest());
+        String objectName = storageBlobService.registerUpload(storedFile.objectName(), contentHash, file.getSize());
+        String fileUrl = storedFile.fileUrl();
+        if (!objectName.equals(storedFile.objectName())) {
+            logger.info("Duplicate content for {}, reusing object {}", originalFileName, objectName);
+            fileUrl = presignedUrlCache.getUrl(objectName);
+        }
 
         FileUploadResponse response = new FileUploadResponse();
-        response.setFileUrl(storedFile.fileUrl());
+        response.setFileUrl(fileUrl);
         response.setFileName(originalFileName);
         response.setFileSize(file.getSize());
         response.setFileType(file.getContentType());
-        response.setObjectName(storedFile.objectName());
+        response.setObjectName(objectName);
+        response.setContentHash(contentHash);
         response.setMetadata(metadata);
 
         logger.info("Document upload SUCCESS: {}", originalFileName);
@@ -170,11 +209,35 @@ public class FileUploadApplicationService {
             throw new NotFoundException("File not found: " + objectName, "FILE_NOT_FOUND", "objectName");
         }
 
+        // Bỏ dòng blob trước (có điều kiện): object còn tham chiếu hoặc đang được upload trùng
+        // giữ lease thì không xóa
+        if (!storageBlobService.forgetUnreferenced(objectName)) {
+            throw new ConflictException("File is still referenced by a document", "FILE_IN_USE", "objectName");
+        }
+
+        presignedUrlCache.invalidate(objectName);
         storageProvider.deleteFile(objectName);
         logger.info("File deletion SUCCESS: {}", objectName);
         return new FileDeleteResponse(true, "File deleted successfully", objectName);
     }
 
+    private TikaMetadataService.SummaryExtraction startSummaryExtraction(MultipartFile file) {
+        try {
+            return tikaMetadataService.startSummaryExtraction(file.getOriginalFilename(), file.getContentType());
+        } catch (Exception e) {
+            logger.warn("Skipping metadata extraction for {}: {}", file.getOriginalFilename(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     private String extractFilename(String objectName) {
         String filename = objectName;
         if (objectName.contains("/")) {
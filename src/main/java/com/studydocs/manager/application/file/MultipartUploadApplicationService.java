@@ -0,0 +1,310 @@
+package com.studydocs.manager.application.file;
+
+import com.studydocs.manager.config.StorageProperties;
+import com.studydocs.manager.dto.file.FileUploadResponse;
+import com.studydocs.manager.dto.file.MultipartUploadInitRequest;
+import com.studydocs.manager.dto.file.MultipartUploadPartResponse;
+import com.studydocs.manager.dto.file.MultipartUploadSessionResponse;
+import com.studydocs.manager.entity.UploadSession;
+import com.studydocs.manager.entity.UploadSessionPart;
+import com.studydocs.manager.enums.UploadSessionStatus;
+import com.studydocs.manager.exception.BadRequestException;
+import com.studydocs.manager.exception.ConflictException;
+import com.studydocs.manager.exception.NotFoundException;
+import com.studydocs.manager.repository.UploadSessionPartRepository;
+import com.studydocs.manager.repository.UploadSessionRepository;
+import com.studydocs.manager.service.file.StorageBlobService;
+import com.studydocs.manager.service.filemanager.FileManagerAccessService;
+import com.studydocs.manager.storage.MultipartUploadTarget;
+import com.studydocs.manager.storage.StorageProvider;
+import com.studydocs.manager.storage.UploadedPart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Resumable multipart upload cho file lớn.
+ * <p>
+ * initiate → tạo multipart upload trên storage và một UploadSession (chia part cố định);
+ * upload part → mỗi part một request, có thể gửi song song và gửi lại; part đã được
+ * storage xác nhận được lưu ở upload_session_parts;
+ * complete → ghép các part; abort → hủy. Client mất kết nối chỉ cần GET session
+ * rồi gửi các part còn thiếu.
+ */
+@Service
+public class MultipartUploadApplicationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultipartUploadApplicationService.class);
+
+    private static final List<String> ALLOWED_CONTENT_TYPES = Arrays.asList(
+            "application/pdf",
+            "application/msword",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.ms-excel",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/vnd.ms-powerpoint",
+            "application/vnd.openxmlformats-officedocument.presentationml.presentation",
+            "text/plain",
+            "video/mp4",
+            "video/webm",
+            "audio/mpeg",
+            "audio/mp4");
+
+    // Giới hạn của S3/MinIO multipart upload
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_PARTS = 10_000;
+    private static final int EXPIRED_SESSION_BATCH_SIZE = 100;
+
+    private final StorageProvider storageProvider;
+    private final StorageProperties storageProperties;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadSessionPartRepository uploadSessionPartRepository;
+    private final FileManagerAccessService fileManagerAccessService;
+    private final StorageBlobService storageBlobService;
+
+    public MultipartUploadApplicationService(
+            StorageProvider storageProvider,
+            StorageProperties storageProperties,
+            UploadSessionRepository uploadSessionRepository,
+            UploadSessionPartRepository uploadSessionPartRepository,
+            FileManagerAccessService fileManagerAccessService,
+            StorageBlobService storageBlobService) {
+        this.storageProvider = storageProvider;
+        this.storageProperties = storageProperties;
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.uploadSessionPartRepository = uploadSessionPartRepository;
+        this.fileManagerAccessService = fileManagerAccessService;
+        this.storageBlobService = storageBlobService;
+    }
+
+    public MultipartUploadSessionResponse initiate(MultipartUploadInitRequest request) throws IOException {
+        Long userId = fileManagerAccessService.requireCurrentUserId();
+
+        String contentType = request.getContentType().trim().toLowerCase(Locale.ROOT);
+        if (!ALLOWED_CONTENT_TYPES.contains(contentType)) {
+            throw new BadRequestException("Invalid file type. Allowed types: " + ALLOWED_CONTENT_TYPES,
+                    "INVALID_FILE_TYPE", "contentType");
+        }
+        if (request.getFileSize() > storageProperties.getMultipartMaxFileSize()) {
+            throw new BadRequestException("File size exceeds maximum allowed size of "
+                    + storageProperties.getMultipartMaxFileSize() + " bytes", "FILE_SIZE_EXCEEDED", "fileSize");
+        }
+
+        long fileSize = request.getFileSize();
+        long partSize = Math.max(MIN_PART_SIZE, storageProperties.getMultipartPartSize());
+        // File rất lớn: nới part size để không vượt quá số part tối đa
+        partSize = Math.max(partSize, (fileSize + MAX_PARTS - 1) / MAX_PARTS);
+        int totalParts = (int) ((fileSize + partSize - 1) / partSize);
+
+        String fileName = request.getFileName().trim();
+        MultipartUploadTarget target = storageProvider.initiateMultipartUpload(
+                contentType, fileName, storageProperties.getDocumentsFolder());
+
+        UploadSession session = new UploadSession();
+        session.setUserId(userId);
+        session.setObjectName(target.objectName());
+        session.setProviderUploadId(target.uploadId());
+        session.setFileName(fileName);
+        session.setContentType(contentType);
+        session.setFileSize(fileSize);
+        session.setPartSize(partSize);
+        session.setTotalParts(totalParts);
+        session.setStatus(UploadSessionStatus.IN_PROGRESS);
+        session.setExpiresAt(LocalDateTime.now().plusHours(storageProperties.getMultipartSessionTtlHours()));
+        UploadSession saved = uploadSessionRepository.save(session);
+
+        logger.info("Multipart upload session {} created: file={}, size={}, parts={}x{}",
+                saved.getId(), fileName, fileSize, totalParts, partSize);
+        return toResponse(saved, List.of());
+    }
+
+    public MultipartUploadSessionResponse getSession(Long uploadId) {
+        UploadSession session = loadOwnedSession(uploadId);
+        return toResponse(session, uploadSessionPartRepository.findBySessionIdOrderByPartNumberAsc(session.getId()));
+    }
+
+    /**
+     * Nhận một part và chuyển thẳng lên storage. Part chỉ được ghi nhận sau khi
+     * storage trả về ETag, nên một part chưa có trong session luôn có thể gửi lại.
+     */
+    public MultipartUploadPartResponse uploadPart(Long uploadId, int partNumber, InputStream body, long contentLength)
+            throws IOException {
+        UploadSession session = loadActiveSession(uploadId);
+        if (partNumber < 1 || partNumber > session.getTotalParts()) {
+            throw new BadRequestException("Part number must be between 1 and " + session.getTotalParts(),
+                    "INVALID_PART_NUMBER", "partNumber");
+        }
+
+        long expectedSize = session.expectedPartSize(partNumber);
+        if (contentLength >= 0 && contentLength != expectedSize) {
+            throw new BadRequestException("Part " + partNumber + " must be exactly " + expectedSize + " bytes",
+                    "INVALID_PART_SIZE", "partNumber");
+        }
+
+        byte[] data = body.readNBytes((int) expectedSize);
+        if (data.length != expectedSize || body.read() != -1) {
+            throw new BadRequestException("Part " + partNumber + " must be exactly " + expectedSize + " bytes",
+                    "INVALID_PART_SIZE", "partNumber");
+        }
+
+        String etag = storageProvider.uploadPart(session.getObjectName(), session.getProviderUploadId(), partNumber,
+                data);
+        UploadSessionPart part = recordPart(session.getId(), partNumber, etag, data.length);
+
+        logger.debug("Multipart upload session {}: part {}/{} stored", session.getId(), partNumber,
+                session.getTotalParts());
+        return new MultipartUploadPartResponse(part.getPartNumber(), part.getSize(), part.getEtag());
+    }
+
+    public FileUploadResponse complete(Long uploadId) throws IOException {
+        UploadSession session = loadActiveSession(uploadId);
+        List<UploadSessionPart> parts = uploadSessionPartRepository.findBySessionIdOrderByPartNumberAsc(session.getId());
+
+        List<Integer> missing = missingParts(session, parts);
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("Upload is incomplete, missing parts: " + missing,
+                    "UPLOAD_INCOMPLETE", "uploadId");
+        }
+
+        List<UploadedPart> uploadedParts = parts.stream()
+                .map(part -> new UploadedPart(part.getPartNumber(), part.getEtag()))
+                .toList();
+        storageProvider.completeMultipartUpload(session.getObjectName(), session.getProviderUploadId(), uploadedParts);
+        closeSession(session, UploadSessionStatus.COMPLETED);
+        // Không có content hash (part đi qua nhiều request) nên không dedup, chỉ đăng ký object
+        storageBlobService.registerUpload(session.getObjectName(), null, session.getFileSize());
+
+        FileUploadResponse response = new FileUploadResponse();
+        response.setFileUrl(storageProvider.generatePresignedUrl(session.getObjectName(),
+                storageProperties.getPresignedUrlExpiryMinutes()));
+        response.setFileName(session.getFileName());
+        response.setFileSize(session.getFileSize());
+        response.setFileType(session.getContentType());
+        response.setObjectName(session.getObjectName());
+
+        logger.info("Multipart upload session {} completed: {}", session.getId(), session.getObjectName());
+        return response;
+    }
+
+    public void abort(Long uploadId) {
+        UploadSession session = loadActiveSession(uploadId);
+        abortSession(session);
+    }
+
+    /**
+     * Abort các phiên bị bỏ dở quá thời hạn để giải phóng part trên storage.
+     */
+    @Scheduled(cron = "${storage.multipart-cleanup-cron:0 20 * * * *}")
+    public void abortExpiredSessions() {
+        List<UploadSession> expired;
+        int aborted = 0;
+        do {
+            expired = uploadSessionRepository.findByStatusAndExpiresAtBeforeOrderByIdAsc(
+                    UploadSessionStatus.IN_PROGRESS, LocalDateTime.now(),
+                    PageRequest.of(0, EXPIRED_SESSION_BATCH_SIZE));
+            expired.forEach(this::abortSession);
+            aborted += expired.size();
+        } while (expired.size() == EXPIRED_SESSION_BATCH_SIZE);
+
+        if (aborted > 0) {
+            logger.info("Aborted {} expired multipart upload sessions", aborted);
+        }
+    }
+
+    private void abortSession(UploadSession session) {
+        try {
+            storageProvider.abortMultipartUpload(session.getObjectName(), session.getProviderUploadId());
+        } catch (IOException e) {
+            // Storage tự dọn multipart upload bỏ dở; session vẫn được đóng
+            logger.warn("Could not abort multipart upload for session {}: {}", session.getId(), e.getMessage());
+        }
+        closeSession(session, UploadSessionStatus.ABORTED);
+        logger.info("Multipart upload session {} aborted", session.getId());
+    }
+
+    private void closeSession(UploadSession session, UploadSessionStatus status) {
+        session.setStatus(status);
+        uploadSessionRepository.save(session);
+        uploadSessionPartRepository.deleteBySessionId(session.getId());
+    }
+
+    private UploadSessionPart recordPart(Long sessionId, int partNumber, String etag, long size) {
+        try {
+            return savePart(sessionId, partNumber, etag, size);
+        } catch (DataIntegrityViolationException e) {
+            // Hai request cùng part number chạy song song: bản ghi sau ghi đè bản trước
+            return savePart(sessionId, partNumber, etag, size);
+        }
+    }
+
+    private UploadSessionPart savePart(Long sessionId, int partNumber, String etag, long size) {
+        UploadSessionPart part = uploadSessionPartRepository.findBySessionIdAndPartNumber(sessionId, partNumber)
+                .orElseGet(() -> new UploadSessionPart(sessionId, partNumber));
+        part.setEtag(etag);
+        part.setSize(size);
+        return uploadSessionPartRepository.save(part);
+    }
+
+    private List<Integer> missingParts(UploadSession session, List<UploadSessionPart> parts) {
+        boolean[] present = new boolean[session.getTotalParts() + 1];
+        for (UploadSessionPart part : parts) {
+            if (part.getPartNumber() >= 1 && part.getPartNumber() <= session.getTotalParts()) {
+                present[part.getPartNumber()] = true;
+            }
+        }
+        List<Integer> missing = new ArrayList<>();
+        for (int partNumber = 1; partNumber <= session.getTotalParts(); partNumber++) {
+            if (!present[partNumber]) {
+                missing.add(partNumber);
+            }
+        }
+        return missing;
+    }
+
+    private UploadSession loadOwnedSession(Long uploadId) {
+        Long userId = fileManagerAccessService.requireCurrentUserId();
+        return uploadSessionRepository.findById(uploadId)
+                .filter(session -> session.getUserId().equals(userId))
+                .orElseThrow(() -> new NotFoundException("Upload session not found", "UPLOAD_SESSION_NOT_FOUND",
+                        "uploadId"));
+    }
+
+    private UploadSession loadActiveSession(Long uploadId) {
+        UploadSession session = loadOwnedSession(uploadId);
+        if (session.getStatus() != UploadSessionStatus.IN_PROGRESS) {
+            throw new ConflictException("Upload session is " + session.getStatus(), "UPLOAD_SESSION_CLOSED",
+                    "uploadId");
+        }
+        if (session.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new ConflictException("Upload session has expired", "UPLOAD_SESSION_EXPIRED", "uploadId");
+        }
+        return session;
+    }
+
+    private MultipartUploadSessionResponse toResponse(UploadSession session, List<UploadSessionPart> parts) {
+        MultipartUploadSessionResponse response = new MultipartUploadSessionResponse();
+        response.setUploadId(session.getId());
+        response.setFileName(session.getFileName());
+        response.setContentType(session.getContentType());
+        response.setFileSize(session.getFileSize());
+        response.setPartSize(session.getPartSize());
+        response.setTotalParts(session.getTotalParts());
+        response.setStatus(session.getStatus());
+        response.setExpiresAt(session.getExpiresAt());
+        response.setUploadedParts(parts.stream()
+                .map(part -> new MultipartUploadPartResponse(part.getPartNumber(), part.getSize(), part.getEtag()))
+                .toList());
+        return response;
+    }
+}
@@ -2,17 +2,20 @@ package com.studydocs.manager.application.filemanager;
 
 import com.studydocs.manager.dto.filemanager.FileManagerDeleteRequest;
 import com.studydocs.manager.dto.filemanager.FileManagerDeleteResponse;
+import com.studydocs.manager.dto.filemanager.FileManagerJobResponse;
 import com.studydocs.manager.dto.filemanager.FileManagerPasteResponse;
 import com.studydocs.manager.dto.filemanager.FileManagerTransferRequest;
 import com.studydocs.manager.dto.folder.FolderDeleteResult;
 import com.studydocs.manager.entity.Document;
 import com.studydocs.manager.entity.Folder;
+import com.studydocs.manager.enums.FileManagerJobType;
 import com.studydocs.manager.application.filemanager.usecase.TransferItemsUseCase;
 import com.studydocs.manager.application.filemanager.usecase.DeleteDocumentUseCase;
 import com.studydocs.manager.application.filemanager.usecase.DeleteFolderUseCase;
 import com.studydocs.manager.application.filemanager.usecase.DeleteItemsUseCase;
 import com.studydocs.manager.application.filemanager.usecase.RestoreDocumentUseCase;
 import com.studydocs.manager.application.filemanager.usecase.RestoreFolderUseCase;
+import com.studydocs.manager.service.filemanager.FileManagerAccessService;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -24,6 +27,8 @@ public class FileManagerApplicationService {
     private final DeleteFolderUseCase deleteFolderUseCase;
     private final RestoreDocumentUseCase restoreDocumentUseCase;
     private final RestoreFolderUseCase restoreFolderUseCase;
+    private final FileManagerJobService fileManagerJobService;
+    private final FileManagerAccessService fileManagerAccessService;
 
     public FileManagerApplicationService(
             TransferItemsUseCase transferItemsUseCase,
@@ -31,25 +36,54 @@ public class FileManagerApplicationService {
             DeleteDocumentUseCase deleteDocumentUseCase,
             DeleteFolderUseCase deleteFolderUseCase,
             RestoreDocumentUseCase restoreDocumentUseCase,
-            RestoreFolderUseCase restoreFolderUseCase) {
+            RestoreFolderUseCase restoreFolderUseCase,
+            FileManagerJobService fileManagerJobService,
+            FileManagerAccessService fileManagerAccessService) {
         this.transferItemsUseCase = transferItemsUseCase;
         this.deleteItemsUseCase = deleteItemsUseCase;
         this.deleteDocumentUseCase = deleteDocumentUseCase;
         this.deleteFolderUseCase = deleteFolderUseCase;
         this.restoreDocumentUseCase = restoreDocumentUseCase;
         this.restoreFolderUseCase = restoreFolderUseCase;
+        this.fileManagerJobService = fileManagerJobService;
+        this.fileManagerAccessService = fileManagerAccessService;
     }
 
     public FileManagerPasteResponse copy(FileManagerTransferRequest request) {
-        return transferItemsUseCase.copy(request);
+        return transferItemsUseCase.copy(request, FileManagerProgress.NONE);
     }
 
     public FileManagerPasteResponse move(FileManagerTransferRequest request) {
-        return transferItemsUseCase.move(request);
+        return transferItemsUseCase.move(request, FileManagerProgress.NONE);
     }
 
     public FileManagerDeleteResponse delete(FileManagerDeleteRequest request) {
-        return deleteItemsUseCase.execute(request);
+        return deleteItemsUseCase.execute(request, FileManagerProgress.NONE);
+    }
+
+    public FileManagerJobResponse submitCopy(FileManagerTransferRequest request) {
+        return fileManagerJobService.submit(
+                fileManagerAccessService.requireCurrentUserId(),
+                FileManagerJobType.COPY,
+                progress -> transferItemsUseCase.copy(request, progress));
+    }
+
+    public FileManagerJobResponse submitMove(FileManagerTransferRequest request) {
+        return fileManagerJobService.submit(
+                fileManagerAccessService.requireCurrentUserId(),
+                FileManagerJobType.MOVE,
+                progress -> transferItemsUseCase.move(request, progress));
+    }
+
+    public FileManagerJobResponse submitDelete(FileManagerDeleteRequest request) {
+        return fileManagerJobService.submit(
+                fileManagerAccessService.requireCurrentUserId(),
+                FileManagerJobType.DELETE,
+                progress -> deleteItemsUseCase.execute(request, progress));
+    }
+
+    public FileManagerJobResponse getJob(String jobId) {
+        return fileManagerJobService.getJob(jobId, fileManagerAccessService.requireCurrentUserId());
     }
 
     public void deleteDocument(Long id) {
@@ -0,0 +1,205 @@
+package com.studydocs.manager.application.filemanager;
+
+import com.studydocs.manager.config.FileManagerJobProperties;
+import com.studydocs.manager.dto.filemanager.FileManagerJobResponse;
+import com.studydocs.manager.enums.FileManagerJobStatus;
+import com.studydocs.manager.enums.FileManagerJobType;
+import com.studydocs.manager.exception.AppException;
+import com.studydocs.manager.exception.NotFoundException;
+import com.studydocs.manager.exception.ServiceUnavailableException;
+import com.studydocs.manager.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * FileManagerJobService - Chạy copy / move / delete / purge lớn trên pool riêng
+ *
+ * - Submit trả về job id ngay; client polling GET /api/file-manager/jobs/{jobId}.
+ * - Mỗi user tối đa file-manager.jobs.max-active-per-user job chưa kết thúc.
+ * - Job chạy với Authentication của request đã submit, nên use case vẫn kiểm tra
+ *   quyền như khi gọi đồng bộ; lỗi nghiệp vụ (AppException) được trả qua errorCode.
+ * - Trạng thái job giữ trong bộ nhớ của instance đã nhận job, kết quả được giữ
+ *   file-manager.jobs.retention-minutes sau khi job kết thúc.
+ */
+@Service
+public class FileManagerJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileManagerJobService.class);
+
+    private final Executor fileManagerJobExecutor;
+    private final FileManagerJobProperties fileManagerJobProperties;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> activeJobsByOwner = new HashMap<>();
+
+    public FileManagerJobService(
+            @Qualifier("fileManagerJobExecutor") Executor fileManagerJobExecutor,
+            FileManagerJobProperties fileManagerJobProperties) {
+        this.fileManagerJobExecutor = fileManagerJobExecutor;
+        this.fileManagerJobProperties = fileManagerJobProperties;
+    }
+
+    public FileManagerJobResponse submit(
+            Long ownerId,
+            FileManagerJobType type,
+            Function<FileManagerProgress, Object> work) {
+        reserveSlot(ownerId);
+
+        Job job = new Job(UUID.randomUUID().toString(), ownerId, type);
+        jobs.put(job.id, job);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        try {
+            fileManagerJobExecutor.execute(() -> run(job, authentication, work));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            releaseSlot(ownerId);
+            throw new ServiceUnavailableException(
+                    "Too many file manager jobs are queued, please try again later",
+                    "FILE_MANAGER_JOB_QUEUE_FULL",
+                    null);
+        }
+        return toResponse(job);
+    }
+
+    public FileManagerJobResponse getJob(String jobId, Long requesterId) {
+        Job job = jobId != null ? jobs.get(jobId) : null;
+        if (job == null || !Objects.equals(job.ownerId, requesterId)) {
+            throw new NotFoundException("Job not found", "FILE_MANAGER_JOB_NOT_FOUND", "jobId");
+        }
+        return toResponse(job);
+    }
+
+    @Scheduled(fixedDelayString = "${file-manager.jobs.cleanup-interval-ms:60000}")
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(fileManagerJobProperties.getRetentionMinutes());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private void run(Job job, Authentication authentication, Function<FileManagerProgress, Object> work) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+
+        job.startedAt = LocalDateTime.now();
+        job.status = FileManagerJobStatus.RUNNING;
+        try {
+            job.result = work.apply(job);
+            job.finish(FileManagerJobStatus.SUCCEEDED);
+        } catch (AppException e) {
+            job.errorCode = e.getCode();
+            job.errorMessage = e.getMessage();
+            job.finish(FileManagerJobStatus.FAILED);
+        } catch (Throwable e) {
+            // Kể cả Error (vd. OutOfMemoryError): job không được kẹt ở RUNNING cho client polling
+            logger.error("File manager job {} ({}) failed: {}", job.id, job.type, e.getMessage(), e);
+            job.errorCode = "FILE_MANAGER_JOB_FAILED";
+            job.errorMessage = "The operation failed unexpectedly";
+            job.finish(FileManagerJobStatus.FAILED);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+            releaseSlot(job.ownerId);
+        }
+    }
+
+    private void reserveSlot(Long ownerId) {
+        int limit = Math.max(1, fileManagerJobProperties.getMaxActivePerUser());
+        synchronized (activeJobsByOwner) {
+            int active = activeJobsByOwner.getOrDefault(ownerId, 0);
+            if (active >= limit) {
+                throw new TooManyRequestsException(
+                        "You already have " + active + " file manager job(s) running",
+                        "FILE_MANAGER_JOB_LIMIT",
+                        null);
+            }
+            activeJobsByOwner.put(ownerId, active + 1);
+        }
+    }
+
+    private void releaseSlot(Long ownerId) {
+        synchronized (activeJobsByOwner) {
+            activeJobsByOwner.computeIfPresent(ownerId, (id, active) -> active > 1 ? active - 1 : null);
+        }
+    }
+
+    private FileManagerJobResponse toResponse(Job job) {
+        FileManagerJobResponse response = new FileManagerJobResponse();
+        response.setJobId(job.id);
+        response.setType(job.type);
+        response.setStatus(job.status);
+        response.setTotalItems(job.totalItems);
+        response.setCompletedItems(job.completedItems.get());
+        // Chỉ copy đo được dung lượng; move / delete / purge không có con số bytes có nghĩa
+        if (job.type == FileManagerJobType.COPY) {
+            response.setBytesProcessed(job.bytesProcessed.get());
+        }
+        response.setCreatedAt(job.createdAt);
+        response.setStartedAt(job.startedAt);
+        response.setFinishedAt(job.finishedAt);
+        if (job.status == FileManagerJobStatus.SUCCEEDED) {
+            response.setResult(job.result);
+        }
+        response.setErrorCode(job.errorCode);
+        response.setErrorMessage(job.errorMessage);
+        return response;
+    }
+
+    private static final class Job implements FileManagerProgress {
+        private final String id;
+        private final Long ownerId;
+        private final FileManagerJobType type;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicInteger completedItems = new AtomicInteger();
+        private final AtomicLong bytesProcessed = new AtomicLong();
+        private volatile FileManagerJobStatus status = FileManagerJobStatus.QUEUED;
+        private volatile int totalItems;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile Object result;
+        private volatile String errorCode;
+        private volatile String errorMessage;
+
+        private Job(String id, Long ownerId, FileManagerJobType type) {
+            this.id = id;
+            this.ownerId = ownerId;
+            this.type = type;
+        }
+
+        @Override
+        public void start(int totalItems) {
+            this.totalItems = totalItems;
+        }
+
+        @Override
+        public void itemDone(long bytes) {
+            completedItems.incrementAndGet();
+            if (bytes > 0) {
+                bytesProcessed.addAndGet(bytes);
+            }
+        }
+
+        private void finish(FileManagerJobStatus finalStatus) {
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+    }
+}
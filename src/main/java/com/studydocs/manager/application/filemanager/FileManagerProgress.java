@@ -0,0 +1,28 @@
+package com.studydocs.manager.application.filemanager;
+
+/**
+ * Callback báo tiến độ của một thao tác file manager (copy / move / delete / purge).
+ * Thao tác chạy đồng bộ dùng {@link #NONE}; job chạy nền ghi lại để client polling.
+ */
+public interface FileManagerProgress {
+
+    FileManagerProgress NONE = new FileManagerProgress() {
+        @Override
+        public void start(int totalItems) {
+        }
+
+        @Override
+        public void itemDone(long bytes) {
+        }
+    };
+
+    /**
+     * Gọi một lần khi đã biết số item cần xử lý.
+     */
+    void start(int totalItems);
+
+    /**
+     * Một item đã xong; {@code bytes} là tổng dung lượng file thuộc item đó (0 nếu không có).
+     */
+    void itemDone(long bytes);
+}
@@ -1,6 +1,6 @@
 package com.studydocs.manager.application.filemanager.usecase;
 
-import com.studydocs.manager.config.StorageProperties;
+import com.studydocs.manager.application.filemanager.FileManagerProgress;
 import com.studydocs.manager.dto.filemanager.FileManagerPasteResponse;
 import com.studydocs.manager.dto.filemanager.FileManagerPasteResult;
 import com.studydocs.manager.entity.Document;
@@ -16,44 +16,47 @@ import com.studydocs.manager.enums.DocumentEventType;
 import com.studydocs.manager.enums.DocumentStatus;
 import com.studydocs.manager.enums.DocumentVisibility;
 import com.studydocs.manager.enums.FileManagerItemType;
-import com.studydocs.manager.exception.ServiceUnavailableException;
 import com.studydocs.manager.repository.DocumentAssetRepository;
 import com.studydocs.manager.repository.DocumentRepository;
+import com.studydocs.manager.repository.DocumentSubjectRepository;
+import com.studydocs.manager.repository.DocumentTagRepository;
 import com.studydocs.manager.repository.FolderRepository;
-import com.studydocs.manager.service.filemanager.FileManagerAssetStateService;
+import com.studydocs.manager.service.file.StorageBlobService;
 import com.studydocs.manager.service.filemanager.FileManagerEventService;
 import com.studydocs.manager.service.filemanager.FileManagerNamePolicy;
 import com.studydocs.manager.service.filemanager.FileManagerNamespaceService;
 import com.studydocs.manager.service.filemanager.FileManagerResponseFactory;
 import com.studydocs.manager.service.filemanager.FileManagerSelection;
+import com.studydocs.manager.service.filemanager.FileManagerTreeService;
 import com.studydocs.manager.service.folder.FolderEventService;
-import com.studydocs.manager.storage.StorageProvider;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.studydocs.manager.util.Batches;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
 public class CopyItemsUseCase {
 
-    private static final Logger logger = LoggerFactory.getLogger(CopyItemsUseCase.class);
+    // Giới hạn số id trong mỗi mệnh đề IN
+    private static final int BULK_BATCH_SIZE = 1_000;
 
     private final FolderRepository folderRepository;
     private final DocumentRepository documentRepository;
     private final DocumentAssetRepository documentAssetRepository;
+    private final DocumentSubjectRepository documentSubjectRepository;
+    private final DocumentTagRepository documentTagRepository;
     private final FileManagerNamePolicy fileManagerNamePolicy;
     private final FileManagerNamespaceService fileManagerNamespaceService;
-    private final StorageProvider storageProvider;
-    private final StorageProperties storageProperties;
-    private final FileManagerAssetStateService fileManagerAssetStateService;
+    private final StorageBlobService storageBlobService;
+    private final FileManagerTreeService fileManagerTreeService;
     private final FileManagerEventService fileManagerEventService;
     private final FileManagerResponseFactory fileManagerResponseFactory;
     private final FolderEventService folderEventService;
@@ -62,86 +65,94 @@ public class CopyItemsUseCase {
             FolderRepository folderRepository,
             DocumentRepository documentRepository,
             DocumentAssetRepository documentAssetRepository,
+            DocumentSubjectRepository documentSubjectRepository,
+            DocumentTagRepository documentTagRepository,
             FileManagerNamePolicy fileManagerNamePolicy,
             FileManagerNamespaceService fileManagerNamespaceService,
-            StorageProvider storageProvider,
-            StorageProperties storageProperties,
-            FileManagerAssetStateService fileManagerAssetStateService,
+            StorageBlobService storageBlobService,
+            FileManagerTreeService fileManagerTreeService,
             FileManagerEventService fileManagerEventService,
             FileManagerResponseFactory fileManagerResponseFactory,
             FolderEventService folderEventService) {
         this.folderRepository = folderRepository;
         this.documentRepository = documentRepository;
         this.documentAssetRepository = documentAssetRepository;
+        this.documentSubjectRepository = documentSubjectRepository;
+        this.documentTagRepository = documentTagRepository;
         this.fileManagerNamePolicy = fileManagerNamePolicy;
         this.fileManagerNamespaceService = fileManagerNamespaceService;
-        this.storageProvider = storageProvider;
-        this.storageProperties = storageProperties;
-        this.fileManagerAssetStateService = fileManagerAssetStateService;
+        this.storageBlobService = storageBlobService;
+        this.fileManagerTreeService = fileManagerTreeService;
         this.fileManagerEventService = fileManagerEventService;
         this.fileManagerResponseFactory = fileManagerResponseFactory;
         this.folderEventService = folderEventService;
     }
 
-    public FileManagerPasteResponse execute(List<FileManagerSelection> selections, Folder targetFolder, User actor) {
+    public FileManagerPasteResponse execute(
+            List<FileManagerSelection> selections,
+            Folder targetFolder,
+            User actor,
+            FileManagerProgress progress) {
+        List<String> preferredNames = selections.stream()
+                .map(selection -> selection.type() == FileManagerItemType.FOLDER
+                        ? selection.folder().getName()
+                        : fileManagerNamePolicy.effectiveDocumentName(selection.document()))
+                .toList();
         Set<String> occupiedNames = new LinkedHashSet<>(fileManagerNamespaceService.loadNormalizedNames(
                 actor.getId(),
-                targetFolder != null ? targetFolder.getId() : null));
+                targetFolder != null ? targetFolder.getId() : null,
+                preferredNames));
         List<CopyPlan> plans = new ArrayList<>();
 
-        for (FileManagerSelection selection : selections) {
-            String preferredName = selection.type() == FileManagerItemType.FOLDER
-                    ? selection.folder().getName()
-                    : fileManagerNamePolicy.effectiveDocumentName(selection.document());
+        for (int i = 0; i < selections.size(); i++) {
+            FileManagerSelection selection = selections.get(i);
+            String preferredName = preferredNames.get(i);
             String finalName = fileManagerNamePolicy.resolveCopyName(preferredName, occupiedNames);
             occupiedNames.add(fileManagerNamePolicy.normalize(finalName));
             plans.add(new CopyPlan(selection, finalName));
         }
 
-        StorageCopyTracker storageCopyTracker = new StorageCopyTracker();
+        progress.start(plans.size());
         TransferCounters counters = new TransferCounters();
         List<FileManagerPasteResult> results = new ArrayList<>();
-        try {
-            for (CopyPlan plan : plans) {
-                if (plan.selection().type() == FileManagerItemType.FOLDER) {
-                    Folder copiedRoot = cloneFolderTree(
-                            plan.selection().folder(),
-                            targetFolder,
-                            plan.finalName(),
-                            actor,
-                            storageCopyTracker,
-                            counters);
-                    results.add(fileManagerResponseFactory.buildResult(
-                            FileManagerItemType.FOLDER,
-                            plan.selection().folder().getId(),
-                            copiedRoot.getId(),
-                            copiedRoot.getName(),
-                            targetFolder));
-                    // audit_logs: admin oversight (actor, targetFolder, IP)
-                    fileManagerEventService.logFolderAudit(actor, copiedRoot, AuditAction.COPY_FOLDER, targetFolder);
-                    // folder_events: history timeline của folder bản sao
-                    folderEventService.logCopied(copiedRoot, plan.selection().folder());
-                    continue;
-                }
-
-                Document copiedDocument = cloneDocument(
-                        plan.selection().document(),
+        for (CopyPlan plan : plans) {
+            long bytesBefore = counters.byteCount;
+            if (plan.selection().type() == FileManagerItemType.FOLDER) {
+                Folder copiedRoot = cloneFolderTree(
+                        plan.selection().folder(),
                         targetFolder,
                         plan.finalName(),
                         actor,
-                        storageCopyTracker);
-                counters.documentCount++;
+                        counters);
                 results.add(fileManagerResponseFactory.buildResult(
-                        FileManagerItemType.DOCUMENT,
-                        plan.selection().document().getId(),
-                        copiedDocument.getId(),
-                        fileManagerNamePolicy.effectiveDocumentName(copiedDocument),
+                        FileManagerItemType.FOLDER,
+                        plan.selection().folder().getId(),
+                        copiedRoot.getId(),
+                        copiedRoot.getName(),
                         targetFolder));
-                fileManagerEventService.logDocumentAudit(actor, copiedDocument, AuditAction.COPY_DOCUMENT, targetFolder);
+                // audit_logs: admin oversight (actor, targetFolder, IP)
+                fileManagerEventService.logFolderAudit(actor, copiedRoot, AuditAction.COPY_FOLDER, targetFolder);
+                // folder_events: history timeline của folder bản sao
+                folderEventService.logCopied(copiedRoot, plan.selection().folder());
+                progress.itemDone(counters.byteCount - bytesBefore);
+                continue;
             }
-        } catch (RuntimeException ex) {
-            storageCopyTracker.cleanup(storageProvider);
-            throw ex;
+
+            Document copiedDocument = cloneDocument(
+                    plan.selection().document(),
+                    targetFolder,
+                    plan.finalName(),
+                    actor);
+            counters.documentCount++;
+            counters.byteCount += assetSize(copiedDocument.getAsset());
+            results.add(fileManagerResponseFactory.buildResult(
+                    FileManagerItemType.DOCUMENT,
+                    plan.selection().document().getId(),
+                    copiedDocument.getId(),
+                    fileManagerNamePolicy.effectiveDocumentName(copiedDocument),
+                    targetFolder));
+            fileManagerEventService.logDocumentAudit(actor, copiedDocument, AuditAction.COPY_DOCUMENT, targetFolder);
+            progress.itemDone(counters.byteCount - bytesBefore);
         }
 
         return fileManagerResponseFactory.buildResponse(
@@ -152,13 +163,62 @@ public class CopyItemsUseCase {
                 results);
     }
 
+    /**
+     * Copy cả cây trong một lượt metadata: cây nguồn, document, asset, subject và tag được
+     * load theo tập id ngay từ đầu, sau đó chỉ còn các câu INSERT (folder từng cái vì cần id
+     * làm parent, document của mỗi folder bằng một lần saveAll).
+     */
     private Folder cloneFolderTree(
-            Folder sourceFolder,
+            Folder sourceRoot,
             Folder targetParent,
             String finalName,
             User actor,
-            StorageCopyTracker storageCopyTracker,
             TransferCounters counters) {
+        List<Folder> sourceFolders = fileManagerTreeService.collectActiveFolderTree(sourceRoot);
+        Map<Long, List<Folder>> childFoldersByParentId = new HashMap<>();
+        for (Folder folder : sourceFolders) {
+            if (folder != sourceRoot && folder.getParent() != null) {
+                childFoldersByParentId.computeIfAbsent(folder.getParent().getId(), id -> new ArrayList<>()).add(folder);
+            }
+        }
+        childFoldersByParentId.values().forEach(children -> children.sort(
+                Comparator.comparing(Folder::getSortOrder, Comparator.nullsFirst(Comparator.naturalOrder()))
+                        .thenComparing(Folder::getId)));
+
+        List<Long> sourceFolderIds = sourceFolders.stream()
+                .map(Folder::getId)
+                .toList();
+        List<Document> sourceDocuments = new ArrayList<>();
+        for (List<Long> batch : Batches.partition(sourceFolderIds, BULK_BATCH_SIZE)) {
+            sourceDocuments.addAll(documentRepository.findByFolderIdInAndDeletedAtIsNull(batch));
+        }
+        Map<Long, List<Document>> documentsByFolderId = new HashMap<>();
+        for (Document document : sourceDocuments) {
+            documentsByFolderId.computeIfAbsent(document.getFolder().getId(), id -> new ArrayList<>()).add(document);
+        }
+        documentsByFolderId.values().forEach(documents -> documents.sort(Comparator.comparing(Document::getId)));
+
+        SourceDocumentData sourceData = loadSourceDocumentData(sourceDocuments);
+        for (DocumentAsset asset : sourceData.assets().values()) {
+            counters.byteCount += assetSize(asset);
+        }
+        List<String> acquiredObjectNames = new ArrayList<>();
+        Folder copiedRoot = cloneFolder(sourceRoot, targetParent, finalName, actor, counters,
+                childFoldersByParentId, documentsByFolderId, sourceData, acquiredObjectNames);
+        storageBlobService.acquireAll(acquiredObjectNames);
+        return copiedRoot;
+    }
+
+    private Folder cloneFolder(
+            Folder sourceFolder,
+            Folder targetParent,
+            String finalName,
+            User actor,
+            TransferCounters counters,
+            Map<Long, List<Folder>> childFoldersByParentId,
+            Map<Long, List<Document>> documentsByFolderId,
+            SourceDocumentData sourceData,
+            List<String> acquiredObjectNames) {
         Folder clone = new Folder();
         clone.setUser(actor);
         clone.setParent(targetParent);
@@ -167,25 +227,24 @@ public class CopyItemsUseCase {
         Folder savedFolder = folderRepository.save(clone);
         counters.folderCount++;
 
-        List<Folder> childFolders = folderRepository.findByParentIdAndDeletedAtIsNullOrderBySortOrder(sourceFolder.getId());
-        List<Document> childDocuments = documentRepository.findAllByFolderIdAndDeletedAtIsNull(sourceFolder.getId()).stream()
-                .sorted(Comparator.comparing(Document::getId))
-                .toList();
-
         Set<String> occupiedNames = new LinkedHashSet<>();
-        for (Folder childFolder : childFolders) {
+        for (Folder childFolder : childFoldersByParentId.getOrDefault(sourceFolder.getId(), List.of())) {
             String childName = fileManagerNamePolicy.resolveCopyName(childFolder.getName(), occupiedNames);
             occupiedNames.add(fileManagerNamePolicy.normalize(childName));
-            cloneFolderTree(childFolder, savedFolder, childName, actor, storageCopyTracker, counters);
+            cloneFolder(childFolder, savedFolder, childName, actor, counters,
+                    childFoldersByParentId, documentsByFolderId, sourceData, acquiredObjectNames);
         }
 
+        List<Document> childDocuments = documentsByFolderId.getOrDefault(sourceFolder.getId(), List.of());
+        List<String> finalDocumentNames = new ArrayList<>(childDocuments.size());
         for (Document childDocument : childDocuments) {
             String preferredName = fileManagerNamePolicy.effectiveDocumentName(childDocument);
             String finalDocumentName = fileManagerNamePolicy.resolveCopyName(preferredName, occupiedNames);
             occupiedNames.add(fileManagerNamePolicy.normalize(finalDocumentName));
-            cloneDocument(childDocument, savedFolder, finalDocumentName, actor, storageCopyTracker);
-            counters.documentCount++;
+            finalDocumentNames.add(finalDocumentName);
         }
+        cloneDocuments(childDocuments, finalDocumentNames, savedFolder, actor, sourceData, acquiredObjectNames);
+        counters.documentCount += childDocuments.size();
 
         return savedFolder;
     }
@@ -194,8 +253,66 @@ public class CopyItemsUseCase {
             Document sourceDocument,
             Folder targetFolder,
             String finalName,
+            User actor) {
+        List<String> acquiredObjectNames = new ArrayList<>();
+        List<Document> copied = cloneDocuments(
+                List.of(sourceDocument),
+                List.of(finalName),
+                targetFolder,
+                actor,
+                loadSourceDocumentData(List.of(sourceDocument)),
+                acquiredObjectNames);
+        storageBlobService.acquireAll(acquiredObjectNames);
+        return copied.get(0);
+    }
+
+    /**
+     * Tạo bản copy cho các document cùng folder đích. Object trên storage được dùng
+     * chung với bản gốc: tên object được gom vào {@code acquiredObjectNames} để caller
+     * tăng reference count một lần cho cả lượt copy.
+     */
+    private List<Document> cloneDocuments(
+            List<Document> sourceDocuments,
+            List<String> finalNames,
+            Folder targetFolder,
+            User actor,
+            SourceDocumentData sourceData,
+            List<String> acquiredObjectNames) {
+        if (sourceDocuments.isEmpty()) {
+            return List.of();
+        }
+
+        List<Document> clones = new ArrayList<>(sourceDocuments.size());
+        for (int i = 0; i < sourceDocuments.size(); i++) {
+            clones.add(buildClone(sourceDocuments.get(i), finalNames.get(i), targetFolder, actor, sourceData));
+        }
+        List<Document> savedDocuments = documentRepository.saveAll(clones);
+
+        List<DocumentAsset> copiedAssets = new ArrayList<>();
+        for (int i = 0; i < sourceDocuments.size(); i++) {
+            DocumentAsset copiedAsset = copyAsset(sourceData.assets().get(sourceDocuments.get(i).getId()),
+                    acquiredObjectNames);
+            if (copiedAsset != null) {
+                Document saved = savedDocuments.get(i);
+                copiedAsset.setDocument(saved);
+                saved.setAsset(copiedAsset);
+                copiedAssets.add(copiedAsset);
+            }
+        }
+        documentAssetRepository.saveAll(copiedAssets);
+
+        for (Document saved : savedDocuments) {
+            fileManagerEventService.logDocumentEvent(saved, DocumentEventType.COPIED, "Document copied");
+        }
+        return savedDocuments;
+    }
+
+    private Document buildClone(
+            Document sourceDocument,
+            String finalName,
+            Folder targetFolder,
             User actor,
-            StorageCopyTracker storageCopyTracker) {
+            SourceDocumentData sourceData) {
         Document clone = new Document();
         clone.setUser(actor);
         clone.setTitle(sourceDocument.getTitle());
@@ -212,7 +329,7 @@ public class CopyItemsUseCase {
         clone.setFolder(targetFolder);
         clone.setCreatedBy(actor);
 
-        for (DocumentSubject sourceSubject : sourceDocument.getDocumentSubjects()) {
+        for (DocumentSubject sourceSubject : sourceData.subjects().getOrDefault(sourceDocument.getId(), List.of())) {
             DocumentSubject copiedSubject = new DocumentSubject();
             copiedSubject.setDocument(clone);
             copiedSubject.setSubject(sourceSubject.getSubject());
@@ -220,7 +337,7 @@ public class CopyItemsUseCase {
         }
 
         Set<Long> seenTagIds = new HashSet<>();
-        for (DocumentTag sourceTag : sourceDocument.getDocumentTags()) {
+        for (DocumentTag sourceTag : sourceData.tags().getOrDefault(sourceDocument.getId(), List.of())) {
             Tag tag = sourceTag.getTag();
             if (tag == null || tag.getId() == null || !seenTagIds.add(tag.getId())) {
                 continue;
@@ -230,22 +347,14 @@ public class CopyItemsUseCase {
             copiedTag.setTag(tag);
             clone.getDocumentTags().add(copiedTag);
         }
-
-        Document saved = documentRepository.save(clone);
-
-        DocumentAsset copiedAsset = copyAsset(sourceDocument, finalName, storageCopyTracker);
-        if (copiedAsset != null) {
-            copiedAsset.setDocument(saved);
-            DocumentAsset savedAsset = documentAssetRepository.save(copiedAsset);
-            saved.setAsset(savedAsset);
-        }
-
-        fileManagerEventService.logDocumentEvent(saved, DocumentEventType.COPIED, "Document copied");
-        return saved;
+        return clone;
     }
 
-    private DocumentAsset copyAsset(Document sourceDocument, String finalName, StorageCopyTracker storageCopyTracker) {
-        DocumentAsset sourceAsset = fileManagerAssetStateService.resolveAsset(sourceDocument);
+    /**
+     * Bản copy dùng chung object trên storage với bản gốc (chỉ thêm tham chiếu),
+     * nên copy cả cây folder không sinh thêm I/O lên MinIO.
+     */
+    private DocumentAsset copyAsset(DocumentAsset sourceAsset, List<String> acquiredObjectNames) {
         if (sourceAsset == null) {
             return null;
         }
@@ -257,53 +366,60 @@ public class CopyItemsUseCase {
         copiedAsset.setThumbnailObjectName(sourceAsset.getThumbnailObjectName());
 
         if (sourceAsset.getObjectName() != null && !sourceAsset.getObjectName().isBlank()) {
-            try {
-                String preferredFilename = sourceAsset.getFileName() != null && !sourceAsset.getFileName().isBlank()
-                        ? sourceAsset.getFileName()
-                        : finalName;
-                String copiedObjectName = storageProvider.copyFile(
-                        sourceAsset.getObjectName(),
-                        storageProperties.getDocumentsFolder(),
-                        preferredFilename);
-                storageCopyTracker.track(copiedObjectName);
-                copiedAsset.setObjectName(copiedObjectName);
-            } catch (IOException e) {
-                throw new ServiceUnavailableException(
-                        "Failed to copy document file from storage",
-                        "DOCUMENT_COPY_STORAGE_FAILED",
-                        "items");
-            }
+            acquiredObjectNames.add(sourceAsset.getObjectName());
+            copiedAsset.setObjectName(sourceAsset.getObjectName());
         } else {
             copiedAsset.setObjectName(null);
         }
+        acquiredObjectNames.add(sourceAsset.getThumbnailObjectName());
 
         return copiedAsset;
     }
 
-    private record CopyPlan(FileManagerSelection selection, String finalName) {
+    private SourceDocumentData loadSourceDocumentData(List<Document> sourceDocuments) {
+        if (sourceDocuments.isEmpty()) {
+            return new SourceDocumentData(Map.of(), Map.of(), Map.of());
+        }
+
+        List<Long> documentIds = sourceDocuments.stream()
+                .map(Document::getId)
+                .toList();
+        // Asset đã được load cùng document (entity graph / one-to-one)
+        Map<Long, DocumentAsset> assets = new HashMap<>();
+        for (Document document : sourceDocuments) {
+            if (document.getAsset() != null) {
+                assets.put(document.getId(), document.getAsset());
+            }
+        }
+        Map<Long, List<DocumentSubject>> subjects = new HashMap<>();
+        Map<Long, List<DocumentTag>> tags = new HashMap<>();
+        for (List<Long> batch : Batches.partition(documentIds, BULK_BATCH_SIZE)) {
+            for (DocumentSubject subject : documentSubjectRepository.findWithSubjectByDocumentIdIn(batch)) {
+                subjects.computeIfAbsent(subject.getDocument().getId(), id -> new ArrayList<>()).add(subject);
+            }
+            for (DocumentTag tag : documentTagRepository.findWithTagByDocumentIdIn(batch)) {
+                tags.computeIfAbsent(tag.getDocument().getId(), id -> new ArrayList<>()).add(tag);
+            }
+        }
+        return new SourceDocumentData(assets, subjects, tags);
     }
 
-    private static final class TransferCounters {
-        private int folderCount;
-        private int documentCount;
+    private static long assetSize(DocumentAsset asset) {
+        return asset != null && asset.getFileSize() != null ? asset.getFileSize() : 0L;
     }
 
-    private static final class StorageCopyTracker {
-        private final List<String> createdObjectNames = new ArrayList<>();
+    private record SourceDocumentData(
+            Map<Long, DocumentAsset> assets,
+            Map<Long, List<DocumentSubject>> subjects,
+            Map<Long, List<DocumentTag>> tags) {
+    }
 
-        private void track(String objectName) {
-            createdObjectNames.add(objectName);
-        }
+    private record CopyPlan(FileManagerSelection selection, String finalName) {
+    }
 
-        private void cleanup(StorageProvider storageProvider) {
-            for (int i = createdObjectNames.size() - 1; i >= 0; i--) {
-                String objectName = createdObjectNames.get(i);
-                try {
-                    storageProvider.deleteFile(objectName);
-                } catch (IOException e) {
-                    logger.warn("Failed to clean copied object after rollback: {}", objectName, e);
-                }
-            }
-        }
+    private static final class TransferCounters {
+        private int folderCount;
+        private int documentCount;
+        private long byteCount;
     }
 }
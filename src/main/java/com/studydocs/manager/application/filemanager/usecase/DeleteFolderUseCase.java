@@ -1,23 +1,29 @@
 package com.studydocs.manager.application.filemanager.usecase;
 
 import com.studydocs.manager.dto.folder.FolderDeleteResult;
-import com.studydocs.manager.entity.Document;
 import com.studydocs.manager.entity.Folder;
 import com.studydocs.manager.entity.User;
+import com.studydocs.manager.enums.DocumentStatus;
 import com.studydocs.manager.repository.DocumentRepository;
 import com.studydocs.manager.repository.FolderRepository;
 import com.studydocs.manager.service.filemanager.FileManagerAccessService;
 import com.studydocs.manager.service.filemanager.FileManagerEventService;
 import com.studydocs.manager.service.filemanager.FileManagerTreeService;
 import com.studydocs.manager.service.folder.FolderEventService;
+import com.studydocs.manager.util.Batches;
+import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class DeleteFolderUseCase {
 
+    // Giới hạn số id trong mỗi mệnh đề IN
+    private static final int BULK_BATCH_SIZE = 1_000;
+
     private final FolderRepository folderRepository;
     private final DocumentRepository documentRepository;
     private final FileManagerTreeService fileManagerTreeService;
@@ -40,34 +46,43 @@ public class DeleteFolderUseCase {
         this.folderEventService = folderEventService;
     }
 
+    @Transactional
     public FolderDeleteResult execute(Long id) {
         Long currentUserId = fileManagerAccessService.requireCurrentUserId();
         Folder folder = fileManagerAccessService.findActiveFolderForUser(id, currentUserId);
         User actor = fileManagerAccessService.requireActor();
 
-        List<Document> deletedDocuments = softDeleteFolderTree(folder, actor);
-        deletedDocuments.stream().map(Document::getId).forEach(fileManagerEventService::deleteFromIndex);
+        List<Long> deletedDocumentIds = softDeleteFolderTree(folder, actor);
+        fileManagerEventService.deleteFromIndex(deletedDocumentIds);
         folderEventService.logDeleted(folder);
-        return new FolderDeleteResult(id, deletedDocuments.size());
+        return new FolderDeleteResult(id, deletedDocumentIds.size());
     }
 
-    private List<Document> softDeleteFolderTree(Folder root, User actor) {
+    /**
+     * Soft-delete cả cây bằng UPDATE theo tập id thay vì load và save từng entity.
+     *
+     * @return id các document vừa bị xóa
+     */
+    private List<Long> softDeleteFolderTree(Folder root, User actor) {
         Long rootFolderId = root.getId();
         LocalDateTime now = LocalDateTime.now();
 
-        List<Folder> foldersToDelete = fileManagerTreeService.collectActiveFolderTree(root);
-        List<Document> documentsToDelete = fileManagerTreeService.collectActiveDocuments(foldersToDelete);
-
-        for (Folder folder : foldersToDelete) {
-            folder.markDeleted(actor, rootFolderId, now);
+        List<Long> folderIds = fileManagerTreeService.collectActiveFolderTree(root).stream()
+                .map(Folder::getId)
+                .toList();
+        List<Long> documentIds = new ArrayList<>();
+        for (List<Long> batch : Batches.partition(folderIds, BULK_BATCH_SIZE)) {
+            documentIds.addAll(documentRepository.findActiveIdsByFolderIdIn(batch));
         }
 
-        for (Document document : documentsToDelete) {
-            document.markDeleted(actor, rootFolderId, now);
+        for (List<Long> batch : Batches.partition(documentIds, BULK_BATCH_SIZE)) {
+            documentRepository.softDeleteByIdIn(batch, actor, rootFolderId, DocumentStatus.DELETED, now);
         }
-
-        folderRepository.saveAll(foldersToDelete);
-        documentRepository.saveAll(documentsToDelete);
-        return documentsToDelete;
+        for (List<Long> batch : Batches.partition(folderIds, BULK_BATCH_SIZE)) {
+            folderRepository.softDeleteByIdIn(batch, actor, rootFolderId, now);
+        }
+        // Entity root trong persistence context vẫn giữ trạng thái cũ; đồng bộ lại cho caller
+        root.markDeleted(actor, rootFolderId, now);
+        return documentIds;
     }
 }
@@ -1,5 +1,6 @@
 package com.studydocs.manager.application.filemanager.usecase;
 
+import com.studydocs.manager.application.filemanager.FileManagerProgress;
 import com.studydocs.manager.dto.filemanager.FileManagerDeleteRequest;
 import com.studydocs.manager.dto.filemanager.FileManagerDeleteResponse;
 import com.studydocs.manager.dto.folder.FolderDeleteResult;
@@ -47,7 +48,7 @@ public class DeleteItemsUseCase {
         this.deleteFolderUseCase = deleteFolderUseCase;
     }
 
-    public FileManagerDeleteResponse execute(FileManagerDeleteRequest request) {
+    public FileManagerDeleteResponse execute(FileManagerDeleteRequest request, FileManagerProgress progress) {
         if (request == null) {
             throw new BadRequestException("Request body is required", "BATCH_DELETE_REQUEST_REQUIRED", null);
         }
@@ -66,18 +67,21 @@ public class DeleteItemsUseCase {
         List<Folder> folders = validateDeleteFolders(folderIds, actor.getId(), request.getCurrentFolderId());
         List<Document> documents = validateDeleteDocuments(documentIds, actor, request.getCurrentFolderId());
 
+        progress.start(folders.size() + documents.size());
         int cascadeDeletedDocumentCount = 0;
         List<Long> deletedFolderIds = new ArrayList<>();
         for (Folder folder : folders) {
             FolderDeleteResult result = deleteFolderUseCase.execute(folder.getId());
             cascadeDeletedDocumentCount += result.getAffectedDocuments();
             deletedFolderIds.add(folder.getId());
+            progress.itemDone(0);
         }
 
         List<Long> deletedDocumentIds = new ArrayList<>();
         for (Document document : documents) {
             deleteDocumentUseCase.execute(document.getId());
             deletedDocumentIds.add(document.getId());
+            progress.itemDone(0);
         }
 
         return new FileManagerDeleteResponse(
@@ -1,5 +1,6 @@
 package com.studydocs.manager.application.filemanager.usecase;
 
+import com.studydocs.manager.application.filemanager.FileManagerProgress;
 import com.studydocs.manager.dto.filemanager.FileManagerPasteResponse;
 import com.studydocs.manager.dto.filemanager.FileManagerPasteResult;
 import com.studydocs.manager.entity.Document;
@@ -59,10 +60,21 @@ public class MoveItemsUseCase {
         this.folderEventService = folderEventService;
     }
 
-    public FileManagerPasteResponse execute(List<FileManagerSelection> selections, Folder targetFolder, User actor) {
-        Set<String> occupiedNames = new LinkedHashSet<>(fileManagerNamespaceService.loadNormalizedNames(
+    public FileManagerPasteResponse execute(
+            List<FileManagerSelection> selections,
+            Folder targetFolder,
+            User actor,
+            FileManagerProgress progress) {
+        // Chỉ probe đúng các tên đang được move vào thư mục đích
+        List<String> movedNames = selections.stream()
+                .map(selection -> selection.type() == FileManagerItemType.FOLDER
+                        ? selection.folder().getName()
+                        : fileManagerNamePolicy.effectiveDocumentName(selection.document()))
+                .toList();
+        Set<String> occupiedNames = new LinkedHashSet<>(fileManagerNamespaceService.findOccupiedNames(
                 actor.getId(),
-                targetFolder != null ? targetFolder.getId() : null));
+                targetFolder != null ? targetFolder.getId() : null,
+                movedNames));
         List<MovePlan> plans = new ArrayList<>();
         TransferCounters counters = new TransferCounters();
 
@@ -114,12 +126,13 @@ public class MoveItemsUseCase {
             plans.add(MovePlan.forDocument(document));
         }
 
+        progress.start(plans.size());
         List<Document> documentsToReindex = new ArrayList<>();
         List<FileManagerPasteResult> results = new ArrayList<>();
         for (MovePlan plan : plans) {
             if (plan.folder() != null) {
                 Folder folder = plan.folder();
-                folder.setParent(targetFolder);
+                fileManagerTreeService.moveFolder(folder, targetFolder);
                 Folder saved = folderRepository.save(folder);
                 results.add(fileManagerResponseFactory.buildResult(
                         FileManagerItemType.FOLDER,
@@ -131,6 +144,7 @@ public class MoveItemsUseCase {
                 fileManagerEventService.logFolderAudit(actor, saved, AuditAction.MOVE_FOLDER, targetFolder);
                 // folder_events: history timeline của folder
                 folderEventService.logMoved(saved, folder.getParent());
+                progress.itemDone(0);
                 continue;
             }
 
@@ -151,6 +165,7 @@ public class MoveItemsUseCase {
             if (saved.getStatus() == DocumentStatus.PUBLISHED) {
                 documentsToReindex.add(saved);
             }
+            progress.itemDone(0);
         }
 
         documentsToReindex.forEach(fileManagerEventService::indexPublished);
@@ -3,6 +3,7 @@ package com.studydocs.manager.application.filemanager.usecase;
 import com.studydocs.manager.entity.Document;
 import com.studydocs.manager.entity.DocumentAsset;
 import com.studydocs.manager.entity.Folder;
+import com.studydocs.manager.enums.DocumentStatus;
 import com.studydocs.manager.exception.BadRequestException;
 import com.studydocs.manager.repository.DocumentAssetRepository;
 import com.studydocs.manager.repository.DocumentRepository;
@@ -11,12 +12,16 @@ import com.studydocs.manager.service.filemanager.FileManagerAccessService;
 import com.studydocs.manager.service.filemanager.FileManagerAssetStateService;
 import com.studydocs.manager.service.filemanager.FileManagerNamePolicy;
 import com.studydocs.manager.service.filemanager.FileManagerNamespaceService;
+import com.studydocs.manager.service.filemanager.FileManagerNamespaceService.NamespaceEntry;
 import com.studydocs.manager.service.filemanager.FileManagerNamingService;
 import com.studydocs.manager.service.filemanager.FileManagerTreeService;
 import com.studydocs.manager.service.filemanager.FolderRestorePathService;
 import com.studydocs.manager.service.folder.FolderEventService;
+import com.studydocs.manager.util.Batches;
+import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -26,6 +31,9 @@ import java.util.stream.Collectors;
 @Service
 public class RestoreFolderUseCase {
 
+    // Giới hạn số id trong mỗi mệnh đề IN
+    private static final int BULK_BATCH_SIZE = 1_000;
+
     private final FolderRepository folderRepository;
     private final DocumentRepository documentRepository;
     private final DocumentAssetRepository documentAssetRepository;
@@ -63,6 +71,7 @@ public class RestoreFolderUseCase {
         this.folderEventService = folderEventService;
     }
 
+    @Transactional
     public Folder execute(Long id) {
         Long userId = fileManagerAccessService.requireCurrentUserId();
         Folder root = fileManagerAccessService.findFolderForUser(id, userId);
@@ -89,34 +98,47 @@ public class RestoreFolderUseCase {
                 "Folder tree cannot be restored because one or more files were already cleaned up.");
 
         foldersToRestore.sort(Comparator.comparingInt(fileManagerTreeService::folderDepth));
-        for (Folder folder : foldersToRestore) {
-            folder.restoreFromTrash();
-        }
+        LocalDateTime now = LocalDateTime.now();
 
+        // Chỉ document phải đổi tên hiển thị mới cần save entity, còn lại restore bằng UPDATE theo tập id
+        List<Long> unchangedDocumentIds = new ArrayList<>();
+        List<Document> renamedDocuments = new ArrayList<>();
         for (Document document : documentsToRestore) {
             DocumentAsset asset = fileManagerAssetStateService.resolveAsset(document);
             String restoredDisplayName = fileManagerNamingService.resolveDocumentDisplayName(
                     document.getDisplayName(),
                     asset != null ? asset.getFileName() : null,
                     document.getTitle());
-            document.restoreFromTrash(restoredDisplayName);
+            if (restoredDisplayName != null && !restoredDisplayName.equals(document.getDisplayName())) {
+                document.restoreFromTrash(restoredDisplayName);
+                renamedDocuments.add(document);
+            } else {
+                unchangedDocumentIds.add(document.getId());
+            }
         }
 
-        folderRepository.saveAll(foldersToRestore);
-        documentRepository.saveAll(documentsToRestore);
-        foldersToRestore.forEach(folderEventService::logRestored);
+        documentRepository.saveAll(renamedDocuments);
+        for (List<Long> batch : Batches.partition(unchangedDocumentIds, BULK_BATCH_SIZE)) {
+            documentRepository.restoreByIdIn(batch, DocumentStatus.DRAFT, now);
+        }
+        List<Long> folderIds = foldersToRestore.stream()
+                .map(Folder::getId)
+                .toList();
+        for (List<Long> batch : Batches.partition(folderIds, BULK_BATCH_SIZE)) {
+            folderRepository.restoreByIdIn(batch, now);
+        }
+        folderEventService.logRestoredAll(foldersToRestore);
         return root;
     }
 
     private void validateRestoreFolderConflicts(List<Folder> foldersToRestore, Long userId) {
-        for (Folder folder : foldersToRestore) {
-            Long parentId = folder.getParent() != null ? folder.getParent().getId() : null;
-            fileManagerNamespaceService.ensureAvailable(
-                    userId,
-                    parentId,
-                    folder.getName(),
-                    null,
-                    null,
+        List<NamespaceEntry> entries = foldersToRestore.stream()
+                .map(folder -> new NamespaceEntry(
+                        folder.getParent() != null ? folder.getParent().getId() : null,
+                        folder.getName()))
+                .toList();
+        if (!fileManagerNamespaceService.findOccupiedEntries(userId, entries).isEmpty()) {
+            throw new BadRequestException(
                     "Cannot restore folder because another active folder with the same name already exists in the target location.",
                     "FOLDER_RESTORE_NAME_CONFLICT",
                     "name");
@@ -124,15 +146,13 @@ public class RestoreFolderUseCase {
     }
 
     private void validateRestoreDocumentConflicts(List<Document> documentsToRestore, Long userId) {
-        for (Document document : documentsToRestore) {
-            Long parentId = document.getFolder() != null ? document.getFolder().getId() : null;
-            String effectiveName = fileManagerNamePolicy.effectiveDocumentName(document);
-            fileManagerNamespaceService.ensureAvailable(
-                    userId,
-                    parentId,
-                    effectiveName,
-                    null,
-                    null,
+        List<NamespaceEntry> entries = documentsToRestore.stream()
+                .map(document -> new NamespaceEntry(
+                        document.getFolder() != null ? document.getFolder().getId() : null,
+                        fileManagerNamePolicy.effectiveDocumentName(document)))
+                .toList();
+        if (!fileManagerNamespaceService.findOccupiedEntries(userId, entries).isEmpty()) {
+            throw new BadRequestException(
                     "Cannot restore document because another active item with the same name already exists in the target location.",
                     "DOCUMENT_RESTORE_NAME_CONFLICT",
                     "displayName");
@@ -1,5 +1,6 @@
 package com.studydocs.manager.application.filemanager.usecase;
 
+import com.studydocs.manager.application.filemanager.FileManagerProgress;
 import com.studydocs.manager.dto.filemanager.FileManagerPasteResponse;
 import com.studydocs.manager.dto.filemanager.FileManagerTransferRequest;
 import com.studydocs.manager.entity.Folder;
@@ -39,16 +40,19 @@ public class TransferItemsUseCase {
     }
 
     @Transactional
-    public FileManagerPasteResponse copy(FileManagerTransferRequest request) {
-        return transfer(request, ClipboardOperation.COPY);
+    public FileManagerPasteResponse copy(FileManagerTransferRequest request, FileManagerProgress progress) {
+        return transfer(request, ClipboardOperation.COPY, progress);
     }
 
     @Transactional
-    public FileManagerPasteResponse move(FileManagerTransferRequest request) {
-        return transfer(request, ClipboardOperation.MOVE);
+    public FileManagerPasteResponse move(FileManagerTransferRequest request, FileManagerProgress progress) {
+        return transfer(request, ClipboardOperation.MOVE, progress);
     }
 
-    private FileManagerPasteResponse transfer(FileManagerTransferRequest request, ClipboardOperation operation) {
+    private FileManagerPasteResponse transfer(
+            FileManagerTransferRequest request,
+            ClipboardOperation operation,
+            FileManagerProgress progress) {
         User actor = fileManagerAccessService.requireActor();
         Folder targetFolder = fileManagerAccessService.resolveTargetFolder(request.getTargetFolderId(), actor.getId());
         List<FileManagerSelection> selections = fileManagerSelectionResolver
@@ -59,8 +63,8 @@ public class TransferItemsUseCase {
 
         validateTargetFolder(targetFolder, selections, operation);
         return operation == ClipboardOperation.MOVE
-                ? moveItemsUseCase.execute(selections, targetFolder, actor)
-                : copyItemsUseCase.execute(selections, targetFolder, actor);
+                ? moveItemsUseCase.execute(selections, targetFolder, actor, progress)
+                : copyItemsUseCase.execute(selections, targetFolder, actor, progress);
     }
 
     /**
@@ -36,8 +36,8 @@ public class FolderApplicationService {
         return createFolderUseCase.execute(request);
     }
 
-    public List<FolderResponse> getFolders(Long parentId) {
-        return folderQueryUseCase.getMyFolders(parentId);
+    public List<FolderResponse> getFolders(Long parentId, boolean includeSubtreeCount) {
+        return folderQueryUseCase.getMyFolders(parentId, includeSubtreeCount);
     }
 
     public FolderResponse getFolderById(Long id) {
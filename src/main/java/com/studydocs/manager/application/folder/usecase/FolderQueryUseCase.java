@@ -12,6 +12,10 @@ import com.studydocs.manager.service.filemanager.FileManagerAccessService;
 import com.studydocs.manager.service.filemanager.FileManagerResponseMapper;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -40,12 +44,16 @@ public class FolderQueryUseCase {
         this.fileManagerResponseMapper = fileManagerResponseMapper;
     }
 
-    public List<FolderResponse> getMyFolders(Long parentId) {
+    public List<FolderResponse> getMyFolders(Long parentId, boolean includeSubtreeCount) {
         Long userId = accessService.requireCurrentUserId();
         List<Folder> folders = (parentId == null)
                 ? folderRepository.findByUserIdAndParentIdIsNullAndDeletedAtIsNullOrderBySortOrder(userId)
                 : folderRepository.findByUserIdAndParentIdAndDeletedAtIsNullOrderBySortOrder(userId, parentId);
-        return folders.stream().map(fileManagerResponseMapper::toFolderResponse).collect(Collectors.toList());
+        List<FolderResponse> responses = fileManagerResponseMapper.toFolderResponses(folders);
+        if (includeSubtreeCount && !responses.isEmpty()) {
+            applySubtreeDocumentCounts(userId, responses);
+        }
+        return responses;
     }
 
     public FolderResponse getFolderById(Long id) {
@@ -111,4 +119,37 @@ public class FolderQueryUseCase {
         }
         return true;
     }
+
+    /**
+     * Tổng document active trong cả subtree của mỗi folder: một query lấy cạnh cha-con,
+     * một query đếm document theo folder, cộng dồn trong bộ nhớ.
+     */
+    private void applySubtreeDocumentCounts(Long userId, List<FolderResponse> responses) {
+        Map<Long, List<Long>> childrenByParentId = new HashMap<>();
+        for (FolderRepository.FolderNode node : folderRepository.findActiveNodesByUserId(userId)) {
+            if (node.getParentId() != null) {
+                childrenByParentId.computeIfAbsent(node.getParentId(), id -> new ArrayList<>()).add(node.getId());
+            }
+        }
+        Map<Long, Long> directCounts = new HashMap<>();
+        for (DocumentRepository.FolderDocumentCount count : documentRepository.countActiveGroupedByFolderForUser(userId)) {
+            directCounts.put(count.getFolderId(), count.getDocumentCount());
+        }
+
+        for (FolderResponse response : responses) {
+            long total = 0;
+            Set<Long> visited = new HashSet<>();
+            Deque<Long> pending = new ArrayDeque<>();
+            pending.push(response.getId());
+            while (!pending.isEmpty()) {
+                Long folderId = pending.pop();
+                if (!visited.add(folderId)) {
+                    continue;
+                }
+                total += directCounts.getOrDefault(folderId, 0L);
+                childrenByParentId.getOrDefault(folderId, List.of()).forEach(pending::push);
+            }
+            response.setSubtreeDocumentCount((int) total);
+        }
+    }
 }
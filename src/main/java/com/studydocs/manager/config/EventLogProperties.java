@@ -0,0 +1,52 @@
+package com.studydocs.manager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * EventLogProperties - Cấu hình pipeline ghi audit_logs / document_events / folder_events
+ * (xem EventLogPipeline)
+ */
+@Component
+@ConfigurationProperties(prefix = "event-log")
+public class EventLogProperties {
+
+    /**
+     * Số event tối đa chờ ghi trong bộ nhớ; khi đầy, thread gọi tự ghi event xuống DB
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * Số event tối đa trong một JDBC batch
+     */
+    private int batchSize = 500;
+
+    /**
+     * Số batch tối đa trong một lượt flush định kỳ
+     */
+    private int maxBatchesPerFlush = 20;
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxBatchesPerFlush() {
+        return maxBatchesPerFlush;
+    }
+
+    public void setMaxBatchesPerFlush(int maxBatchesPerFlush) {
+        this.maxBatchesPerFlush = maxBatchesPerFlush;
+    }
+}
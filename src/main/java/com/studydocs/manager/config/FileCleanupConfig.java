@@ -0,0 +1,31 @@
+package com.studydocs.manager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class FileCleanupConfig {
+
+    /**
+     * Pool xử lý các chunk của FileCleanupService. Queue nhỏ + CallerRuns: thread đọc
+     * keyset tự xử lý chunk khi pool bận, nên số chunk đã đọc mà chưa xử lý luôn có giới hạn.
+     */
+    @Bean(name = "fileCleanupExecutor")
+    public Executor fileCleanupExecutor(@Value("${cleanup.deleted-files.parallelism:2}") int parallelism) {
+        int threads = Math.max(1, parallelism);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("file-cleanup-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
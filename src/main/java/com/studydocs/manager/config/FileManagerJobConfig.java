@@ -0,0 +1,28 @@
+package com.studydocs.manager.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class FileManagerJobConfig {
+
+    /**
+     * Pool riêng cho job file manager, tách khỏi servlet thread. Queue đầy thì
+     * submit bị từ chối (không CallerRuns) để request không bị giữ lại.
+     */
+    @Bean(name = "fileManagerJobExecutor")
+    public Executor fileManagerJobExecutor(FileManagerJobProperties fileManagerJobProperties) {
+        int threads = Math.max(1, fileManagerJobProperties.getThreads());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("file-manager-job-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(Math.max(1, fileManagerJobProperties.getQueueCapacity()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,65 @@
+package com.studydocs.manager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * FileManagerJobProperties - Cấu hình job file manager chạy nền
+ * (copy / move / delete / admin purge qua /api/file-manager/jobs)
+ */
+@Component
+@ConfigurationProperties(prefix = "file-manager.jobs")
+public class FileManagerJobProperties {
+
+    /**
+     * Số thread chạy job
+     */
+    private int threads = 2;
+
+    /**
+     * Số job được xếp hàng chờ khi mọi thread đều bận
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Số job chưa kết thúc (QUEUED + RUNNING) tối đa của một user
+     */
+    private int maxActivePerUser = 2;
+
+    /**
+     * Thời gian giữ kết quả job đã kết thúc để client polling (phút)
+     */
+    private int retentionMinutes = 60;
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getMaxActivePerUser() {
+        return maxActivePerUser;
+    }
+
+    public void setMaxActivePerUser(int maxActivePerUser) {
+        this.maxActivePerUser = maxActivePerUser;
+    }
+
+    public int getRetentionMinutes() {
+        return retentionMinutes;
+    }
+
+    public void setRetentionMinutes(int retentionMinutes) {
+        this.retentionMinutes = retentionMinutes;
+    }
+}
@@ -1,5 +1,7 @@
 package com.studydocs.manager.config;
 
+import com.studydocs.manager.storage.impl.MinioMultipartClient;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,4 +34,15 @@ public class MinIOConfig {
                 .credentials(properties.getAccessKey(), properties.getSecretKey())
                 .build();
     }
+
+    /**
+     * Client cho multipart upload nhiều request (initiate / part / complete / abort)
+     */
+    @Bean
+    public MinioMultipartClient minioMultipartClient(MinIOProperties properties) {
+        return new MinioMultipartClient(MinioAsyncClient.builder()
+                .endpoint(properties.getEndpoint())
+                .credentials(properties.getAccessKey(), properties.getSecretKey())
+                .build());
+    }
 }
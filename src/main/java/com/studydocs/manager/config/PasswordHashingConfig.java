@@ -0,0 +1,29 @@
+package com.studydocs.manager.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    /**
+     * Pool riêng cho BCrypt / Argon2: login dồn dập chỉ chiếm tối đa số thread này thay vì
+     * mọi request thread. Queue đầy thì từ chối (không CallerRuns) để trả 429 ngay.
+     */
+    @Bean(name = "passwordHashingExecutor")
+    public Executor passwordHashingExecutor(PasswordHashingProperties passwordHashingProperties) {
+        int threads = passwordHashingProperties.getThreads() > 0
+                ? passwordHashingProperties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(Math.max(1, passwordHashingProperties.getQueueCapacity()));
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,79 @@
+package com.studydocs.manager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * PasswordHashingProperties - Cấu hình hash mật khẩu (thuật toán, strength) và pool
+ * riêng chạy hash, tách khỏi request thread
+ */
+@Component
+@ConfigurationProperties(prefix = "security.password")
+public class PasswordHashingProperties {
+
+    /**
+     * Thuật toán cho hash mới: bcrypt hoặc argon2 (argon2 cần BouncyCastle trên classpath).
+     * Hash cũ được hash lại theo thuật toán này ở lần đăng nhập thành công kế tiếp
+     */
+    private String encodingId = "bcrypt";
+
+    /**
+     * BCrypt cost (log2 số vòng); hash có cost thấp hơn được nâng cấp khi đăng nhập
+     */
+    private int bcryptStrength = 10;
+
+    /**
+     * Số thread hash; 0 = số CPU
+     */
+    private int threads = 0;
+
+    /**
+     * Số yêu cầu hash chờ khi mọi thread đều bận; vượt quá thì trả 429 ngay
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * Thời gian chờ trong hàng đợi tối đa (ms); yêu cầu chờ lâu hơn bị trả 429 thay vì hash muộn
+     */
+    private long maxQueueMs = 250;
+
+    public String getEncodingId() {
+        return encodingId;
+    }
+
+    public void setEncodingId(String encodingId) {
+        this.encodingId = encodingId;
+    }
+
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getMaxQueueMs() {
+        return maxQueueMs;
+    }
+
+    public void setMaxQueueMs(long maxQueueMs) {
+        this.maxQueueMs = maxQueueMs;
+    }
+}
@@ -1,8 +1,14 @@
 package com.studydocs.manager.config;
 
+import com.studydocs.manager.enums.RateLimitKeyType;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 
 @Component
 @ConfigurationProperties(prefix = "security.rate-limit")
@@ -17,6 +23,32 @@ public class RateLimitProperties {
 
     private int forgotPasswordPerMinute = 5;
 
+    /**
+     * Số key (policy + client) tối đa được theo dõi riêng; vượt quá thì dùng chung counter dự phòng
+     */
+    private int maxTrackedKeys = 100_000;
+
+    /**
+     * true = token bucket dùng chung trên Redis cho mọi instance; false = giới hạn riêng từng instance
+     */
+    private boolean distributed = false;
+
+    /**
+     * Tỷ lệ limit mà một instance lấy trước từ Redis mỗi lần (lease) để request sau
+     * khỏi gọi Redis; tối thiểu 1 token
+     */
+    private double leaseFraction = 0.1;
+
+    /**
+     * Thời gian sống của token đã lấy trước; hết hạn thì phần chưa dùng bị bỏ
+     */
+    private long leaseTtlMs = 1000;
+
+    /**
+     * Policy bổ sung theo route (ngoài login / register / forgot-password), theo tên policy
+     */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
     public int getLoginPerMinute() {
         return loginPerMinute;
     }
@@ -40,4 +72,119 @@ public class RateLimitProperties {
     public void setForgotPasswordPerMinute(int forgotPasswordPerMinute) {
         this.forgotPasswordPerMinute = forgotPasswordPerMinute;
     }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public void setMaxTrackedKeys(int maxTrackedKeys) {
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    public boolean isDistributed() {
+        return distributed;
+    }
+
+    public void setDistributed(boolean distributed) {
+        this.distributed = distributed;
+    }
+
+    public double getLeaseFraction() {
+        return leaseFraction;
+    }
+
+    public void setLeaseFraction(double leaseFraction) {
+        this.leaseFraction = leaseFraction;
+    }
+
+    public long getLeaseTtlMs() {
+        return leaseTtlMs;
+    }
+
+    public void setLeaseTtlMs(long leaseTtlMs) {
+        this.leaseTtlMs = leaseTtlMs;
+    }
+
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, Policy> policies) {
+        this.policies = policies;
+    }
+
+    public static class Policy {
+
+        /**
+         * Request có path bắt đầu bằng một trong các prefix này thuộc policy
+         */
+        private List<String> pathPrefixes = new ArrayList<>();
+
+        /**
+         * HTTP method áp dụng; rỗng = mọi method
+         */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * Số request tối đa trong một window
+         */
+        private int limit = 60;
+
+        private int windowSeconds = 60;
+
+        /**
+         * USER: đếm theo user đã đăng nhập (request chưa đăng nhập đếm theo IP)
+         */
+        private RateLimitKeyType keyBy = RateLimitKeyType.IP;
+
+        public Policy() {
+        }
+
+        public Policy(List<String> pathPrefixes, int limit, int windowSeconds, RateLimitKeyType keyBy) {
+            this.pathPrefixes = pathPrefixes;
+            this.limit = limit;
+            this.windowSeconds = windowSeconds;
+            this.keyBy = keyBy;
+        }
+
+        public List<String> getPathPrefixes() {
+            return pathPrefixes;
+        }
+
+        public void setPathPrefixes(List<String> pathPrefixes) {
+            this.pathPrefixes = pathPrefixes;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public int getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(int windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public RateLimitKeyType getKeyBy() {
+            return keyBy;
+        }
+
+        public void setKeyBy(RateLimitKeyType keyBy) {
+            this.keyBy = keyBy;
+        }
+    }
 }
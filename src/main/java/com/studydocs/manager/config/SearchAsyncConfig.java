@@ -5,6 +5,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 public class SearchAsyncConfig {
@@ -20,4 +21,23 @@ public class SearchAsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Pool riêng cho stage tải file + Tika của bulk reindex, tách khỏi
+     * searchIndexingExecutor để một lần full reindex không chiếm chỗ của
+     * các cập nhật realtime. Queue đầy thì reader tự chạy task (CallerRuns).
+     */
+    @Bean(name = "searchBulkExtractionExecutor")
+    public Executor searchBulkExtractionExecutor(SearchProperties searchProperties) {
+        int threads = Math.max(1, searchProperties.getBulkExtractionThreads());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("search-bulk-extract-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(Math.max(threads, searchProperties.getBulkMaxInFlight()));
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
 }
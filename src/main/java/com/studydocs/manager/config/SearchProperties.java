@@ -15,6 +15,42 @@ public class SearchProperties {
     private String fuzzyFuzziness = "AUTO";
     private int maxPageSize = 50;
 
+    /** Số document đọc từ DB mỗi lượt (keyset page) khi bulk reindex. */
+    private int bulkFetchSize = 100;
+    /** Số document tối đa trong một request _bulk gửi lên Elasticsearch. */
+    private int bulkBatchSize = 200;
+    /** Kích thước payload ước tính tối đa của một request _bulk (bytes). */
+    private long bulkMaxBytes = 5L * 1024 * 1024;
+    /** Số thread tải file + chạy Tika song song khi bulk reindex. */
+    private int bulkExtractionThreads = 4;
+    /** Số document tối đa đang xử lý (chưa ghi vào ES) — chặn reader khi vượt ngưỡng. */
+    private int bulkMaxInFlight = 400;
+
+    /** Số dòng outbox tối đa xử lý mỗi lượt drain. */
+    private int outboxBatchSize = 200;
+    /** Backoff retry của outbox: base * 2^attempts, chặn trên bởi max. */
+    private long outboxRetryBaseMs = 1000;
+    private long outboxRetryMaxMs = 5 * 60 * 1000;
+    /** Số lần thử tối đa; dòng lỗi quá số này được giữ lại để kiểm tra nhưng không retry nữa. */
+    private int outboxMaxAttempts = 10;
+    /**
+     * Thời gian một instance giữ các dòng đã claim; quá hạn mà chưa xử lý xong (vd. instance
+     * chết) thì instance khác được claim lại.
+     */
+    private long outboxClaimTimeoutMs = 5 * 60 * 1000;
+
+    /** Cache text đã trích xuất (Redis), key theo fingerprint nội dung file. */
+    private boolean textCacheEnabled = true;
+    private long textCacheTtlHours = 30 * 24;
+    /** Số entry tối đa; vượt ngưỡng thì bỏ các entry ít được dùng gần đây nhất. */
+    private long textCacheMaxEntries = 50_000;
+
+    /**
+     * Chu kỳ mỗi instance đọc lại alias documents_rebuild (index đang rebuild cần ghi song song).
+     * Rebuild chờ 2 chu kỳ sau khi đặt alias rồi mới nạp dữ liệu.
+     */
+    private long rebuildTargetRefreshMs = 1000;
+
     public int getFullTextMaxLength() {
         return fullTextMaxLength;
     }
@@ -70,4 +106,116 @@ public class SearchProperties {
     public void setMaxPageSize(int maxPageSize) {
         this.maxPageSize = maxPageSize;
     }
+
+    public int getBulkFetchSize() {
+        return bulkFetchSize;
+    }
+
+    public void setBulkFetchSize(int bulkFetchSize) {
+        this.bulkFetchSize = bulkFetchSize;
+    }
+
+    public int getBulkBatchSize() {
+        return bulkBatchSize;
+    }
+
+    public void setBulkBatchSize(int bulkBatchSize) {
+        this.bulkBatchSize = bulkBatchSize;
+    }
+
+    public long getBulkMaxBytes() {
+        return bulkMaxBytes;
+    }
+
+    public void setBulkMaxBytes(long bulkMaxBytes) {
+        this.bulkMaxBytes = bulkMaxBytes;
+    }
+
+    public int getBulkExtractionThreads() {
+        return bulkExtractionThreads;
+    }
+
+    public void setBulkExtractionThreads(int bulkExtractionThreads) {
+        this.bulkExtractionThreads = bulkExtractionThreads;
+    }
+
+    public int getBulkMaxInFlight() {
+        return bulkMaxInFlight;
+    }
+
+    public void setBulkMaxInFlight(int bulkMaxInFlight) {
+        this.bulkMaxInFlight = bulkMaxInFlight;
+    }
+
+    public int getOutboxBatchSize() {
+        return outboxBatchSize;
+    }
+
+    public void setOutboxBatchSize(int outboxBatchSize) {
+        this.outboxBatchSize = outboxBatchSize;
+    }
+
+    public long getOutboxRetryBaseMs() {
+        return outboxRetryBaseMs;
+    }
+
+    public void setOutboxRetryBaseMs(long outboxRetryBaseMs) {
+        this.outboxRetryBaseMs = outboxRetryBaseMs;
+    }
+
+    public long getOutboxRetryMaxMs() {
+        return outboxRetryMaxMs;
+    }
+
+    public void setOutboxRetryMaxMs(long outboxRetryMaxMs) {
+        this.outboxRetryMaxMs = outboxRetryMaxMs;
+    }
+
+    public int getOutboxMaxAttempts() {
+        return outboxMaxAttempts;
+    }
+
+    public void setOutboxMaxAttempts(int outboxMaxAttempts) {
+        this.outboxMaxAttempts = outboxMaxAttempts;
+    }
+
+    public long getOutboxClaimTimeoutMs() {
+        return outboxClaimTimeoutMs;
+    }
+
+    public void setOutboxClaimTimeoutMs(long outboxClaimTimeoutMs) {
+        this.outboxClaimTimeoutMs = outboxClaimTimeoutMs;
+    }
+
+    public boolean isTextCacheEnabled() {
+        return textCacheEnabled;
+    }
+
+    public void setTextCacheEnabled(boolean textCacheEnabled) {
+        this.textCacheEnabled = textCacheEnabled;
+    }
+
+    public long getTextCacheTtlHours() {
+        return textCacheTtlHours;
+    }
+
+    public void setTextCacheTtlHours(long textCacheTtlHours) {
+        this.textCacheTtlHours = textCacheTtlHours;
+    }
+
+    public long getTextCacheMaxEntries() {
+        return textCacheMaxEntries;
+    }
+
+    public void setTextCacheMaxEntries(long textCacheMaxEntries) {
+        this.textCacheMaxEntries = textCacheMaxEntries;
+    }
+
+    public long getRebuildTargetRefreshMs() {
+        return rebuildTargetRefreshMs;
+    }
+
+    public void setRebuildTargetRefreshMs(long rebuildTargetRefreshMs) {
+        this.rebuildTargetRefreshMs = rebuildTargetRefreshMs;
+    }
 }
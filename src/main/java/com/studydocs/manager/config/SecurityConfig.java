@@ -1,25 +1,36 @@
 package com.studydocs.manager.config;
 
+import com.studydocs.manager.security.crypto.OffloadedPasswordEncoder;
 import com.studydocs.manager.security.filter.JwtAuthenticationFilter;
 import com.studydocs.manager.security.handler.RestSecurityExceptionHandler;
+import com.studydocs.manager.security.service.CustomUserDetailsService;
+import com.studydocs.manager.security.service.PasswordUpgradingAuthenticationProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableWebSecurity
@@ -35,9 +46,40 @@ public class SecurityConfig {
         this.restSecurityExceptionHandler = restSecurityExceptionHandler;
     }
 
+    /**
+     * Hash mới có tiền tố {id} theo security.password.encoding-id; hash cũ không có tiền tố
+     * vẫn được đọc như BCrypt và được hash lại khi user đăng nhập thành công
+     * (PasswordUpgradingAuthenticationProvider). Hash chạy trên passwordHashingExecutor.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(PasswordHashingProperties passwordHashingProperties,
+            @Qualifier("passwordHashingExecutor") Executor passwordHashingExecutor) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(passwordHashingProperties.getBcryptStrength());
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        if (ClassUtils.isPresent("org.bouncycastle.crypto.generators.Argon2BytesGenerator", null)) {
+            encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        }
+
+        String encodingId = passwordHashingProperties.getEncodingId();
+        if (!encoders.containsKey(encodingId)) {
+            throw new IllegalStateException("Unsupported security.password.encoding-id: " + encodingId
+                    + " (available: " + encoders.keySet() + ")");
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(encodingId, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new OffloadedPasswordEncoder(delegating, passwordHashingExecutor,
+                passwordHashingProperties.getMaxQueueMs());
+    }
+
+    /**
+     * Đăng nhập bằng username / password; hash cũ được nâng cấp nếu pool hash còn chỗ,
+     * xem {@link PasswordUpgradingAuthenticationProvider}.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public DaoAuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder) {
+        return new PasswordUpgradingAuthenticationProvider(userDetailsService, userDetailsService, passwordEncoder);
     }
 
     @Bean
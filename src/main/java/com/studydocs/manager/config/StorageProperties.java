@@ -30,6 +30,43 @@ public class StorageProperties {
 
     private String avatarsFolder = "avatars/";
 
+    /**
+     * Kích thước mỗi part của multipart upload (bytes, S3 yêu cầu >= 5MB trừ part cuối)
+     */
+    private long multipartPartSize = 8L * 1024 * 1024;
+
+    /**
+     * Kích thước file tối đa cho multipart upload (bytes)
+     */
+    private long multipartMaxFileSize = 2L * 1024 * 1024 * 1024;
+
+    /**
+     * Upload session chưa complete quá thời hạn này sẽ bị abort
+     */
+    private int multipartSessionTtlHours = 24;
+
+    /**
+     * Thời hạn của presigned URL trả về cho client (phút)
+     */
+    private int presignedUrlExpiryMinutes = 7 * 24 * 60;
+
+    /**
+     * Presigned URL được cache trong thời gian này (phút), phải nhỏ hơn thời hạn URL
+     * để URL trả ra từ cache vẫn còn dùng được đủ lâu
+     */
+    private int presignedUrlCacheTtlMinutes = 24 * 60;
+
+    /**
+     * Số URL tối đa giữ trong cache (bỏ entry lâu không dùng nhất)
+     */
+    private int presignedUrlCacheMaxEntries = 10_000;
+
+    /**
+     * Upload trùng nội dung được giữ object đã có trong thời gian này (phút) để kịp
+     * gắn vào document; trong thời gian đó object không bị xóa dù ref count về 0
+     */
+    private int dedupLeaseMinutes = 24 * 60;
+
     // Getters and Setters
     public String getProvider() {
         return provider;
@@ -62,4 +99,60 @@ public class StorageProperties {
     public void setAvatarsFolder(String avatarsFolder) {
         this.avatarsFolder = avatarsFolder;
     }
+
+    public long getMultipartPartSize() {
+        return multipartPartSize;
+    }
+
+    public void setMultipartPartSize(long multipartPartSize) {
+        this.multipartPartSize = multipartPartSize;
+    }
+
+    public long getMultipartMaxFileSize() {
+        return multipartMaxFileSize;
+    }
+
+    public void setMultipartMaxFileSize(long multipartMaxFileSize) {
+        this.multipartMaxFileSize = multipartMaxFileSize;
+    }
+
+    public int getMultipartSessionTtlHours() {
+        return multipartSessionTtlHours;
+    }
+
+    public void setMultipartSessionTtlHours(int multipartSessionTtlHours) {
+        this.multipartSessionTtlHours = multipartSessionTtlHours;
+    }
+
+    public int getPresignedUrlExpiryMinutes() {
+        return presignedUrlExpiryMinutes;
+    }
+
+    public void setPresignedUrlExpiryMinutes(int presignedUrlExpiryMinutes) {
+        this.presignedUrlExpiryMinutes = presignedUrlExpiryMinutes;
+    }
+
+    public int getPresignedUrlCacheTtlMinutes() {
+        return presignedUrlCacheTtlMinutes;
+    }
+
+    public void setPresignedUrlCacheTtlMinutes(int presignedUrlCacheTtlMinutes) {
+        this.presignedUrlCacheTtlMinutes = presignedUrlCacheTtlMinutes;
+    }
+
+    public int getPresignedUrlCacheMaxEntries() {
+        return presignedUrlCacheMaxEntries;
+    }
+
+    public void setPresignedUrlCacheMaxEntries(int presignedUrlCacheMaxEntries) {
+        this.presignedUrlCacheMaxEntries = presignedUrlCacheMaxEntries;
+    }
+
+    public int getDedupLeaseMinutes() {
+        return dedupLeaseMinutes;
+    }
+
+    public void setDedupLeaseMinutes(int dedupLeaseMinutes) {
+        this.dedupLeaseMinutes = dedupLeaseMinutes;
+    }
 }
@@ -0,0 +1,28 @@
+package com.studydocs.manager.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class TikaConfig {
+
+    /**
+     * Pool chạy Tika parse, tách khỏi request/indexing thread để áp timeout.
+     * Số task đang chạy đã bị TikaParserEngine chặn bằng semaphore.
+     */
+    @Bean(name = "tikaParseExecutor")
+    public Executor tikaParseExecutor(TikaProperties tikaProperties) {
+        int threads = Math.max(1, tikaProperties.getMaxConcurrentParses());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("tika-parse-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads);
+        executor.setDaemon(true);
+        executor.initialize();
+        return executor;
+    }
+}
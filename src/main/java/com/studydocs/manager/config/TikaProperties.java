@@ -0,0 +1,56 @@
+package com.studydocs.manager.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(prefix = "tika")
+public class TikaProperties {
+
+    /** Số lượt parse chạy đồng thời tối đa (kể cả lượt đã quá timeout nhưng chưa dừng). */
+    private int maxConcurrentParses = 4;
+
+    /** Thời gian tối đa chờ một slot parse trống trước khi từ chối. */
+    private long acquireTimeoutMs = 10_000;
+
+    /** Timeout mặc định cho một lượt parse. */
+    private long defaultTimeoutMs = 30_000;
+
+    /** Timeout theo MIME type, ví dụ tika.timeouts-ms[application/pdf]=60000. */
+    private Map<String, Long> timeoutsMs = new HashMap<>();
+
+    public int getMaxConcurrentParses() {
+        return maxConcurrentParses;
+    }
+
+    public void setMaxConcurrentParses(int maxConcurrentParses) {
+        this.maxConcurrentParses = maxConcurrentParses;
+    }
+
+    public long getAcquireTimeoutMs() {
+        return acquireTimeoutMs;
+    }
+
+    public void setAcquireTimeoutMs(long acquireTimeoutMs) {
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    public long getDefaultTimeoutMs() {
+        return defaultTimeoutMs;
+    }
+
+    public void setDefaultTimeoutMs(long defaultTimeoutMs) {
+        this.defaultTimeoutMs = defaultTimeoutMs;
+    }
+
+    public Map<String, Long> getTimeoutsMs() {
+        return timeoutsMs;
+    }
+
+    public void setTimeoutsMs(Map<String, Long> timeoutsMs) {
+        this.timeoutsMs = timeoutsMs;
+    }
+}
@@ -0,0 +1,33 @@
+package com.studydocs.manager.controller.admin;
+
+import com.studydocs.manager.service.event.EventLogPipeline;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/event-log")
+@Tag(name = "Admin Event Log", description = "Admin-only APIs for inspecting the audit/event log pipeline")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminEventLogController {
+
+    private final EventLogPipeline eventLogPipeline;
+
+    public AdminEventLogController(EventLogPipeline eventLogPipeline) {
+        this.eventLogPipeline = eventLogPipeline;
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get event log pipeline statistics", description = "Queued, written, overflow-written and dropped audit/document/folder events.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(eventLogPipeline.getStats());
+    }
+}
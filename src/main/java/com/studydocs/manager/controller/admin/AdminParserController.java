@@ -0,0 +1,33 @@
+package com.studydocs.manager.controller.admin;
+
+import com.studydocs.manager.service.file.TikaParserEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/parser")
+@Tag(name = "Admin Parser", description = "Admin-only APIs for inspecting the shared Tika parser engine")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminParserController {
+
+    private final TikaParserEngine tikaParserEngine;
+
+    public AdminParserController(TikaParserEngine tikaParserEngine) {
+        this.tikaParserEngine = tikaParserEngine;
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get parser statistics", description = "Parse latency histogram, failures and timeouts per detected content type.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getParserStats() {
+        return ResponseEntity.ok(tikaParserEngine.getStats());
+    }
+}
@@ -0,0 +1,37 @@
+package com.studydocs.manager.controller.admin;
+
+import com.studydocs.manager.security.crypto.OffloadedPasswordEncoder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/password-hashing")
+@Tag(name = "Admin Password Hashing", description = "Admin-only APIs for inspecting the password hashing pool")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminPasswordHashingController {
+
+    private final PasswordEncoder passwordEncoder;
+
+    public AdminPasswordHashingController(PasswordEncoder passwordEncoder) {
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get password hashing statistics", description = "Hash count and latency, queue wait, 429 rejections and hashes upgraded on login.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        if (passwordEncoder instanceof OffloadedPasswordEncoder offloaded) {
+            return ResponseEntity.ok(offloaded.getStats());
+        }
+        return ResponseEntity.ok(Map.of());
+    }
+}
@@ -0,0 +1,40 @@
+package com.studydocs.manager.controller.admin;
+
+import com.studydocs.manager.security.service.DistributedRateLimiter;
+import com.studydocs.manager.security.service.RateLimiterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/rate-limit")
+@Tag(name = "Admin Rate Limit", description = "Admin-only APIs for inspecting the request rate limiter")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminRateLimitController {
+
+    private final RateLimiterService rateLimiterService;
+    private final DistributedRateLimiter distributedRateLimiter;
+
+    public AdminRateLimitController(RateLimiterService rateLimiterService,
+            DistributedRateLimiter distributedRateLimiter) {
+        this.rateLimiterService = rateLimiterService;
+        this.distributedRateLimiter = distributedRateLimiter;
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get rate limiter statistics", description = "Local limiter (tracked keys, allowed/rejected, idle evictions, evictions to admit new keys) and Redis limiter (near-cache hits, Redis calls, rejections, errors).")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new HashMap<>(rateLimiterService.getStats());
+        stats.put("distributed", distributedRateLimiter.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,44 @@
+package com.studydocs.manager.controller.admin;
+
+import com.studydocs.manager.service.file.FileCleanupService;
+import com.studydocs.manager.service.file.PresignedUrlCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/storage")
+@Tag(name = "Admin Storage", description = "Admin-only APIs for inspecting storage caches and cleaning up deleted files")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminStorageController {
+
+    private final PresignedUrlCache presignedUrlCache;
+    private final FileCleanupService fileCleanupService;
+
+    public AdminStorageController(PresignedUrlCache presignedUrlCache, FileCleanupService fileCleanupService) {
+        this.presignedUrlCache = presignedUrlCache;
+        this.fileCleanupService = fileCleanupService;
+    }
+
+    @GetMapping("/url-cache/stats")
+    @Operation(summary = "Get presigned URL cache statistics", description = "Size, hits, misses, evictions and hit ratio of the presigned URL cache.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getUrlCacheStats() {
+        return ResponseEntity.ok(presignedUrlCache.getStats());
+    }
+
+    @PostMapping("/cleanup/deleted-files")
+    @Operation(summary = "Run deleted file cleanup now", description = "Deletes storage files of documents past the trash retention period and reports counts and throughput.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FileCleanupService.CleanupResult> cleanupDeletedFiles() {
+        return ResponseEntity.ok(fileCleanupService.manualCleanup());
+    }
+}
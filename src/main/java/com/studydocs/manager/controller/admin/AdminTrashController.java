@@ -3,10 +3,12 @@ package com.studydocs.manager.controller.admin;
 import com.studydocs.manager.application.admin.AdminTrashCleanupApplicationService;
 import com.studydocs.manager.dto.admin.AdminTrashPurgeRequest;
 import com.studydocs.manager.dto.admin.AdminTrashPurgeResponse;
+import com.studydocs.manager.dto.filemanager.FileManagerJobResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -32,4 +34,11 @@ public class AdminTrashController {
     public ResponseEntity<AdminTrashPurgeResponse> purgeTrash(@Valid @RequestBody AdminTrashPurgeRequest request) {
         return ResponseEntity.ok(adminTrashCleanupApplicationService.purge(request));
     }
+
+    @PostMapping("/purge/jobs")
+    @Operation(summary = "Purge trash in the background", description = "Same as /purge but returns a job id immediately. Poll GET /api/file-manager/jobs/{jobId} for progress and the purge response.")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<FileManagerJobResponse> submitPurge(@Valid @RequestBody AdminTrashPurgeRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(adminTrashCleanupApplicationService.submitPurge(request));
+    }
 }
@@ -1,10 +1,12 @@
 package com.studydocs.manager.controller.document;
 
+import com.studydocs.manager.dto.document.BulkIndexReport;
 import com.studydocs.manager.dto.document.DocumentSearchRequest;
 import com.studydocs.manager.dto.document.DocumentSearchResponse;
 import com.studydocs.manager.dto.document.DocumentSearchResult;
 import com.studydocs.manager.search.DocumentIndexingService;
 import com.studydocs.manager.search.DocumentSearchService;
+import com.studydocs.manager.search.SearchIndexOutboxDrainer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -32,11 +34,14 @@ public class DocumentSearchController {
 
     private final DocumentSearchService searchService;
     private final DocumentIndexingService indexingService;
+    private final SearchIndexOutboxDrainer outboxDrainer;
 
     public DocumentSearchController(DocumentSearchService searchService,
-            DocumentIndexingService indexingService) {
+            DocumentIndexingService indexingService,
+            SearchIndexOutboxDrainer outboxDrainer) {
         this.searchService = searchService;
         this.indexingService = indexingService;
+        this.outboxDrainer = outboxDrainer;
     }
 
     @PostMapping("/documents")
@@ -73,13 +78,27 @@ public class DocumentSearchController {
 
     @PostMapping("/admin/reindex")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Bulk re-index public documents", description = "Re-index all public published documents into Elasticsearch")
-    public ResponseEntity<Map<String, Object>> bulkReindex() {
-        int indexed = indexingService.bulkIndexAllDocuments();
+    @Operation(summary = "Bulk re-index public documents", description = "Re-index all public published documents into Elasticsearch using bulk requests. With rebuild=true the documents are loaded into a fresh versioned index which replaces the live one through an atomic alias swap. Returns counts and throughput (docs/s, MB/s) of the run.")
+    public ResponseEntity<Map<String, Object>> bulkReindex(@RequestParam(defaultValue = "false") boolean rebuild) {
+        BulkIndexReport report = rebuild
+                ? indexingService.rebuildIndex()
+                : indexingService.bulkIndexAllDocuments();
         Map<String, Object> response = new HashMap<>();
         response.put("message", "Bulk re-indexing completed");
-        response.put("documentsIndexed", indexed);
+        response.put("documentsIndexed", report.getDocumentsIndexed());
         response.put("indexedDocuments", indexingService.countIndexedDocuments());
+        response.put("report", report);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/admin/reindex")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get bulk re-index progress", description = "Progress and throughput of the running bulk re-index, or the result of the last run")
+    public ResponseEntity<Map<String, Object>> getBulkReindexProgress() {
+        Map<String, Object> response = new HashMap<>();
+        indexingService.getBulkIndexProgress().ifPresentOrElse(
+                report -> response.put("report", report),
+                () -> response.put("message", "No bulk re-indexing has run since startup"));
         return ResponseEntity.ok(response);
     }
 
@@ -97,10 +116,11 @@ public class DocumentSearchController {
 
     @GetMapping("/admin/stats")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get search index statistics", description = "Get simple statistics about the document search index")
+    @Operation(summary = "Get search index statistics", description = "Get simple statistics about the document search index and the pending sync outbox (queue depth, lag)")
     public ResponseEntity<Map<String, Object>> getSearchStats() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("indexedDocuments", indexingService.countIndexedDocuments());
+        stats.put("outbox", outboxDrainer.getStats());
         return ResponseEntity.ok(stats);
     }
 }
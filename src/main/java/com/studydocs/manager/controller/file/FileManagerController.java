@@ -3,14 +3,18 @@ package com.studydocs.manager.controller.file;
 import com.studydocs.manager.application.filemanager.FileManagerApplicationService;
 import com.studydocs.manager.dto.filemanager.FileManagerDeleteRequest;
 import com.studydocs.manager.dto.filemanager.FileManagerDeleteResponse;
+import com.studydocs.manager.dto.filemanager.FileManagerJobResponse;
 import com.studydocs.manager.dto.filemanager.FileManagerPasteResponse;
 import com.studydocs.manager.dto.filemanager.FileManagerTransferRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -50,4 +54,32 @@ public class FileManagerController {
     public ResponseEntity<FileManagerDeleteResponse> delete(@Valid @RequestBody FileManagerDeleteRequest request) {
         return ResponseEntity.ok(fileManagerApplicationService.delete(request));
     }
+
+    @PostMapping("/jobs/copy")
+    @Operation(summary = "Copy folders/documents in the background", description = "Same as /copy but returns a job id immediately. Poll GET /jobs/{jobId}; the finished job carries the copy response.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<FileManagerJobResponse> submitCopy(@Valid @RequestBody FileManagerTransferRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(fileManagerApplicationService.submitCopy(request));
+    }
+
+    @PostMapping("/jobs/move")
+    @Operation(summary = "Move folders/documents in the background", description = "Same as /move but returns a job id immediately. Poll GET /jobs/{jobId}; the finished job carries the move response.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<FileManagerJobResponse> submitMove(@Valid @RequestBody FileManagerTransferRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(fileManagerApplicationService.submitMove(request));
+    }
+
+    @PostMapping("/jobs/delete")
+    @Operation(summary = "Delete selected folders/documents in the background", description = "Same as /delete but returns a job id immediately. Poll GET /jobs/{jobId}; the finished job carries the delete response.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<FileManagerJobResponse> submitDelete(@Valid @RequestBody FileManagerDeleteRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(fileManagerApplicationService.submitDelete(request));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get background job", description = "Status and progress (items done/total, bytes processed) of a job submitted by the current user. Finished jobs are kept for a limited time.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<FileManagerJobResponse> getJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(fileManagerApplicationService.getJob(jobId));
+    }
 }
@@ -0,0 +1,79 @@
+package com.studydocs.manager.controller.file;
+
+import com.studydocs.manager.application.file.MultipartUploadApplicationService;
+import com.studydocs.manager.dto.file.FileUploadResponse;
+import com.studydocs.manager.dto.file.MultipartUploadInitRequest;
+import com.studydocs.manager.dto.file.MultipartUploadPartResponse;
+import com.studydocs.manager.dto.file.MultipartUploadSessionResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/files/multipart")
+@Tag(name = "Multipart Upload", description = "Resumable chunked upload for large documents")
+@SecurityRequirement(name = "bearerAuth")
+public class MultipartUploadController {
+
+    private final MultipartUploadApplicationService multipartUploadApplicationService;
+
+    public MultipartUploadController(MultipartUploadApplicationService multipartUploadApplicationService) {
+        this.multipartUploadApplicationService = multipartUploadApplicationService;
+    }
+
+    @PostMapping
+    @Operation(summary = "Initiate multipart upload", description = "Create an upload session. The response tells the client the part size and number of parts to send.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<MultipartUploadSessionResponse> initiate(
+            @Valid @RequestBody MultipartUploadInitRequest request) throws IOException {
+        return ResponseEntity.ok(multipartUploadApplicationService.initiate(request));
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "Get upload session", description = "Return the session state including confirmed parts, so an interrupted client can resume with the missing parts.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<MultipartUploadSessionResponse> getSession(@PathVariable Long uploadId) {
+        return ResponseEntity.ok(multipartUploadApplicationService.getSession(uploadId));
+    }
+
+    @PutMapping(value = "/{uploadId}/parts/{partNumber}", consumes = "application/octet-stream")
+    @Operation(summary = "Upload a part", description = "Send the raw bytes of one part (1-based). Parts may be sent in parallel and re-sent; the last confirmed upload of a part wins.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<MultipartUploadPartResponse> uploadPart(
+            @PathVariable Long uploadId,
+            @Parameter(description = "Part number, starting at 1") @PathVariable int partNumber,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(multipartUploadApplicationService.uploadPart(
+                uploadId, partNumber, request.getInputStream(), request.getContentLengthLong()));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @Operation(summary = "Complete multipart upload", description = "Assemble all parts into the final object. Returns the same payload as a single-request upload.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<FileUploadResponse> complete(@PathVariable Long uploadId) throws IOException {
+        return ResponseEntity.ok(multipartUploadApplicationService.complete(uploadId));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "Abort multipart upload", description = "Cancel the session and discard uploaded parts.")
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER')")
+    public ResponseEntity<Void> abort(@PathVariable Long uploadId) {
+        multipartUploadApplicationService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -49,11 +49,12 @@ public class FolderController {
 
     @GetMapping
     public ResponseEntity<List<FolderResponse>> getFolders(
-            @RequestParam(required = false) Long parentId
+            @RequestParam(required = false) Long parentId,
+            @RequestParam(defaultValue = "false") boolean includeSubtreeCount
     ) {
-        log.info("Get folders with parentId={}", parentId);
+        log.info("Get folders with parentId={}, includeSubtreeCount={}", parentId, includeSubtreeCount);
 
-        List<FolderResponse> response = folderApplicationService.getFolders(parentId);
+        List<FolderResponse> response = folderApplicationService.getFolders(parentId, includeSubtreeCount);
         return ResponseEntity.ok(response);
     }
 
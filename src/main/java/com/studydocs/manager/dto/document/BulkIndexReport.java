@@ -0,0 +1,160 @@
+package com.studydocs.manager.dto.document;
+
+import com.studydocs.manager.enums.BulkIndexStatus;
+
+import java.time.Instant;
+
+/**
+ * Snapshot tiến độ / kết quả của một lần bulk reindex.
+ * <p>
+ * Throughput tính trên thời gian đã chạy: docsPerSecond theo số document
+ * đã ghi vào Elasticsearch, megabytesPerSecond theo dung lượng file nguồn
+ * đã tải về và trích xuất.
+ */
+public class BulkIndexReport {
+
+    private boolean running;
+    private BulkIndexStatus status;
+    private String error;
+    private String targetIndex;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private long documentsScanned;
+    private long documentsIndexed;
+    private long documentsSkipped;
+    private long documentsFailed;
+    private long bulkRequests;
+    private long sourceBytes;
+    private long payloadBytes;
+    private long elapsedMs;
+    private double docsPerSecond;
+    private double megabytesPerSecond;
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public BulkIndexStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(BulkIndexStatus status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getTargetIndex() {
+        return targetIndex;
+    }
+
+    public void setTargetIndex(String targetIndex) {
+        this.targetIndex = targetIndex;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getDocumentsScanned() {
+        return documentsScanned;
+    }
+
+    public void setDocumentsScanned(long documentsScanned) {
+        this.documentsScanned = documentsScanned;
+    }
+
+    public long getDocumentsIndexed() {
+        return documentsIndexed;
+    }
+
+    public void setDocumentsIndexed(long documentsIndexed) {
+        this.documentsIndexed = documentsIndexed;
+    }
+
+    public long getDocumentsSkipped() {
+        return documentsSkipped;
+    }
+
+    public void setDocumentsSkipped(long documentsSkipped) {
+        this.documentsSkipped = documentsSkipped;
+    }
+
+    public long getDocumentsFailed() {
+        return documentsFailed;
+    }
+
+    public void setDocumentsFailed(long documentsFailed) {
+        this.documentsFailed = documentsFailed;
+    }
+
+    public long getBulkRequests() {
+        return bulkRequests;
+    }
+
+    public void setBulkRequests(long bulkRequests) {
+        this.bulkRequests = bulkRequests;
+    }
+
+    public long getSourceBytes() {
+        return sourceBytes;
+    }
+
+    public void setSourceBytes(long sourceBytes) {
+        this.sourceBytes = sourceBytes;
+    }
+
+    public long getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    public void setPayloadBytes(long payloadBytes) {
+        this.payloadBytes = payloadBytes;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public double getDocsPerSecond() {
+        return docsPerSecond;
+    }
+
+    public void setDocsPerSecond(double docsPerSecond) {
+        this.docsPerSecond = docsPerSecond;
+    }
+
+    public double getMegabytesPerSecond() {
+        return megabytesPerSecond;
+    }
+
+    public void setMegabytesPerSecond(double megabytesPerSecond) {
+        this.megabytesPerSecond = megabytesPerSecond;
+    }
+}
@@ -16,6 +16,9 @@ public class FileUploadResponse {
 
     private String objectName; // Đường dẫn object trong MinIO
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String contentHash; // SHA-256 (hex) của nội dung, tính trong lúc upload
+
     @JsonInclude(JsonInclude.Include.NON_NULL) // Chỉ hiển thị khi có giá trị
     private FileMetadataSummary metadata; // Lightweight metadata (chỉ có khi upload document với extractMetadata=true)
 
@@ -70,6 +73,14 @@ public class FileUploadResponse {
         this.objectName = objectName;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public FileMetadataSummary getMetadata() {
         return metadata;
     }
@@ -0,0 +1,44 @@
+package com.studydocs.manager.dto.file;
+
+/**
+ * Part đã được server xác nhận (đã lưu trên storage).
+ */
+public class MultipartUploadPartResponse {
+
+    private Integer partNumber;
+    private Long size;
+    private String etag;
+
+    public MultipartUploadPartResponse() {
+    }
+
+    public MultipartUploadPartResponse(Integer partNumber, Long size, String etag) {
+        this.partNumber = partNumber;
+        this.size = size;
+        this.etag = etag;
+    }
+
+    public Integer getPartNumber() {
+        return partNumber;
+    }
+
+    public void setPartNumber(Integer partNumber) {
+        this.partNumber = partNumber;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+}
@@ -0,0 +1,95 @@
+package com.studydocs.manager.dto.file;
+
+import com.studydocs.manager.enums.UploadSessionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Trạng thái một phiên multipart upload. Client dùng uploadedParts để resume:
+ * chỉ gửi lại các part number (1..totalParts) chưa có trong danh sách.
+ */
+public class MultipartUploadSessionResponse {
+
+    private Long uploadId;
+    private String fileName;
+    private String contentType;
+    private Long fileSize;
+    private Long partSize;
+    private Integer totalParts;
+    private UploadSessionStatus status;
+    private LocalDateTime expiresAt;
+    private List<MultipartUploadPartResponse> uploadedParts;
+
+    public Long getUploadId() {
+        return uploadId;
+    }
+
+    public void setUploadId(Long uploadId) {
+        this.uploadId = uploadId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public Long getPartSize() {
+        return partSize;
+    }
+
+    public void setPartSize(Long partSize) {
+        this.partSize = partSize;
+    }
+
+    public Integer getTotalParts() {
+        return totalParts;
+    }
+
+    public void setTotalParts(Integer totalParts) {
+        this.totalParts = totalParts;
+    }
+
+    public UploadSessionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(UploadSessionStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public List<MultipartUploadPartResponse> getUploadedParts() {
+        return uploadedParts;
+    }
+
+    public void setUploadedParts(List<MultipartUploadPartResponse> uploadedParts) {
+        this.uploadedParts = uploadedParts;
+    }
+}
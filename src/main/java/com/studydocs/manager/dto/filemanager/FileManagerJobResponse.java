@@ -0,0 +1,126 @@
+package com.studydocs.manager.dto.filemanager;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.studydocs.manager.enums.FileManagerJobStatus;
+import com.studydocs.manager.enums.FileManagerJobType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trạng thái một job file manager chạy nền. Khi status = SUCCEEDED, result chứa đúng
+ * payload của API đồng bộ tương ứng (FileManagerPasteResponse, FileManagerDeleteResponse
+ * hoặc AdminTrashPurgeResponse); khi FAILED thì có errorCode / errorMessage.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class FileManagerJobResponse {
+
+    private String jobId;
+    private FileManagerJobType type;
+    private FileManagerJobStatus status;
+    private int totalItems;
+    private int completedItems;
+    // Chỉ có với job COPY
+    private Long bytesProcessed;
+    private Object result;
+    private String errorCode;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public FileManagerJobType getType() {
+        return type;
+    }
+
+    public void setType(FileManagerJobType type) {
+        this.type = type;
+    }
+
+    public FileManagerJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(FileManagerJobStatus status) {
+        this.status = status;
+    }
+
+    public int getTotalItems() {
+        return totalItems;
+    }
+
+    public void setTotalItems(int totalItems) {
+        this.totalItems = totalItems;
+    }
+
+    public int getCompletedItems() {
+        return completedItems;
+    }
+
+    public void setCompletedItems(int completedItems) {
+        this.completedItems = completedItems;
+    }
+
+    public Long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public void setBytesProcessed(Long bytesProcessed) {
+        this.bytesProcessed = bytesProcessed;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public void setResult(Object result) {
+        this.result = result;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(String errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
@@ -1,5 +1,7 @@
 package com.studydocs.manager.dto.folder;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -9,6 +11,8 @@ public class FolderResponse {
     private Long parentId;
     private Integer sortOrder;
     private Integer documentCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL) // Chỉ có khi client yêu cầu includeSubtreeCount
+    private Integer subtreeDocumentCount;
     private List<FolderResponse> children; // nested, populated khi cần
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -45,6 +49,14 @@ public class FolderResponse {
         this.sortOrder = sortOrder;
     }
 
+    public Integer getSubtreeDocumentCount() {
+        return subtreeDocumentCount;
+    }
+
+    public void setSubtreeDocumentCount(Integer subtreeDocumentCount) {
+        this.subtreeDocumentCount = subtreeDocumentCount;
+    }
+
     public List<FolderResponse> getChildren() {
         return children;
     }
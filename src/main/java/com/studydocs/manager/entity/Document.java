@@ -38,6 +38,7 @@ public class Document {
     @Column(name = "display_name", length = 500)
     private String displayName;
 
+    // Collation utf8mb4_bin (FileManagerNamespaceService): so sánh khớp từng ký tự như phía Java
     @Column(name = "normalized_display_name", length = 500)
     private String normalizedDisplayName;
 
@@ -129,13 +130,13 @@ public class Document {
         if (createdBy == null && user != null) {
             createdBy = user;
         }
-        normalizedDisplayName = normalizeDisplayName(displayName);
+        normalizedDisplayName = normalizeDisplayName(effectiveDisplayName());
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
-        normalizedDisplayName = normalizeDisplayName(displayName);
+        normalizedDisplayName = normalizeDisplayName(effectiveDisplayName());
     }
 
     public void markDeleted(User actor, Long deletedRootFolderId, LocalDateTime deletedTime) {
@@ -407,6 +408,17 @@ public class Document {
         }
     }
 
+    // Cùng thứ tự với FileManagerNamePolicy.effectiveDocumentName: display name, tên file, title
+    private String effectiveDisplayName() {
+        if (displayName != null && !displayName.trim().isEmpty()) {
+            return displayName;
+        }
+        if (asset != null && asset.getFileName() != null && !asset.getFileName().trim().isEmpty()) {
+            return asset.getFileName();
+        }
+        return title;
+    }
+
     private String normalizeDisplayName(String value) {
         if (value == null) {
             return null;
@@ -12,7 +12,8 @@ import java.util.Set;
         @Index(name = "idx_folders_user_parent_deleted", columnList = "user_id, parent_id, deleted_at"),
         @Index(name = "idx_folders_user_parent_normalized_deleted", columnList = "user_id, parent_id, normalized_name, deleted_at"),
         @Index(name = "idx_folders_parent_id", columnList = "parent_id"),
-        @Index(name = "idx_folders_deleted_root", columnList = "deleted_root_folder_id")
+        @Index(name = "idx_folders_deleted_root", columnList = "deleted_root_folder_id"),
+        @Index(name = "idx_folders_user_path", columnList = "user_id, path")
 })
 public class Folder {
     @Id
@@ -26,6 +27,7 @@ public class Folder {
     @Column(nullable = false, length = 200)
     private String name;
 
+    // Collation utf8mb4_bin (FileManagerNamespaceService): so sánh khớp từng ký tự như phía Java
     @Column(name = "normalized_name", length = 200)
     private String normalizedName;
 
@@ -36,6 +38,14 @@ public class Folder {
     @OneToMany(mappedBy = "parent")
     private Set<Folder> children = new HashSet<>();
 
+    /**
+     * Materialized path: id các folder tổ tiên từ gốc, vd "/1/5/" (folder gốc là "/").
+     * Subtree của folder là các folder có path bắt đầu bằng {@link #getSubtreePathPrefix()}.
+     * Cập nhật qua {@link #setParent(Folder)}; khi move phải rewrite path của cả subtree.
+     */
+    @Column(name = "path", length = 700)
+    private String path;
+
     @Column(name = "sort_order")
     private Integer sortOrder = 0;
 
@@ -61,6 +71,9 @@ public class Folder {
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        if (path == null) {
+            path = childPathOf(parent);
+        }
         normalizedName = normalizeName(name);
     }
 
@@ -121,6 +134,22 @@ public class Folder {
 
     public void setParent(Folder parent) {
         this.parent = parent;
+        this.path = childPathOf(parent);
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Prefix path của mọi folder con cháu, vd folder 5 có path "/1/" thì prefix là "/1/5/".
+     */
+    public String getSubtreePathPrefix() {
+        return (path != null ? path : "/") + id + "/";
+    }
+
+    private static String childPathOf(Folder parent) {
+        return parent == null ? "/" : parent.getSubtreePathPrefix();
     }
 
     public Set<Folder> getChildren() {
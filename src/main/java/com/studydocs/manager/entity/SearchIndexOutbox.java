@@ -0,0 +1,118 @@
+package com.studydocs.manager.entity;
+
+import com.studydocs.manager.enums.SearchIndexOperation;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox các thao tác đồng bộ Elasticsearch đang chờ xử lý.
+ * <p>
+ * Được ghi trong CÙNG transaction với thay đổi của document nên không bị mất
+ * khi node restart. SearchIndexOutboxDrainer gom các dòng theo document_id,
+ * gửi bulk và xóa dòng khi thành công; thất bại thì lùi next_attempt_at.
+ * document_id không có FK để dòng DELETE vẫn còn sau khi document bị purge.
+ */
+@Entity
+@Table(name = "search_index_outbox", indexes = {
+        @Index(name = "idx_search_index_outbox_next_attempt", columnList = "next_attempt_at, id"),
+        @Index(name = "idx_search_index_outbox_document_id", columnList = "document_id")
+})
+public class SearchIndexOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "document_id", nullable = false)
+    private Long documentId;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private SearchIndexOperation operation;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public SearchIndexOutbox() {
+    }
+
+    public SearchIndexOutbox(Long documentId, SearchIndexOperation operation) {
+        this.documentId = documentId;
+        this.operation = operation;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+
+    // ── Getters & Setters ─────────────────────────────────────────────────────
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDocumentId() {
+        return documentId;
+    }
+
+    public void setDocumentId(Long documentId) {
+        this.documentId = documentId;
+    }
+
+    public SearchIndexOperation getOperation() {
+        return operation;
+    }
+
+    public void setOperation(SearchIndexOperation operation) {
+        this.operation = operation;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,133 @@
+package com.studydocs.manager.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Object vật lý trên storage cùng số tham chiếu tới nó.
+ * <p>
+ * Nhiều DocumentAsset (bản copy, upload trùng nội dung) có thể trỏ tới cùng một
+ * object; content_hash (SHA-256) dùng để nhận ra upload trùng. Object chỉ bị xóa
+ * khỏi storage khi ref_count về 0 và không còn lease (xem StorageBlobService).
+ */
+@Entity
+@Table(name = "storage_blobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_storage_blobs_object_name", columnNames = "object_name"),
+        @UniqueConstraint(name = "uk_storage_blobs_content_hash", columnNames = "content_hash")
+})
+public class StorageBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "object_name", nullable = false, length = 700)
+    private String objectName;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column
+    private Long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount = 0;
+
+    /**
+     * Upload trùng nội dung được trả về object này nhưng document của nó chưa commit:
+     * dòng chưa bị xóa (kể cả khi ref_count = 0) cho tới thời điểm này.
+     */
+    @Column(name = "leased_until")
+    private LocalDateTime leasedUntil;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public StorageBlob() {
+    }
+
+    public StorageBlob(String objectName, String contentHash, Long size) {
+        this.objectName = objectName;
+        this.contentHash = contentHash;
+        this.size = size;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // ── Getters & Setters ─────────────────────────────────────────────────────
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getObjectName() {
+        return objectName;
+    }
+
+    public void setObjectName(String objectName) {
+        this.objectName = objectName;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Integer refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getLeasedUntil() {
+        return leasedUntil;
+    }
+
+    public void setLeasedUntil(LocalDateTime leasedUntil) {
+        this.leasedUntil = leasedUntil;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,99 @@
+package com.studydocs.manager.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Part đã được storage xác nhận của một {@link UploadSession}.
+ * Mỗi part một dòng để các part upload song song không tranh chấp cùng một row;
+ * upload lại cùng part number thì ghi đè etag.
+ */
+@Entity
+@Table(name = "upload_session_parts", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_upload_session_part", columnNames = { "session_id", "part_number" })
+})
+public class UploadSessionPart {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "part_number", nullable = false)
+    private Integer partNumber;
+
+    @Column(nullable = false, length = 200)
+    private String etag;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "uploaded_at", nullable = false)
+    private LocalDateTime uploadedAt;
+
+    public UploadSessionPart() {
+    }
+
+    public UploadSessionPart(Long sessionId, Integer partNumber) {
+        this.sessionId = sessionId;
+        this.partNumber = partNumber;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        uploadedAt = LocalDateTime.now();
+    }
+
+    // ── Getters & Setters ─────────────────────────────────────────────────────
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(Long sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public Integer getPartNumber() {
+        return partNumber;
+    }
+
+    public void setPartNumber(Integer partNumber) {
+        this.partNumber = partNumber;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public LocalDateTime getUploadedAt() {
+        return uploadedAt;
+    }
+
+    public void setUploadedAt(LocalDateTime uploadedAt) {
+        this.uploadedAt = uploadedAt;
+    }
+}
@@ -0,0 +1,8 @@
+package com.studydocs.manager.enums;
+
+public enum BulkIndexStatus {
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    INTERRUPTED
+}
@@ -0,0 +1,8 @@
+package com.studydocs.manager.enums;
+
+public enum FileManagerJobStatus {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package com.studydocs.manager.enums;
+
+public enum FileManagerJobType {
+    COPY,
+    MOVE,
+    DELETE,
+    TRASH_PURGE
+}
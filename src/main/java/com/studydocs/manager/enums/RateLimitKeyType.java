@@ -0,0 +1,6 @@
+package com.studydocs.manager.enums;
+
+/** Rate limit policy đếm request theo IP client hay theo user đã đăng nhập. */
+public enum RateLimitKeyType {
+    IP, USER
+}
@@ -0,0 +1,6 @@
+package com.studydocs.manager.enums;
+
+/** Thao tác đồng bộ search index được ghi vào outbox. */
+public enum SearchIndexOperation {
+    INDEX, DELETE
+}
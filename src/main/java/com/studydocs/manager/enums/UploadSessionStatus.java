@@ -0,0 +1,7 @@
+package com.studydocs.manager.enums;
+
+public enum UploadSessionStatus {
+    IN_PROGRESS,
+    COMPLETED,
+    ABORTED
+}
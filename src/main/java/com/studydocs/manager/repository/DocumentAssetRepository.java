@@ -1,8 +1,16 @@
 package com.studydocs.manager.repository;
 
 import com.studydocs.manager.entity.DocumentAsset;
+import com.studydocs.manager.enums.DocumentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +22,22 @@ public interface DocumentAssetRepository extends JpaRepository<DocumentAsset, Lo
     boolean existsByDocumentId(Long documentId);
 
     void deleteByDocumentId(Long documentId);
+
+    /**
+     * Khóa asset + document của các ứng viên cleanup còn đủ điều kiện (vẫn DELETED quá
+     * hạn giữ). Restore / upload lại đồng thời phải chờ tới khi chunk commit.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM DocumentAsset a JOIN a.document d WHERE a.id IN :assetIds " +
+            "AND d.status = :status AND d.deletedAt < :cutoffDate AND a.objectName IS NOT NULL")
+    List<DocumentAsset> findCleanupCandidatesForUpdate(@Param("assetIds") Collection<Long> assetIds,
+            @Param("status") DocumentStatus status,
+            @Param("cutoffDate") LocalDateTime cutoffDate);
+
+    /**
+     * Bỏ file reference của các asset đã được cleanup (giữ record để restore metadata)
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE DocumentAsset a SET a.objectName = NULL WHERE a.id IN :assetIds")
+    int clearObjectNames(@Param("assetIds") Collection<Long> assetIds);
 }
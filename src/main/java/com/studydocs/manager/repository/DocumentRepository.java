@@ -2,17 +2,21 @@ package com.studydocs.manager.repository;
 import com.studydocs.manager.enums.*;
 
 import com.studydocs.manager.entity.Document;
+import com.studydocs.manager.entity.User;
 
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,12 +24,17 @@ import java.util.Optional;
 public interface DocumentRepository extends JpaRepository<Document, Long> {
 
         // Find by user
+        // Các query phân trang cho list API fetch luôn asset (one-to-one phía mappedBy
+        // không lazy được, nếu không sẽ bị load từng dòng)
+        @EntityGraph(attributePaths = "asset")
         Page<Document> findByUserIdAndDeletedAtIsNull(Long userId, Pageable pageable);
 
         // Find by user and status
+        @EntityGraph(attributePaths = "asset")
         Page<Document> findByUserIdAndStatusAndDeletedAtIsNull(Long userId, DocumentStatus status, Pageable pageable);
 
         // Find public documents
+        @EntityGraph(attributePaths = "asset")
         Page<Document> findByVisibilityAndStatusAndDeletedAtIsNull(
                         DocumentVisibility visibility,
                         DocumentStatus status,
@@ -52,7 +61,17 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
 
         long countByFolderIdAndDeletedAtIsNull(Long folderId);
 
+        // Đếm document active của nhiều folder trong một query (folder không có document thì không có dòng)
+        @Query("SELECT d.folder.id AS folderId, COUNT(d) AS documentCount FROM Document d " +
+                        "WHERE d.folder.id IN :folderIds AND d.deletedAt IS NULL GROUP BY d.folder.id")
+        List<FolderDocumentCount> countActiveGroupedByFolderIdIn(@Param("folderIds") Collection<Long> folderIds);
+
+        @Query("SELECT d.folder.id AS folderId, COUNT(d) AS documentCount FROM Document d " +
+                        "WHERE d.user.id = :userId AND d.folder IS NOT NULL AND d.deletedAt IS NULL GROUP BY d.folder.id")
+        List<FolderDocumentCount> countActiveGroupedByFolderForUser(@Param("userId") Long userId);
+
         // Find by user and folder
+        @EntityGraph(attributePaths = "asset")
         Page<Document> findByUserIdAndFolderIdAndDeletedAtIsNull(Long userId, Long folderId, Pageable pageable);
 
         @Query("SELECT DISTINCT d FROM Document d " +
@@ -66,6 +85,33 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
                         "WHERE d.id = :id")
         Optional<Document> findByIdForSearchIndexing(@Param("id") Long id);
 
+        @Query("SELECT DISTINCT d FROM Document d " +
+                        "LEFT JOIN FETCH d.asset " +
+                        "LEFT JOIN FETCH d.user " +
+                        "LEFT JOIN FETCH d.folder " +
+                        "LEFT JOIN FETCH d.documentTags dt " +
+                        "LEFT JOIN FETCH dt.tag " +
+                        "LEFT JOIN FETCH d.documentSubjects ds " +
+                        "LEFT JOIN FETCH ds.subject " +
+                        "WHERE d.id IN :ids")
+        List<Document> findAllByIdInForSearchIndexing(@Param("ids") Collection<Long> ids);
+
+        // Bulk reindex: keyset page of ids (id > afterId) thay vì OFFSET
+        @Query("SELECT d.id FROM Document d " +
+                        "WHERE d.status = :status AND d.deletedAt IS NULL AND d.id > :afterId " +
+                        "ORDER BY d.id")
+        List<Long> findIdsByStatusAndDeletedAtIsNullAfter(@Param("status") DocumentStatus status,
+                        @Param("afterId") Long afterId,
+                        Pageable pageable);
+
+        // Rebuild: id trong nhóm vẫn còn được phép nằm trong search index
+        @Query("SELECT d.id FROM Document d " +
+                        "WHERE d.id IN :ids AND d.status = :status AND d.visibility = :visibility " +
+                        "AND d.deletedAt IS NULL")
+        List<Long> findIndexableIds(@Param("ids") Collection<Long> ids,
+                        @Param("status") DocumentStatus status,
+                        @Param("visibility") DocumentVisibility visibility);
+
         // Find by status
         Page<Document> findByStatusAndDeletedAtIsNull(DocumentStatus status, Pageable pageable);
 
@@ -110,6 +156,20 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
                         @Param("cutoffDate") LocalDateTime cutoffDate,
                         Pageable pageable);
 
+        // Keyset cleanup query theo (deletedAt, id): trang sau bắt đầu ngay sau dòng cuối của trang trước,
+        // dòng lỗi không bị quét lại trong cùng một lượt (dùng idx_documents_cleanup_status_deleted)
+        @Query("SELECT d.id AS documentId, d.deletedAt AS deletedAt, a.id AS assetId, a.objectName AS objectName " +
+                        "FROM Document d JOIN d.asset a " +
+                        "WHERE d.status = :status AND d.deletedAt < :cutoffDate AND a.objectName IS NOT NULL " +
+                        "AND (d.deletedAt > :afterDeletedAt OR (d.deletedAt = :afterDeletedAt AND d.id > :afterId)) " +
+                        "ORDER BY d.deletedAt, d.id")
+        List<CleanupCandidate> findCleanupCandidatesAfter(
+                        @Param("status") DocumentStatus status,
+                        @Param("cutoffDate") LocalDateTime cutoffDate,
+                        @Param("afterDeletedAt") LocalDateTime afterDeletedAt,
+                        @Param("afterId") Long afterId,
+                        Pageable pageable);
+
         Page<Document> findByStatus(DocumentStatus status, Pageable pageable);
 
         List<Document> findByUserIdAndStatus(Long userId, DocumentStatus status);
@@ -125,6 +185,7 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
                         Pageable pageable);
 
         // Trash: paginated list of deleted documents for a specific user
+        @EntityGraph(attributePaths = "asset")
         Page<Document> findByUserIdAndStatusAndDeletedAtIsNotNull(
                         Long userId, DocumentStatus status, Pageable pageable);
 
@@ -135,4 +196,93 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
 
         List<Document> findByDeletedRootFolderId(Long deletedRootFolderId);
 
+        @EntityGraph(attributePaths = "asset")
+        List<Document> findByFolderIdInAndDeletedAtIsNull(Collection<Long> folderIds);
+
+        @Query("SELECT d.id FROM Document d WHERE d.folder.id IN :folderIds AND d.deletedAt IS NULL")
+        List<Long> findActiveIdsByFolderIdIn(@Param("folderIds") Collection<Long> folderIds);
+
+        // Soft-delete theo tập id (bulk UPDATE, không qua entity nên phải tự set updatedAt)
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Document d SET d.deletedAt = :deletedAt, d.deletedBy = :actor, " +
+                        "d.deletedRootFolderId = :deletedRootFolderId, d.status = :status, d.updatedAt = :deletedAt " +
+                        "WHERE d.id IN :ids AND d.deletedAt IS NULL")
+        int softDeleteByIdIn(@Param("ids") Collection<Long> ids,
+                        @Param("actor") User actor,
+                        @Param("deletedRootFolderId") Long deletedRootFolderId,
+                        @Param("status") DocumentStatus status,
+                        @Param("deletedAt") LocalDateTime deletedAt);
+
+        @Modifying(flushAutomatically = true)
+        @Query("UPDATE Document d SET d.deletedAt = NULL, d.deletedBy = NULL, d.deletedRootFolderId = NULL, " +
+                        "d.status = :status, d.updatedAt = :restoredAt WHERE d.id IN :ids")
+        int restoreByIdIn(@Param("ids") Collection<Long> ids,
+                        @Param("status") DocumentStatus status,
+                        @Param("restoredAt") LocalDateTime restoredAt);
+
+        // Kiểm tra trùng tên trong một thư mục: dùng index (user_id, folder_id, normalized_display_name, deleted_at)
+        @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM Document d " +
+                        "WHERE d.user.id = :userId AND d.folder.id = :folderId AND d.normalizedDisplayName = :normalizedName " +
+                        "AND d.deletedAt IS NULL AND (:ignoredId IS NULL OR d.id <> :ignoredId)")
+        boolean existsActiveName(@Param("userId") Long userId,
+                        @Param("folderId") Long folderId,
+                        @Param("normalizedName") String normalizedName,
+                        @Param("ignoredId") Long ignoredId);
+
+        @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM Document d " +
+                        "WHERE d.user.id = :userId AND d.folder IS NULL AND d.normalizedDisplayName = :normalizedName " +
+                        "AND d.deletedAt IS NULL AND (:ignoredId IS NULL OR d.id <> :ignoredId)")
+        boolean existsActiveRootName(@Param("userId") Long userId,
+                        @Param("normalizedName") String normalizedName,
+                        @Param("ignoredId") Long ignoredId);
+
+        @Query("SELECT d.folder.id AS parentId, d.normalizedDisplayName AS normalizedName FROM Document d " +
+                        "WHERE d.user.id = :userId AND d.folder.id IN :folderIds AND d.normalizedDisplayName IN :normalizedNames " +
+                        "AND d.deletedAt IS NULL")
+        List<FolderRepository.ChildName> findActiveNamesByFolderIdIn(@Param("userId") Long userId,
+                        @Param("folderIds") Collection<Long> folderIds,
+                        @Param("normalizedNames") Collection<String> normalizedNames);
+
+        @Query("SELECT d.normalizedDisplayName FROM Document d " +
+                        "WHERE d.user.id = :userId AND d.folder IS NULL AND d.normalizedDisplayName IN :normalizedNames " +
+                        "AND d.deletedAt IS NULL")
+        List<String> findActiveRootNamesIn(@Param("userId") Long userId,
+                        @Param("normalizedNames") Collection<String> normalizedNames);
+
+        // prefix phải được escape bằng '!' trước khi truyền vào
+        @Query("SELECT d.normalizedDisplayName FROM Document d " +
+                        "WHERE d.user.id = :userId AND d.folder.id = :folderId " +
+                        "AND d.normalizedDisplayName LIKE CONCAT(:prefix, '%') ESCAPE '!' AND d.deletedAt IS NULL")
+        List<String> findActiveNamesByPrefix(@Param("userId") Long userId,
+                        @Param("folderId") Long folderId,
+                        @Param("prefix") String prefix);
+
+        @Query("SELECT d.normalizedDisplayName FROM Document d " +
+                        "WHERE d.user.id = :userId AND d.folder IS NULL " +
+                        "AND d.normalizedDisplayName LIKE CONCAT(:prefix, '%') ESCAPE '!' AND d.deletedAt IS NULL")
+        List<String> findActiveRootNamesByPrefix(@Param("userId") Long userId, @Param("prefix") String prefix);
+
+        // Tên hiệu lực = display_name, nếu trống thì tên file, rồi tới title (giống FileManagerNamePolicy)
+        @Modifying
+        @Query(value = "UPDATE documents d LEFT JOIN document_assets a ON a.document_id = d.id " +
+                        "SET d.normalized_display_name = LOWER(TRIM(COALESCE(NULLIF(TRIM(d.display_name), ''), " +
+                        "NULLIF(TRIM(a.file_name), ''), NULLIF(TRIM(d.title), '')))) " +
+                        "WHERE d.normalized_display_name IS NULL", nativeQuery = true)
+        int backfillNormalizedDisplayNames();
+
+        interface FolderDocumentCount {
+                Long getFolderId();
+
+                long getDocumentCount();
+        }
+
+        interface CleanupCandidate {
+                Long getDocumentId();
+
+                LocalDateTime getDeletedAt();
+
+                Long getAssetId();
+
+                String getObjectName();
+        }
 }
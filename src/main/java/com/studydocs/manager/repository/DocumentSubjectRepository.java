@@ -2,7 +2,14 @@ package com.studydocs.manager.repository;
 
 import com.studydocs.manager.entity.DocumentSubject;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface DocumentSubjectRepository extends JpaRepository<DocumentSubject,Long> {
 
+    @Query("SELECT ds FROM DocumentSubject ds JOIN FETCH ds.subject WHERE ds.document.id IN :documentIds")
+    List<DocumentSubject> findWithSubjectByDocumentIdIn(@Param("documentIds") Collection<Long> documentIds);
 }
@@ -2,6 +2,14 @@ package com.studydocs.manager.repository;
 
 import com.studydocs.manager.entity.DocumentTag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface DocumentTagRepository extends JpaRepository<DocumentTag,Long> {
+
+    @Query("SELECT dt FROM DocumentTag dt JOIN FETCH dt.tag WHERE dt.document.id IN :documentIds")
+    List<DocumentTag> findWithTagByDocumentIdIn(@Param("documentIds") Collection<Long> documentIds);
 }
@@ -1,10 +1,14 @@
 package com.studydocs.manager.repository;
 
 import com.studydocs.manager.entity.Folder;
+import com.studydocs.manager.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +24,10 @@ public interface FolderRepository extends JpaRepository<Folder,Long> {
     List<Folder> findByParentIdAndDeletedAtIsNullOrderBySortOrder(Long parentId);
     List<Folder> findByUserIdAndDeletedRootFolderId(Long userId, Long deletedRootFolderId);
 
+    // Chỉ lấy cạnh cha-con của cây folder active, dùng để cộng dồn số liệu theo subtree
+    @Query("SELECT f.id AS id, f.parent.id AS parentId FROM Folder f WHERE f.user.id = :userId AND f.deletedAt IS NULL")
+    List<FolderNode> findActiveNodesByUserId(@Param("userId") Long userId);
+
     @Query("SELECT DISTINCT f.deletedRootFolderId FROM Folder f WHERE f.user.id = :userId AND f.deletedAt IS NOT NULL AND f.deletedRootFolderId IS NOT NULL")
     List<Long> findDistinctDeletedRootFolderIdsByUserId(@Param("userId") Long userId);
 
@@ -37,4 +45,100 @@ public interface FolderRepository extends JpaRepository<Folder,Long> {
             "WHERE f.deletedAt IS NOT NULL AND f.deletedAt < :cutoffDate AND f.deletedRootFolderId = f.id " +
             "ORDER BY f.deletedAt ASC")
     List<Folder> findDeletedRootFoldersBefore(@Param("cutoffDate") java.time.LocalDateTime cutoffDate);
+
+    // Toàn bộ con cháu (mọi trạng thái) của folder theo materialized path; cha luôn đứng trước con
+    @Query("SELECT f FROM Folder f WHERE f.user.id = :userId AND f.path LIKE CONCAT(:pathPrefix, '%') ORDER BY f.path")
+    List<Folder> findDescendantsByPathPrefix(@Param("userId") Long userId, @Param("pathPrefix") String pathPrefix);
+
+    // Move folder: thay prefix path cũ của cả subtree bằng prefix mới
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Folder f SET f.path = CONCAT(:newPrefix, SUBSTRING(f.path, LENGTH(:oldPrefix) + 1)) " +
+            "WHERE f.user.id = :userId AND f.path LIKE CONCAT(:oldPrefix, '%')")
+    int rewritePathPrefix(@Param("userId") Long userId,
+            @Param("oldPrefix") String oldPrefix,
+            @Param("newPrefix") String newPrefix);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Folder f SET f.deletedAt = :deletedAt, f.deletedBy = :actor, " +
+            "f.deletedRootFolderId = :deletedRootFolderId, f.updatedAt = :deletedAt WHERE f.id IN :ids")
+    int softDeleteByIdIn(@Param("ids") Collection<Long> ids,
+            @Param("actor") User actor,
+            @Param("deletedRootFolderId") Long deletedRootFolderId,
+            @Param("deletedAt") LocalDateTime deletedAt);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Folder f SET f.deletedAt = NULL, f.deletedBy = NULL, f.deletedRootFolderId = NULL, " +
+            "f.updatedAt = :restoredAt WHERE f.id IN :ids")
+    int restoreByIdIn(@Param("ids") Collection<Long> ids, @Param("restoredAt") LocalDateTime restoredAt);
+
+    @Modifying
+    @Query(value = "UPDATE folders SET path = '/' WHERE parent_id IS NULL AND path IS NULL", nativeQuery = true)
+    int backfillRootPaths();
+
+    // Mỗi lần chạy điền path cho thêm một tầng folder (cha đã có path)
+    @Modifying
+    @Query(value = "UPDATE folders c JOIN folders p ON c.parent_id = p.id " +
+            "SET c.path = CONCAT(p.path, p.id, '/') " +
+            "WHERE c.path IS NULL AND p.path IS NOT NULL", nativeQuery = true)
+    int backfillChildPaths();
+
+    // Kiểm tra trùng tên trong một thư mục: dùng index (user_id, parent_id, normalized_name, deleted_at)
+    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Folder f " +
+            "WHERE f.user.id = :userId AND f.parent.id = :parentId AND f.normalizedName = :normalizedName " +
+            "AND f.deletedAt IS NULL AND (:ignoredId IS NULL OR f.id <> :ignoredId)")
+    boolean existsActiveName(@Param("userId") Long userId,
+            @Param("parentId") Long parentId,
+            @Param("normalizedName") String normalizedName,
+            @Param("ignoredId") Long ignoredId);
+
+    @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Folder f " +
+            "WHERE f.user.id = :userId AND f.parent IS NULL AND f.normalizedName = :normalizedName " +
+            "AND f.deletedAt IS NULL AND (:ignoredId IS NULL OR f.id <> :ignoredId)")
+    boolean existsActiveRootName(@Param("userId") Long userId,
+            @Param("normalizedName") String normalizedName,
+            @Param("ignoredId") Long ignoredId);
+
+    @Query("SELECT f.parent.id AS parentId, f.normalizedName AS normalizedName FROM Folder f " +
+            "WHERE f.user.id = :userId AND f.parent.id IN :parentIds AND f.normalizedName IN :normalizedNames " +
+            "AND f.deletedAt IS NULL")
+    List<ChildName> findActiveNamesByParentIdIn(@Param("userId") Long userId,
+            @Param("parentIds") Collection<Long> parentIds,
+            @Param("normalizedNames") Collection<String> normalizedNames);
+
+    @Query("SELECT f.normalizedName FROM Folder f " +
+            "WHERE f.user.id = :userId AND f.parent IS NULL AND f.normalizedName IN :normalizedNames " +
+            "AND f.deletedAt IS NULL")
+    List<String> findActiveRootNamesIn(@Param("userId") Long userId,
+            @Param("normalizedNames") Collection<String> normalizedNames);
+
+    // prefix phải được escape bằng '!' trước khi truyền vào
+    @Query("SELECT f.normalizedName FROM Folder f " +
+            "WHERE f.user.id = :userId AND f.parent.id = :parentId " +
+            "AND f.normalizedName LIKE CONCAT(:prefix, '%') ESCAPE '!' AND f.deletedAt IS NULL")
+    List<String> findActiveNamesByPrefix(@Param("userId") Long userId,
+            @Param("parentId") Long parentId,
+            @Param("prefix") String prefix);
+
+    @Query("SELECT f.normalizedName FROM Folder f " +
+            "WHERE f.user.id = :userId AND f.parent IS NULL " +
+            "AND f.normalizedName LIKE CONCAT(:prefix, '%') ESCAPE '!' AND f.deletedAt IS NULL")
+    List<String> findActiveRootNamesByPrefix(@Param("userId") Long userId, @Param("prefix") String prefix);
+
+    @Modifying
+    @Query(value = "UPDATE folders SET normalized_name = LOWER(TRIM(name)) " +
+            "WHERE normalized_name IS NULL AND TRIM(name) <> ''", nativeQuery = true)
+    int backfillNormalizedNames();
+
+    interface FolderNode {
+        Long getId();
+
+        Long getParentId();
+    }
+
+    // Tên đã chuẩn hóa của một item (folder hoặc document) trong thư mục parentId
+    interface ChildName {
+        Long getParentId();
+
+        String getNormalizedName();
+    }
 }
@@ -0,0 +1,66 @@
+package com.studydocs.manager.repository;
+
+import com.studydocs.manager.entity.SearchIndexOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SearchIndexOutboxRepository extends JpaRepository<SearchIndexOutbox, Long> {
+
+    /**
+     * Khóa các dòng đến hạn, bỏ qua dòng đang bị instance khác khóa (chạy trong transaction
+     * của caller, caller claim ngay rồi commit).
+     */
+    @Query(value = "SELECT * FROM search_index_outbox WHERE next_attempt_at <= :now AND attempts < :maxAttempts " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<SearchIndexOutbox> lockDue(@Param("now") LocalDateTime now,
+            @Param("maxAttempts") int maxAttempts,
+            @Param("limit") int limit);
+
+    /**
+     * Claim: đẩy next_attempt_at tới hết hạn claim để instance khác không lấy lại các dòng này.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE SearchIndexOutbox o SET o.nextAttemptAt = :claimedUntil WHERE o.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    Optional<SearchIndexOutbox> findFirstByAttemptsLessThanOrderByIdAsc(int maxAttempts);
+
+    long countByAttemptsGreaterThanEqual(int maxAttempts);
+
+    /**
+     * Ghi một dòng outbox cho mỗi document trong một câu INSERT ... SELECT (chạy trong transaction của caller).
+     */
+    @Modifying
+    @Query(value = "INSERT INTO search_index_outbox (document_id, operation, attempts, next_attempt_at, created_at) " +
+            "SELECT d.id, :operation, 0, :now, :now FROM documents d WHERE d.id IN :documentIds", nativeQuery = true)
+    int enqueueAll(@Param("documentIds") Collection<Long> documentIds,
+            @Param("operation") String operation,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * Xóa đúng các dòng outbox mà lượt drain đã đọc (theo id). Dòng commit muộn hơn,
+     * kể cả khi id nhỏ hơn, vẫn còn lại cho lượt sau.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM SearchIndexOutbox o WHERE o.id IN :ids")
+    int deleteProcessed(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE SearchIndexOutbox o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :nextAttemptAt, " +
+            "o.lastError = :lastError WHERE o.id IN :ids")
+    int scheduleRetry(@Param("ids") Collection<Long> ids,
+            @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("lastError") String lastError);
+}
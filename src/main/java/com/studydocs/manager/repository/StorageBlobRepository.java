@@ -0,0 +1,88 @@
+package com.studydocs.manager.repository;
+
+import com.studydocs.manager.entity.StorageBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StorageBlobRepository extends JpaRepository<StorageBlob, Long> {
+
+    /**
+     * Khóa dòng blob theo content hash: release / delete song song phải chờ tới khi
+     * upload trùng đặt xong lease.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM StorageBlob b WHERE b.contentHash = :contentHash")
+    Optional<StorageBlob> findByContentHashForUpdate(@Param("contentHash") String contentHash);
+
+    boolean existsByObjectName(String objectName);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount + 1 WHERE b.objectName = :objectName")
+    int incrementRefCount(@Param("objectName") String objectName);
+
+    @Query("SELECT b.objectName FROM StorageBlob b WHERE b.objectName IN :objectNames")
+    List<String> findExistingObjectNames(@Param("objectNames") Collection<String> objectNames);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount + :delta WHERE b.objectName IN :objectNames")
+    int incrementRefCounts(@Param("objectNames") Collection<String> objectNames, @Param("delta") int delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StorageBlob b SET b.refCount = b.refCount - 1 WHERE b.objectName = :objectName AND b.refCount > 0")
+    int decrementRefCount(@Param("objectName") String objectName);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE StorageBlob b SET b.refCount = CASE WHEN b.refCount > :delta THEN b.refCount - :delta ELSE 0 END " +
+            "WHERE b.objectName IN :objectNames")
+    int decrementRefCounts(@Param("objectNames") Collection<String> objectNames, @Param("delta") int delta);
+
+    @Query("SELECT b.objectName FROM StorageBlob b WHERE b.objectName IN :objectNames AND b.refCount <= 0 " +
+            "AND (b.leasedUntil IS NULL OR b.leasedUntil < :now)")
+    List<String> findUnreferencedObjectNames(@Param("objectNames") Collection<String> objectNames,
+            @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM StorageBlob b WHERE b.objectName IN :objectNames AND b.refCount <= 0 " +
+            "AND (b.leasedUntil IS NULL OR b.leasedUntil < :now)")
+    int deleteUnreferenced(@Param("objectNames") Collection<String> objectNames, @Param("now") LocalDateTime now);
+
+    /**
+     * Xóa dòng blob nếu không còn tham chiếu và không còn lease. Chỉ một transaction
+     * xóa được dòng (row lock), transaction đó chịu trách nhiệm xóa object trên storage.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM StorageBlob b WHERE b.objectName = :objectName AND b.refCount <= 0 " +
+            "AND (b.leasedUntil IS NULL OR b.leasedUntil < :now)")
+    int deleteIfUnreferenced(@Param("objectName") String objectName, @Param("now") LocalDateTime now);
+
+    /**
+     * Tạo blob cho các object có từ trước khi có bảng storage_blobs, với ref_count
+     * bằng số tham chiếu hiện có (file, thumbnail, version). Idempotent: object đã được
+     * instance khác đăng ký cùng lúc thì giữ nguyên dòng đó thay vì lỗi duplicate key.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO storage_blobs (object_name, ref_count, created_at) " +
+            "SELECT refs.object_name, COUNT(*), NOW() FROM (" +
+            "  SELECT a.object_name FROM document_assets a WHERE a.object_name IS NOT NULL AND a.object_name <> ''" +
+            "  UNION ALL" +
+            "  SELECT a.thumbnail_object_name FROM document_assets a" +
+            "  WHERE a.thumbnail_object_name IS NOT NULL AND a.thumbnail_object_name <> ''" +
+            "  UNION ALL" +
+            "  SELECT v.object_name FROM document_versions v WHERE v.object_name IS NOT NULL AND v.object_name <> ''" +
+            ") refs " +
+            "WHERE NOT EXISTS (SELECT 1 FROM storage_blobs b WHERE b.object_name = refs.object_name) " +
+            "GROUP BY refs.object_name " +
+            "ON DUPLICATE KEY UPDATE storage_blobs.ref_count = storage_blobs.ref_count", nativeQuery = true)
+    int backfillLegacyReferences();
+}
@@ -0,0 +1,25 @@
+package com.studydocs.manager.repository;
+
+import com.studydocs.manager.entity.UploadSessionPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionPartRepository extends JpaRepository<UploadSessionPart, Long> {
+
+    List<UploadSessionPart> findBySessionIdOrderByPartNumberAsc(Long sessionId);
+
+    Optional<UploadSessionPart> findBySessionIdAndPartNumber(Long sessionId, Integer partNumber);
+
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM UploadSessionPart p WHERE p.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") Long sessionId);
+}
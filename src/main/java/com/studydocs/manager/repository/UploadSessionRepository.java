@@ -0,0 +1,18 @@
+package com.studydocs.manager.repository;
+
+import com.studydocs.manager.entity.UploadSession;
+import com.studydocs.manager.enums.UploadSessionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, Long> {
+
+    List<UploadSession> findByStatusAndExpiresAtBeforeOrderByIdAsc(UploadSessionStatus status,
+            LocalDateTime expiresAt,
+            Pageable pageable);
+}
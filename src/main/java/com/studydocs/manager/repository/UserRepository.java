@@ -47,4 +47,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query(value = "UPDATE users SET failed_login_attempts = 0, locked_until = NULL WHERE id = :userId", nativeQuery = true)
     int resetFailedLoginAttempts(@Param("userId") Long userId);
+
+    /**
+     * Ghi hash mật khẩu mới (rehash khi đăng nhập). Không clear persistence context vì
+     * LoginUseCase vẫn dùng entity User đã load trong cùng transaction
+     */
+    @Modifying
+    @Query(value = "UPDATE users SET password = :password WHERE username = :username", nativeQuery = true)
+    int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
 }
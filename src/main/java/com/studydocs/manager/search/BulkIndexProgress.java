@@ -0,0 +1,82 @@
+package com.studydocs.manager.search;
+
+import com.studydocs.manager.dto.document.BulkIndexReport;
+import com.studydocs.manager.enums.BulkIndexStatus;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bộ đếm tiến độ của một lần bulk reindex. Được cập nhật từ reader/writer
+ * và các thread trích xuất, đọc lại qua {@link #snapshot()} cho endpoint admin.
+ */
+final class BulkIndexProgress {
+
+    private final Instant startedAt = Instant.now();
+    private final long startedNanos = System.nanoTime();
+    private volatile String targetIndex;
+    private volatile BulkIndexStatus status = BulkIndexStatus.RUNNING;
+    private volatile String error;
+    private volatile Instant finishedAt;
+    private volatile long finishedNanos;
+
+    final AtomicLong scanned = new AtomicLong();
+    final AtomicLong indexed = new AtomicLong();
+    final AtomicLong skipped = new AtomicLong();
+    final AtomicLong failed = new AtomicLong();
+    final AtomicLong bulkRequests = new AtomicLong();
+    final AtomicLong sourceBytes = new AtomicLong();
+    final AtomicLong payloadBytes = new AtomicLong();
+
+    void setTargetIndex(String targetIndex) {
+        this.targetIndex = targetIndex;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        status = BulkIndexStatus.FAILED;
+    }
+
+    void interrupted() {
+        status = BulkIndexStatus.INTERRUPTED;
+    }
+
+    void finish() {
+        if (status == BulkIndexStatus.RUNNING) {
+            status = BulkIndexStatus.SUCCEEDED;
+        }
+        finishedNanos = System.nanoTime();
+        finishedAt = Instant.now();
+    }
+
+    BulkIndexReport snapshot() {
+        boolean running = finishedAt == null;
+        long elapsedNanos = (running ? System.nanoTime() : finishedNanos) - startedNanos;
+        double elapsedSeconds = elapsedNanos / 1_000_000_000.0;
+
+        BulkIndexReport report = new BulkIndexReport();
+        report.setRunning(running);
+        report.setStatus(status);
+        report.setError(error);
+        report.setTargetIndex(targetIndex);
+        report.setStartedAt(startedAt);
+        report.setFinishedAt(finishedAt);
+        report.setDocumentsScanned(scanned.get());
+        report.setDocumentsIndexed(indexed.get());
+        report.setDocumentsSkipped(skipped.get());
+        report.setDocumentsFailed(failed.get());
+        report.setBulkRequests(bulkRequests.get());
+        report.setSourceBytes(sourceBytes.get());
+        report.setPayloadBytes(payloadBytes.get());
+        report.setElapsedMs(elapsedNanos / 1_000_000);
+        if (elapsedSeconds > 0) {
+            report.setDocsPerSecond(round(indexed.get() / elapsedSeconds));
+            report.setMegabytesPerSecond(round(sourceBytes.get() / (1024.0 * 1024.0) / elapsedSeconds));
+        }
+        return report;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
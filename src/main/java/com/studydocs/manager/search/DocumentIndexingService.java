@@ -1,29 +1,57 @@
 package com.studydocs.manager.search;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
 import com.studydocs.manager.config.SearchProperties;
+import com.studydocs.manager.dto.document.BulkIndexReport;
 import com.studydocs.manager.entity.Document;
 import com.studydocs.manager.entity.DocumentAsset;
 import com.studydocs.manager.enums.DocumentStatus;
 import com.studydocs.manager.enums.DocumentVisibility;
+import com.studydocs.manager.exception.ConflictException;
+import com.studydocs.manager.exception.ServiceUnavailableException;
 import com.studydocs.manager.repository.DocumentRepository;
 import com.studydocs.manager.service.file.TikaMetadataService;
 import com.studydocs.manager.storage.StorageProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,46 +59,108 @@ import java.util.stream.Collectors;
 public class DocumentIndexingService {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentIndexingService.class);
-    private static final int BULK_INDEX_PAGE_SIZE = 50;
+    private static final long DRAIN_POLL_MS = 100;
+    private static final String ID_FIELD = "id";
+    private static final String CONTENT_FIELD = "content";
+    private static final String OBJECT_NAME_FIELD = "objectName";
+    // Phần metadata ngoài title/description/content của một bulk action (ước lượng)
+    private static final long BULK_ACTION_OVERHEAD_BYTES = 1024;
 
     private final DocumentSearchRepository searchRepository;
     private final DocumentRepository documentRepository;
     private final TikaMetadataService tikaMetadataService;
     private final StorageProvider storageProvider;
     private final SearchProperties searchProperties;
+    private final ExtractedTextCache extractedTextCache;
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final DocumentSearchIndexManager indexManager;
+    private final Executor bulkExtractionExecutor;
+
+    private final AtomicReference<BulkIndexProgress> activeBulkRun = new AtomicReference<>();
+    private volatile BulkIndexProgress lastBulkRun;
 
     public DocumentIndexingService(DocumentSearchRepository searchRepository,
             DocumentRepository documentRepository,
             TikaMetadataService tikaMetadataService,
             StorageProvider storageProvider,
-            SearchProperties searchProperties) {
+            SearchProperties searchProperties,
+            ExtractedTextCache extractedTextCache,
+            ElasticsearchOperations elasticsearchOperations,
+            ElasticsearchClient elasticsearchClient,
+            DocumentSearchIndexManager indexManager,
+            @Qualifier("searchBulkExtractionExecutor") Executor bulkExtractionExecutor) {
         this.searchRepository = searchRepository;
         this.documentRepository = documentRepository;
         this.tikaMetadataService = tikaMetadataService;
         this.storageProvider = storageProvider;
         this.searchProperties = searchProperties;
+        this.extractedTextCache = extractedTextCache;
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchClient = elasticsearchClient;
+        this.indexManager = indexManager;
+        this.bulkExtractionExecutor = bulkExtractionExecutor;
     }
 
-    @Async("searchIndexingExecutor")
-    public CompletableFuture<Boolean> updateIndexById(Long documentId) {
-        return CompletableFuture.completedFuture(indexDocumentInternal(documentId));
-    }
-
-    @Async("searchIndexingExecutor")
-    public CompletableFuture<Boolean> deleteFromIndex(Long documentId) {
-        try {
-            if (searchRepository.existsById(documentId)) {
-                searchRepository.deleteById(documentId);
-                logger.info("Deleted document {} from search index", documentId);
-                return CompletableFuture.completedFuture(true);
+    /**
+     * Đồng bộ một nhóm document (do outbox drainer gom lại) bằng request _bulk.
+     * Document được reindex theo trạng thái hiện tại trong DB: không còn tồn tại
+     * hoặc không còn public/published thì bị xóa khỏi index.
+     * <p>
+     * Document đã có trong index với cùng objectName chỉ được gửi partial
+     * {@code _update} các field metadata — không tải file / chạy Tika lại.
+     * Content chỉ được trích xuất lại khi file (objectName) thực sự thay đổi.
+     *
+     * @return id các document chưa đồng bộ được, caller sẽ retry
+     */
+    public Set<Long> syncBatch(Collection<Long> reindexIds, Collection<Long> deleteIds) throws IOException {
+        indexManager.requireAliases();
+        Set<Long> toDelete = new LinkedHashSet<>(deleteIds);
+        List<DocumentSearchIndex> toIndex = new ArrayList<>();
+        List<DocumentSearchIndex> toUpdate = new ArrayList<>();
+
+        if (!reindexIds.isEmpty()) {
+            Map<Long, Document> documentsById = documentRepository.findAllByIdInForSearchIndexing(reindexIds).stream()
+                    .collect(Collectors.toMap(Document::getId, document -> document, (left, right) -> left));
+            Map<Long, String> indexedObjectNames = findIndexedObjectNames(documentsById.keySet());
+            for (Long documentId : reindexIds) {
+                Document document = documentsById.get(documentId);
+                if (document == null || !shouldBeIndexed(document)) {
+                    toDelete.add(documentId);
+                } else if (canUpdateMetadataOnly(document, indexedObjectNames)) {
+                    toUpdate.add(buildSearchIndex(document));
+                } else {
+                    toIndex.add(convertToSearchIndex(document));
+                }
             }
+        }
 
-            logger.debug("Document {} not found in search index", documentId);
-            return CompletableFuture.completedFuture(false);
-        } catch (Exception e) {
-            logger.error("Failed to delete document {} from index: {}", documentId, e.getMessage(), e);
-            return CompletableFuture.completedFuture(false);
+        Set<Long> failed = new HashSet<>();
+        if (!toIndex.isEmpty()) {
+            List<IndexQuery> queries = toIndex.stream()
+                    .map(searchIndex -> new IndexQueryBuilder()
+                            .withId(String.valueOf(searchIndex.getId()))
+                            .withObject(searchIndex)
+                            .build())
+                    .toList();
+            for (IndexCoordinates target : indexManager.writeTargets()) {
+                try {
+                    elasticsearchOperations.bulkIndex(queries, target);
+                } catch (BulkFailureException e) {
+                    e.getFailedDocuments().keySet().forEach(id -> failed.add(Long.valueOf(id)));
+                }
+            }
         }
+        if (!toUpdate.isEmpty()) {
+            failed.addAll(bulkPartialUpdate(toUpdate));
+        }
+        if (!toDelete.isEmpty()) {
+            failed.addAll(bulkDelete(toDelete));
+        }
+
+        logger.debug("Synced search index batch: {} indexed, {} metadata-only, {} deleted, {} failed",
+                toIndex.size(), toUpdate.size(), toDelete.size(), failed.size());
+        return failed;
     }
 
     public boolean reindexDocumentNow(Long documentId) {
@@ -81,36 +171,100 @@ public class DocumentIndexingService {
         return searchRepository.count();
     }
 
-    public int bulkIndexAllDocuments() {
-        logger.info("Starting bulk indexing of public published documents");
-
-        int page = 0;
-        int totalIndexed = 0;
-
-        while (true) {
-            Page<Document> documentsPage = documentRepository.findByStatusAndDeletedAtIsNull(
-                    DocumentStatus.PUBLISHED,
-                    PageRequest.of(page, BULK_INDEX_PAGE_SIZE));
-
-            if (documentsPage.isEmpty()) {
-                break;
-            }
+    /**
+     * Full reindex toàn bộ document PUBLISHED theo pipeline 3 stage:
+     * <ol>
+     * <li>reader: keyset page id + fetch-join entity theo batch,</li>
+     * <li>extraction: tải file + Tika song song trên searchBulkExtractionExecutor,</li>
+     * <li>writer: gom thành request _bulk theo số lượng / dung lượng.</li>
+     * </ol>
+     * Reader bị chặn khi số document đang xử lý vượt search.bulk-max-in-flight.
+     * Chỉ cho phép một lần chạy tại một thời điểm; tiến độ xem qua
+     * {@link #getBulkIndexProgress()}.
+     * <p>
+     * Ghi thẳng vào index đang phục vụ (write alias). Dùng {@link #rebuildIndex()}
+     * để nạp vào index mới rồi mới chuyển alias.
+     */
+    public BulkIndexReport bulkIndexAllDocuments() {
+        indexManager.requireAliases();
+        return runExclusive(progress -> {
+            progress.setTargetIndex(DocumentSearchIndexManager.WRITE_ALIAS);
+            runBulkPipeline(progress, IndexCoordinates.of(DocumentSearchIndexManager.WRITE_ALIAS), false);
+        });
+    }
 
-            for (Document document : documentsPage.getContent()) {
-                if (indexDocumentInternal(document.getId())) {
-                    totalIndexed++;
+    /**
+     * Blue/green rebuild: nạp toàn bộ vào {@code documents_v{n+1}} rồi swap alias.
+     * Index mới bị xóa nếu lần nạp không hoàn tất.
+     * <p>
+     * Mọi instance ghi song song vào index mới trong lúc nạp, nên snapshot không được
+     * đè lên ghi realtime: snapshot dùng {@code op_type=create} (document đã được ghi
+     * realtime thì giữ nguyên), và sau mỗi request _bulk, document không còn
+     * public/published trong DB bị xóa khỏi index mới (bị xóa / ẩn trong lúc nạp).
+     * <p>
+     * Chỉ promote khi mọi document đều được ghi (409 = đã có bản realtime, tính là ghi).
+     * Có document lỗi thì index mới bị xóa, index cũ tiếp tục phục vụ, lần chạy FAILED.
+     */
+    public BulkIndexReport rebuildIndex() {
+        return runExclusive(progress -> {
+            String newIndex = indexManager.beginRebuild();
+            progress.setTargetIndex(newIndex);
+            boolean promoted = false;
+            try {
+                logger.info("Rebuilding search index into {}", newIndex);
+                runBulkPipeline(progress, IndexCoordinates.of(newIndex), true);
+                long failed = progress.failed.get();
+                if (failed > 0) {
+                    logger.error("Rebuild into {} failed for {} documents, keeping the current index", newIndex, failed);
+                    progress.fail(failed + " documents could not be indexed");
+                    return;
+                }
+                indexManager.promote(newIndex);
+                promoted = true;
+            } finally {
+                if (!promoted) {
+                    indexManager.discard(newIndex);
                 }
             }
+        });
+    }
 
-            if (!documentsPage.hasNext()) {
-                break;
-            }
+    private BulkIndexReport runExclusive(BulkRun run) {
+        BulkIndexProgress progress = new BulkIndexProgress();
+        if (!activeBulkRun.compareAndSet(null, progress)) {
+            throw new ConflictException("Bulk re-indexing is already running", "BULK_REINDEX_IN_PROGRESS", null);
+        }
 
-            page++;
+        logger.info("Starting bulk indexing of public published documents");
+        try {
+            run.execute(progress);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.interrupted();
+            logger.warn("Bulk indexing interrupted after {} documents", progress.indexed.get());
+        } catch (RuntimeException e) {
+            progress.fail(e.getMessage());
+            throw e;
+        } finally {
+            progress.finish();
+            lastBulkRun = progress;
+            activeBulkRun.set(null);
         }
 
-        logger.info("Bulk indexing completed. Indexed {} documents", totalIndexed);
-        return totalIndexed;
+        BulkIndexReport report = progress.snapshot();
+        logger.info("Bulk indexing {}. Indexed {} documents ({} skipped, {} failed) in {} ms: {} docs/s, {} MB/s",
+                report.getStatus(), report.getDocumentsIndexed(), report.getDocumentsSkipped(), report.getDocumentsFailed(),
+                report.getElapsedMs(), report.getDocsPerSecond(), report.getMegabytesPerSecond());
+        return report;
+    }
+
+    /**
+     * Tiến độ của lần bulk reindex đang chạy, hoặc kết quả của lần gần nhất.
+     */
+    public Optional<BulkIndexReport> getBulkIndexProgress() {
+        BulkIndexProgress active = activeBulkRun.get();
+        BulkIndexProgress current = active != null ? active : lastBulkRun;
+        return Optional.ofNullable(current).map(BulkIndexProgress::snapshot);
     }
 
     public int reindexByAuthor(Long userId) {
@@ -132,20 +286,22 @@ public class DocumentIndexingService {
         try {
             Optional<Document> optionalDocument = documentRepository.findByIdForSearchIndexing(documentId);
             if (optionalDocument.isEmpty()) {
-                searchRepository.deleteById(documentId);
+                deleteFromWriteTargets(documentId);
                 logger.debug("Document {} no longer exists, removed stale index entry", documentId);
                 return false;
             }
 
             Document document = optionalDocument.get();
             if (!shouldBeIndexed(document)) {
-                searchRepository.deleteById(documentId);
+                deleteFromWriteTargets(documentId);
                 logger.debug("Skipping index for document {} because it is not public and published", documentId);
                 return false;
             }
 
             DocumentSearchIndex searchIndex = convertToSearchIndex(document);
-            searchRepository.save(searchIndex);
+            for (IndexCoordinates target : indexManager.writeTargets()) {
+                elasticsearchOperations.save(searchIndex, target);
+            }
             logger.info("Indexed document {}", documentId);
             return true;
         } catch (Exception e) {
@@ -161,12 +317,21 @@ public class DocumentIndexingService {
     }
 
     private DocumentSearchIndex convertToSearchIndex(Document document) {
+        DocumentSearchIndex searchIndex = buildSearchIndex(document);
+        DocumentAsset asset = document.getAsset();
+        if (asset != null) {
+            searchIndex.setContent(extractContentFromFile(document.getId(), asset.getObjectName(), asset.getFileName()));
+        }
+        return searchIndex;
+    }
+
+    // Mọi field trừ content — content được trích xuất riêng (có thể ở thread khác)
+    private DocumentSearchIndex buildSearchIndex(Document document) {
         DocumentSearchIndex searchIndex = new DocumentSearchIndex();
 
         searchIndex.setId(document.getId());
         searchIndex.setTitle(document.getTitle());
         searchIndex.setDescription(document.getDescription());
-        searchIndex.setContent(extractContentFromFile(document));
 
         DocumentAsset asset = document.getAsset();
         if (asset != null) {
@@ -222,14 +387,21 @@ public class DocumentIndexingService {
         return searchIndex;
     }
 
-    private String extractContentFromFile(Document document) {
-        DocumentAsset asset = document.getAsset();
-        if (asset == null || asset.getObjectName() == null || asset.getObjectName().isBlank()) {
+    private String extractContentFromFile(Long documentId, String objectName, String fileName) {
+        if (objectName == null || objectName.isBlank()) {
             return null;
         }
 
         try {
-            String decodedObjectName = URLDecoder.decode(asset.getObjectName(), StandardCharsets.UTF_8);
+            String decodedObjectName = URLDecoder.decode(objectName, StandardCharsets.UTF_8);
+            int maxLength = searchProperties.getFullTextMaxLength();
+            String fingerprint = resolveFingerprint(decodedObjectName);
+            Optional<String> cachedText = extractedTextCache.get(fingerprint, maxLength);
+            if (cachedText.isPresent()) {
+                logger.debug("Reusing extracted text of {} for document {}", decodedObjectName, documentId);
+                return cachedText.get().isBlank() ? null : cachedText.get();
+            }
+
             try (InputStream fileStream = storageProvider.downloadFileAsStream(decodedObjectName)) {
                 if (fileStream == null) {
                     logger.warn("Could not download file {} from storage", decodedObjectName);
@@ -238,19 +410,345 @@ public class DocumentIndexingService {
 
                 String extractedText = tikaMetadataService.extractText(
                         fileStream,
-                        searchProperties.getFullTextMaxLength(),
-                        asset.getFileName());
+                        maxLength,
+                        fileName);
 
-                if (extractedText == null || extractedText.isBlank()) {
-                    return null;
-                }
-
-                return extractedText.trim();
+                String content = extractedText == null || extractedText.isBlank() ? null : extractedText.trim();
+                extractedTextCache.put(fingerprint, maxLength, content);
+                return content;
             }
         } catch (Exception e) {
             logger.error("Failed to extract content from file {} for document {}: {}",
-                    asset.getObjectName(), document.getId(), e.getMessage(), e);
+                    objectName, documentId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private String resolveFingerprint(String objectName) {
+        try {
+            return storageProvider.getObjectFingerprint(objectName);
+        } catch (Exception e) {
+            logger.debug("No fingerprint for {}, extracted text will not be cached: {}", objectName, e.getMessage());
             return null;
         }
     }
+
+    // rebuild = nạp vào index mới đang được ghi song song; ngược lại ghi đè index đang phục vụ
+    private void runBulkPipeline(BulkIndexProgress progress, IndexCoordinates target, boolean rebuild)
+            throws InterruptedException {
+        int fetchSize = Math.max(1, searchProperties.getBulkFetchSize());
+        BulkIndexPipeline pipeline = new BulkIndexPipeline(progress, target, rebuild);
+        long lastId = 0L;
+
+        while (true) {
+            List<Long> ids = documentRepository.findIdsByStatusAndDeletedAtIsNullAfter(
+                    DocumentStatus.PUBLISHED,
+                    lastId,
+                    PageRequest.of(0, fetchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+            progress.scanned.addAndGet(ids.size());
+
+            List<Document> documents = documentRepository.findAllByIdInForSearchIndexing(ids);
+            Set<Long> staleIds = new HashSet<>(ids);
+            for (Document document : documents) {
+                if (shouldBeIndexed(document)) {
+                    staleIds.remove(document.getId());
+                    pipeline.submit(document);
+                }
+            }
+
+            if (!staleIds.isEmpty()) {
+                progress.skipped.addAndGet(staleIds.size());
+                if (!rebuild) {
+                    deleteStaleEntries(staleIds);
+                }
+            }
+
+            if (ids.size() < fetchSize) {
+                break;
+            }
+        }
+
+        pipeline.finish();
+    }
+
+    private void deleteStaleEntries(Set<Long> staleIds) {
+        try {
+            for (Long staleId : staleIds) {
+                deleteFromWriteTargets(staleId);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to remove {} stale index entries: {}", staleIds.size(), e.getMessage());
+        }
+    }
+
+    private boolean canUpdateMetadataOnly(Document document, Map<Long, String> indexedObjectNames) {
+        // Đang rebuild thì index mới có thể chưa có document → luôn index đầy đủ
+        if (indexManager.writeTargets().size() > 1 || !indexedObjectNames.containsKey(document.getId())) {
+            return false;
+        }
+        DocumentAsset asset = document.getAsset();
+        String currentObjectName = asset != null ? asset.getObjectName() : null;
+        return Objects.equals(indexedObjectNames.get(document.getId()), currentObjectName);
+    }
+
+    /**
+     * objectName hiện có trong index cho các id (chỉ lấy đúng field đó).
+     * Id không có trong index sẽ không xuất hiện trong map.
+     */
+    @SuppressWarnings("rawtypes")
+    private Map<Long, String> findIndexedObjectNames(Collection<Long> documentIds) throws IOException {
+        if (documentIds.isEmpty()) {
+            return Map.of();
+        }
+
+        List<String> ids = documentIds.stream().map(String::valueOf).toList();
+        MgetResponse<Map> response = elasticsearchClient.mget(r -> r
+                .index(DocumentSearchIndexManager.WRITE_ALIAS)
+                .ids(ids)
+                .sourceIncludes(OBJECT_NAME_FIELD), Map.class);
+
+        Map<Long, String> objectNames = new HashMap<>();
+        for (MultiGetResponseItem<Map> item : response.docs()) {
+            if (item.isResult() && item.result().found()) {
+                Map source = item.result().source();
+                Object objectName = source != null ? source.get(OBJECT_NAME_FIELD) : null;
+                objectNames.put(Long.valueOf(item.result().id()), objectName != null ? objectName.toString() : null);
+            }
+        }
+        return objectNames;
+    }
+
+    private Set<Long> bulkPartialUpdate(List<DocumentSearchIndex> searchIndexes) throws IOException {
+        BulkRequest.Builder request = new BulkRequest.Builder();
+        for (DocumentSearchIndex searchIndex : searchIndexes) {
+            Map<String, Object> partialDocument = toPartialDocument(searchIndex);
+            request.operations(op -> op.update(u -> u
+                    .index(DocumentSearchIndexManager.WRITE_ALIAS)
+                    .id(String.valueOf(searchIndex.getId()))
+                    .action(a -> a.doc(partialDocument))));
+        }
+
+        Set<Long> failed = new HashSet<>();
+        BulkResponse response = elasticsearchClient.bulk(request.build());
+        if (response.errors()) {
+            for (BulkResponseItem item : response.items()) {
+                if (item.error() != null) {
+                    failed.add(Long.valueOf(item.id()));
+                }
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Mọi field metadata (trừ id, content) theo đúng mapping của entity.
+     * Field null được gửi tường minh để partial update xóa được giá trị cũ.
+     */
+    private Map<String, Object> toPartialDocument(DocumentSearchIndex searchIndex) {
+        ElasticsearchConverter converter = elasticsearchOperations.getElasticsearchConverter();
+        Map<String, Object> partialDocument = new HashMap<>(converter.mapObject(searchIndex));
+        converter.getMappingContext().getRequiredPersistentEntity(DocumentSearchIndex.class)
+                .forEach(property -> partialDocument.putIfAbsent(property.getFieldName(), null));
+        partialDocument.remove(CONTENT_FIELD);
+        partialDocument.remove(ID_FIELD);
+        return partialDocument;
+    }
+
+    private Set<Long> bulkDelete(Collection<Long> documentIds) throws IOException {
+        Set<Long> failed = new HashSet<>();
+        for (IndexCoordinates target : indexManager.writeTargets()) {
+            BulkRequest.Builder request = new BulkRequest.Builder();
+            for (Long documentId : documentIds) {
+                request.operations(op -> op.delete(d -> d
+                        .index(target.getIndexName())
+                        .id(String.valueOf(documentId))));
+            }
+
+            BulkResponse response = elasticsearchClient.bulk(request.build());
+            if (response.errors()) {
+                for (BulkResponseItem item : response.items()) {
+                    if (item.error() != null) {
+                        failed.add(Long.valueOf(item.id()));
+                    }
+                }
+            }
+        }
+        return failed;
+    }
+
+    private void deleteFromWriteTargets(Long documentId) {
+        for (IndexCoordinates target : indexManager.writeTargets()) {
+            elasticsearchOperations.delete(String.valueOf(documentId), target);
+        }
+    }
+
+    private static long estimatePayloadBytes(DocumentSearchIndex searchIndex) {
+        return BULK_ACTION_OVERHEAD_BYTES
+                + utf8Length(searchIndex.getTitle())
+                + utf8Length(searchIndex.getDescription())
+                + utf8Length(searchIndex.getContent());
+    }
+
+    private static long utf8Length(String value) {
+        return value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    @FunctionalInterface
+    private interface BulkRun {
+        void execute(BulkIndexProgress progress) throws InterruptedException;
+    }
+
+    /**
+     * Trạng thái của một lần bulk reindex. Chỉ thread gọi
+     * {@link #bulkIndexAllDocuments()} chạm vào batch/pending; các thread
+     * extraction chỉ đẩy kết quả vào hàng đợi {@code extracted}.
+     */
+    private final class BulkIndexPipeline {
+
+        private final BulkIndexProgress progress;
+        private final IndexCoordinates index;
+        private final boolean rebuild;
+        private final int batchSize;
+        private final long maxBytes;
+        private final Semaphore inFlight;
+        private final BlockingQueue<DocumentSearchIndex> extracted = new LinkedBlockingQueue<>();
+        private final List<IndexQuery> batch = new ArrayList<>();
+        private long batchBytes;
+        private int pending;
+
+        private BulkIndexPipeline(BulkIndexProgress progress, IndexCoordinates index, boolean rebuild) {
+            this.progress = progress;
+            this.index = index;
+            this.rebuild = rebuild;
+            this.batchSize = Math.max(1, searchProperties.getBulkBatchSize());
+            this.maxBytes = Math.max(1, searchProperties.getBulkMaxBytes());
+            // in-flight >= batchSize, nếu không batch không bao giờ đầy và reader chờ mãi
+            this.inFlight = new Semaphore(Math.max(batchSize, searchProperties.getBulkMaxInFlight()));
+        }
+
+        private void submit(Document document) throws InterruptedException {
+            while (!inFlight.tryAcquire(DRAIN_POLL_MS, TimeUnit.MILLISECONDS)) {
+                drain(DRAIN_POLL_MS);
+            }
+
+            DocumentSearchIndex searchIndex = buildSearchIndex(document);
+            DocumentAsset asset = document.getAsset();
+            Long documentId = document.getId();
+            String objectName = asset != null ? asset.getObjectName() : null;
+            String fileName = asset != null ? asset.getFileName() : null;
+            Long fileSize = asset != null ? asset.getFileSize() : null;
+
+            pending++;
+            bulkExtractionExecutor.execute(() -> {
+                try {
+                    searchIndex.setContent(extractContentFromFile(documentId, objectName, fileName));
+                    if (objectName != null && !objectName.isBlank() && fileSize != null) {
+                        progress.sourceBytes.addAndGet(fileSize);
+                    }
+                } finally {
+                    extracted.add(searchIndex);
+                }
+            });
+
+            drain(0);
+        }
+
+        private void drain(long waitMillis) throws InterruptedException {
+            DocumentSearchIndex ready = waitMillis > 0
+                    ? extracted.poll(waitMillis, TimeUnit.MILLISECONDS)
+                    : extracted.poll();
+            while (ready != null) {
+                pending--;
+                add(ready);
+                ready = extracted.poll();
+            }
+        }
+
+        private void add(DocumentSearchIndex searchIndex) {
+            batch.add(new IndexQueryBuilder()
+                    .withId(String.valueOf(searchIndex.getId()))
+                    .withObject(searchIndex)
+                    .withOpType(rebuild ? IndexQuery.OpType.CREATE : IndexQuery.OpType.INDEX)
+                    .build());
+            batchBytes += estimatePayloadBytes(searchIndex);
+
+            if (batch.size() >= batchSize || batchBytes >= maxBytes) {
+                flush();
+            }
+        }
+
+        private void finish() throws InterruptedException {
+            while (pending > 0) {
+                drain(DRAIN_POLL_MS);
+            }
+            flush();
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            int size = batch.size();
+            List<Long> ids = rebuild ? batch.stream().map(query -> Long.valueOf(query.getId())).toList() : List.of();
+            try {
+                elasticsearchOperations.bulkIndex(batch, index);
+                progress.indexed.addAndGet(size);
+            } catch (BulkFailureException e) {
+                // 409 khi rebuild: document đã được ghi realtime (mới hơn snapshot), giữ nguyên
+                long alreadyIndexed = rebuild
+                        ? e.getFailedDocuments().values().stream()
+                                .filter(details -> Integer.valueOf(409).equals(details.status()))
+                                .count()
+                        : 0;
+                int failedCount = (int) (e.getFailedDocuments().size() - alreadyIndexed);
+                progress.indexed.addAndGet(size - failedCount);
+                progress.failed.addAndGet(failedCount);
+                if (failedCount > 0) {
+                    logger.error("Bulk request rejected {} of {} documents: {}",
+                            failedCount, size, e.getFailedDocuments().keySet());
+                }
+            } catch (Exception e) {
+                progress.failed.addAndGet(size);
+                logger.error("Bulk request of {} documents failed: {}", size, e.getMessage(), e);
+            } finally {
+                progress.bulkRequests.incrementAndGet();
+                progress.payloadBytes.addAndGet(batchBytes);
+                batch.clear();
+                batchBytes = 0;
+                inFlight.release(size);
+            }
+
+            if (rebuild) {
+                removeNoLongerIndexable(ids);
+            }
+        }
+
+        /**
+         * Rebuild: document của batch vừa ghi mà đã bị xóa / ẩn sau lúc snapshot đọc DB.
+         * Thay đổi đến sau lần kiểm tra này được ghi realtime vào index mới.
+         */
+        private void removeNoLongerIndexable(List<Long> ids) {
+            try {
+                Set<Long> stale = new HashSet<>(ids);
+                documentRepository.findIndexableIds(ids, DocumentStatus.PUBLISHED, DocumentVisibility.PUBLIC)
+                        .forEach(stale::remove);
+                for (Long staleId : stale) {
+                    elasticsearchOperations.delete(String.valueOf(staleId), index);
+                }
+                if (!stale.isEmpty()) {
+                    logger.debug("Removed {} documents changed during rebuild from {}", stale.size(), index);
+                }
+            } catch (Exception e) {
+                // Không chắc index mới đúng: hủy rebuild thay vì promote dữ liệu cũ
+                logger.error("Could not reconcile rebuilt batch of {} documents: {}", ids.size(), e.getMessage(), e);
+                throw new ServiceUnavailableException("Could not reconcile the rebuilt search index",
+                        "SEARCH_INDEX_UNAVAILABLE", null);
+            }
+        }
+    }
 }
@@ -20,8 +20,11 @@ import java.util.List;
  * 
  * Indexing strategy: Chỉ index documents có status = PUBLISHED
  * Content limit: 10,000 characters preview
+ *
+ * indexName là read alias; index vật lý documents_v{n} do
+ * DocumentSearchIndexManager tạo nên không để Spring Data tự tạo index.
  */
-@Document(indexName = "documents")
+@Document(indexName = "documents", createIndex = false)
 @Setting(settingPath = "elasticsearch-settings.json")
 public class DocumentSearchIndex {
 
@@ -0,0 +1,361 @@
+package com.studydocs.manager.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.studydocs.manager.config.SearchProperties;
+import com.studydocs.manager.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.index.Settings;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Quản lý index vật lý của document search theo mô hình blue/green.
+ * <p>
+ * Index vật lý được đánh version {@code documents_v{n}}; ứng dụng chỉ đọc qua
+ * alias {@link #READ_ALIAS} và ghi qua alias {@link #WRITE_ALIAS}. Rebuild tạo
+ * một version mới (refresh tắt, replicas = 0), nạp dữ liệu, khôi phục settings,
+ * force-merge rồi chuyển cả hai alias sang version mới trong một lệnh atomic.
+ * <p>
+ * Trong lúc rebuild, cập nhật realtime được ghi song song vào cả index cũ và mới.
+ * Index đang rebuild được công bố cho mọi instance qua alias {@link #REBUILD_ALIAS};
+ * mỗi instance đọc lại alias này tối đa mỗi search.rebuild-target-refresh-ms.
+ * <p>
+ * Khi alias chưa được tạo (vd. Elasticsearch không truy cập được lúc khởi động), mọi
+ * thao tác ghi bị từ chối và alias được thử tạo lại: ghi thẳng vào {@link #WRITE_ALIAS}
+ * khi nó chưa tồn tại sẽ làm ES tự tạo một index thật trùng tên và chặn alias vĩnh viễn.
+ */
+@Service
+@ConditionalOnProperty(name = "search.indexing.enabled", havingValue = "true", matchIfMissing = false)
+public class DocumentSearchIndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentSearchIndexManager.class);
+
+    public static final String READ_ALIAS = "documents";
+    public static final String WRITE_ALIAS = "documents_write";
+    public static final String REBUILD_ALIAS = "documents_rebuild";
+    private static final String INDEX_PREFIX = "documents_v";
+    private static final Pattern VERSIONED_INDEX = Pattern.compile("^" + INDEX_PREFIX + "(\\d+)$");
+    // Giữ lại version ngay trước để có thể trỏ alias về khi cần rollback
+    private static final int RETAINED_VERSIONS = 2;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+    private final SearchProperties searchProperties;
+
+    private volatile boolean aliasesReady;
+    private volatile long lastAliasAttemptNanos;
+    // null = chưa đọc alias lần nào
+    private volatile RebuildTarget rebuildTarget;
+
+    public DocumentSearchIndexManager(ElasticsearchOperations elasticsearchOperations,
+            ElasticsearchClient elasticsearchClient,
+            SearchProperties searchProperties) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchClient = elasticsearchClient;
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * Đảm bảo read/write alias tồn tại khi application start.
+     * Index cũ tên {@code documents} (trước khi dùng alias) được copy sang
+     * {@code documents_v1} rồi thay bằng alias cùng tên. Lỗi (vd. ES chưa chạy) thì
+     * ghi bị chặn và {@link #requireAliases()} thử lại.
+     */
+    @PostConstruct
+    public void ensureAliases() {
+        lastAliasAttemptNanos = System.nanoTime();
+        try {
+            createAliasesIfMissing();
+            aliasesReady = true;
+        } catch (Exception e) {
+            logger.error("Error preparing search index aliases, search writes are paused until they exist: {}",
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Chặn ghi khi alias chưa sẵn sàng; thử tạo lại tối đa mỗi chu kỳ refresh.
+     *
+     * @throws ServiceUnavailableException nếu alias vẫn chưa tạo được
+     */
+    public void requireAliases() {
+        if (aliasesReady) {
+            return;
+        }
+        synchronized (this) {
+            if (!aliasesReady && System.nanoTime() - lastAliasAttemptNanos >= refreshNanos()) {
+                ensureAliases();
+            }
+        }
+        if (!aliasesReady) {
+            throw new ServiceUnavailableException("Search index aliases are not ready", "SEARCH_INDEX_UNAVAILABLE", null);
+        }
+    }
+
+    private void createAliasesIfMissing() throws IOException {
+        if (aliasExists(READ_ALIAS)) {
+            if (!aliasExists(WRITE_ALIAS)) {
+                String current = resolveSingleIndex(READ_ALIAS);
+                updateAliases(List.of(addAlias(current, WRITE_ALIAS)));
+                logger.info("Created write alias {} -> {}", WRITE_ALIAS, current);
+            }
+            return;
+        }
+        if (!aliasExists(WRITE_ALIAS) && elasticsearchClient.indices().exists(r -> r.index(WRITE_ALIAS)).value()) {
+            // Index thật tên documents_write (do ghi khi chưa có alias): cần xử lý tay
+            throw new IOException("Concrete index " + WRITE_ALIAS
+                    + " exists, it must be removed before aliases can be created");
+        }
+
+        String firstIndex = INDEX_PREFIX + nextVersion();
+        createIndex(firstIndex, false);
+
+        List<Action> actions = new ArrayList<>();
+        if (elasticsearchClient.indices().exists(r -> r.index(READ_ALIAS)).value()) {
+            logger.info("Migrating legacy search index {} into {}", READ_ALIAS, firstIndex);
+            elasticsearchClient.reindex(r -> r
+                    .source(s -> s.index(READ_ALIAS))
+                    .dest(d -> d.index(firstIndex))
+                    .waitForCompletion(true)
+                    .refresh(true));
+            actions.add(Action.of(a -> a.removeIndex(ri -> ri.index(READ_ALIAS))));
+        }
+        actions.add(addAlias(firstIndex, READ_ALIAS));
+        actions.add(addAlias(firstIndex, WRITE_ALIAS));
+        updateAliases(actions);
+        logger.info("Search aliases {} / {} now point to {}", READ_ALIAS, WRITE_ALIAS, firstIndex);
+    }
+
+    /**
+     * Các index mà một thao tác ghi realtime phải đi tới: write alias, cộng
+     * thêm index đang rebuild (nếu có, trên bất kỳ instance nào) để không mất
+     * cập nhật trong lúc nạp.
+     */
+    public List<IndexCoordinates> writeTargets() {
+        requireAliases();
+        String target = currentRebuildTarget();
+        if (target == null) {
+            return List.of(IndexCoordinates.of(WRITE_ALIAS));
+        }
+        return List.of(IndexCoordinates.of(WRITE_ALIAS), IndexCoordinates.of(target));
+    }
+
+    /**
+     * Tạo version mới với settings tối ưu cho bulk load, công bố nó qua
+     * {@link #REBUILD_ALIAS} rồi chờ mọi instance bắt đầu ghi song song
+     * trước khi caller đọc snapshot từ DB.
+     */
+    public String beginRebuild() throws InterruptedException {
+        requireAliases();
+        String newIndex;
+        try {
+            newIndex = INDEX_PREFIX + nextVersion();
+            createIndex(newIndex, true);
+
+            // Alias còn sót từ lần rebuild bị gián đoạn được chuyển sang index mới trong cùng lệnh
+            List<Action> actions = new ArrayList<>();
+            for (String index : indicesForAlias(REBUILD_ALIAS)) {
+                actions.add(Action.of(a -> a.remove(rm -> rm.index(index).alias(REBUILD_ALIAS))));
+            }
+            actions.add(addAlias(newIndex, REBUILD_ALIAS));
+            updateAliases(actions);
+        } catch (IOException e) {
+            throw new ServiceUnavailableException("Could not create a new search index", "SEARCH_INDEX_UNAVAILABLE", null);
+        }
+
+        rebuildTarget = new RebuildTarget(newIndex, System.nanoTime());
+        try {
+            Thread.sleep(2 * Math.max(1, searchProperties.getRebuildTargetRefreshMs()));
+        } catch (InterruptedException e) {
+            discard(newIndex);
+            throw e;
+        }
+        logger.info("Started search index rebuild into {}", newIndex);
+        return newIndex;
+    }
+
+    /**
+     * Khôi phục settings, force-merge và chuyển alias sang index mới (atomic).
+     */
+    public void promote(String newIndex) {
+        try {
+            Settings settings = templateSettings();
+            String refreshInterval = String.valueOf(settings.getOrDefault("index.refresh_interval", "1s"));
+            String replicas = String.valueOf(settings.getOrDefault("index.number_of_replicas", "1"));
+
+            elasticsearchClient.indices().putSettings(r -> r
+                    .index(newIndex)
+                    .settings(s -> s
+                            .refreshInterval(t -> t.time(refreshInterval))
+                            .numberOfReplicas(replicas)));
+            elasticsearchClient.indices().refresh(r -> r.index(newIndex));
+            elasticsearchClient.indices().forcemerge(r -> r.index(newIndex).maxNumSegments(1L));
+
+            Set<String> previous = new LinkedHashSet<>(indicesForAlias(READ_ALIAS));
+            previous.addAll(indicesForAlias(WRITE_ALIAS));
+
+            // Bỏ rebuild alias trong cùng lệnh: instance còn cache cũ chỉ ghi trùng vào index mới
+            List<Action> actions = new ArrayList<>();
+            for (String index : previous) {
+                if (!index.equals(newIndex)) {
+                    actions.add(Action.of(a -> a.remove(rm -> rm.index(index).aliases(READ_ALIAS, WRITE_ALIAS))));
+                }
+            }
+            actions.add(Action.of(a -> a.remove(rm -> rm.index(newIndex).alias(REBUILD_ALIAS))));
+            actions.add(addAlias(newIndex, READ_ALIAS));
+            actions.add(addAlias(newIndex, WRITE_ALIAS));
+            updateAliases(actions);
+            logger.info("Search aliases swapped from {} to {}", previous, newIndex);
+        } catch (IOException e) {
+            throw new ServiceUnavailableException("Could not promote rebuilt search index", "SEARCH_INDEX_UNAVAILABLE", null);
+        } finally {
+            rebuildTarget = new RebuildTarget(null, System.nanoTime());
+        }
+
+        deleteOldVersions();
+    }
+
+    /**
+     * Hủy rebuild: bỏ rebuild alias, chờ các instance ngừng ghi song song rồi xóa
+     * index dở dang (ghi vào index đã xóa sẽ làm ES tự tạo lại nó).
+     */
+    public void discard(String newIndex) {
+        try {
+            updateAliases(List.of(Action.of(a -> a.remove(rm -> rm.index(newIndex).alias(REBUILD_ALIAS)))));
+            rebuildTarget = new RebuildTarget(null, System.nanoTime());
+            Thread.sleep(2 * Math.max(1, searchProperties.getRebuildTargetRefreshMs()));
+            elasticsearchClient.indices().delete(r -> r.index(newIndex));
+            logger.info("Discarded unfinished search index {}", newIndex);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while discarding unfinished search index {}", newIndex);
+        } catch (Exception e) {
+            logger.warn("Could not discard unfinished search index {}: {}", newIndex, e.getMessage());
+        }
+    }
+
+    /**
+     * Index đang rebuild theo {@link #REBUILD_ALIAS}, đọc lại từ ES khi cache quá
+     * một chu kỳ refresh. Lỗi khi đọc thì dùng tạm giá trị cũ.
+     */
+    private String currentRebuildTarget() {
+        RebuildTarget cached = rebuildTarget;
+        long now = System.nanoTime();
+        if (cached != null && now - cached.checkedAtNanos() < refreshNanos()) {
+            return cached.index();
+        }
+
+        try {
+            Set<String> indices = indicesForAlias(REBUILD_ALIAS);
+            String index = indices.isEmpty() ? null : indices.iterator().next();
+            rebuildTarget = new RebuildTarget(index, now);
+            return index;
+        } catch (Exception e) {
+            logger.debug("Could not read rebuild alias {}: {}", REBUILD_ALIAS, e.getMessage());
+            return cached != null ? cached.index() : null;
+        }
+    }
+
+    private long refreshNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(1, searchProperties.getRebuildTargetRefreshMs()));
+    }
+
+    private void createIndex(String indexName, boolean bulkLoad) throws IOException {
+        Settings settings = templateSettings();
+        if (bulkLoad) {
+            settings.put("index.refresh_interval", "-1");
+            settings.put("index.number_of_replicas", "0");
+        }
+
+        IndexOperations template = elasticsearchOperations.indexOps(DocumentSearchIndex.class);
+        IndexOperations target = elasticsearchOperations.indexOps(IndexCoordinates.of(indexName));
+        if (!target.create(settings, template.createMapping())) {
+            throw new IOException("Elasticsearch refused to create index " + indexName);
+        }
+    }
+
+    private Settings templateSettings() {
+        return elasticsearchOperations.indexOps(DocumentSearchIndex.class).createSettings().flatten();
+    }
+
+    private void deleteOldVersions() {
+        try {
+            List<String> versions = versionedIndices().stream()
+                    .sorted(Comparator.comparingInt(DocumentSearchIndexManager::versionOf).reversed())
+                    .toList();
+            Set<String> live = new LinkedHashSet<>(indicesForAlias(READ_ALIAS));
+            for (String index : versions.subList(Math.min(RETAINED_VERSIONS, versions.size()), versions.size())) {
+                if (!live.contains(index)) {
+                    elasticsearchClient.indices().delete(r -> r.index(index));
+                    logger.info("Deleted old search index {}", index);
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not clean up old search indices: {}", e.getMessage());
+        }
+    }
+
+    private int nextVersion() throws IOException {
+        return versionedIndices().stream()
+                .mapToInt(DocumentSearchIndexManager::versionOf)
+                .max()
+                .orElse(0) + 1;
+    }
+
+    private List<String> versionedIndices() throws IOException {
+        return elasticsearchClient.indices().get(r -> r.index(INDEX_PREFIX + "*")).result().keySet().stream()
+                .filter(name -> VERSIONED_INDEX.matcher(name).matches())
+                .toList();
+    }
+
+    private static int versionOf(String indexName) {
+        Matcher matcher = VERSIONED_INDEX.matcher(indexName);
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+
+    private boolean aliasExists(String alias) throws IOException {
+        return elasticsearchClient.indices().existsAlias(r -> r.name(alias)).value();
+    }
+
+    private Set<String> indicesForAlias(String alias) throws IOException {
+        if (!aliasExists(alias)) {
+            return Set.of();
+        }
+        return elasticsearchClient.indices().getAlias(r -> r.name(alias)).result().keySet();
+    }
+
+    private String resolveSingleIndex(String alias) throws IOException {
+        Set<String> indices = indicesForAlias(alias);
+        if (indices.size() != 1) {
+            throw new IOException("Alias " + alias + " must point to exactly one index but points to " + indices);
+        }
+        return indices.iterator().next();
+    }
+
+    private static Action addAlias(String index, String alias) {
+        return Action.of(a -> a.add(ad -> ad.index(index).alias(alias)));
+    }
+
+    private void updateAliases(List<Action> actions) throws IOException {
+        elasticsearchClient.indices().updateAliases(r -> r.actions(actions));
+    }
+
+    private record RebuildTarget(String index, long checkedAtNanos) {
+    }
+}
@@ -16,7 +16,7 @@ import com.studydocs.manager.enums.DocumentVisibility;
 import com.studydocs.manager.enums.SortOption;
 import com.studydocs.manager.enums.SortOrder;
 import com.studydocs.manager.exception.ServiceUnavailableException;
-import com.studydocs.manager.storage.StorageProvider;
+import com.studydocs.manager.service.file.PresignedUrlCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -53,16 +53,16 @@ public class DocumentSearchService {
     private final ElasticsearchOperations elasticsearchOperations;
     private final DocumentSearchRepository searchRepository;
     private final SearchProperties searchProperties;
-    private final StorageProvider storageProvider;
+    private final PresignedUrlCache presignedUrlCache;
 
     public DocumentSearchService(ElasticsearchOperations elasticsearchOperations,
             DocumentSearchRepository searchRepository,
             SearchProperties searchProperties,
-            StorageProvider storageProvider) {
+            PresignedUrlCache presignedUrlCache) {
         this.elasticsearchOperations = elasticsearchOperations;
         this.searchRepository = searchRepository;
         this.searchProperties = searchProperties;
-        this.storageProvider = storageProvider;
+        this.presignedUrlCache = presignedUrlCache;
     }
 
     public DocumentSearchResponse searchDocuments(DocumentSearchRequest request) {
@@ -146,7 +146,7 @@ public class DocumentSearchService {
             boolQueryBuilder.must(MoreLikeThisQuery.of(m -> m
                     .fields(Arrays.asList("title", "description", "tags"))
                     .like(l -> l.document(d -> d
-                            .index("documents")
+                            .index(DocumentSearchIndexManager.READ_ALIAS)
                             .id(documentId.toString())))
                     .minTermFreq(1)
                     .maxQueryTerms(12))._toQuery());
@@ -378,7 +378,7 @@ public class DocumentSearchService {
             return null;
         }
         try {
-            return storageProvider.generatePresignedUrl(objectName, 7 * 24 * 60);
+            return presignedUrlCache.getUrl(objectName);
         } catch (IOException e) {
             logger.warn("Failed to generate thumbnail URL for object: {}", objectName, e);
             return null;
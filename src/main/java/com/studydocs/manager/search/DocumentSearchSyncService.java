@@ -1,31 +1,57 @@
 package com.studydocs.manager.search;
 
+import com.studydocs.manager.entity.SearchIndexOutbox;
+import com.studydocs.manager.enums.SearchIndexOperation;
+import com.studydocs.manager.repository.SearchIndexOutboxRepository;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Ghi thao tác đồng bộ search index vào outbox trong transaction hiện tại,
+ * rồi đánh thức drainer sau khi commit. Rollback thì dòng outbox cũng mất theo.
+ */
 @Service
 public class DocumentSearchSyncService {
 
-    private final DocumentIndexingService documentIndexingService;
+    private final SearchIndexOutboxRepository outboxRepository;
+    private final SearchIndexOutboxDrainer outboxDrainer;
 
-    public DocumentSearchSyncService(ObjectProvider<DocumentIndexingService> documentIndexingServiceProvider) {
-        this.documentIndexingService = documentIndexingServiceProvider.getIfAvailable();
+    public DocumentSearchSyncService(SearchIndexOutboxRepository outboxRepository,
+            ObjectProvider<SearchIndexOutboxDrainer> outboxDrainerProvider) {
+        this.outboxRepository = outboxRepository;
+        this.outboxDrainer = outboxDrainerProvider.getIfAvailable();
     }
 
     public void scheduleReindex(Long documentId) {
-        if (documentId == null || documentIndexingService == null) {
+        enqueue(documentId, SearchIndexOperation.INDEX);
+    }
+
+    public void scheduleDelete(Long documentId) {
+        enqueue(documentId, SearchIndexOperation.DELETE);
+    }
+
+    /**
+     * Xóa nhiều document khỏi index: outbox được ghi bằng một câu INSERT cho cả tập.
+     */
+    public void scheduleDeletes(Collection<Long> documentIds) {
+        if (documentIds.isEmpty() || outboxDrainer == null) {
             return;
         }
-        runAfterCommit(() -> documentIndexingService.updateIndexById(documentId));
+        outboxRepository.enqueueAll(documentIds, SearchIndexOperation.DELETE.name(), LocalDateTime.now());
+        runAfterCommit(outboxDrainer::requestDrain);
     }
 
-    public void scheduleDelete(Long documentId) {
-        if (documentId == null || documentIndexingService == null) {
+    private void enqueue(Long documentId, SearchIndexOperation operation) {
+        if (documentId == null || outboxDrainer == null) {
             return;
         }
-        runAfterCommit(() -> documentIndexingService.deleteFromIndex(documentId));
+        outboxRepository.save(new SearchIndexOutbox(documentId, operation));
+        runAfterCommit(outboxDrainer::requestDrain);
     }
 
     private void runAfterCommit(Runnable task) {
@@ -0,0 +1,95 @@
+package com.studydocs.manager.search;
+
+import com.studydocs.manager.config.SearchProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache text đã trích xuất bằng Tika, key theo fingerprint nội dung file (ETag)
+ * và giới hạn độ dài text. Bản copy của cùng một file và các lần reindex sau
+ * dùng lại kết quả thay vì tải + parse lại.
+ * <p>
+ * Mỗi entry có TTL; ngoài ra một sorted set theo thời điểm truy cập giữ số entry
+ * không vượt search.text-cache-max-entries (bỏ entry lâu không dùng nhất).
+ * Redis lỗi thì coi như cache miss.
+ */
+@Service
+@ConditionalOnProperty(name = "search.indexing.enabled", havingValue = "true", matchIfMissing = false)
+public class ExtractedTextCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExtractedTextCache.class);
+
+    private static final String TEXT_KEY_PREFIX = "search:text:";
+    private static final String ACCESS_INDEX_KEY = "search:text:access";
+
+    private final StringRedisTemplate redisTemplate;
+    private final SearchProperties searchProperties;
+
+    public ExtractedTextCache(StringRedisTemplate redisTemplate, SearchProperties searchProperties) {
+        this.redisTemplate = redisTemplate;
+        this.searchProperties = searchProperties;
+    }
+
+    /**
+     * @return text đã cache (chuỗi rỗng nếu file không có text), hoặc empty khi miss
+     */
+    public Optional<String> get(String fingerprint, int maxLength) {
+        if (!searchProperties.isTextCacheEnabled() || fingerprint == null) {
+            return Optional.empty();
+        }
+
+        String key = buildKey(fingerprint, maxLength);
+        try {
+            String text = redisTemplate.opsForValue().get(key);
+            if (text != null) {
+                redisTemplate.opsForZSet().add(ACCESS_INDEX_KEY, key, System.currentTimeMillis());
+            }
+            return Optional.ofNullable(text);
+        } catch (Exception e) {
+            logger.warn("Extracted text cache read failed for {}: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void put(String fingerprint, int maxLength, String text) {
+        if (!searchProperties.isTextCacheEnabled() || fingerprint == null) {
+            return;
+        }
+
+        String key = buildKey(fingerprint, maxLength);
+        try {
+            redisTemplate.opsForValue().set(key, text != null ? text : "",
+                    searchProperties.getTextCacheTtlHours(), TimeUnit.HOURS);
+            redisTemplate.opsForZSet().add(ACCESS_INDEX_KEY, key, System.currentTimeMillis());
+            evictOverflow();
+        } catch (Exception e) {
+            logger.warn("Extracted text cache write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private void evictOverflow() {
+        Long size = redisTemplate.opsForZSet().zCard(ACCESS_INDEX_KEY);
+        long maxEntries = Math.max(1, searchProperties.getTextCacheMaxEntries());
+        if (size == null || size <= maxEntries) {
+            return;
+        }
+
+        long overflow = size - maxEntries;
+        Set<String> evicted = redisTemplate.opsForZSet().range(ACCESS_INDEX_KEY, 0, overflow - 1);
+        if (evicted != null && !evicted.isEmpty()) {
+            redisTemplate.delete(evicted);
+        }
+        redisTemplate.opsForZSet().removeRange(ACCESS_INDEX_KEY, 0, overflow - 1);
+    }
+
+    private static String buildKey(String fingerprint, int maxLength) {
+        return TEXT_KEY_PREFIX + fingerprint.replace("\"", "") + ":" + maxLength;
+    }
+}
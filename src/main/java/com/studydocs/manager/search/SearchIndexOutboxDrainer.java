@@ -0,0 +1,228 @@
+package com.studydocs.manager.search;
+
+import com.studydocs.manager.config.SearchProperties;
+import com.studydocs.manager.entity.SearchIndexOutbox;
+import com.studydocs.manager.enums.SearchIndexOperation;
+import com.studydocs.manager.repository.SearchIndexOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drain bảng search_index_outbox sang Elasticsearch.
+ * <p>
+ * Mỗi lượt lấy các dòng đến hạn theo thứ tự id, gom theo document_id (thao tác
+ * mới nhất thắng), gửi một lần qua {@link DocumentIndexingService#syncBatch}.
+ * Thành công thì xóa đúng các dòng đã đọc (theo id); thất bại thì retry các dòng đó
+ * với exponential backoff. Dòng commit sau lúc đọc không bị đụng tới, kể cả khi id nhỏ hơn.
+ * <p>
+ * Nhiều instance drain cùng bảng: mỗi batch được claim trong một transaction ngắn
+ * (SELECT ... FOR UPDATE SKIP LOCKED rồi đẩy next_attempt_at tới hết hạn claim), nên
+ * mỗi dòng chỉ một instance xử lý; instance chết giữa chừng thì dòng đến hạn lại sau
+ * search.outbox-claim-timeout-ms. Dòng lỗi quá search.outbox-max-attempts lần được giữ
+ * lại (không retry nữa) để kiểm tra qua last_error.
+ * Chạy định kỳ (bắt được cả dòng retry và dòng còn sót sau restart) và được
+ * đánh thức ngay sau commit bởi DocumentSearchSyncService.
+ */
+@Service
+@ConditionalOnProperty(name = "search.indexing.enabled", havingValue = "true", matchIfMissing = false)
+public class SearchIndexOutboxDrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexOutboxDrainer.class);
+    private static final int MAX_BATCHES_PER_DRAIN = 50;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final SearchIndexOutboxRepository outboxRepository;
+    private final DocumentIndexingService documentIndexingService;
+    private final SearchProperties searchProperties;
+    private final TransactionTemplate claimTransaction;
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicLong processedOperations = new AtomicLong();
+    private final AtomicLong coalescedOperations = new AtomicLong();
+    private final AtomicLong failedDocuments = new AtomicLong();
+    private final AtomicLong abandonedOperations = new AtomicLong();
+    private volatile LocalDateTime lastDrainAt;
+
+    public SearchIndexOutboxDrainer(SearchIndexOutboxRepository outboxRepository,
+            DocumentIndexingService documentIndexingService,
+            SearchProperties searchProperties,
+            PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.documentIndexingService = documentIndexingService;
+        this.searchProperties = searchProperties;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Async("searchIndexingExecutor")
+    public void requestDrain() {
+        drain();
+    }
+
+    @Scheduled(fixedDelayString = "${search.outbox-poll-interval-ms:1000}")
+    public void drain() {
+        // Một lượt drain tại một thời điểm; lượt bị bỏ qua sẽ được lần poll sau xử lý
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int batches = 0;
+            while (drainBatch() && ++batches < MAX_BATCHES_PER_DRAIN) {
+                // tiếp tục khi batch trước đầy
+            }
+        } catch (Exception e) {
+            logger.error("Search outbox drain failed: {}", e.getMessage(), e);
+        } finally {
+            lastDrainAt = LocalDateTime.now();
+            draining.set(false);
+        }
+    }
+
+    /**
+     * Chỉ số của outbox cho endpoint admin: độ sâu hàng đợi, số dòng đã ngừng retry
+     * và độ trễ của dòng cũ nhất còn được xử lý.
+     */
+    public Map<String, Object> getStats() {
+        int maxAttempts = maxAttempts();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pendingOperations", outboxRepository.count());
+        stats.put("parkedOperations", outboxRepository.countByAttemptsGreaterThanEqual(maxAttempts));
+        stats.put("lagMs", outboxRepository.findFirstByAttemptsLessThanOrderByIdAsc(maxAttempts)
+                .map(oldest -> Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).toMillis())
+                .orElse(0L));
+        stats.put("processedOperations", processedOperations.get());
+        stats.put("coalescedOperations", coalescedOperations.get());
+        stats.put("failedDocuments", failedDocuments.get());
+        stats.put("abandonedOperations", abandonedOperations.get());
+        stats.put("lastDrainAt", lastDrainAt);
+        return stats;
+    }
+
+    private boolean drainBatch() {
+        int batchSize = Math.max(1, searchProperties.getOutboxBatchSize());
+        List<SearchIndexOutbox> due = claimBatch(batchSize);
+        if (due.isEmpty()) {
+            return false;
+        }
+
+        Map<Long, SearchIndexOperation> latestOperations = new LinkedHashMap<>();
+        Map<Long, Integer> attemptsByDocument = new HashMap<>();
+        Map<Long, List<Long>> rowIdsByDocument = new HashMap<>();
+        for (SearchIndexOutbox entry : due) {
+            latestOperations.put(entry.getDocumentId(), entry.getOperation());
+            attemptsByDocument.merge(entry.getDocumentId(), entry.getAttempts(), Math::max);
+            rowIdsByDocument.computeIfAbsent(entry.getDocumentId(), key -> new ArrayList<>()).add(entry.getId());
+        }
+
+        List<Long> reindexIds = new ArrayList<>();
+        List<Long> deleteIds = new ArrayList<>();
+        latestOperations.forEach((documentId, operation) -> {
+            if (operation == SearchIndexOperation.DELETE) {
+                deleteIds.add(documentId);
+            } else {
+                reindexIds.add(documentId);
+            }
+        });
+
+        Set<Long> failed;
+        String error = null;
+        try {
+            failed = documentIndexingService.syncBatch(reindexIds, deleteIds);
+            if (!failed.isEmpty()) {
+                error = "Rejected by Elasticsearch bulk request";
+            }
+        } catch (Exception e) {
+            failed = new HashSet<>(latestOperations.keySet());
+            error = e.getMessage();
+            logger.warn("Search outbox batch of {} documents failed: {}", latestOperations.size(), e.getMessage());
+        }
+
+        List<Long> processedRowIds = new ArrayList<>();
+        for (Long documentId : latestOperations.keySet()) {
+            if (!failed.contains(documentId)) {
+                processedRowIds.addAll(rowIdsByDocument.get(documentId));
+            }
+        }
+        if (!processedRowIds.isEmpty()) {
+            outboxRepository.deleteProcessed(processedRowIds);
+        }
+        if (!failed.isEmpty()) {
+            scheduleRetries(failed, attemptsByDocument, rowIdsByDocument, error);
+        }
+
+        processedOperations.addAndGet(due.size());
+        coalescedOperations.addAndGet(due.size() - latestOperations.size());
+        failedDocuments.addAndGet(failed.size());
+        return due.size() == batchSize;
+    }
+
+    private List<SearchIndexOutbox> claimBatch(int batchSize) {
+        return claimTransaction.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<SearchIndexOutbox> due = outboxRepository.lockDue(now, maxAttempts(), batchSize);
+            if (!due.isEmpty()) {
+                outboxRepository.claim(due.stream().map(SearchIndexOutbox::getId).toList(),
+                        now.plus(Duration.ofMillis(Math.max(1, searchProperties.getOutboxClaimTimeoutMs()))));
+            }
+            return due;
+        });
+    }
+
+    private int maxAttempts() {
+        return Math.max(1, searchProperties.getOutboxMaxAttempts());
+    }
+
+    private void scheduleRetries(Set<Long> failed, Map<Long, Integer> attemptsByDocument,
+            Map<Long, List<Long>> rowIdsByDocument, String error) {
+        String lastError = error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH)
+                : error;
+
+        int maxAttempts = maxAttempts();
+        Map<Integer, List<Long>> rowIdsByAttempts = new HashMap<>();
+        for (Long documentId : failed) {
+            List<Long> rowIds = rowIdsByDocument.get(documentId);
+            if (rowIds == null) {
+                continue;
+            }
+            int attempts = attemptsByDocument.getOrDefault(documentId, 0);
+            if (attempts + 1 >= maxAttempts) {
+                abandonedOperations.addAndGet(rowIds.size());
+                logger.error("Giving up on search index sync of document {} after {} attempts: {}",
+                        documentId, attempts + 1, lastError);
+            }
+            rowIdsByAttempts.computeIfAbsent(attempts, key -> new ArrayList<>()).addAll(rowIds);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        rowIdsByAttempts.forEach((attempts, rowIds) -> outboxRepository.scheduleRetry(
+                rowIds,
+                now.plus(Duration.ofMillis(backoffMillis(attempts))),
+                lastError));
+    }
+
+    private long backoffMillis(int attempts) {
+        long base = Math.max(1, searchProperties.getOutboxRetryBaseMs());
+        long max = Math.max(base, searchProperties.getOutboxRetryMaxMs());
+        int exponent = Math.min(attempts, 20);
+        return Math.min(max, base << exponent);
+    }
+}
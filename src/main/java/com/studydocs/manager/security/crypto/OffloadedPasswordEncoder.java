@@ -0,0 +1,127 @@
+package com.studydocs.manager.security.crypto;
+
+import com.studydocs.manager.exception.TooManyRequestsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * OffloadedPasswordEncoder - Chạy encode / matches trên pool hash riêng có giới hạn
+ *
+ * - Request thread chỉ chờ kết quả; số hash chạy song song không vượt số thread của pool.
+ * - Pool và hàng đợi đầy, hoặc yêu cầu đã chờ quá maxQueueMs khi tới lượt: trả 429
+ *   (PASSWORD_HASHING_BUSY) ngay thay vì hash một yêu cầu mà client có thể đã bỏ.
+ * - upgradeEncoding được chuyển thẳng cho encoder gốc (không tốn CPU) và được đếm.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Executor executor;
+    private final long maxQueueNanos;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedQueueTime = new LongAdder();
+    private final LongAdder upgradeEncodings = new LongAdder();
+
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, Executor executor, long maxQueueMillis) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxQueueNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maxQueueMillis));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        boolean upgrade = delegate.upgradeEncoding(encodedPassword);
+        if (upgrade) {
+            upgradeEncodings.increment();
+        }
+        return upgrade;
+    }
+
+    /**
+     * Chỉ số cho endpoint admin.
+     */
+    public Map<String, Object> getStats() {
+        long count = hashes.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hashes", count);
+        stats.put("avgHashMs", count > 0 ? hashNanos.sum() / count / 1_000_000.0 : 0.0);
+        stats.put("maxHashMs", maxHashNanos.get() / 1_000_000.0);
+        stats.put("avgQueueMs", count > 0 ? queueNanos.sum() / count / 1_000_000.0 : 0.0);
+        stats.put("rejectedQueueFull", rejectedQueueFull.sum());
+        stats.put("rejectedQueueTime", rejectedQueueTime.sum());
+        stats.put("upgradeEncodings", upgradeEncodings.sum());
+        return stats;
+    }
+
+    private <T> T run(Supplier<T> work) {
+        long submittedAt = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                if (startedAt - submittedAt > maxQueueNanos) {
+                    rejectedQueueTime.increment();
+                    result.completeExceptionally(busy());
+                    return;
+                }
+                try {
+                    result.complete(work.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    hashes.increment();
+                    hashNanos.add(elapsed);
+                    queueNanos.add(startedAt - submittedAt);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            throw busy();
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static TooManyRequestsException busy() {
+        return new TooManyRequestsException(
+                "Too many sign-in requests are being processed, please try again shortly",
+                "PASSWORD_HASHING_BUSY",
+                null);
+    }
+}
@@ -1,24 +1,51 @@
 package com.studydocs.manager.security.filter;
 
 import com.studydocs.manager.config.RateLimitProperties;
+import com.studydocs.manager.enums.RateLimitKeyType;
+import com.studydocs.manager.security.principal.AuthenticatedUser;
+import com.studydocs.manager.security.service.DistributedRateLimiter;
 import com.studydocs.manager.security.service.RateLimiterService;
+import com.studydocs.manager.security.utils.SecurityUtils;
 import jakarta.servlet.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Giới hạn request theo policy: login / register / forgot-password (theo IP) và các
+ * policy trong security.rate-limit.policies (vd. upload, search theo user).
+ * Filter chạy sau Spring Security nên principal của request đã có khi policy đếm theo user.
+ */
 @Component
 public class RateLimitFilter implements Filter {
 
     private final RateLimiterService rateLimiterService;
+    private final DistributedRateLimiter distributedRateLimiter;
+    private final SecurityUtils securityUtils;
     private final RateLimitProperties props;
+    private final Map<String, RateLimitProperties.Policy> policies = new LinkedHashMap<>();
 
     public RateLimitFilter(RateLimiterService rateLimiterService,
+                           DistributedRateLimiter distributedRateLimiter,
+                           SecurityUtils securityUtils,
                            RateLimitProperties props) {
         this.rateLimiterService = rateLimiterService;
+        this.distributedRateLimiter = distributedRateLimiter;
+        this.securityUtils = securityUtils;
         this.props = props;
+
+        policies.put("login", new RateLimitProperties.Policy(
+                List.of("/api/auth/login"), props.getLoginPerMinute(), 60, RateLimitKeyType.IP));
+        policies.put("register", new RateLimitProperties.Policy(
+                List.of("/api/auth/register"), props.getRegisterPerMinute(), 60, RateLimitKeyType.IP));
+        policies.put("forgot-password", new RateLimitProperties.Policy(
+                List.of("/api/auth/forgot-password"), props.getForgotPasswordPerMinute(), 60, RateLimitKeyType.IP));
+        props.getPolicies().forEach(policies::putIfAbsent);
     }
 
     @Override
@@ -30,30 +57,56 @@ public class RateLimitFilter implements Filter {
         HttpServletResponse res = (HttpServletResponse) response;
 
         String path = req.getRequestURI();
-        String clientIp = getClientIp(req);
-        String key = clientIp + ":" + path;
-
-        Integer limit = null;
-        if (path.startsWith("/api/auth/login")) {
-            limit = props.getLoginPerMinute();
-        } else if (path.startsWith("/api/auth/register")) {
-            limit = props.getRegisterPerMinute();
-        } else if (path.startsWith("/api/auth/forgot-password")) {
-            limit = props.getForgotPasswordPerMinute();
-        }
 
-        if (limit != null) {
-            boolean allowed = rateLimiterService.tryConsume(key, limit);
-            if (!allowed) {
+        // Key theo policy (không theo path đầy đủ) để đổi hậu tố path không tạo được bucket mới
+        for (Map.Entry<String, RateLimitProperties.Policy> entry : policies.entrySet()) {
+            RateLimitProperties.Policy policy = entry.getValue();
+            if (!matches(policy, req.getMethod(), path)) {
+                continue;
+            }
+            if (!tryConsume(entry.getKey(), policy, req)) {
                 res.setStatus(429);
                 res.getWriter().write("Too many requests, please try again later.");
                 return;
             }
+            break;
         }
 
         chain.doFilter(request, response);
     }
 
+    private boolean tryConsume(String name, RateLimitProperties.Policy policy, HttpServletRequest req) {
+        String client = resolveClient(policy, req);
+        long windowMillis = Math.max(1, policy.getWindowSeconds()) * 1000L;
+        if (props.isDistributed()) {
+            return distributedRateLimiter.tryConsume(name, client, policy.getLimit(), windowMillis);
+        }
+        return rateLimiterService.tryConsume(RateLimiterService.hashKey(name, client), policy.getLimit(), windowMillis);
+    }
+
+    private String resolveClient(RateLimitProperties.Policy policy, HttpServletRequest req) {
+        if (policy.getKeyBy() == RateLimitKeyType.USER) {
+            AuthenticatedUser currentUser = securityUtils.getCurrentUser();
+            if (currentUser != null) {
+                return "u" + currentUser.id();
+            }
+        }
+        return "ip" + getClientIp(req);
+    }
+
+    private boolean matches(RateLimitProperties.Policy policy, String method, String path) {
+        if (!policy.getMethods().isEmpty()
+                && policy.getMethods().stream().noneMatch(allowed -> allowed.equalsIgnoreCase(method))) {
+            return false;
+        }
+        for (String prefix : policy.getPathPrefixes()) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String getClientIp(HttpServletRequest request) {
         String ip = request.getHeader("X-Forwarded-For");
         if (ip == null || ip.isBlank()) {
@@ -2,6 +2,7 @@ package com.studydocs.manager.security.jwt;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -10,25 +11,53 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    // Số entry xét mỗi lần phải bỏ một token khỏi cache đầy
+    private static final int EVICTION_SAMPLE = 32;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    /**
+     * Số token đã verify được giữ lại (theo SHA-256 của token) tới khi hết hạn; 0 = tắt cache
+     */
+    @Value("${jwt.verified-cache-max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    // Key và parser dựng một lần; JwtParser immutable, dùng chung giữa các thread
+    private SecretKey signingKey;
+    private JwtParser parser;
+    // Đọc không khóa; giới hạn kích thước gần đúng (các thread put cùng lúc có thể vượt vài entry)
+    private final Map<String, VerifiedClaims> verifiedCache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
     public SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
-    public String generateToken(Authentication authentication) {
+    public String generateToken(Authentication authentication, Long userId) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         String username = userDetails.getUsername();
         String roles = userDetails.getAuthorities().stream()
@@ -39,31 +68,108 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
         return Jwts.builder()
                 .subject(username)
+                .claim("uid", userId)
                 .claim("roles", roles)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Verify chữ ký + hạn của token trong một lần parse và trả về toàn bộ claims.
+     *
+     * @return empty nếu token không hợp lệ hoặc đã hết hạn
+     */
+    public Optional<Claims> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String cacheKey = verifiedCacheMaxEntries > 0 ? hash(token) : null;
+        if (cacheKey != null) {
+            VerifiedClaims cached = verifiedCache.get(cacheKey);
+            if (cached != null) {
+                if (System.currentTimeMillis() < cached.expiresAtMillis()) {
+                    return Optional.of(cached.claims());
+                }
+                verifiedCache.remove(cacheKey, cached);
+            }
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+
+        if (cacheKey != null && claims.getExpiration() != null) {
+            cache(cacheKey, new VerifiedClaims(claims, claims.getExpiration().getTime()));
+        }
+        return Optional.of(claims);
+    }
+
+    /**
+     * @return user id trong claim "uid", null với token phát hành trước khi có claim này
+     */
+    public Long getUserId(Claims claims) {
+        Number userId = claims.get("uid", Number.class);
+        return userId != null ? userId.longValue() : null;
+    }
+
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return verify(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new MalformedJwtException("Invalid JWT token"));
     }
 
     public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    private void cache(String cacheKey, VerifiedClaims verified) {
+        if (verifiedCache.size() >= verifiedCacheMaxEntries && !verifiedCache.containsKey(cacheKey)) {
+            evictOne(System.currentTimeMillis());
+        }
+        verifiedCache.put(cacheKey, verified);
+    }
+
+    /**
+     * Nhường chỗ trong cache đầy: bỏ các token đã hết hạn trong một mẫu nhỏ,
+     * không có thì bỏ token sắp hết hạn nhất của mẫu.
+     */
+    private void evictOne(long now) {
+        String victim = null;
+        long earliestExpiry = Long.MAX_VALUE;
+        boolean removedExpired = false;
+        int sampled = 0;
+        for (Map.Entry<String, VerifiedClaims> entry : verifiedCache.entrySet()) {
+            long expiresAt = entry.getValue().expiresAtMillis();
+            if (expiresAt <= now) {
+                removedExpired |= verifiedCache.remove(entry.getKey(), entry.getValue());
+            } else if (expiresAt < earliestExpiry) {
+                earliestExpiry = expiresAt;
+                victim = entry.getKey();
+            }
+            if (++sampled >= EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (!removedExpired && victim != null) {
+            verifiedCache.remove(victim);
+        }
+    }
+
+    private static String hash(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
+
+    private record VerifiedClaims(Claims claims, long expiresAtMillis) {
+    }
 }
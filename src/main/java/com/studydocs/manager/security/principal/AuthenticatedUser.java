@@ -0,0 +1,22 @@
+package com.studydocs.manager.security.principal;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal của request đã xác thực bằng JWT, được JwtAuthenticationFilter dựng một lần
+ * cho mỗi request. Code phía sau đọc id / role từ đây thay vì tra lại user theo username.
+ *
+ * @param role tên role không có tiền tố "ROLE_" (vd. ADMIN, USER)
+ */
+public record AuthenticatedUser(Long id, String username, String role, boolean enabled)
+        implements AuthenticatedPrincipal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+}
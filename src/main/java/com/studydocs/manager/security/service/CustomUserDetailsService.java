@@ -2,18 +2,22 @@ package com.studydocs.manager.security.service;
 
 import com.studydocs.manager.entity.User;
 import com.studydocs.manager.repository.UserRepository;
+import com.studydocs.manager.security.principal.AuthenticatedUser;
+import jakarta.transaction.Transactional;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Optional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -34,6 +38,40 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .build();
     }
 
+    /**
+     * Được PasswordUpgradingAuthenticationProvider gọi sau khi đăng nhập thành công nếu hash
+     * hiện tại cần nâng cấp (thuật toán / strength cũ): lưu hash mới thay cho hash cũ.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
+    }
+
+    /**
+     * Tra user của một JWT: theo id (claim "uid") nếu có, token cũ chưa có claim thì theo
+     * username. User không còn tồn tại hoặc đã bị disable thì trả về empty.
+     */
+    public Optional<AuthenticatedUser> loadAuthenticatedUser(Long userId, String username) {
+        Optional<User> user = userId != null
+                ? userRepository.findById(userId).filter(found -> found.getUsername().equals(username))
+                : userRepository.findByUsername(username);
+        return user
+                .filter(found -> Boolean.TRUE.equals(found.getEnabled()))
+                .map(found -> new AuthenticatedUser(
+                        found.getId(),
+                        found.getUsername(),
+                        found.getRole().getName(),
+                        found.getEnabled()));
+    }
+
+    public Collection<? extends GrantedAuthority> getAuthorities(AuthenticatedUser user) {
+        return Collections.singleton(new SimpleGrantedAuthority("ROLE_" + user.role()));
+    }
+
     private Collection<? extends GrantedAuthority> getAuthorities(User user) {
         // user.getRole() never null (DB constraint nullable=false)
         return Collections.singleton(
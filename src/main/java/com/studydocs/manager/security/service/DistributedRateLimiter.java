@@ -0,0 +1,174 @@
+package com.studydocs.manager.security.service;
+
+import com.studydocs.manager.config.RateLimitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DistributedRateLimiter - Token bucket dùng chung trên Redis cho mọi instance
+ *
+ * - Mỗi bucket là một hash Redis (tokens, ts), cập nhật nguyên tử bằng Lua script với
+ *   đồng hồ của Redis; một key mỗi lần gọi nên chạy được trên Redis Cluster.
+ * - Near-cache: instance lấy trước một phần limit (security.rate-limit.lease-fraction)
+ *   và trả lời các request sau từ bộ nhớ tới khi hết token hoặc hết lease-ttl-ms.
+ *   Token lấy trước mà không dùng thì bị bỏ, nên tổng số request được phép trên cả
+ *   cluster không vượt limit.
+ * - Bucket đã hết token được nhớ cục bộ tới khi có token mới, nên request bị từ chối
+ *   liên tiếp không gọi Redis.
+ * - Redis lỗi: dùng {@link RateLimiterService} của instance (giới hạn theo từng node).
+ */
+@Service
+public class DistributedRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedRateLimiter.class);
+
+    private static final String BUCKET_KEY_PREFIX = "ratelimit:";
+
+    // KEYS[1] = bucket; ARGV = capacity, window (ms), số token muốn lấy. Trả về số token được cấp
+    private static final RedisScript<Long> TAKE_TOKENS_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil or ts == nil then
+              tokens = capacity
+              ts = now
+            end
+            if now > ts then
+              tokens = math.min(capacity, tokens + (now - ts) * capacity / window)
+            end
+            local granted = math.min(requested, math.floor(tokens))
+            tokens = tokens - granted
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], window)
+            return granted
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimiterService localRateLimiter;
+    private final RateLimitProperties props;
+    private final Map<Long, Lease> leases = new ConcurrentHashMap<>();
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder localRejections = new LongAdder();
+    private final LongAdder redisCalls = new LongAdder();
+    private final LongAdder redisRejections = new LongAdder();
+    private final LongAdder redisErrors = new LongAdder();
+
+    public DistributedRateLimiter(
+            StringRedisTemplate redisTemplate,
+            RateLimiterService localRateLimiter,
+            RateLimitProperties props) {
+        this.redisTemplate = redisTemplate;
+        this.localRateLimiter = localRateLimiter;
+        this.props = props;
+    }
+
+    /**
+     * @param policy tên policy (phần của Redis key)
+     * @param client IP hoặc user id đã chuẩn hóa
+     * @return true nếu request được phép
+     */
+    public boolean tryConsume(String policy, String client, int limit, long windowMillis) {
+        if (limit <= 0) {
+            return false;
+        }
+        long key = RateLimiterService.hashKey(policy, client);
+        long now = System.currentTimeMillis();
+
+        Lease lease = leases.get(key);
+        if (lease != null && now < lease.expiresAt) {
+            if (lease.remaining.getAndDecrement() > 0) {
+                localHits.increment();
+                return true;
+            }
+            if (lease.exhausted) {
+                localRejections.increment();
+                return false;
+            }
+        }
+
+        int leaseSize = (int) Math.max(1, Math.min(limit, Math.floor(limit * props.getLeaseFraction())));
+        long granted;
+        try {
+            redisCalls.increment();
+            Long result = redisTemplate.execute(TAKE_TOKENS_SCRIPT,
+                    List.of(BUCKET_KEY_PREFIX + policy + ":" + client),
+                    String.valueOf(limit), String.valueOf(windowMillis), String.valueOf(leaseSize));
+            granted = result != null ? result : 0;
+        } catch (Exception e) {
+            redisErrors.increment();
+            logger.debug("Redis rate limit unavailable, falling back to local limit: {}", e.getMessage());
+            return localRateLimiter.tryConsume(key, limit, windowMillis);
+        }
+
+        if (granted <= 0) {
+            redisRejections.increment();
+            // Không gọi lại Redis trước khi bucket kịp có token mới
+            long retryAfter = Math.max(1, Math.min(props.getLeaseTtlMs(), windowMillis / limit));
+            rememberLease(key, new Lease(0, now + retryAfter, true));
+            return false;
+        }
+        if (granted > 1) {
+            rememberLease(key, new Lease((int) granted - 1, now + Math.max(1, props.getLeaseTtlMs()), false));
+        } else {
+            leases.remove(key);
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${security.rate-limit.eviction-interval-ms:60000}")
+    public void evictExpiredLeases() {
+        long now = System.currentTimeMillis();
+        leases.values().removeIf(lease -> now >= lease.expiresAt);
+    }
+
+    /**
+     * Chỉ số cho endpoint admin.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", props.isDistributed());
+        stats.put("cachedLeases", leases.size());
+        stats.put("localHits", localHits.sum());
+        stats.put("localRejections", localRejections.sum());
+        stats.put("redisCalls", redisCalls.sum());
+        stats.put("redisRejections", redisRejections.sum());
+        stats.put("redisErrors", redisErrors.sum());
+        return stats;
+    }
+
+    private void rememberLease(long key, Lease lease) {
+        if (leases.size() < props.getMaxTrackedKeys() || leases.containsKey(key)) {
+            leases.put(key, lease);
+        }
+    }
+
+    private static final class Lease {
+        private final AtomicInteger remaining;
+        private final long expiresAt;
+        private final boolean exhausted;
+
+        private Lease(int remaining, long expiresAt, boolean exhausted) {
+            this.remaining = new AtomicInteger(remaining);
+            this.expiresAt = expiresAt;
+            this.exhausted = exhausted;
+        }
+    }
+}
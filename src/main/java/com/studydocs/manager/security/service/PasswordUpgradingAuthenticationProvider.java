@@ -0,0 +1,49 @@
+package com.studydocs.manager.security.service;
+
+import com.studydocs.manager.exception.TooManyRequestsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * DaoAuthenticationProvider hash lại mật khẩu cũ sau khi đăng nhập thành công, nhưng
+ * không để việc đó làm hỏng lần đăng nhập: mật khẩu đã được xác thực, nếu pool hash
+ * đang bận (PASSWORD_HASHING_BUSY) thì giữ hash cũ và để lần đăng nhập sau nâng cấp.
+ * Provider gốc encode trước khi gọi {@link UserDetailsPasswordService#updatePassword},
+ * nên phần nâng cấp được làm ở đây thay vì truyền password service cho lớp cha.
+ */
+public class PasswordUpgradingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordUpgradingAuthenticationProvider.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+
+    public PasswordUpgradingAuthenticationProvider(UserDetailsService userDetailsService,
+            UserDetailsPasswordService userDetailsPasswordService, PasswordEncoder passwordEncoder) {
+        super(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+            UserDetails user) {
+        UserDetails current = user;
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            try {
+                String newPassword = passwordEncoder.encode(authentication.getCredentials().toString());
+                current = userDetailsPasswordService.updatePassword(user, newPassword);
+            } catch (TooManyRequestsException e) {
+                logger.info("Skipped password rehash for user {}: hashing pool is busy", user.getUsername());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, current);
+    }
+}
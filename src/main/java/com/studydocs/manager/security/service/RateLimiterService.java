@@ -1,52 +1,207 @@
 package com.studydocs.manager.security.service;
 
+import com.studydocs.manager.config.RateLimitProperties;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * RateLimiterService - Giới hạn số request theo sliding window, không khóa
+ *
+ * - Mỗi key (vd. policy + IP) là một sliding window counter nén trong một long:
+ *   [window index 32 bit | số request window trước 16 bit | window hiện tại 16 bit].
+ *   Số request ước lượng = trước × phần window trước còn nằm trong cửa sổ trượt + hiện tại,
+ *   nên không có burst gấp đôi ở ranh giới window như fixed window. Cập nhật bằng CAS.
+ * - Key được băm 64 bit, map không giữ String của client.
+ * - Map có giới hạn (security.rate-limit.max-tracked-keys); key idle (không còn request
+ *   trong hai window) bị dọn định kỳ. Khi map đầy, key mới vẫn có counter riêng: trước
+ *   khi thêm, một key ít hoạt động gần đây nhất trong một mẫu nhỏ bị bỏ. Client mới không
+ *   bao giờ dùng chung counter với client khác (vd. kẻ tấn công đổi IP liên tục lấp đầy
+ *   map); key bị bỏ chỉ mất lịch sử đếm, tức được thêm tối đa một limit.
+ */
 @Service
 public class RateLimiterService {
 
-    private static class Bucket {
-        int tokens;
-        int capacity;
-        long refillIntervalMillis;
-        long lastRefillTimestamp;
+    private static final long MAX_COUNT = 0xFFFF;
+    // Số key xét mỗi lần phải bỏ một key để nhường chỗ
+    private static final int EVICTION_SAMPLE = 32;
 
-        Bucket(int capacity, long refillIntervalMillis) {
-            this.capacity = capacity;
-            this.tokens = capacity;
-            this.refillIntervalMillis = refillIntervalMillis;
-            this.lastRefillTimestamp = Instant.now().toEpochMilli();
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final RateLimitProperties props;
+    private final Map<Long, SlidingWindow> windows = new ConcurrentHashMap<>();
+
+    private final LongAdder allowedRequests = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder evictedKeys = new LongAdder();
+    private final LongAdder evictedForNewKeys = new LongAdder();
+
+    public RateLimiterService(RateLimitProperties props) {
+        this.props = props;
+    }
+
+    /**
+     * @param key          key đã băm, xem {@link #hashKey(String, String)}
+     * @param limit        số request tối đa trong một cửa sổ trượt (tối đa 65535)
+     * @param windowMillis độ dài cửa sổ
+     * @return true nếu request được phép
+     */
+    public boolean tryConsume(long key, int limit, long windowMillis) {
+        return tryConsume(key, limit, windowMillis, System.currentTimeMillis());
+    }
+
+    boolean tryConsume(long key, int limit, long windowMillis, long now) {
+        if (limit <= 0) {
+            rejectedRequests.increment();
+            return false;
         }
+        boolean allowed = acquire(windowFor(key, windowMillis, now), Math.min(limit, MAX_COUNT), now);
+        (allowed ? allowedRequests : rejectedRequests).increment();
+        return allowed;
+    }
 
-        synchronized boolean tryConsume() {
-            refill();
-            if (tokens > 0) {
-                tokens--;
-                return true;
+    /**
+     * Băm 64 bit (FNV-1a) của cặp scope + client mà không nối chuỗi.
+     */
+    public static long hashKey(String scope, String client) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = mix(hash, scope);
+        hash = (hash ^ 0x1F) * FNV_PRIME;
+        return mix(hash, client);
+    }
+
+    /**
+     * Dọn các key không còn request nào trong cửa sổ trượt.
+     */
+    @Scheduled(fixedDelayString = "${security.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        evictIdle(System.currentTimeMillis());
+    }
+
+    void evictIdle(long now) {
+        windows.forEach((key, window) -> {
+            if (window.isIdle(now) && windows.remove(key, window)) {
+                evictedKeys.increment();
             }
-            return false;
+        });
+    }
+
+    /**
+     * Chỉ số cho endpoint admin.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedKeys", windows.size());
+        stats.put("maxTrackedKeys", props.getMaxTrackedKeys());
+        stats.put("allowedRequests", allowedRequests.sum());
+        stats.put("rejectedRequests", rejectedRequests.sum());
+        stats.put("evictedKeys", evictedKeys.sum());
+        stats.put("evictedForNewKeys", evictedForNewKeys.sum());
+        return stats;
+    }
+
+    private SlidingWindow windowFor(long key, long windowMillis, long now) {
+        SlidingWindow window = windows.get(key);
+        if (window != null) {
+            return window;
+        }
+        if (windows.size() >= props.getMaxTrackedKeys()) {
+            evictLeastRecent(now);
         }
+        return windows.computeIfAbsent(key, k -> new SlidingWindow(windowMillis));
+    }
 
-        private void refill() {
-            long now = Instant.now().toEpochMilli();
-            long elapsed = now - lastRefillTimestamp;
-            if (elapsed > refillIntervalMillis) {
-                tokens = capacity;
-                lastRefillTimestamp = now;
+    /**
+     * Bỏ một key để nhường chỗ: key idle đầu tiên gặp, nếu không có thì key có window
+     * gần nhất bắt đầu sớm nhất trong {@link #EVICTION_SAMPLE} key đầu tiên của map
+     * (LRU xấp xỉ, không cần thêm cấu trúc thứ tự trên đường request).
+     * Nhiều thread cùng thêm key có thể làm map vượt giới hạn một chút.
+     */
+    private void evictLeastRecent(long now) {
+        Map.Entry<Long, SlidingWindow> candidate = null;
+        long candidateStart = Long.MAX_VALUE;
+        int sampled = 0;
+        for (Map.Entry<Long, SlidingWindow> entry : windows.entrySet()) {
+            SlidingWindow window = entry.getValue();
+            if (window.isIdle(now)) {
+                candidate = entry;
+                break;
+            }
+            long lastWindowStart = window.lastWindowStart();
+            if (lastWindowStart < candidateStart) {
+                candidate = entry;
+                candidateStart = lastWindowStart;
             }
+            if (++sampled >= EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (candidate != null && windows.remove(candidate.getKey(), candidate.getValue())) {
+            evictedForNewKeys.increment();
         }
     }
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private static boolean acquire(SlidingWindow window, long limit, long now) {
+        long windowMillis = window.windowMillis;
+        long windowStart = now - now % windowMillis;
+        int windowIndex = (int) (now / windowMillis);
+        long elapsed = now - windowStart;
+
+        while (true) {
+            long state = window.get();
+            int stateIndex = (int) (state >>> 32);
+            long previous = (state >>> 16) & MAX_COUNT;
+            long current = state & MAX_COUNT;
+            if (stateIndex != windowIndex) {
+                previous = windowIndex - stateIndex == 1 ? current : 0;
+                current = 0;
+            }
+
+            // previous × (windowMillis - elapsed) / windowMillis + current < limit, tính bằng số nguyên
+            if (previous * (windowMillis - elapsed) + current * windowMillis >= limit * windowMillis) {
+                return false;
+            }
+
+            long next = ((long) windowIndex << 32)
+                    | (previous << 16)
+                    | Math.min(current + 1, MAX_COUNT);
+            if (window.compareAndSet(state, next)) {
+                return true;
+            }
+        }
+    }
 
-    public boolean tryConsume(String key, int capacityPerMinute) {
-        long interval = 60_000L;
-        Bucket bucket = buckets.computeIfAbsent(key,
-                k -> new Bucket(capacityPerMinute, interval));
-        return bucket.tryConsume();
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return hash;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static final class SlidingWindow extends AtomicLong {
+        private final long windowMillis;
+
+        SlidingWindow(long windowMillis) {
+            this.windowMillis = Math.max(1, windowMillis);
+        }
+
+        boolean isIdle(long now) {
+            int windowIndex = (int) (now / windowMillis);
+            return windowIndex - (int) (get() >>> 32) >= 2;
+        }
+
+        // Thời điểm bắt đầu của window gần nhất có request (ms)
+        long lastWindowStart() {
+            return (get() >>> 32) * windowMillis;
+        }
     }
 }
@@ -2,6 +2,7 @@ package com.studydocs.manager.security.utils;
 
 import com.studydocs.manager.entity.User;
 import com.studydocs.manager.repository.UserRepository;
+import com.studydocs.manager.security.principal.AuthenticatedUser;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -31,14 +32,34 @@ public class SecurityUtils {
             return null;
         }
         Object principal = authentication.getPrincipal();
-        // Trong JwtAuthenticationFilter, principal đang là username (String)
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.username();
+        }
         if (principal instanceof String) {
             return (String) principal;
         }
         return authentication.getName();
     }
 
+    /**
+     * Principal do JwtAuthenticationFilter dựng cho request hiện tại (null nếu chưa xác thực
+     * bằng JWT, vd. ngay trong request login).
+     */
+    public AuthenticatedUser getCurrentUser() {
+        Authentication authentication = getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser;
+        }
+        return null;
+    }
+
     public Long getCurrentUserId() {
+        AuthenticatedUser currentUser = getCurrentUser();
+        if (currentUser != null) {
+            return currentUser.id();
+        }
+
+        // Fallback cho authentication không đi qua JwtAuthenticationFilter
         String username = getCurrentUsername();
         if (username == null || username.isBlank()) {
             return null;
@@ -1,38 +1,88 @@
 package com.studydocs.manager.service.auth;
 
-import com.studydocs.manager.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Đồng bộ trạng thái khóa đăng nhập (Redis là nguồn chính) xuống bảng users theo kiểu write-behind.
+ *
+ * - Login path chỉ ghi vào map trong bộ nhớ; nhiều thay đổi của cùng một username trước
+ *   lần flush được gộp thành một UPDATE với giá trị mới nhất.
+ * - Flush định kỳ bằng một JDBC batch, nên brute-force không tạo một UPDATE mỗi lần thử
+ *   và độ trễ login không phụ thuộc DB.
+ * - Khi shutdown, phần còn lại được ghi nốt.
+ */
 @Service
 public class LoginAttemptPersistenceService {
 
     private static final Logger logger = LoggerFactory.getLogger(LoginAttemptPersistenceService.class);
 
-    private final UserRepository userRepository;
+    private static final String UPDATE_LOCK_STATUS =
+            "UPDATE users SET failed_login_attempts = ?, locked_until = ? WHERE username = ?";
 
-    public LoginAttemptPersistenceService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, LockStatus> pending = new ConcurrentHashMap<>();
+
+    public LoginAttemptPersistenceService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    /**
+     * Ghi nhận trạng thái mới; được ghi xuống DB ở lần flush kế tiếp.
+     */
     public void syncLockStatusToDatabase(String username, int failedAttempts, LocalDateTime lockedUntil) {
-        try {
-            int updatedRows = userRepository.updateFailedLoginAttempts(username, failedAttempts, lockedUntil);
+        if (username == null) {
+            return;
+        }
+        pending.put(username, new LockStatus(failedAttempts, lockedUntil));
+    }
 
-            if (updatedRows == 0) {
-                logger.warn("Could not sync lock status to DB because username was not found: {}", username);
-                return;
+    @Scheduled(fixedDelayString = "${security.login-attempts.sync-interval-ms:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<String> usernames = new ArrayList<>(pending.keySet());
+        List<Object[]> rows = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            // remove (không phải get) để thay đổi đến sau lúc này vẫn nằm lại cho lần flush sau
+            LockStatus status = pending.remove(username);
+            if (status != null) {
+                rows.add(new Object[] { status.failedAttempts(), status.lockedUntil(), username });
             }
-            logger.debug("Synced lock status to DB - username: {}, failedAttempts: {}, lockedUntil: {}",
-                    username, failedAttempts, lockedUntil);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LOCK_STATUS, rows);
+            logger.debug("Synced lock status of {} user(s) to DB", rows.size());
         } catch (Exception e) {
-            logger.error("Error syncing lock status to database for user: {}", username, e);
+            logger.error("Error syncing lock status of {} user(s) to database: {}", rows.size(), e.getMessage(), e);
+            // Giữ lại để thử lần sau, trừ khi đã có trạng thái mới hơn
+            for (Object[] row : rows) {
+                pending.putIfAbsent((String) row[2], new LockStatus((Integer) row[0], (LocalDateTime) row[1]));
+            }
         }
     }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record LockStatus(int failedAttempts, LocalDateTime lockedUntil) {
+    }
 }
@@ -3,11 +3,22 @@ package com.studydocs.manager.service.auth;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Đếm số lần đăng nhập sai và khóa tài khoản trên Redis.
+ *
+ * - Mỗi lần sai là một Lua script: INCR + gia hạn TTL + khóa khi chạm ngưỡng, một round trip.
+ * - Key attempts / locked của một username dùng chung hash tag nên nằm cùng slot (Redis Cluster).
+ * - Trạng thái được đồng bộ xuống bảng users qua {@link LoginAttemptPersistenceService} (write-behind).
+ */
 @Service
 public class LoginAttemptService {
 
@@ -19,6 +30,21 @@ public class LoginAttemptService {
     private static final int LOCK_MINUTES = 15;
     private static final int ATTEMPTS_TTL_HOURS = 24;
 
+    // KEYS = attempts, locked; ARGV = ngưỡng, TTL attempts (ms), giá trị unlock time, TTL lock (ms).
+    // Trả về {số lần sai, unlock time nếu lần này vừa khóa hoặc đã bị khóa, ngược lại ''}
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RECORD_FAILURE_SCRIPT = new DefaultRedisScript<>("""
+            local attempts = redis.call('INCR', KEYS[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            if attempts >= tonumber(ARGV[1]) then
+              if redis.call('SET', KEYS[2], ARGV[3], 'PX', ARGV[4], 'NX') then
+                return {attempts, ARGV[3]}
+              end
+              return {attempts, redis.call('GET', KEYS[2]) or ''}
+            end
+            return {attempts, ''}
+            """, List.class);
+
     private final StringRedisTemplate redisTemplate;
     private final LoginAttemptPersistenceService loginAttemptPersistenceService;
 
@@ -29,75 +55,68 @@ public class LoginAttemptService {
         this.loginAttemptPersistenceService = loginAttemptPersistenceService;
     }
 
-    public boolean incrementFailedAttempts(String username) {
-        String attemptsKey = ATTEMPTS_KEY_PREFIX + username;
-
-        Long attempts = redisTemplate.opsForValue().increment(attemptsKey);
-        redisTemplate.expire(attemptsKey, ATTEMPTS_TTL_HOURS, TimeUnit.HOURS);
-
-        int currentAttempts = attempts != null ? attempts.intValue() : 0;
-        loginAttemptPersistenceService.syncLockStatusToDatabase(username, currentAttempts, null);
-
-        if (attempts != null && attempts >= MAX_ATTEMPTS) {
-            lockAccount(username, currentAttempts);
-            return true;
-        }
-
-        return false;
-    }
-
-    public void lockAccount(String username, int failedAttempts) {
-        String lockedKey = LOCKED_KEY_PREFIX + username;
+    /**
+     * Ghi nhận một lần đăng nhập sai.
+     *
+     * @return số lần sai hiện tại và thời điểm mở khóa (null nếu chưa bị khóa)
+     */
+    public FailedAttempt recordFailedAttempt(String username) {
         LocalDateTime unlockTime = LocalDateTime.now().plusMinutes(LOCK_MINUTES);
-
-        redisTemplate.opsForValue().set(lockedKey, unlockTime.toString(), LOCK_MINUTES, TimeUnit.MINUTES);
-        loginAttemptPersistenceService.syncLockStatusToDatabase(username, failedAttempts, unlockTime);
-
-        logger.warn("Account locked due to multiple failed login attempts - username: {}, unlockTime: {}",
-                username, unlockTime);
+        List<?> result = redisTemplate.execute(RECORD_FAILURE_SCRIPT,
+                List.of(attemptsKey(username), lockedKey(username)),
+                String.valueOf(MAX_ATTEMPTS),
+                String.valueOf(TimeUnit.HOURS.toMillis(ATTEMPTS_TTL_HOURS)),
+                unlockTime.toString(),
+                String.valueOf(TimeUnit.MINUTES.toMillis(LOCK_MINUTES)));
+
+        int attempts = result != null && !result.isEmpty() ? ((Number) result.get(0)).intValue() : 0;
+        LocalDateTime lockedUntil = result != null && result.size() > 1 ? parse(result.get(1)) : null;
+        loginAttemptPersistenceService.syncLockStatusToDatabase(username, attempts, lockedUntil);
+
+        if (lockedUntil != null && lockedUntil.equals(unlockTime)) {
+            logger.warn("Account locked due to multiple failed login attempts - username: {}, unlockTime: {}",
+                    username, unlockTime);
+        }
+        return new FailedAttempt(attempts, lockedUntil);
     }
 
+    /**
+     * @return thời điểm mở khóa, null nếu tài khoản không bị khóa. Key lock tự hết hạn theo TTL
+     *         nên thường chỉ cần một GET.
+     */
     public LocalDateTime isAccountLocked(String username) {
-        String attemptsKey = ATTEMPTS_KEY_PREFIX + username;
-        String lockedKey = LOCKED_KEY_PREFIX + username;
-        String unlockTimeStr = redisTemplate.opsForValue().get(lockedKey);
+        String unlockTimeStr = redisTemplate.opsForValue().get(lockedKey(username));
+        if (unlockTimeStr == null) {
+            return null;
+        }
 
-        if (unlockTimeStr != null) {
-            try {
-                LocalDateTime unlockTime = LocalDateTime.parse(unlockTimeStr);
-                if (unlockTime.isAfter(LocalDateTime.now())) {
-                    return unlockTime;
-                }
-
-                redisTemplate.delete(lockedKey);
-                redisTemplate.delete(attemptsKey);
-                loginAttemptPersistenceService.syncLockStatusToDatabase(username, 0, null);
-                return null;
-            } catch (Exception e) {
-                redisTemplate.delete(lockedKey);
-                redisTemplate.delete(attemptsKey);
-                loginAttemptPersistenceService.syncLockStatusToDatabase(username, 0, null);
-                return null;
-            }
+        LocalDateTime unlockTime = parse(unlockTimeStr);
+        if (unlockTime != null && unlockTime.isAfter(LocalDateTime.now())) {
+            return unlockTime;
         }
 
+        // Giá trị hỏng hoặc đã qua (lệch đồng hồ): mở khóa
+        redisTemplate.delete(List.of(lockedKey(username), attemptsKey(username)));
+        loginAttemptPersistenceService.syncLockStatusToDatabase(username, 0, null);
         return null;
     }
 
-    public void resetFailedAttempts(String username) {
-        String attemptsKey = ATTEMPTS_KEY_PREFIX + username;
-        String lockedKey = LOCKED_KEY_PREFIX + username;
-
-        redisTemplate.delete(attemptsKey);
-        redisTemplate.delete(lockedKey);
-        loginAttemptPersistenceService.syncLockStatusToDatabase(username, 0, null);
-
-        logger.info("Reset failed login attempts - username: {}", username);
+    /**
+     * Xóa bộ đếm sau khi đăng nhập thành công.
+     *
+     * @param databaseDirty bảng users còn lưu số lần sai / thời điểm khóa cũ; false thì chỉ
+     *                      ghi DB khi Redis thực sự có trạng thái để xóa
+     */
+    public void resetFailedAttempts(String username, boolean databaseDirty) {
+        Long deleted = redisTemplate.delete(List.of(attemptsKey(username), lockedKey(username)));
+        if (databaseDirty || (deleted != null && deleted > 0)) {
+            loginAttemptPersistenceService.syncLockStatusToDatabase(username, 0, null);
+            logger.info("Reset failed login attempts - username: {}", username);
+        }
     }
 
     public int getFailedAttempts(String username) {
-        String attemptsKey = ATTEMPTS_KEY_PREFIX + username;
-        String attemptsStr = redisTemplate.opsForValue().get(attemptsKey);
+        String attemptsStr = redisTemplate.opsForValue().get(attemptsKey(username));
 
         if (attemptsStr != null) {
             try {
@@ -109,4 +128,26 @@ public class LoginAttemptService {
 
         return 0;
     }
+
+    private static String attemptsKey(String username) {
+        return ATTEMPTS_KEY_PREFIX + "{" + username + "}";
+    }
+
+    private static String lockedKey(String username) {
+        return LOCKED_KEY_PREFIX + "{" + username + "}";
+    }
+
+    private static LocalDateTime parse(Object value) {
+        if (value == null || value.toString().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.toString());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public record FailedAttempt(int attempts, LocalDateTime lockedUntil) {
+    }
 }
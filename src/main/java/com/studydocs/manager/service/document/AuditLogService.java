@@ -1,32 +1,27 @@
 package com.studydocs.manager.service.document;
 import com.studydocs.manager.enums.*;
 
-import com.studydocs.manager.entity.AuditLog;
-import com.studydocs.manager.repository.AuditLogRepository;
+import com.studydocs.manager.service.event.EventLogPipeline;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuditLogService {
 
-    private final AuditLogRepository auditLogRepository;
+    private final EventLogPipeline eventLogPipeline;
 
-    public AuditLogService(AuditLogRepository auditLogRepository) {
-        this.auditLogRepository = auditLogRepository;
+    public AuditLogService(EventLogPipeline eventLogPipeline) {
+        this.eventLogPipeline = eventLogPipeline;
     }
 
+    /**
+     * Ghi audit log qua EventLogPipeline: trong transaction thì chỉ được ghi sau commit.
+     */
     public void log(Long actorId,
             Long targetUserId,
             AuditAction action,
             String details,
             String ip,
             String userAgent) {
-        AuditLog log = new AuditLog();
-        log.setActorId(actorId);
-        log.setTargetUserId(targetUserId);
-        log.setAction(action);
-        log.setDetails(details);
-        log.setIp(ip);
-        log.setUserAgent(userAgent);
-        auditLogRepository.save(log);
+        eventLogPipeline.audit(actorId, targetUserId, action, details, ip, userAgent);
     }
 }
@@ -4,8 +4,11 @@ package com.studydocs.manager.service.document;
 import com.studydocs.manager.entity.Document;
 import com.studydocs.manager.entity.DocumentAsset;
 import com.studydocs.manager.repository.DocumentAssetRepository;
+import com.studydocs.manager.service.file.StorageBlobService;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
+
 /**
  * Manages document asset (file metadata) persistence.
  * Extracted from DocumentService to satisfy Single Responsibility Principle.
@@ -14,9 +17,12 @@ import org.springframework.stereotype.Service;
 public class DocumentAssetService {
 
     private final DocumentAssetRepository documentAssetRepository;
+    private final StorageBlobService storageBlobService;
 
-    public DocumentAssetService(DocumentAssetRepository documentAssetRepository) {
+    public DocumentAssetService(DocumentAssetRepository documentAssetRepository,
+            StorageBlobService storageBlobService) {
         this.documentAssetRepository = documentAssetRepository;
+        this.storageBlobService = storageBlobService;
     }
 
     /**
@@ -31,6 +37,9 @@ public class DocumentAssetService {
                     return created;
                 });
 
+        swapReference(asset.getObjectName(), objectName);
+        swapReference(asset.getThumbnailObjectName(), thumbnailObjectName);
+
         asset.setObjectName(objectName);
         asset.setFileName(fileName);
         asset.setFileSize(fileSize);
@@ -41,4 +50,15 @@ public class DocumentAssetService {
         document.setAsset(savedAsset);
     }
 
+    /**
+     * Cập nhật reference count khi asset trỏ sang object khác.
+     */
+    private void swapReference(String previousObjectName, String objectName) {
+        if (Objects.equals(previousObjectName, objectName)) {
+            return;
+        }
+        storageBlobService.acquire(objectName);
+        // Object cũ (nếu hết tham chiếu) chỉ bị xóa khỏi storage sau khi transaction commit
+        storageBlobService.release(previousObjectName);
+    }
 }
@@ -6,14 +6,13 @@ import com.studydocs.manager.entity.DocumentVersion;
 import com.studydocs.manager.repository.DocumentAssetRepository;
 import com.studydocs.manager.repository.DocumentRepository;
 import com.studydocs.manager.repository.DocumentVersionRepository;
+import com.studydocs.manager.service.file.StorageBlobService;
 import com.studydocs.manager.service.filemanager.FileManagerEventService;
-import com.studydocs.manager.storage.StorageProvider;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 @Service
 public class DocumentPurgeService {
@@ -22,33 +21,34 @@ public class DocumentPurgeService {
     private final DocumentAssetRepository documentAssetRepository;
     private final DocumentVersionRepository documentVersionRepository;
     private final FileManagerEventService fileManagerEventService;
-    private final StorageProvider storageProvider;
+    private final StorageBlobService storageBlobService;
 
     public DocumentPurgeService(
             DocumentRepository documentRepository,
             DocumentAssetRepository documentAssetRepository,
             DocumentVersionRepository documentVersionRepository,
             FileManagerEventService fileManagerEventService,
-            StorageProvider storageProvider) {
+            StorageBlobService storageBlobService) {
         this.documentRepository = documentRepository;
         this.documentAssetRepository = documentAssetRepository;
         this.documentVersionRepository = documentVersionRepository;
         this.fileManagerEventService = fileManagerEventService;
-        this.storageProvider = storageProvider;
+        this.storageBlobService = storageBlobService;
     }
 
     public void purge(Document document) throws IOException {
-        Set<String> objectNames = collectObjectNames(document.getId());
+        // Mỗi tham chiếu release một lần; object dùng chung với bản copy được giữ lại
+        List<String> objectNames = collectObjectNames(document.getId());
         for (String objectName : objectNames) {
-            storageProvider.deleteFile(objectName);
+            storageBlobService.release(objectName);
         }
 
         fileManagerEventService.deleteFromIndex(document.getId());
         documentRepository.delete(document);
     }
 
-    private Set<String> collectObjectNames(Long documentId) {
-        Set<String> objectNames = new LinkedHashSet<>();
+    private List<String> collectObjectNames(Long documentId) {
+        List<String> objectNames = new ArrayList<>();
 
         DocumentAsset asset = documentAssetRepository.findByDocumentId(documentId).orElse(null);
         if (asset != null) {
@@ -64,7 +64,7 @@ public class DocumentPurgeService {
         return objectNames;
     }
 
-    private void addIfPresent(Set<String> objectNames, String objectName) {
+    private void addIfPresent(List<String> objectNames, String objectName) {
         if (objectName != null && !objectName.isBlank()) {
             objectNames.add(objectName);
         }
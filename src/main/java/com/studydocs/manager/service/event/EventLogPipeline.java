@@ -0,0 +1,342 @@
+package com.studydocs.manager.service.event;
+
+import com.studydocs.manager.config.EventLogProperties;
+import com.studydocs.manager.enums.AuditAction;
+import com.studydocs.manager.enums.DocumentEventType;
+import com.studydocs.manager.enums.FolderEventType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EventLogPipeline - Ghi audit_logs / document_events / folder_events theo kiểu write-behind
+ *
+ * - Event chỉ mang id (actor, document, folder, user), không load entity.
+ * - Trong transaction: event được giữ theo transaction và chỉ vào hàng đợi sau commit;
+ *   transaction rollback thì event bị bỏ. Ngoài transaction: vào hàng đợi ngay.
+ * - Hàng đợi có giới hạn (event-log.queue-capacity); khi đầy, thread gọi tự ghi event
+ *   xuống DB trong transaction riêng thay vì làm mất event.
+ * - Drainer định kỳ ghi theo JDBC batch, mỗi bảng một câu INSERT; batch lỗi được ghi lại
+ *   từng dòng, dòng vẫn lỗi (vd. document đã bị purge) bị bỏ và được đếm.
+ * - Khi shutdown, hàng đợi được flush hết trước khi đóng DataSource.
+ */
+@Service
+public class EventLogPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventLogPipeline.class);
+
+    private static final String INSERT_AUDIT_LOG = "INSERT INTO audit_logs "
+            + "(actor_id, target_user_id, action, details, ip, user_agent, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_DOCUMENT_EVENT = "INSERT INTO document_events "
+            + "(document_id, user_id, event_type, event_description, old_value, new_value, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_FOLDER_EVENT = "INSERT INTO folder_events "
+            + "(folder_id, user_id, event_type, description, old_value, new_value, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final EventLogProperties eventLogProperties;
+    private final BlockingQueue<Entry> queue;
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private volatile boolean shuttingDown;
+
+    private final LongAdder enqueuedEvents = new LongAdder();
+    private final LongAdder writtenEvents = new LongAdder();
+    private final LongAdder overflowWrites = new LongAdder();
+    private final LongAdder discardedOnRollback = new LongAdder();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private volatile LocalDateTime lastFlushAt;
+
+    public EventLogPipeline(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EventLogProperties eventLogProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        // afterCommit vẫn còn giữ connection của transaction vừa xong: ghi luôn trong transaction mới
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventLogProperties = eventLogProperties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, eventLogProperties.getQueueCapacity()));
+    }
+
+    public void audit(Long actorId, Long targetUserId, AuditAction action,
+            String details, String ip, String userAgent) {
+        submit(new AuditEntry(actorId, targetUserId, action, details, ip, userAgent, LocalDateTime.now()));
+    }
+
+    public void documentEvent(Long documentId, Long userId, DocumentEventType eventType,
+            String description, String oldValue, String newValue) {
+        if (documentId == null) {
+            // document_events.document_id NOT NULL
+            logger.warn("Skipping document event [{}] without document id", eventType);
+            return;
+        }
+        submit(new DocumentEntry(documentId, userId, eventType, description, oldValue, newValue,
+                LocalDateTime.now()));
+    }
+
+    public void folderEvent(Long folderId, Long userId, FolderEventType eventType,
+            String description, String oldValue, String newValue) {
+        submit(new FolderEntry(folderId, userId, eventType, description, oldValue, newValue,
+                LocalDateTime.now()));
+    }
+
+    @Scheduled(fixedDelayString = "${event-log.flush-interval-ms:500}")
+    public void flush() {
+        // Một lượt flush tại một thời điểm; phần còn lại để lần sau
+        if (!flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int maxBatches = Math.max(1, eventLogProperties.getMaxBatchesPerFlush());
+            int batches = 0;
+            while (flushBatch() && ++batches < maxBatches) {
+                // tiếp tục khi batch trước đầy
+            }
+        } catch (Exception e) {
+            logger.error("Event log flush failed: {}", e.getMessage(), e);
+        } finally {
+            lastFlushAt = LocalDateTime.now();
+            flushing.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        // Chờ lượt flush định kỳ đang chạy (nếu có) rồi ghi nốt hàng đợi
+        while (!flushing.compareAndSet(false, true)) {
+            Thread.onSpinWait();
+        }
+        try {
+            int pending = queue.size();
+            while (flushBatch()) {
+                // ghi tới khi hàng đợi rỗng
+            }
+            if (pending > 0) {
+                logger.info("Flushed {} pending audit/event log entries on shutdown", pending);
+            }
+        } catch (Exception e) {
+            logger.error("Could not flush {} audit/event log entries on shutdown: {}",
+                    queue.size(), e.getMessage(), e);
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    /**
+     * Chỉ số cho endpoint admin.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queuedEvents", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("enqueuedEvents", enqueuedEvents.sum());
+        stats.put("writtenEvents", writtenEvents.sum());
+        stats.put("overflowWrites", overflowWrites.sum());
+        stats.put("discardedOnRollback", discardedOnRollback.sum());
+        stats.put("droppedEvents", droppedEvents.sum());
+        stats.put("failedBatches", failedBatches.sum());
+        stats.put("lastFlushAt", lastFlushAt);
+        return stats;
+    }
+
+    private void submit(Entry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(entry);
+            return;
+        }
+        TransactionBuffer buffer = (TransactionBuffer) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            buffer = new TransactionBuffer();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager.registerSynchronization(buffer);
+        }
+        buffer.entries.add(entry);
+    }
+
+    private void enqueue(Entry entry) {
+        if (!shuttingDown && queue.offer(entry)) {
+            enqueuedEvents.increment();
+            return;
+        }
+        // Hàng đợi đầy (hoặc đang shutdown): ghi trực tiếp để không mất event
+        overflowWrites.increment();
+        writeRows(List.of(entry));
+    }
+
+    private boolean flushBatch() {
+        int batchSize = Math.max(1, eventLogProperties.getBatchSize());
+        List<Entry> batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+        queue.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return false;
+        }
+        writeBatch(batch);
+        return batch.size() == batchSize;
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        List<Object[]> auditRows = new ArrayList<>();
+        List<Object[]> documentRows = new ArrayList<>();
+        List<Object[]> folderRows = new ArrayList<>();
+        for (Entry entry : batch) {
+            switch (entry) {
+                case AuditEntry audit -> auditRows.add(audit.toRow());
+                case DocumentEntry document -> documentRows.add(document.toRow());
+                case FolderEntry folder -> folderRows.add(folder.toRow());
+            }
+        }
+
+        try {
+            writeTransaction.executeWithoutResult(status -> {
+                if (!auditRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG, auditRows);
+                }
+                if (!documentRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_DOCUMENT_EVENT, documentRows);
+                }
+                if (!folderRows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_FOLDER_EVENT, folderRows);
+                }
+            });
+            writtenEvents.add(batch.size());
+        } catch (Exception e) {
+            // Thường do một dòng vi phạm khóa ngoại: ghi lại từng dòng để không kéo cả batch theo
+            failedBatches.increment();
+            logger.warn("Event log batch of {} entries failed, retrying row by row: {}",
+                    batch.size(), e.getMessage());
+            writeRows(batch);
+        }
+    }
+
+    private void writeRows(List<Entry> entries) {
+        for (Entry entry : entries) {
+            try {
+                writeTransaction.executeWithoutResult(status -> jdbcTemplate.update(entry.sql(), entry.toRow()));
+                writtenEvents.increment();
+            } catch (Exception e) {
+                // Ghi log thất bại không được làm gián đoạn business flow
+                droppedEvents.increment();
+                logger.warn("Dropped {}: {}", entry, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Event của một transaction; vào hàng đợi khi commit, bị bỏ khi rollback.
+     */
+    private final class TransactionBuffer implements TransactionSynchronization {
+        private final List<Entry> entries = new ArrayList<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(EventLogPipeline.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(EventLogPipeline.this, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            for (Entry entry : entries) {
+                enqueue(entry);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(EventLogPipeline.this);
+            if (status != STATUS_COMMITTED) {
+                discardedOnRollback.add(entries.size());
+            }
+        }
+    }
+
+    private static String name(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+
+    private sealed interface Entry permits AuditEntry, DocumentEntry, FolderEntry {
+        String sql();
+
+        Object[] toRow();
+    }
+
+    private record AuditEntry(Long actorId, Long targetUserId, AuditAction action, String details,
+            String ip, String userAgent, LocalDateTime createdAt) implements Entry {
+        @Override
+        public String sql() {
+            return INSERT_AUDIT_LOG;
+        }
+
+        @Override
+        public Object[] toRow() {
+            return new Object[] { actorId, targetUserId, name(action), details, ip, userAgent, createdAt };
+        }
+
+        @Override
+        public String toString() {
+            return "audit log [" + action + "] actorId=" + actorId + ", targetUserId=" + targetUserId;
+        }
+    }
+
+    private record DocumentEntry(Long documentId, Long userId, DocumentEventType eventType, String description,
+            String oldValue, String newValue, LocalDateTime createdAt) implements Entry {
+        @Override
+        public String sql() {
+            return INSERT_DOCUMENT_EVENT;
+        }
+
+        @Override
+        public Object[] toRow() {
+            return new Object[] { documentId, userId, name(eventType), description, oldValue, newValue, createdAt };
+        }
+
+        @Override
+        public String toString() {
+            return "document event [" + eventType + "] documentId=" + documentId;
+        }
+    }
+
+    private record FolderEntry(Long folderId, Long userId, FolderEventType eventType, String description,
+            String oldValue, String newValue, LocalDateTime createdAt) implements Entry {
+        @Override
+        public String sql() {
+            return INSERT_FOLDER_EVENT;
+        }
+
+        @Override
+        public Object[] toRow() {
+            return new Object[] { folderId, userId, name(eventType), description, oldValue, newValue, createdAt };
+        }
+
+        @Override
+        public String toString() {
+            return "folder event [" + eventType + "] folderId=" + folderId;
+        }
+    }
+}
@@ -1,173 +1,254 @@
 package com.studydocs.manager.service.file;
+import com.studydocs.manager.entity.DocumentAsset;
 import com.studydocs.manager.enums.*;
 
-import com.studydocs.manager.entity.Document;
-import com.studydocs.manager.entity.DocumentAsset;
+import com.studydocs.manager.exception.ConflictException;
 import com.studydocs.manager.repository.DocumentAssetRepository;
 import com.studydocs.manager.repository.DocumentRepository;
-import com.studydocs.manager.storage.StorageProvider;
-import jakarta.transaction.Transactional;
+import com.studydocs.manager.repository.DocumentRepository.CleanupCandidate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * FileCleanupService - Scheduled service for cleaning up deleted document files
- * 
+ *
  * This service automatically deletes files from storage after documents have
  * been
  * soft-deleted for a configurable retention period (default: 30 days).
- * 
+ *
  * Features:
  * - Runs on configurable schedule (default: daily at 2:00 AM)
  * - Configurable retention period
  * - Can be enabled/disabled via configuration
- * - Errors on individual files don't stop the cleanup process
+ * - Errors on individual chunks don't stop the cleanup process
  * - Comprehensive logging for audit trail
+ *
+ * Mỗi lượt đọc ứng viên theo keyset (deleted_at, id) từng chunk
+ * (cleanup.deleted-files.batch-size) và xử lý các chunk song song trên
+ * fileCleanupExecutor (cleanup.deleted-files.parallelism). Mỗi chunk là một
+ * transaction ngắn: khóa lại các asset còn đủ điều kiện (document vẫn DELETED, object_name
+ * chưa đổi so với lúc đọc), bỏ tham chiếu blob hàng loạt + một UPDATE null object_name
+ * chỉ cho các asset đó; object hết tham chiếu được xóa khỏi storage bằng một lệnh
+ * removeObjects sau commit.
  */
 @Service
 public class FileCleanupService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileCleanupService.class);
 
+    // Mốc bắt đầu của keyset: nhỏ hơn mọi deleted_at thực tế
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     private final DocumentRepository documentRepository;
     private final DocumentAssetRepository documentAssetRepository;
-    private final StorageProvider storageProvider;
+    private final StorageBlobService storageBlobService;
+    private final TransactionTemplate chunkTransaction;
+    private final Executor fileCleanupExecutor;
     private final boolean cleanupEnabled;
     private final int retentionDays;
+    private final int batchSize;
+    private final AtomicBoolean running = new AtomicBoolean(false);
 
     public FileCleanupService(
             DocumentRepository documentRepository,
             DocumentAssetRepository documentAssetRepository,
-            StorageProvider storageProvider,
+            StorageBlobService storageBlobService,
+            PlatformTransactionManager transactionManager,
+            @Qualifier("fileCleanupExecutor") Executor fileCleanupExecutor,
             @Value("${cleanup.deleted-files.enabled:true}") boolean cleanupEnabled,
-            @Value("${cleanup.deleted-files.retention-days:30}") int retentionDays) {
+            @Value("${cleanup.deleted-files.retention-days:30}") int retentionDays,
+            @Value("${cleanup.deleted-files.batch-size:500}") int batchSize) {
         this.documentRepository = documentRepository;
         this.documentAssetRepository = documentAssetRepository;
-        this.storageProvider = storageProvider;
+        this.storageBlobService = storageBlobService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.fileCleanupExecutor = fileCleanupExecutor;
         this.cleanupEnabled = cleanupEnabled;
         this.retentionDays = retentionDays;
+        this.batchSize = Math.max(1, batchSize);
     }
 
     /**
      * Scheduled cleanup job - Runs according to cron expression
      * Default: 0 0 2 * * * (Daily at 2:00 AM)
-     * 
+     *
      * Process:
      * 1. Check if cleanup is enabled
      * 2. Calculate cutoff date (now - retention period)
-     * 3. Find all documents deleted before cutoff with file references
-     * 4. Delete each file from storage
-     * 5. Log results
+     * 3. Page through documents deleted before cutoff with file references
+     * 4. Release each chunk's files and delete unreferenced objects in one batch
+     * 5. Log results and throughput
      */
     @Scheduled(cron = "${cleanup.deleted-files.cron:0 0 2 * * *}")
-    @Transactional
     public void cleanupDeletedDocumentFiles() {
         if (!cleanupEnabled) {
             logger.debug("File cleanup is disabled. Skipping...");
             return;
         }
+        if (!running.compareAndSet(false, true)) {
+            logger.info("File cleanup is already running. Skipping...");
+            return;
+        }
 
-        logger.info("Starting scheduled cleanup of deleted document files");
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(retentionDays);
+        try {
+            logger.info("Starting scheduled cleanup of deleted document files");
+            CleanupResult result = runCleanup();
+            if (result.getErrorCount() > 0) {
+                logger.warn("Failed documents will be retried in the next scheduled run.");
+            }
+        } finally {
+            running.set(false);
+        }
+    }
 
-        int batchSize = 100;
-        int totalSuccess = 0;
-        int totalError = 0;
+    /**
+     * Manual cleanup trigger for testing or admin operations
+     * Can be called directly or exposed via admin endpoint
+     */
+    public CleanupResult manualCleanup() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("File cleanup is already running", "FILE_CLEANUP_RUNNING", null);
+        }
 
-        Page<Document> page;
-        Pageable pageable = PageRequest.of(0, batchSize);
+        try {
+            logger.info("Manual cleanup triggered");
+            return runCleanup();
+        } finally {
+            running.set(false);
+        }
+    }
 
-        do {
-            page = documentRepository
-                    .findByStatusAndDeletedAtBeforeAndAssetObjectNameIsNotNull(
-                            DocumentStatus.DELETED, cutoffDate, pageable);
+    private CleanupResult runCleanup() {
+        long startedAt = System.nanoTime();
+        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(retentionDays);
+        RunStats stats = new RunStats();
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
 
-            if (page.isEmpty())
+        LocalDateTime afterDeletedAt = KEYSET_START;
+        Long afterId = 0L;
+        List<CleanupCandidate> page;
+        do {
+            page = documentRepository.findCleanupCandidatesAfter(
+                    DocumentStatus.DELETED, cutoffDate, afterDeletedAt, afterId, PageRequest.of(0, batchSize));
+            if (page.isEmpty()) {
                 break;
+            }
 
-            logger.info("Processing batch of {} documents", page.getNumberOfElements());
-
-            for (Document document : page.getContent()) {
-                try {
-                    DocumentAsset asset = documentAssetRepository.findByDocumentId(document.getId()).orElse(null);
-                    String objectName = asset != null ? asset.getObjectName() : null;
-                    if (objectName == null || objectName.isEmpty())
-                        continue;
+            CleanupCandidate last = page.get(page.size() - 1);
+            afterDeletedAt = last.getDeletedAt();
+            afterId = last.getDocumentId();
 
-                    logger.debug("Deleting file: {} for document ID: {}", objectName, document.getId());
+            List<CleanupCandidate> chunk = page;
+            stats.chunks.incrementAndGet();
+            chunks.add(CompletableFuture.runAsync(() -> cleanupChunk(chunk, cutoffDate, stats), fileCleanupExecutor));
+        } while (page.size() == batchSize);
 
-                    // Bước 1: Xóa file vật lý khỏi MinIO
-                    storageProvider.deleteFile(objectName);
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
 
-                    // Bước 2: Null objectName để không cleanup lại lần sau
-                    // GIỮ NGUYÊN record DB với status=DELETED → user có thể restore metadata
-                    // (File đã mất nhưng title, description, tags... vẫn còn trong Trash)
-                    asset.setObjectName(null);
-                    documentAssetRepository.save(asset);
+        long durationMs = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        CleanupResult result = new CleanupResult(
+                stats.documents.get(),
+                stats.cleaned.get(),
+                stats.errors.get(),
+                stats.chunks.get(),
+                stats.deletedObjects.get(),
+                stats.failedObjectDeletes.get(),
+                durationMs);
+        logger.info("Cleanup completed: {} documents cleaned up, {} errors, {} chunks, {} storage objects deleted "
+                        + "({} failed) in {} ms ({} documents/s)",
+                result.getSuccessCount(), result.getErrorCount(), result.getChunkCount(),
+                result.getDeletedObjects(), result.getFailedObjectDeletes(), result.getDurationMs(),
+                String.format("%.1f", result.getDocumentsPerSecond()));
+        return result;
+    }
 
-                    totalSuccess++;
-                    logger.info("Cleaned up file for document ID: {} (file: {})", document.getId(), objectName);
+    private void cleanupChunk(List<CleanupCandidate> chunk, LocalDateTime cutoffDate, RunStats stats) {
+        stats.documents.addAndGet(chunk.size());
+        Map<Long, String> candidateNames = new HashMap<>(chunk.size() * 2);
+        for (CleanupCandidate candidate : chunk) {
+            candidateNames.put(candidate.getAssetId(), candidate.getObjectName());
+        }
 
-                } catch (Exception e) {
-                    totalError++;
-                    logger.error("Failed to clean up document ID: {} - Error: {}",
-                            document.getId(), e.getMessage(), e);
-                    // Tiếp tục xử lý các documents còn lại dù có lỗi
+        ChunkOutcome outcome;
+        try {
+            outcome = chunkTransaction.execute(status -> {
+                // Bước 0: Chunk được đọc ngoài transaction; document có thể đã được restore
+                // hoặc upload lại từ lúc đó → chỉ giữ asset còn nguyên trạng, khóa tới commit
+                List<Long> assetIds = new ArrayList<>(candidateNames.size());
+                List<String> objectNames = new ArrayList<>(candidateNames.size());
+                for (DocumentAsset asset : documentAssetRepository.findCleanupCandidatesForUpdate(
+                        candidateNames.keySet(), DocumentStatus.DELETED, cutoffDate)) {
+                    if (asset.getObjectName().equals(candidateNames.get(asset.getId()))) {
+                        assetIds.add(asset.getId());
+                        objectNames.add(asset.getObjectName());
+                    }
+                }
+                if (assetIds.isEmpty()) {
+                    return new ChunkOutcome(0, List.of());
                 }
-            }
 
-            // Luôn query page 0: documents đã hard-delete sẽ tự rớt khỏi kết quả
-            // → page 0 liên tục trượt sang batch tiếp theo
-        } while (page.hasContent());
+                // Bước 1: Bỏ tham chiếu tới file; file chỉ bị xóa khỏi MinIO khi
+                // không còn document nào khác (bản copy, upload trùng) dùng chung
+                List<String> unreferenced = storageBlobService.releaseAll(objectNames);
 
-        logger.info("Cleanup completed: {} documents cleaned up, {} errors", totalSuccess, totalError);
-        if (totalError > 0) {
-            logger.warn("Failed documents will be retried in the next scheduled run.");
+                // Bước 2: Null objectName để không cleanup lại lần sau
+                // GIỮ NGUYÊN record DB với status=DELETED → user có thể restore metadata
+                // (File đã mất nhưng title, description, tags... vẫn còn trong Trash)
+                documentAssetRepository.clearObjectNames(assetIds);
+                return new ChunkOutcome(assetIds.size(), unreferenced);
+            });
+        } catch (Exception e) {
+            stats.errors.addAndGet(chunk.size());
+            logger.error("Failed to clean up chunk of {} documents (IDs {}..{}) - Error: {}",
+                    chunk.size(), chunk.get(0).getDocumentId(), chunk.get(chunk.size() - 1).getDocumentId(),
+                    e.getMessage(), e);
+            return;
+        }
+        stats.cleaned.addAndGet(outcome.cleaned());
+        if (outcome.cleaned() < chunk.size()) {
+            logger.info("Skipped {} documents restored or re-uploaded since the cleanup scan",
+                    chunk.size() - outcome.cleaned());
         }
-    }
-
-    /**
-     * Manual cleanup trigger for testing or admin operations
-     * Can be called directly or exposed via admin endpoint
-     */
-    @Transactional
-    public CleanupResult manualCleanup() {
-        logger.info("Manual cleanup triggered");
 
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(retentionDays);
-        List<Document> documentsToCleanup = documentRepository
-                .findByDeletedAtBeforeAndAssetObjectNameIsNotNull(cutoffDate);
-
-        int successCount = 0;
-        int errorCount = 0;
-
-        for (Document document : documentsToCleanup) {
-            try {
-                DocumentAsset asset = documentAssetRepository.findByDocumentId(document.getId()).orElse(null);
-                if (asset != null && asset.getObjectName() != null && !asset.getObjectName().isEmpty()) {
-                    storageProvider.deleteFile(asset.getObjectName());
-                    // Giữ record, chỉ null file reference
-                    asset.setObjectName(null);
-                    documentAssetRepository.save(asset);
-                    successCount++;
-                }
-            } catch (Exception e) {
-                errorCount++;
-                logger.error("Manual cleanup failed for document {}: {}",
-                        document.getId(), e.getMessage());
+        // Bước 3: Xóa object sau commit; lỗi ở đây chỉ để lại object mồ côi, không mất dữ liệu
+        List<String> toDelete = outcome.unreferenced();
+        if (!toDelete.isEmpty()) {
+            List<String> failed = storageBlobService.deleteObjects(toDelete);
+            stats.deletedObjects.addAndGet(toDelete.size() - failed.size());
+            stats.failedObjectDeletes.addAndGet(failed.size());
+            if (!failed.isEmpty()) {
+                logger.warn("Could not delete {} unreferenced storage objects: {}", failed.size(), failed);
             }
         }
+    }
 
-        return new CleanupResult(documentsToCleanup.size(), successCount, errorCount);
+    private record ChunkOutcome(int cleaned, List<String> unreferenced) {
+    }
+
+    private static final class RunStats {
+        private final AtomicInteger documents = new AtomicInteger();
+        private final AtomicInteger cleaned = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private final AtomicInteger chunks = new AtomicInteger();
+        private final AtomicInteger deletedObjects = new AtomicInteger();
+        private final AtomicInteger failedObjectDeletes = new AtomicInteger();
     }
 
     /**
@@ -177,11 +258,20 @@ public class FileCleanupService {
         private final int totalDocuments;
         private final int successCount;
         private final int errorCount;
+        private final int chunkCount;
+        private final int deletedObjects;
+        private final int failedObjectDeletes;
+        private final long durationMs;
 
-        public CleanupResult(int totalDocuments, int successCount, int errorCount) {
+        public CleanupResult(int totalDocuments, int successCount, int errorCount, int chunkCount,
+                int deletedObjects, int failedObjectDeletes, long durationMs) {
             this.totalDocuments = totalDocuments;
             this.successCount = successCount;
             this.errorCount = errorCount;
+            this.chunkCount = chunkCount;
+            this.deletedObjects = deletedObjects;
+            this.failedObjectDeletes = failedObjectDeletes;
+            this.durationMs = durationMs;
         }
 
         public int getTotalDocuments() {
@@ -195,5 +285,25 @@ public class FileCleanupService {
         public int getErrorCount() {
             return errorCount;
         }
+
+        public int getChunkCount() {
+            return chunkCount;
+        }
+
+        public int getDeletedObjects() {
+            return deletedObjects;
+        }
+
+        public int getFailedObjectDeletes() {
+            return failedObjectDeletes;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public double getDocumentsPerSecond() {
+            return durationMs > 0 ? totalDocuments * 1000.0 / durationMs : 0.0;
+        }
     }
 }
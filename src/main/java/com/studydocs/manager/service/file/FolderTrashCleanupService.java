@@ -7,6 +7,7 @@ import com.studydocs.manager.repository.DocumentAssetRepository;
 import com.studydocs.manager.repository.DocumentRepository;
 import com.studydocs.manager.repository.FolderRepository;
 import com.studydocs.manager.repository.FolderEventRepository;
+import com.studydocs.manager.service.filemanager.FileManagerTreeService;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,7 @@ public class FolderTrashCleanupService {
     private final DocumentRepository documentRepository;
     private final DocumentAssetRepository documentAssetRepository;
     private final FolderEventRepository folderEventRepository;
+    private final FileManagerTreeService fileManagerTreeService;
     private final boolean folderTrashCleanupEnabled;
     private final int folderTrashRetentionDays;
 
@@ -37,12 +39,14 @@ public class FolderTrashCleanupService {
             DocumentRepository documentRepository,
             DocumentAssetRepository documentAssetRepository,
             FolderEventRepository folderEventRepository,
+            FileManagerTreeService fileManagerTreeService,
             @Value("${cleanup.folder-trash.enabled:true}") boolean folderTrashCleanupEnabled,
             @Value("${cleanup.folder-trash.retention-days:90}") int folderTrashRetentionDays) {
         this.folderRepository = folderRepository;
         this.documentRepository = documentRepository;
         this.documentAssetRepository = documentAssetRepository;
         this.folderEventRepository = folderEventRepository;
+        this.fileManagerTreeService = fileManagerTreeService;
         this.folderTrashCleanupEnabled = folderTrashCleanupEnabled;
         this.folderTrashRetentionDays = folderTrashRetentionDays;
     }
@@ -79,7 +83,7 @@ public class FolderTrashCleanupService {
                     .toList();
 
             List<Folder> foldersDescending = treeData.folders().stream()
-                    .sorted(Comparator.comparingInt(this::folderDepth).reversed())
+                    .sorted(Comparator.comparingInt(fileManagerTreeService::folderDepth).reversed())
                     .toList();
             List<Long> folderIds = foldersDescending.stream()
                     .map(Folder::getId)
@@ -130,16 +134,6 @@ public class FolderTrashCleanupService {
         return objectNamesByDocumentId;
     }
 
-    private int folderDepth(Folder folder) {
-        int depth = 0;
-        Folder current = folder.getParent();
-        while (current != null) {
-            depth++;
-            current = current.getParent();
-        }
-        return depth;
-    }
-
     private record FolderTreeData(
             List<Folder> folders,
             List<Document> documents,
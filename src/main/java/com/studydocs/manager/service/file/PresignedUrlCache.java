@@ -0,0 +1,100 @@
+package com.studydocs.manager.service.file;
+
+import com.studydocs.manager.config.StorageProperties;
+import com.studydocs.manager.storage.StorageProvider;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache presigned URL theo objectName.
+ * <p>
+ * URL có hạn storage.presigned-url-expiry-minutes (mặc định 7 ngày) nhưng chỉ được
+ * giữ trong cache storage.presigned-url-cache-ttl-minutes, nên URL lấy từ cache vẫn
+ * còn hiệu lực ít nhất (expiry - ttl). Số entry bị chặn bởi
+ * storage.presigned-url-cache-max-entries (bỏ entry lâu không dùng nhất).
+ * Object bị xóa khỏi storage thì phải gọi {@link #invalidate(String)}.
+ */
+@Service
+public class PresignedUrlCache {
+
+    private final StorageProvider storageProvider;
+    private final StorageProperties storageProperties;
+    private final Map<String, CachedUrl> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PresignedUrlCache(StorageProvider storageProvider, StorageProperties storageProperties) {
+        this.storageProvider = storageProvider;
+        this.storageProperties = storageProperties;
+        int maxEntries = Math.max(1, storageProperties.getPresignedUrlCacheMaxEntries());
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUrl> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return presigned URL cho object (dùng lại URL đã ký nếu còn trong TTL)
+     */
+    public String getUrl(String objectName) throws IOException {
+        long now = System.nanoTime();
+        synchronized (entries) {
+            CachedUrl cached = entries.get(objectName);
+            if (cached != null && now - cached.expiresAtNanos() < 0) {
+                hits.increment();
+                return cached.url();
+            }
+        }
+
+        // Ký URL ngoài lock; hai request cùng miss chỉ tốn thêm một lần ký
+        misses.increment();
+        int expiryMinutes = storageProperties.getPresignedUrlExpiryMinutes();
+        String url = storageProvider.generatePresignedUrl(objectName, expiryMinutes);
+        long ttlMinutes = Math.min(storageProperties.getPresignedUrlCacheTtlMinutes(), expiryMinutes / 2);
+        if (ttlMinutes > 0) {
+            synchronized (entries) {
+                entries.put(objectName, new CachedUrl(url, now + TimeUnit.MINUTES.toNanos(ttlMinutes)));
+            }
+        }
+        return url;
+    }
+
+    public void invalidate(String objectName) {
+        if (objectName == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.remove(objectName);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRatio", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        return stats;
+    }
+
+    private record CachedUrl(String url, long expiresAtNanos) {
+    }
+}
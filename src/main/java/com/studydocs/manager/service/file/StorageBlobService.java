@@ -0,0 +1,334 @@
+package com.studydocs.manager.service.file;
+
+import com.studydocs.manager.config.StorageProperties;
+import com.studydocs.manager.entity.StorageBlob;
+import com.studydocs.manager.repository.StorageBlobRepository;
+import com.studydocs.manager.storage.StorageProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * StorageBlobService - Reference counting cho object trên storage
+ *
+ * - Upload mới được đối chiếu theo SHA-256: nội dung đã có thì dùng lại object cũ
+ *   và xóa bản vừa upload. Blob trùng được khóa dòng và đặt lease
+ *   (storage.dedup-lease-minutes) để không bị xóa trước khi document của upload commit.
+ * - Mỗi tham chiếu (file / thumbnail của DocumentAsset, DocumentVersion) gọi
+ *   {@link #acquire(String)} khi gắn và {@link #release(String)} khi bỏ; object
+ *   chỉ bị xóa khỏi storage khi tham chiếu cuối cùng được release, và chỉ SAU KHI
+ *   transaction đó commit.
+ * - Copy document vì vậy chỉ là thao tác metadata.
+ * - Object có từ trước reference counting được đăng ký lúc khởi động, trước khi nhận
+ *   request; backfill lỗi thì ứng dụng không khởi động.
+ */
+@Service
+public class StorageBlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageBlobService.class);
+
+    private final StorageBlobRepository storageBlobRepository;
+    private final StorageProvider storageProvider;
+    private final PresignedUrlCache presignedUrlCache;
+    private final StorageProperties storageProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public StorageBlobService(StorageBlobRepository storageBlobRepository, StorageProvider storageProvider,
+            PresignedUrlCache presignedUrlCache, StorageProperties storageProperties,
+            PlatformTransactionManager transactionManager) {
+        this.storageBlobRepository = storageBlobRepository;
+        this.storageProvider = storageProvider;
+        this.presignedUrlCache = presignedUrlCache;
+        this.storageProperties = storageProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Ghi nhận object vừa upload (chưa có tham chiếu). Nếu đã có blob cùng
+     * content hash thì đặt lease trên blob đó, xóa object vừa upload và trả về object đã có.
+     *
+     * @return object name mà caller nên dùng
+     */
+    public String registerUpload(String objectName, String contentHash, Long size) {
+        if (contentHash != null) {
+            Optional<String> duplicate = leaseDuplicate(contentHash, objectName);
+            if (duplicate.isPresent()) {
+                discardUpload(objectName);
+                return duplicate.get();
+            }
+        }
+
+        try {
+            storageBlobRepository.saveAndFlush(new StorageBlob(objectName, contentHash, size));
+            return objectName;
+        } catch (DataIntegrityViolationException e) {
+            // Upload cùng nội dung chạy song song đã đăng ký trước
+            Optional<String> duplicate = contentHash != null
+                    ? leaseDuplicate(contentHash, objectName)
+                    : Optional.empty();
+            if (duplicate.isPresent()) {
+                discardUpload(objectName);
+                return duplicate.get();
+            }
+            return objectName;
+        }
+    }
+
+    /**
+     * Thêm một tham chiếu tới object (chạy trong transaction của caller).
+     */
+    @Transactional
+    public void acquire(String objectName) {
+        if (objectName == null || objectName.isBlank()) {
+            return;
+        }
+        if (storageBlobRepository.incrementRefCount(objectName) == 0) {
+            // Object chưa được đăng ký (vd. thumbnail): backfill lúc khởi động đã đăng ký
+            // mọi object đang được tham chiếu, nên đây là tham chiếu đầu tiên
+            StorageBlob blob = new StorageBlob(objectName, null, null);
+            blob.setRefCount(1);
+            storageBlobRepository.save(blob);
+        }
+    }
+
+    /**
+     * Thêm tham chiếu cho nhiều object cùng lúc (vd. copy cả cây folder); object xuất
+     * hiện n lần được cộng n. Số câu UPDATE bằng số giá trị n khác nhau, không theo số object.
+     */
+    @Transactional
+    public void acquireAll(Collection<String> objectNames) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String objectName : objectNames) {
+            if (objectName != null && !objectName.isBlank()) {
+                counts.merge(objectName, 1, Integer::sum);
+            }
+        }
+        if (counts.isEmpty()) {
+            return;
+        }
+
+        Set<String> existing = new HashSet<>(storageBlobRepository.findExistingObjectNames(counts.keySet()));
+        Map<Integer, List<String>> namesByDelta = new LinkedHashMap<>();
+        List<StorageBlob> missing = new ArrayList<>();
+        counts.forEach((objectName, count) -> {
+            if (existing.contains(objectName)) {
+                namesByDelta.computeIfAbsent(count, delta -> new ArrayList<>()).add(objectName);
+            } else {
+                StorageBlob blob = new StorageBlob(objectName, null, null);
+                blob.setRefCount(count);
+                missing.add(blob);
+            }
+        });
+
+        namesByDelta.forEach((delta, names) -> storageBlobRepository.incrementRefCounts(names, delta));
+        storageBlobRepository.saveAll(missing);
+    }
+
+    /**
+     * Bỏ một tham chiếu. Nếu đó là tham chiếu cuối, object bị xóa khỏi storage sau khi
+     * transaction của caller commit; rollback thì object vẫn còn cùng dòng blob.
+     */
+    @Transactional
+    public void release(String objectName) {
+        if (objectName == null || objectName.isBlank()) {
+            return;
+        }
+        if (!storageBlobRepository.existsByObjectName(objectName)) {
+            // Không được theo dõi: chỉ có một chủ sở hữu như trước đây
+            deleteAfterCommit(objectName);
+            return;
+        }
+
+        storageBlobRepository.decrementRefCount(objectName);
+        if (storageBlobRepository.deleteIfUnreferenced(objectName, LocalDateTime.now()) == 0) {
+            logger.debug("Object {} is still referenced or leased, keeping it in storage", objectName);
+            return;
+        }
+        deleteAfterCommit(objectName);
+    }
+
+    /**
+     * Bỏ tham chiếu cho nhiều object cùng lúc (vd. cleanup file của document đã xóa);
+     * object xuất hiện n lần được trừ n. Chỉ cập nhật DB: object hết tham chiếu (và object
+     * chưa được theo dõi) được trả về để caller xóa khỏi storage bằng
+     * {@link #deleteObjects(Collection)} SAU KHI transaction commit.
+     *
+     * @return object name cần xóa khỏi storage
+     */
+    @Transactional
+    public List<String> releaseAll(Collection<String> objectNames) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String objectName : objectNames) {
+            if (objectName != null && !objectName.isBlank()) {
+                counts.merge(objectName, 1, Integer::sum);
+            }
+        }
+        if (counts.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> tracked = new HashSet<>(storageBlobRepository.findExistingObjectNames(counts.keySet()));
+        List<String> toDelete = new ArrayList<>();
+        Map<Integer, List<String>> namesByDelta = new LinkedHashMap<>();
+        counts.forEach((objectName, count) -> {
+            if (tracked.contains(objectName)) {
+                namesByDelta.computeIfAbsent(count, delta -> new ArrayList<>()).add(objectName);
+            } else {
+                // Không được theo dõi: chỉ có một chủ sở hữu như trước đây
+                toDelete.add(objectName);
+            }
+        });
+        if (tracked.isEmpty()) {
+            return toDelete;
+        }
+
+        // Các UPDATE giữ row lock tới khi commit: acquire song song phải chờ, không hồi sinh dòng sắp xóa
+        namesByDelta.forEach((delta, names) -> storageBlobRepository.decrementRefCounts(names, delta));
+        LocalDateTime now = LocalDateTime.now();
+        List<String> unreferenced = storageBlobRepository.findUnreferencedObjectNames(tracked, now);
+        if (!unreferenced.isEmpty()) {
+            storageBlobRepository.deleteUnreferenced(unreferenced, now);
+            toDelete.addAll(unreferenced);
+        }
+        return toDelete;
+    }
+
+    /**
+     * Xóa nhiều object khỏi storage trong một lần gọi batch.
+     *
+     * @return object name xóa không thành công
+     */
+    public List<String> deleteObjects(Collection<String> objectNames) {
+        if (objectNames.isEmpty()) {
+            return List.of();
+        }
+        objectNames.forEach(presignedUrlCache::invalidate);
+        try {
+            return storageProvider.deleteFiles(objectNames);
+        } catch (IOException e) {
+            logger.error("Could not delete {} storage objects: {}", objectNames.size(), e.getMessage(), e);
+            return new ArrayList<>(objectNames);
+        }
+    }
+
+    /**
+     * Xóa blob chưa có tham chiếu nào và không còn lease (vd. file upload rồi bị bỏ).
+     *
+     * @return true nếu object không còn được theo dõi và có thể xóa khỏi storage
+     */
+    @Transactional
+    public boolean forgetUnreferenced(String objectName) {
+        if (!storageBlobRepository.existsByObjectName(objectName)) {
+            return true;
+        }
+        return storageBlobRepository.deleteIfUnreferenced(objectName, LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * Đăng ký các object đã tồn tại trước khi có reference counting. Chạy trước khi
+     * web server nhận request: acquire trên object chưa đăng ký sẽ tạo blob với
+     * ref_count 1 và bỏ sót các tham chiếu cũ, nên backfill lỗi thì dừng khởi động.
+     * Mọi instance đều chạy lúc khởi động; câu INSERT bỏ qua object đã có nên chạy song song
+     * không lỗi.
+     */
+    @PostConstruct
+    public void backfillLegacyReferences() {
+        Integer created = transactionTemplate.execute(status -> storageBlobRepository.backfillLegacyReferences());
+        if (created != null && created > 0) {
+            logger.info("Registered {} existing storage objects for reference counting", created);
+        }
+    }
+
+    /**
+     * Tìm blob cùng content hash và đặt lease trên dòng đã khóa, trong transaction riêng:
+     * sau khi commit, release / cleanup / DELETE không xóa được object cho tới khi hết lease
+     * (kể cả khi ref_count đang là 0), nên document của upload trùng có thời gian acquire.
+     */
+    private Optional<String> leaseDuplicate(String contentHash, String objectName) {
+        return transactionTemplate.execute(status -> {
+            Optional<StorageBlob> existing = storageBlobRepository.findByContentHashForUpdate(contentHash);
+            if (existing.isEmpty() || existing.get().getObjectName().equals(objectName)) {
+                return Optional.empty();
+            }
+
+            StorageBlob blob = existing.get();
+            if (!storageProvider.fileExists(blob.getObjectName())) {
+                // Object đã mất khỏi storage: nhả content hash để upload mới thế chỗ
+                logger.warn("Storage object {} for content hash {} is missing", blob.getObjectName(), contentHash);
+                blob.setContentHash(null);
+                storageBlobRepository.saveAndFlush(blob);
+                return Optional.empty();
+            }
+
+            LocalDateTime leasedUntil = LocalDateTime.now().plusMinutes(storageProperties.getDedupLeaseMinutes());
+            if (blob.getLeasedUntil() == null || blob.getLeasedUntil().isBefore(leasedUntil)) {
+                blob.setLeasedUntil(leasedUntil);
+            }
+            return Optional.of(blob.getObjectName());
+        });
+    }
+
+    /**
+     * Xóa object khỏi storage sau khi transaction hiện tại commit (gom mọi object của
+     * transaction vào một lần xóa batch); ngoài transaction thì xóa ngay.
+     */
+    private void deleteAfterCommit(String objectName) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            deleteObjects(List.of(objectName));
+            return;
+        }
+
+        // Synchronization gắn với transaction hiện tại (bị suspend cùng transaction ngoài khi REQUIRES_NEW)
+        PendingDeletes pending = null;
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingDeletes existing) {
+                pending = existing;
+                break;
+            }
+        }
+        if (pending == null) {
+            pending = new PendingDeletes();
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.objectNames.add(objectName);
+    }
+
+    private void discardUpload(String objectName) {
+        try {
+            storageProvider.deleteFile(objectName);
+        } catch (IOException e) {
+            logger.warn("Could not delete duplicate upload {}: {}", objectName, e.getMessage());
+        }
+    }
+
+    private final class PendingDeletes implements TransactionSynchronization {
+        private final Set<String> objectNames = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            List<String> failed = deleteObjects(objectNames);
+            if (!failed.isEmpty()) {
+                logger.warn("Could not delete {} unreferenced storage objects: {}", failed.size(), failed);
+            }
+        }
+    }
+}
@@ -1,19 +1,22 @@
 package com.studydocs.manager.service.file;
 
 import com.studydocs.manager.dto.file.FileMetadata;
-import org.apache.tika.Tika;
+import com.studydocs.manager.dto.file.FileMetadataSummary;
+import com.studydocs.manager.util.BoundedPipe;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.exception.WriteLimitReachedException;
 import org.apache.tika.metadata.Metadata;
-import org.apache.tika.parser.AutoDetectParser;
-import org.apache.tika.parser.ParseContext;
-import org.apache.tika.parser.Parser;
 import org.apache.tika.sax.BodyContentHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,6 +30,9 @@ import java.util.Map;
  * 1. Extract metadata từ file upload
  * 2. Trả metadata cho frontend để pre-fill form
  * 3. User review và submit document creation
+ *
+ * Mọi lượt parse/detect đi qua {@link TikaParserEngine} (parser dùng chung,
+ * giới hạn concurrency và timeout theo MIME type).
  */
 @Service
 public class TikaMetadataService {
@@ -36,6 +42,17 @@ public class TikaMetadataService {
     // Giới hạn text extraction để tránh OutOfMemory
     private static final int MAX_TEXT_LENGTH = 1_000_000; // 1MB text
 
+    // Summary chỉ cần metadata; text đọc tối thiểu để parser dừng sớm
+    private static final int SUMMARY_TEXT_LIMIT = 1_000;
+    private static final int PIPE_CHUNK_SIZE = 64 * 1024;
+    private static final int PIPE_MAX_CHUNKS = 16;
+
+    private final TikaParserEngine tikaParserEngine;
+
+    public TikaMetadataService(TikaParserEngine tikaParserEngine) {
+        this.tikaParserEngine = tikaParserEngine;
+    }
+
     /**
      * Extract metadata và text content từ file
      * 
@@ -46,18 +63,15 @@ public class TikaMetadataService {
         FileMetadata fileMetadata = new FileMetadata();
 
         try (InputStream inputStream = file.getInputStream()) {
-            // Initialize Tika components
-            Parser parser = new AutoDetectParser();
             BodyContentHandler handler = new BodyContentHandler(MAX_TEXT_LENGTH);
             Metadata metadata = new Metadata();
-            ParseContext context = new ParseContext();
 
             // Set filename để Tika detect tốt hơn
             metadata.set("resourceName", file.getOriginalFilename());
 
             // Parse file để extract metadata và content
             logger.debug("Parsing file: {}", file.getOriginalFilename());
-            parser.parse(inputStream, handler, metadata, context);
+            tikaParserEngine.parse(inputStream, handler, metadata);
 
             // Extract basic metadata (using string literals for compatibility)
             fileMetadata.setTitle(getMetadataValue(metadata, "dc:title"));
@@ -138,18 +152,51 @@ public class TikaMetadataService {
      * @param file MultipartFile từ upload
      * @return FileMetadataSummary chứa essential metadata fields
      */
-    public com.studydocs.manager.dto.file.FileMetadataSummary extractMetadataSummary(MultipartFile file) {
-        // Extract full metadata first
-        FileMetadata fullMetadata = extractMetadata(file);
-
-        // Convert to summary (only essential fields)
-        com.studydocs.manager.dto.file.FileMetadataSummary summary = new com.studydocs.manager.dto.file.FileMetadataSummary();
-        summary.setTitle(fullMetadata.getTitle());
-        summary.setAuthor(fullMetadata.getAuthor());
-        summary.setKeywords(fullMetadata.getKeywords());
-        summary.setLanguage(fullMetadata.getLanguage());
-        summary.setPageCount(fullMetadata.getPageCount());
-        summary.setWordCount(fullMetadata.getWordCount());
+    public FileMetadataSummary extractMetadataSummary(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            Metadata metadata = new Metadata();
+            metadata.set("resourceName", file.getOriginalFilename());
+            try {
+                tikaParserEngine.parse(inputStream, new BodyContentHandler(SUMMARY_TEXT_LIMIT), metadata);
+            } catch (WriteLimitReachedException e) {
+                // Đủ text cho summary; metadata đã được parser điền trước phần body
+            }
+            return toSummary(metadata);
+        } catch (Exception e) {
+            logger.error("Error extracting metadata summary from file: {} - {}",
+                    file.getOriginalFilename(), e.getMessage(), e);
+            throw new RuntimeException("Failed to extract metadata: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Bắt đầu extract metadata summary từ dữ liệu sẽ được đẩy vào sau (single-pass upload).
+     * Caller ghi bytes vào {@link SummaryExtraction#sink()} (thường qua TeeInputStream
+     * của upload), đóng sink khi hết dữ liệu rồi gọi {@link SummaryExtraction#await()}.
+     * Text chỉ đọc tới SUMMARY_TEXT_LIMIT, phần còn lại của stream bị bỏ qua.
+     * Parser treo quá timeout thì ghi vào sink báo lỗi thay vì chặn upload (TeeInputStream
+     * bỏ nhánh extract và upload tiếp tục, {@link SummaryExtraction#await()} báo timeout).
+     */
+    public SummaryExtraction startSummaryExtraction(String resourceName, String contentType) throws TikaException {
+        BoundedPipe pipe = new BoundedPipe(PIPE_CHUNK_SIZE, PIPE_MAX_CHUNKS);
+        Metadata metadata = new Metadata();
+        if (resourceName != null && !resourceName.isBlank()) {
+            metadata.set("resourceName", resourceName);
+        }
+        TikaParserEngine.PendingParse pendingParse = tikaParserEngine.parseAsync(
+                pipe.source(), new BodyContentHandler(SUMMARY_TEXT_LIMIT), metadata, contentType);
+        pipe.setWriteDeadline(pendingParse.deadlineNanos());
+        return new SummaryExtraction(pipe, pendingParse, metadata);
+    }
+
+    private FileMetadataSummary toSummary(Metadata metadata) {
+        FileMetadataSummary summary = new FileMetadataSummary();
+        summary.setTitle(getMetadataValue(metadata, "dc:title"));
+        summary.setAuthor(getMetadataValue(metadata, "dc:creator"));
+        summary.setKeywords(getMetadataValue(metadata, "meta:keyword"));
+        summary.setLanguage(getMetadataValue(metadata, "dc:language"));
+        summary.setPageCount(parseCount(metadata, "xmpTPg:NPages", "meta:page-count"));
+        summary.setWordCount(parseCount(metadata, "meta:word-count"));
 
         logger.debug("Metadata summary created - Title: {}, Pages: {}, Words: {}",
                 summary.getTitle(), summary.getPageCount(), summary.getWordCount());
@@ -157,6 +204,67 @@ public class TikaMetadataService {
         return summary;
     }
 
+    private Integer parseCount(Metadata metadata, String... names) {
+        for (String name : names) {
+            String value = getMetadataValue(metadata, name);
+            if (value == null) {
+                continue;
+            }
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                logger.warn("Could not parse {}: {}", name, value);
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Một lượt extract summary đang nhận dữ liệu qua pipe.
+     */
+    public final class SummaryExtraction {
+
+        private final BoundedPipe pipe;
+        private final TikaParserEngine.PendingParse pendingParse;
+        private final Metadata metadata;
+
+        private SummaryExtraction(BoundedPipe pipe, TikaParserEngine.PendingParse pendingParse, Metadata metadata) {
+            this.pipe = pipe;
+            this.pendingParse = pendingParse;
+            this.metadata = metadata;
+        }
+
+        public OutputStream sink() {
+            return pipe.sink();
+        }
+
+        /**
+         * Báo hết dữ liệu cho parser. Gọi sau khi upload đọc xong (hoặc thất bại).
+         */
+        public void complete() {
+            try {
+                pipe.sink().close();
+            } catch (IOException e) {
+                // parser đã dừng đọc
+            }
+        }
+
+        public void abort() {
+            complete();
+            pendingParse.abort();
+        }
+
+        public FileMetadataSummary await() throws IOException, SAXException, TikaException {
+            try {
+                pendingParse.await();
+            } catch (WriteLimitReachedException e) {
+                // Đủ text cho summary
+            }
+            return toSummary(metadata);
+        }
+    }
+
     /**
      * Extract chỉ text content từ file (không extract metadata)
      * Hữu ích khi chỉ cần nội dung để index hoặc search
@@ -173,8 +281,7 @@ public class TikaMetadataService {
      */
     public String detectMimeType(MultipartFile file) {
         try (InputStream inputStream = file.getInputStream()) {
-            Tika tika = new Tika();
-            return tika.detect(inputStream, file.getOriginalFilename());
+            return tikaParserEngine.detect(inputStream, file.getOriginalFilename());
         } catch (Exception e) {
             logger.error("Error detecting MIME type for file: {}", file.getOriginalFilename());
             return file.getContentType(); // Fallback to provided content type
@@ -204,18 +311,16 @@ public class TikaMetadataService {
         ContentHandler handler = new BodyContentHandler(maxLength); // Declare handler outside try for scope
 
         try {
-            Parser parser = new AutoDetectParser();
             Metadata metadata = new Metadata();
-            ParseContext context = new ParseContext();
 
             if (resourceName != null && !resourceName.isBlank()) {
                 metadata.set("resourceName", resourceName);
 
             }
-            parser.parse(inputStream, handler, metadata, context);
+            tikaParserEngine.parse(inputStream, handler, metadata);
             return handler.toString();
 
-        } catch (org.apache.tika.exception.WriteLimitReachedException e) {
+        } catch (WriteLimitReachedException e) {
             // This is NOT an error - it means we successfully extracted up to the limit
             logger.debug("Content extraction reached limit of {} characters for {}. Extracted text up to limit.",
                     maxLength, resourceName);
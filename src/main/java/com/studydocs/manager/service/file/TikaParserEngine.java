@@ -0,0 +1,340 @@
+package com.studydocs.manager.service.file;
+
+import com.studydocs.manager.config.TikaProperties;
+import org.apache.tika.Tika;
+import org.apache.tika.exception.TikaException;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.exception.WriteLimitReachedException;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TikaParserEngine - Engine parse dùng chung cho toàn bộ ứng dụng
+ *
+ * - AutoDetectParser và Tika (detector) được khởi tạo MỘT lần; cả hai thread-safe.
+ * - Parse chạy trên tikaParseExecutor với timeout theo MIME type
+ *   (tika.timeouts-ms[...]); quá hạn thì đóng stream để parser dừng sớm.
+ * - Semaphore giới hạn số lượt parse đồng thời; slot chỉ được trả khi lượt parse
+ *   thực sự kết thúc, nên file "độc" bị timeout vẫn không chiếm thêm core.
+ * - Ghi nhận latency histogram theo content type, xem qua {@link #getStats()}.
+ */
+@Service
+public class TikaParserEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(TikaParserEngine.class);
+
+    private static final long[] LATENCY_BUCKETS_MS = { 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000 };
+
+    private final AutoDetectParser parser = new AutoDetectParser();
+    private final Tika tika = new Tika();
+    private final TikaProperties tikaProperties;
+    private final Executor parseExecutor;
+    private final Semaphore parseSlots;
+    private final Map<String, ParseLatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public TikaParserEngine(TikaProperties tikaProperties,
+            @Qualifier("tikaParseExecutor") Executor parseExecutor) {
+        this.tikaProperties = tikaProperties;
+        this.parseExecutor = parseExecutor;
+        this.parseSlots = new Semaphore(Math.max(1, tikaProperties.getMaxConcurrentParses()));
+    }
+
+    /**
+     * Parse stream vào handler/metadata với giới hạn thời gian và concurrency.
+     * WriteLimitReachedException (handler đầy) được ném lại nguyên vẹn cho caller.
+     * Engine đóng stream khi lượt parse kết thúc.
+     */
+    public void parse(InputStream stream, ContentHandler handler, Metadata metadata)
+            throws IOException, SAXException, TikaException {
+        TemporaryResources temporaryResources = new TemporaryResources();
+        TikaInputStream tikaStream = TikaInputStream.get(stream, temporaryResources, metadata);
+        String contentType = detectContentType(tikaStream, metadata);
+        submit(tikaStream, temporaryResources, handler, metadata, contentType).await();
+    }
+
+    /**
+     * Bắt đầu parse trên worker mà không chờ kết quả, dùng khi dữ liệu của stream
+     * được đẩy vào song song (vd. tee từ upload). Vì stream có thể chưa có byte nào,
+     * content type do caller cung cấp (dùng chọn timeout và histogram); timeout tính
+     * từ lúc submit.
+     */
+    public PendingParse parseAsync(InputStream stream, ContentHandler handler, Metadata metadata, String contentType)
+            throws TikaException {
+        TemporaryResources temporaryResources = new TemporaryResources();
+        TikaInputStream tikaStream = TikaInputStream.get(stream, temporaryResources, metadata);
+        return submit(tikaStream, temporaryResources, handler, metadata, baseType(contentType));
+    }
+
+    private PendingParse submit(TikaInputStream tikaStream, TemporaryResources temporaryResources,
+            ContentHandler handler, Metadata metadata, String contentType) throws TikaException {
+        try {
+            acquireSlot(contentType);
+        } catch (TikaException e) {
+            closeQuietly(temporaryResources);
+            throw e;
+        }
+        long startNanos = System.nanoTime();
+        CompletableFuture<Void> task;
+        try {
+            task = CompletableFuture.runAsync(() -> {
+                try {
+                    parser.parse(tikaStream, handler, metadata, new ParseContext());
+                } catch (Exception e) {
+                    throw new ParseFailure(e);
+                } finally {
+                    closeQuietly(tikaStream);
+                    closeQuietly(temporaryResources);
+                    parseSlots.release();
+                }
+            }, parseExecutor);
+        } catch (RuntimeException e) {
+            closeQuietly(tikaStream);
+            closeQuietly(temporaryResources);
+            parseSlots.release();
+            throw new TikaException("Could not schedule parse of " + contentType, e);
+        }
+        return new PendingParse(task, tikaStream, metadata, contentType, resolveTimeout(contentType), startNanos);
+    }
+
+    public String detect(InputStream stream, String resourceName) throws IOException {
+        return tika.detect(stream, resourceName);
+    }
+
+    /**
+     * Latency histogram (ms, cumulative theo bucket) cùng số lượt lỗi/timeout
+     * theo từng content type.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("availableSlots", parseSlots.availablePermits());
+        Map<String, Object> byType = new TreeMap<>();
+        histograms.forEach((contentType, histogram) -> byType.put(contentType, histogram.snapshot()));
+        stats.put("contentTypes", byType);
+        return stats;
+    }
+
+    private String detectContentType(TikaInputStream tikaStream, Metadata metadata) {
+        try {
+            MediaType mediaType = parser.getDetector().detect(tikaStream, metadata);
+            return mediaType != null ? mediaType.getBaseType().toString() : MediaType.OCTET_STREAM.toString();
+        } catch (IOException e) {
+            return MediaType.OCTET_STREAM.toString();
+        }
+    }
+
+    private static String baseType(String contentType) {
+        MediaType mediaType = contentType != null ? MediaType.parse(contentType) : null;
+        return mediaType != null ? mediaType.getBaseType().toString() : MediaType.OCTET_STREAM.toString();
+    }
+
+    private long resolveTimeout(String contentType) {
+        Long timeout = tikaProperties.getTimeoutsMs().get(contentType);
+        return Math.max(1, timeout != null ? timeout : tikaProperties.getDefaultTimeoutMs());
+    }
+
+    private void acquireSlot(String contentType) throws TikaException {
+        try {
+            if (!parseSlots.tryAcquire(tikaProperties.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                histogram(contentType).record(0, Outcome.REJECTED);
+                throw new TikaException("All Tika parse slots are busy");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TikaException("Interrupted while waiting for a Tika parse slot", e);
+        }
+    }
+
+    private ParseLatencyHistogram histogram(String contentType) {
+        return histograms.computeIfAbsent(contentType, key -> new ParseLatencyHistogram());
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static void closeQuietly(Closeable resource) {
+        try {
+            resource.close();
+        } catch (IOException ignored) {
+            // parser thread sẽ nhận IOException và kết thúc
+        }
+    }
+
+    private static void rethrow(Throwable cause) throws IOException, SAXException, TikaException {
+        if (cause instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (cause instanceof SAXException saxException) {
+            throw saxException;
+        }
+        if (cause instanceof TikaException tikaException) {
+            throw tikaException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new TikaException("Parsing failed", cause);
+    }
+
+    /**
+     * Lượt parse đang chạy trên worker; {@link #await()} chờ kết quả trong phần
+     * timeout còn lại và ghi nhận latency.
+     */
+    public final class PendingParse {
+
+        private final CompletableFuture<Void> task;
+        private final TikaInputStream tikaStream;
+        private final Metadata metadata;
+        private final String contentType;
+        private final long timeoutMs;
+        private final long startNanos;
+
+        private PendingParse(CompletableFuture<Void> task, TikaInputStream tikaStream, Metadata metadata,
+                String contentType, long timeoutMs, long startNanos) {
+            this.task = task;
+            this.tikaStream = tikaStream;
+            this.metadata = metadata;
+            this.contentType = contentType;
+            this.timeoutMs = timeoutMs;
+            this.startNanos = startNanos;
+        }
+
+        public void await() throws IOException, SAXException, TikaException {
+            long remainingMs = Math.max(0, timeoutMs - elapsedMs(startNanos));
+            try {
+                task.get(remainingMs, TimeUnit.MILLISECONDS);
+                histogram(contentType).record(elapsedMs(startNanos), Outcome.SUCCESS);
+            } catch (TimeoutException e) {
+                histogram(contentType).record(elapsedMs(startNanos), Outcome.TIMEOUT);
+                task.cancel(true);
+                closeQuietly(tikaStream);
+                logger.warn("Tika parse of {} ({}) exceeded {} ms and was aborted",
+                        metadata.get("resourceName"), contentType, timeoutMs);
+                throw new TikaException("Parsing " + contentType + " timed out after " + timeoutMs + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                task.cancel(true);
+                closeQuietly(tikaStream);
+                throw new TikaException("Parsing interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() instanceof ParseFailure failure ? failure.getCause() : e.getCause();
+                boolean limitReached = WriteLimitReachedException.isWriteLimitReached(cause);
+                histogram(contentType).record(elapsedMs(startNanos), limitReached ? Outcome.SUCCESS : Outcome.FAILURE);
+                rethrow(cause);
+            }
+        }
+
+        /**
+         * Thời điểm hết hạn parse theo System.nanoTime(), cùng mốc với {@link #await()}.
+         */
+        public long deadlineNanos() {
+            return startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        }
+
+        /**
+         * Hủy lượt parse (vd. upload thất bại): đóng stream để worker dừng sớm.
+         */
+        public void abort() {
+            task.cancel(true);
+            closeQuietly(tikaStream);
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILURE, TIMEOUT, REJECTED
+    }
+
+    private static final class ParseFailure extends RuntimeException {
+        private ParseFailure(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static final class ParseLatencyHistogram {
+
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS_MS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final AtomicLong maxMs = new AtomicLong();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private ParseLatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long elapsedMs, Outcome outcome) {
+            switch (outcome) {
+                case FAILURE -> failures.increment();
+                case TIMEOUT -> timeouts.increment();
+                case REJECTED -> {
+                    rejected.increment();
+                    return;
+                }
+                default -> {
+                }
+            }
+
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS_MS.length && elapsedMs > LATENCY_BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            totalMs.add(elapsedMs);
+            maxMs.accumulateAndGet(elapsedMs, Math::max);
+        }
+
+        private Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            long total = count.sum();
+            snapshot.put("count", total);
+            snapshot.put("avgMs", total > 0 ? totalMs.sum() / total : 0);
+            snapshot.put("maxMs", maxMs.get());
+            snapshot.put("failures", failures.sum());
+            snapshot.put("timeouts", timeouts.sum());
+            snapshot.put("rejected", rejected.sum());
+
+            Map<String, Long> cumulative = new LinkedHashMap<>();
+            long running = 0;
+            for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+                running += buckets[i].sum();
+                cumulative.put("le_" + LATENCY_BUCKETS_MS[i], running);
+            }
+            cumulative.put("le_inf", running + buckets[LATENCY_BUCKETS_MS.length].sum());
+            snapshot.put("buckets", cumulative);
+            return snapshot;
+        }
+    }
+}
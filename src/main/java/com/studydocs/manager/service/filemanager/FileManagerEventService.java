@@ -12,6 +12,8 @@ import com.studydocs.manager.service.document.DocumentEventService;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+
 @Service
 public class FileManagerEventService {
 
@@ -40,6 +42,12 @@ public class FileManagerEventService {
         }
     }
 
+    public void deleteFromIndex(Collection<Long> documentIds) {
+        if (documentSearchSyncService != null) {
+            documentSearchSyncService.scheduleDeletes(documentIds);
+        }
+    }
+
     public void indexPublished(Document document) {
         if (documentSearchSyncService != null && document != null && document.getId() != null) {
             documentSearchSyncService.scheduleReindex(document.getId());
@@ -1,12 +1,22 @@
 package com.studydocs.manager.service.filemanager;
 
-import com.studydocs.manager.entity.Document;
-import com.studydocs.manager.entity.Folder;
 import com.studydocs.manager.exception.BadRequestException;
 import com.studydocs.manager.repository.DocumentRepository;
 import com.studydocs.manager.repository.FolderRepository;
+import com.studydocs.manager.util.Batches;
+import com.studydocs.manager.util.FileManagerNameUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -14,43 +24,178 @@ import java.util.Set;
 @Service
 public class FileManagerNamespaceService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileManagerNamespaceService.class);
+
+    // Giới hạn số tham số của mỗi mệnh đề IN
+    private static final int BATCH_SIZE = 1_000;
+
+    // Quá số phần gốc này thì load một lần mọi tên trong thư mục thay vì probe theo prefix
+    private static final int MAX_PREFIX_PROBES = 20;
+
+    private static final String BINARY_COLLATION = "utf8mb4_bin";
+
     private final FolderRepository folderRepository;
     private final DocumentRepository documentRepository;
     private final FileManagerNamePolicy fileManagerNamePolicy;
+    private final JdbcTemplate jdbcTemplate;
 
     public FileManagerNamespaceService(
             FolderRepository folderRepository,
             DocumentRepository documentRepository,
-            FileManagerNamePolicy fileManagerNamePolicy) {
+            FileManagerNamePolicy fileManagerNamePolicy,
+            JdbcTemplate jdbcTemplate) {
         this.folderRepository = folderRepository;
         this.documentRepository = documentRepository;
         this.fileManagerNamePolicy = fileManagerNamePolicy;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
-    public Set<String> loadNormalizedNames(Long userId, Long parentFolderId) {
-        Set<String> names = new LinkedHashSet<>();
+    /**
+     * Cột normalized_* được ddl-auto tạo với collation mặc định (utf8mb4_0900_ai_ci) bỏ qua
+     * dấu và hoa/thường: "bài 1" = "bai 1" khi rename / restore, trong khi create / copy so
+     * sánh chính xác trong Java. Chuyển sang utf8mb4_bin trước khi phục vụ request để hai
+     * phía khớp nhau (ddl-auto=update không đổi collation của cột đã có).
+     */
+    @PostConstruct
+    void useBinaryCollationForNormalizedNames() {
+        try {
+            ensureBinaryCollation("folders", "normalized_name", 200);
+            ensureBinaryCollation("documents", "normalized_display_name", 500);
+        } catch (Exception e) {
+            logger.error("Could not switch normalized name columns to {}: {}", BINARY_COLLATION, e.getMessage(), e);
+        }
+    }
 
-        List<Folder> folders = parentFolderId == null
-                ? folderRepository.findByUserIdAndParentIdIsNullAndDeletedAtIsNullOrderBySortOrder(userId)
-                : folderRepository.findByUserIdAndParentIdAndDeletedAtIsNullOrderBySortOrder(userId, parentFolderId);
-        for (Folder folder : folders) {
-            String normalized = fileManagerNamePolicy.normalize(folder.getName());
-            if (normalized != null) {
-                names.add(normalized);
+    private void ensureBinaryCollation(String table, String column, int length) {
+        List<String> collations = jdbcTemplate.queryForList(
+                "SELECT COLLATION_NAME FROM information_schema.COLUMNS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?",
+                String.class, table, column);
+        // Không có cột / không có collation (không phải MySQL) hoặc đã đúng thì bỏ qua
+        if (collations.isEmpty() || collations.get(0) == null || BINARY_COLLATION.equals(collations.get(0))) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE " + table + " MODIFY " + column + " VARCHAR(" + length + ") " +
+                "CHARACTER SET utf8mb4 COLLATE " + BINARY_COLLATION + " NULL");
+        logger.info("Changed collation of {}.{} from {} to {}", table, column, collations.get(0), BINARY_COLLATION);
+    }
+
+    /**
+     * Tên (đã chuẩn hóa) đang có trong thư mục mà việc đặt tên cho {@code preferredNames}
+     * có thể đụng tới: chính các tên đó và mọi tên cùng phần gốc (các biến thể "- Copy n",
+     * "(n)"). Đủ cho {@link FileManagerNamePolicy#resolveCopyName} /
+     * {@link FileManagerNamePolicy#resolveCreateName} mà không phải load cả thư mục.
+     */
+    public Set<String> loadNormalizedNames(Long userId, Long parentFolderId, Collection<String> preferredNames) {
+        // Tên trống được đặt thành "Untitled" khi resolve
+        List<String> effectiveNames = new ArrayList<>(preferredNames.size());
+        for (String name : preferredNames) {
+            String trimmed = FileManagerNameUtils.firstNonBlank(name);
+            effectiveNames.add(trimmed != null ? trimmed : "Untitled");
+        }
+        preferredNames = effectiveNames;
+
+        Set<String> occupied = findOccupiedNames(userId, parentFolderId, preferredNames);
+
+        // Chỉ tên đã bị chiếm (trong DB hoặc trùng nhau trong lô) mới cần sinh biến thể
+        Set<String> needVariants = new LinkedHashSet<>(occupied);
+        Set<String> seen = new HashSet<>();
+        for (String name : preferredNames) {
+            String normalized = fileManagerNamePolicy.normalize(name);
+            if (normalized != null && !seen.add(normalized)) {
+                needVariants.add(normalized);
+            }
+        }
+        if (needVariants.isEmpty()) {
+            return occupied;
+        }
+
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String name : needVariants) {
+            prefixes.add(fileManagerNamePolicy.normalize(FileManagerNameUtils.baseName(name)));
+        }
+        Set<String> names = new LinkedHashSet<>(occupied);
+        if (prefixes.size() > MAX_PREFIX_PROBES) {
+            names.addAll(loadAllNormalizedNames(userId, parentFolderId));
+            return names;
+        }
+        for (String prefix : prefixes) {
+            String escapedPrefix = escapeLike(prefix);
+            names.addAll(parentFolderId == null
+                    ? folderRepository.findActiveRootNamesByPrefix(userId, escapedPrefix)
+                    : folderRepository.findActiveNamesByPrefix(userId, parentFolderId, escapedPrefix));
+            names.addAll(parentFolderId == null
+                    ? documentRepository.findActiveRootNamesByPrefix(userId, escapedPrefix)
+                    : documentRepository.findActiveNamesByPrefix(userId, parentFolderId, escapedPrefix));
+        }
+        return names;
+    }
+
+    /**
+     * Các tên trong {@code candidateNames} (so sánh sau chuẩn hóa) đã có folder hoặc
+     * document active trong thư mục; probe theo lô IN trên index tên.
+     */
+    public Set<String> findOccupiedNames(Long userId, Long parentFolderId, Collection<String> candidateNames) {
+        List<String> normalizedNames = normalizeAll(candidateNames);
+        Set<String> occupied = new LinkedHashSet<>();
+        for (List<String> batch : Batches.partition(normalizedNames, BATCH_SIZE)) {
+            if (parentFolderId == null) {
+                occupied.addAll(folderRepository.findActiveRootNamesIn(userId, batch));
+                occupied.addAll(documentRepository.findActiveRootNamesIn(userId, batch));
+                continue;
             }
+            List<Long> parentIds = List.of(parentFolderId);
+            folderRepository.findActiveNamesByParentIdIn(userId, parentIds, batch)
+                    .forEach(entry -> occupied.add(entry.getNormalizedName()));
+            documentRepository.findActiveNamesByFolderIdIn(userId, parentIds, batch)
+                    .forEach(entry -> occupied.add(entry.getNormalizedName()));
         }
+        return occupied;
+    }
 
-        List<Document> documents = parentFolderId == null
-                ? documentRepository.findActiveRootByUserIdWithAsset(userId)
-                : documentRepository.findActiveByUserIdAndFolderIdWithAsset(userId, parentFolderId);
-        for (Document document : documents) {
-            String normalized = fileManagerNamePolicy.normalize(fileManagerNamePolicy.effectiveDocumentName(document));
-            if (normalized != null) {
+    /**
+     * Như {@link #findOccupiedNames} nhưng cho các item nằm ở nhiều thư mục khác nhau
+     * (vd. restore cả cây): số query không phụ thuộc số thư mục.
+     */
+    public Set<NamespaceEntry> findOccupiedEntries(Long userId, Collection<NamespaceEntry> candidates) {
+        Set<Long> parentIds = new LinkedHashSet<>();
+        Set<String> names = new LinkedHashSet<>();
+        Set<String> rootNames = new LinkedHashSet<>();
+        Set<NamespaceEntry> normalizedCandidates = new HashSet<>();
+        for (NamespaceEntry candidate : candidates) {
+            String normalized = fileManagerNamePolicy.normalize(candidate.name());
+            if (normalized == null) {
+                continue;
+            }
+            normalizedCandidates.add(new NamespaceEntry(candidate.parentFolderId(), normalized));
+            if (candidate.parentFolderId() == null) {
+                rootNames.add(normalized);
+            } else {
+                parentIds.add(candidate.parentFolderId());
                 names.add(normalized);
             }
         }
 
-        return names;
+        Set<NamespaceEntry> occupied = new LinkedHashSet<>();
+        for (List<String> batch : Batches.partition(new ArrayList<>(rootNames), BATCH_SIZE)) {
+            folderRepository.findActiveRootNamesIn(userId, batch)
+                    .forEach(name -> occupied.add(new NamespaceEntry(null, name)));
+            documentRepository.findActiveRootNamesIn(userId, batch)
+                    .forEach(name -> occupied.add(new NamespaceEntry(null, name)));
+        }
+        List<String> nameList = new ArrayList<>(names);
+        for (List<Long> parentBatch : Batches.partition(new ArrayList<>(parentIds), BATCH_SIZE)) {
+            for (List<String> nameBatch : Batches.partition(nameList, BATCH_SIZE)) {
+                folderRepository.findActiveNamesByParentIdIn(userId, parentBatch, nameBatch)
+                        .forEach(entry -> occupied.add(new NamespaceEntry(entry.getParentId(), entry.getNormalizedName())));
+                documentRepository.findActiveNamesByFolderIdIn(userId, parentBatch, nameBatch)
+                        .forEach(entry -> occupied.add(new NamespaceEntry(entry.getParentId(), entry.getNormalizedName())));
+            }
+        }
+
+        // IN trên hai cột là tích chéo: bỏ các cặp (thư mục, tên) không được hỏi tới
+        occupied.retainAll(normalizedCandidates);
+        return occupied;
     }
 
     public boolean hasConflict(
@@ -64,31 +209,15 @@ public class FileManagerNamespaceService {
             return false;
         }
 
-        List<Folder> folders = parentFolderId == null
-                ? folderRepository.findByUserIdAndParentIdIsNullAndDeletedAtIsNullOrderBySortOrder(userId)
-                : folderRepository.findByUserIdAndParentIdAndDeletedAtIsNullOrderBySortOrder(userId, parentFolderId);
-        for (Folder folder : folders) {
-            if (ignoredFolderId != null && ignoredFolderId.equals(folder.getId())) {
-                continue;
-            }
-            if (normalizedCandidate.equals(fileManagerNamePolicy.normalize(folder.getName()))) {
-                return true;
-            }
+        boolean folderExists = parentFolderId == null
+                ? folderRepository.existsActiveRootName(userId, normalizedCandidate, ignoredFolderId)
+                : folderRepository.existsActiveName(userId, parentFolderId, normalizedCandidate, ignoredFolderId);
+        if (folderExists) {
+            return true;
         }
-
-        List<Document> documents = parentFolderId == null
-                ? documentRepository.findActiveRootByUserIdWithAsset(userId)
-                : documentRepository.findActiveByUserIdAndFolderIdWithAsset(userId, parentFolderId);
-        for (Document document : documents) {
-            if (ignoredDocumentId != null && ignoredDocumentId.equals(document.getId())) {
-                continue;
-            }
-            if (normalizedCandidate.equals(fileManagerNamePolicy.normalize(fileManagerNamePolicy.effectiveDocumentName(document)))) {
-                return true;
-            }
-        }
-
-        return false;
+        return parentFolderId == null
+                ? documentRepository.existsActiveRootName(userId, normalizedCandidate, ignoredDocumentId)
+                : documentRepository.existsActiveName(userId, parentFolderId, normalizedCandidate, ignoredDocumentId);
     }
 
     public void ensureFolderNameAvailable(Long userId, Long parentFolderId, String candidateName, Long ignoredFolderId) {
@@ -128,4 +257,55 @@ public class FileManagerNamespaceService {
             throw new BadRequestException(message, code, field);
         }
     }
+
+    /**
+     * Điền normalized_name / normalized_display_name cho dữ liệu cũ để probe theo index
+     * không bỏ sót item nào.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillNormalizedNames() {
+        try {
+            int folders = folderRepository.backfillNormalizedNames();
+            int documents = documentRepository.backfillNormalizedDisplayNames();
+            if (folders > 0 || documents > 0) {
+                logger.info("Backfilled normalized names for {} folders and {} documents", folders, documents);
+            }
+        } catch (Exception e) {
+            logger.error("Could not backfill normalized names: {}", e.getMessage(), e);
+        }
+    }
+
+    private Set<String> loadAllNormalizedNames(Long userId, Long parentFolderId) {
+        Set<String> names = new LinkedHashSet<>();
+        names.addAll(parentFolderId == null
+                ? folderRepository.findActiveRootNamesByPrefix(userId, "")
+                : folderRepository.findActiveNamesByPrefix(userId, parentFolderId, ""));
+        names.addAll(parentFolderId == null
+                ? documentRepository.findActiveRootNamesByPrefix(userId, "")
+                : documentRepository.findActiveNamesByPrefix(userId, parentFolderId, ""));
+        names.remove(null);
+        return names;
+    }
+
+    private List<String> normalizeAll(Collection<String> names) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String name : names) {
+            String value = fileManagerNamePolicy.normalize(name);
+            if (value != null) {
+                normalized.add(value);
+            }
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    /**
+     * Một tên trong một thư mục; {@code parentFolderId} null là thư mục gốc của user.
+     */
+    public record NamespaceEntry(Long parentFolderId, String name) {
+    }
 }
@@ -5,15 +5,29 @@ import com.studydocs.manager.dto.document.DocumentResponse;
 import com.studydocs.manager.dto.folder.FolderResponse;
 import com.studydocs.manager.entity.Document;
 import com.studydocs.manager.entity.DocumentAsset;
+import com.studydocs.manager.entity.DocumentSubject;
+import com.studydocs.manager.entity.DocumentTag;
 import com.studydocs.manager.entity.Folder;
+import com.studydocs.manager.entity.User;
 import com.studydocs.manager.repository.DocumentAssetRepository;
 import com.studydocs.manager.repository.DocumentRepository;
-import com.studydocs.manager.storage.StorageProvider;
+import com.studydocs.manager.repository.DocumentSubjectRepository;
+import com.studydocs.manager.repository.DocumentTagRepository;
+import com.studydocs.manager.repository.FolderRepository;
+import com.studydocs.manager.repository.UserRepository;
+import com.studydocs.manager.service.file.PresignedUrlCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,70 +38,139 @@ public class FileManagerResponseMapper {
     private final DocumentRepository documentRepository;
     private final DocumentAssetRepository documentAssetRepository;
     private final FileManagerNamePolicy fileManagerNamePolicy;
-    private final StorageProvider storageProvider;
+    private final PresignedUrlCache presignedUrlCache;
+    private final UserRepository userRepository;
+    private final FolderRepository folderRepository;
+    private final DocumentSubjectRepository documentSubjectRepository;
+    private final DocumentTagRepository documentTagRepository;
 
     public FileManagerResponseMapper(
             DocumentRepository documentRepository,
             DocumentAssetRepository documentAssetRepository,
             FileManagerNamePolicy fileManagerNamePolicy,
-            StorageProvider storageProvider) {
+            PresignedUrlCache presignedUrlCache,
+            UserRepository userRepository,
+            FolderRepository folderRepository,
+            DocumentSubjectRepository documentSubjectRepository,
+            DocumentTagRepository documentTagRepository) {
         this.documentRepository = documentRepository;
         this.documentAssetRepository = documentAssetRepository;
         this.fileManagerNamePolicy = fileManagerNamePolicy;
-        this.storageProvider = storageProvider;
+        this.presignedUrlCache = presignedUrlCache;
+        this.userRepository = userRepository;
+        this.folderRepository = folderRepository;
+        this.documentSubjectRepository = documentSubjectRepository;
+        this.documentTagRepository = documentTagRepository;
     }
 
     public FolderResponse toFolderResponse(Folder folder) {
+        return buildFolderResponse(folder, documentRepository.countByFolderIdAndDeletedAtIsNull(folder.getId()));
+    }
+
+    /**
+     * Map danh sách folder, số document của tất cả folder lấy bằng một query GROUP BY.
+     */
+    public List<FolderResponse> toFolderResponses(List<Folder> folders) {
+        if (folders.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> folderIds = folders.stream().map(Folder::getId).toList();
+        Map<Long, Long> documentCounts = documentRepository.countActiveGroupedByFolderIdIn(folderIds).stream()
+                .collect(Collectors.toMap(
+                        DocumentRepository.FolderDocumentCount::getFolderId,
+                        DocumentRepository.FolderDocumentCount::getDocumentCount));
+
+        List<FolderResponse> responses = new ArrayList<>(folders.size());
+        for (Folder folder : folders) {
+            responses.add(buildFolderResponse(folder, documentCounts.getOrDefault(folder.getId(), 0L)));
+        }
+        return responses;
+    }
+
+    private FolderResponse buildFolderResponse(Folder folder, long documentCount) {
         FolderResponse response = new FolderResponse();
         response.setId(folder.getId());
         response.setName(folder.getName());
         response.setParentId(folder.getParent() != null ? folder.getParent().getId() : null);
         response.setSortOrder(folder.getSortOrder());
-        response.setDocumentCount((int) documentRepository.countByFolderIdAndDeletedAtIsNull(folder.getId()));
+        response.setDocumentCount((int) documentCount);
         response.setCreatedAt(folder.getCreatedAt());
         response.setUpdatedAt(folder.getUpdatedAt());
         return response;
     }
 
     public DocumentResponse toDocumentResponse(Document document) {
-        DocumentResponse response = new DocumentResponse();
-        response.setId(document.getId());
-        response.setUserId(document.getUser().getId());
-        response.setUsername(document.getUser().getUsername());
-        response.setTitle(document.getTitle());
-        response.setDescription(document.getDescription());
-        applyAssetFields(response, document);
-        response.setDisplayName(fileManagerNamePolicy.requireDocumentName(
-                document.getDisplayName(),
-                response.getFileName(),
-                document.getTitle()));
-        response.setStatus(document.getStatus().name());
-        response.setVisibility(document.getVisibility().name());
-        response.setIsFeatured(document.getIsFeatured());
-        response.setFavoriteCount(document.getFavouriteCount());
-        response.setRatingAverage(document.getRatingAverage());
-        response.setRatingCount(document.getRatingCount());
-        response.setVersionNumber(document.getVersionNumber());
-        response.setLanguage(document.getLanguage());
-        if (document.getFolder() != null) {
-            response.setFolderId(document.getFolder().getId());
-            response.setFolderName(document.getFolder().getName());
+        return buildDocumentResponse(
+                document,
+                resolveAsset(document),
+                document.getUser(),
+                document.getFolder(),
+                document.getCreatedBy(),
+                document.getUpdatedBy(),
+                document.getDocumentSubjects().stream()
+                        .map(ds -> ds.getSubject().getName())
+                        .collect(Collectors.toSet()),
+                document.getDocumentTags().stream()
+                        .map(dt -> dt.getTag().getName())
+                        .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Map một trang document với số query cố định: user, folder, subject và tag
+     * được load theo tập id thay vì lazy-load từng dòng. Asset lấy từ document
+     * (query phân trang đã fetch sẵn), document chưa có asset thì bỏ qua.
+     */
+    public List<DocumentResponse> toDocumentResponses(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return List.of();
         }
-        response.setSubjects(document.getDocumentSubjects().stream()
-                .map(ds -> ds.getSubject().getName())
-                .collect(Collectors.toSet()));
-        response.setTags(document.getDocumentTags().stream()
-                .map(dt -> dt.getTag().getName())
-                .collect(Collectors.toSet()));
-        response.setCreatedAt(document.getCreatedAt());
-        if (document.getCreatedBy() != null) {
-            response.setCreatedByUsername(document.getCreatedBy().getUsername());
+
+        List<Long> documentIds = new ArrayList<>(documents.size());
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> folderIds = new HashSet<>();
+        for (Document document : documents) {
+            documentIds.add(document.getId());
+            userIds.add(document.getUser().getId());
+            if (document.getCreatedBy() != null) {
+                userIds.add(document.getCreatedBy().getId());
+            }
+            if (document.getUpdatedBy() != null) {
+                userIds.add(document.getUpdatedBy().getId());
+            }
+            if (document.getFolder() != null) {
+                folderIds.add(document.getFolder().getId());
+            }
         }
-        response.setUpdatedAt(document.getUpdatedAt());
-        if (document.getUpdatedBy() != null) {
-            response.setUpdatedByUsername(document.getUpdatedBy().getUsername());
+
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Folder> folders = folderIds.isEmpty()
+                ? Map.of()
+                : folderRepository.findAllById(folderIds).stream()
+                        .collect(Collectors.toMap(Folder::getId, Function.identity()));
+        Map<Long, Set<String>> subjects = new HashMap<>();
+        for (DocumentSubject ds : documentSubjectRepository.findWithSubjectByDocumentIdIn(documentIds)) {
+            subjects.computeIfAbsent(ds.getDocument().getId(), id -> new HashSet<>()).add(ds.getSubject().getName());
         }
-        return response;
+        Map<Long, Set<String>> tags = new HashMap<>();
+        for (DocumentTag dt : documentTagRepository.findWithTagByDocumentIdIn(documentIds)) {
+            tags.computeIfAbsent(dt.getDocument().getId(), id -> new HashSet<>()).add(dt.getTag().getName());
+        }
+
+        List<DocumentResponse> responses = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            responses.add(buildDocumentResponse(
+                    document,
+                    document.getAsset(),
+                    users.get(document.getUser().getId()),
+                    document.getFolder() != null ? folders.get(document.getFolder().getId()) : null,
+                    document.getCreatedBy() != null ? users.get(document.getCreatedBy().getId()) : null,
+                    document.getUpdatedBy() != null ? users.get(document.getUpdatedBy().getId()) : null,
+                    subjects.getOrDefault(document.getId(), Set.of()),
+                    tags.getOrDefault(document.getId(), Set.of())));
+        }
+        return responses;
     }
 
     public DocumentCreateResponse toDocumentCreateResponse(Document document) {
@@ -149,8 +232,52 @@ public class FileManagerResponseMapper {
                 || asset.getThumbnailObjectName() != null;
     }
 
-    private void applyAssetFields(DocumentResponse response, Document document) {
-        DocumentAsset asset = resolveAsset(document);
+    private DocumentResponse buildDocumentResponse(
+            Document document,
+            DocumentAsset asset,
+            User owner,
+            Folder folder,
+            User createdBy,
+            User updatedBy,
+            Set<String> subjects,
+            Set<String> tags) {
+        DocumentResponse response = new DocumentResponse();
+        response.setId(document.getId());
+        response.setUserId(owner.getId());
+        response.setUsername(owner.getUsername());
+        response.setTitle(document.getTitle());
+        response.setDescription(document.getDescription());
+        applyAssetFields(response, asset);
+        response.setDisplayName(fileManagerNamePolicy.requireDocumentName(
+                document.getDisplayName(),
+                response.getFileName(),
+                document.getTitle()));
+        response.setStatus(document.getStatus().name());
+        response.setVisibility(document.getVisibility().name());
+        response.setIsFeatured(document.getIsFeatured());
+        response.setFavoriteCount(document.getFavouriteCount());
+        response.setRatingAverage(document.getRatingAverage());
+        response.setRatingCount(document.getRatingCount());
+        response.setVersionNumber(document.getVersionNumber());
+        response.setLanguage(document.getLanguage());
+        if (folder != null) {
+            response.setFolderId(folder.getId());
+            response.setFolderName(folder.getName());
+        }
+        response.setSubjects(subjects);
+        response.setTags(tags);
+        response.setCreatedAt(document.getCreatedAt());
+        if (createdBy != null) {
+            response.setCreatedByUsername(createdBy.getUsername());
+        }
+        response.setUpdatedAt(document.getUpdatedAt());
+        if (updatedBy != null) {
+            response.setUpdatedByUsername(updatedBy.getUsername());
+        }
+        return response;
+    }
+
+    private void applyAssetFields(DocumentResponse response, DocumentAsset asset) {
         if (asset == null) {
             return;
         }
@@ -168,7 +295,7 @@ public class FileManagerResponseMapper {
             return null;
         }
         try {
-            return storageProvider.generatePresignedUrl(objectName, 7 * 24 * 60);
+            return presignedUrlCache.getUrl(objectName);
         } catch (IOException e) {
             logger.warn("Failed to generate storage URL for object: {}", objectName, e);
             return null;
@@ -4,30 +4,62 @@ import com.studydocs.manager.entity.Document;
 import com.studydocs.manager.entity.Folder;
 import com.studydocs.manager.repository.DocumentRepository;
 import com.studydocs.manager.repository.FolderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * Duyệt cây folder dựa trên materialized path ({@link Folder#getPath()}):
+ * subtree là một query LIKE theo prefix, ancestor/depth đọc thẳng từ path
+ * thay vì đi ngược từng proxy getParent().
+ */
 @Service
 public class FileManagerTreeService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileManagerTreeService.class);
+
+    // Chặn vòng lặp backfill nếu dữ liệu cũ có chu trình parent
+    private static final int MAX_BACKFILL_DEPTH = 1_000;
+
     private final FolderRepository folderRepository;
     private final DocumentRepository documentRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
 
-    public FileManagerTreeService(FolderRepository folderRepository, DocumentRepository documentRepository) {
+    public FileManagerTreeService(FolderRepository folderRepository, DocumentRepository documentRepository,
+            EntityManager entityManager, PlatformTransactionManager transactionManager) {
         this.folderRepository = folderRepository;
         this.documentRepository = documentRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
+    /**
+     * Root và các folder active nối được với root qua toàn folder active.
+     */
     public List<Folder> collectActiveFolderTree(Folder root) {
         List<Folder> folders = new ArrayList<>();
         folders.add(root);
 
-        List<Folder> activeChildren = folderRepository.findByParentIdAndDeletedAtIsNullOrderBySortOrder(root.getId());
-        for (Folder child : activeChildren) {
-            folders.addAll(collectActiveFolderTree(child));
+        Set<Long> reachableIds = new HashSet<>();
+        reachableIds.add(root.getId());
+        // Kết quả sắp theo path nên cha luôn được xét trước con
+        for (Folder descendant : loadDescendants(root)) {
+            if (descendant.getDeletedAt() == null
+                    && descendant.getParent() != null
+                    && reachableIds.contains(descendant.getParent().getId())) {
+                reachableIds.add(descendant.getId());
+                folders.add(descendant);
+            }
         }
 
         return folders;
@@ -36,13 +68,31 @@ public class FileManagerTreeService {
     public List<Folder> collectFolderSubtree(Folder root) {
         List<Folder> folders = new ArrayList<>();
         folders.add(root);
+        folders.addAll(loadDescendants(root));
+        return folders;
+    }
 
-        List<Folder> children = folderRepository.findByParentIdOrderBySortOrder(root.getId());
-        for (Folder child : children) {
-            folders.addAll(collectFolderSubtree(child));
+    /**
+     * Đổi parent của folder và rewrite path của toàn bộ subtree bằng một câu UPDATE.
+     * Câu UPDATE không đi qua persistence context nên các folder con cháu đã load
+     * (vd. khi đếm subtree trước lúc move) được refresh lại path mới.
+     */
+    public void moveFolder(Folder folder, Folder newParent) {
+        String oldPrefix = folder.getSubtreePathPrefix();
+        folder.setParent(newParent);
+        String newPrefix = folder.getSubtreePathPrefix();
+        if (oldPrefix.equals(newPrefix)) {
+            return;
         }
 
-        return folders;
+        Long userId = folder.getUser().getId();
+        folderRepository.rewritePathPrefix(userId, oldPrefix, newPrefix);
+        // Folder load trước UPDATE vẫn giữ path cũ; folder mới load từ query đã có path mới
+        for (Folder descendant : folderRepository.findDescendantsByPathPrefix(userId, newPrefix)) {
+            if (descendant.getPath() == null || !descendant.getPath().startsWith(newPrefix)) {
+                entityManager.refresh(descendant);
+            }
+        }
     }
 
     public List<Folder> collectDeletedFolderTree(Folder root) {
@@ -82,46 +132,88 @@ public class FileManagerTreeService {
     }
 
     public boolean hasSelectedAncestor(Folder folder, Set<Long> selectedFolderIds) {
-        Folder current = folder.getParent();
-        while (current != null) {
-            if (selectedFolderIds.contains(current.getId())) {
+        for (Long ancestorId : ancestorIds(folder)) {
+            if (selectedFolderIds.contains(ancestorId)) {
                 return true;
             }
-            current = current.getParent();
         }
         return false;
     }
 
     public boolean isInsideSelectedFolder(Document document, Set<Long> selectedFolderIds) {
-        Folder current = document.getFolder();
-        while (current != null) {
-            if (selectedFolderIds.contains(current.getId())) {
-                return true;
-            }
-            current = current.getParent();
+        Folder folder = document.getFolder();
+        if (folder == null) {
+            return false;
         }
-        return false;
+        return selectedFolderIds.contains(folder.getId()) || hasSelectedAncestor(folder, selectedFolderIds);
     }
 
     public boolean isDescendantOrSelf(Folder candidateTarget, Folder sourceFolder) {
-        Folder current = candidateTarget;
-        while (current != null) {
-            if (current.getId().equals(sourceFolder.getId())) {
-                return true;
-            }
-            current = current.getParent();
+        if (candidateTarget == null) {
+            return false;
         }
-        return false;
+        return candidateTarget.getId().equals(sourceFolder.getId())
+                || ancestorIds(candidateTarget).contains(sourceFolder.getId());
     }
 
     public int folderDepth(Folder folder) {
-        int depth = 0;
+        return ancestorIds(folder).size();
+    }
+
+    /**
+     * Id các folder tổ tiên, từ gốc xuống cha trực tiếp.
+     */
+    public List<Long> ancestorIds(Folder folder) {
+        String path = folder.getPath();
+        if (path == null) {
+            return walkAncestorIds(folder);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                ids.add(Long.valueOf(segment));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Điền path cho folder tạo trước khi có cột path: gốc trước, sau đó mỗi lần một tầng.
+     * Chạy lúc khởi tạo bean, trước khi nhận request: folder thiếu path sẽ làm query subtree
+     * theo prefix bỏ sót con cháu, nên backfill lỗi thì ứng dụng không khởi động.
+     * Các câu UPDATE chỉ chạm dòng có path IS NULL nên nhiều instance chạy cùng lúc vẫn an toàn.
+     */
+    @PostConstruct
+    public void backfillFolderPaths() {
+        Integer updated = transactionTemplate.execute(status -> {
+            int total = folderRepository.backfillRootPaths();
+            for (int level = 0; level < MAX_BACKFILL_DEPTH; level++) {
+                int levelUpdated = folderRepository.backfillChildPaths();
+                if (levelUpdated == 0) {
+                    break;
+                }
+                total += levelUpdated;
+            }
+            return total;
+        });
+        if (updated != null && updated > 0) {
+            logger.info("Backfilled materialized path for {} folders", updated);
+        }
+    }
+
+    private List<Folder> loadDescendants(Folder root) {
+        return folderRepository.findDescendantsByPathPrefix(root.getUser().getId(), root.getSubtreePathPrefix());
+    }
+
+    private List<Long> walkAncestorIds(Folder folder) {
+        List<Long> ids = new ArrayList<>();
         Folder current = folder.getParent();
         while (current != null) {
-            depth++;
+            ids.add(0, current.getId());
             current = current.getParent();
         }
-        return depth;
+        return ids;
     }
 
     public boolean sameFolder(Folder left, Folder right) {
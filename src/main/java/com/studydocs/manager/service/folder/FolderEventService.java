@@ -1,16 +1,13 @@
 package com.studydocs.manager.service.folder;
 
 import com.studydocs.manager.entity.Folder;
-import com.studydocs.manager.entity.FolderEvent;
-import com.studydocs.manager.entity.User;
 import com.studydocs.manager.enums.FolderEventType;
-import com.studydocs.manager.repository.FolderEventRepository;
-import com.studydocs.manager.repository.UserRepository;
 import com.studydocs.manager.security.utils.SecurityUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.studydocs.manager.service.event.EventLogPipeline;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Ghi lifecycle events của Folder vào bảng {@code folder_events}.
  *
@@ -34,22 +31,19 @@ import org.springframework.stereotype.Service;
  * <p>Batch Copy/Move ghi vào <b>cả hai</b> bảng với mục đích khác nhau:
  * {@code folder_events} phục vụ history timeline của folder;
  * {@code audit_logs} phục vụ admin audit với context targetFolder + IP.
+ *
+ * <p>Event được ghi qua {@link EventLogPipeline}: trong transaction thì chỉ được ghi sau commit.
  */
 @Service
 public class FolderEventService {
 
-    private static final Logger logger = LoggerFactory.getLogger(FolderEventService.class);
-
-    private final FolderEventRepository folderEventRepository;
-    private final UserRepository userRepository;
+    private final EventLogPipeline eventLogPipeline;
     private final SecurityUtils securityUtils;
 
     public FolderEventService(
-            FolderEventRepository folderEventRepository,
-            UserRepository userRepository,
+            EventLogPipeline eventLogPipeline,
             SecurityUtils securityUtils) {
-        this.folderEventRepository = folderEventRepository;
-        this.userRepository = userRepository;
+        this.eventLogPipeline = eventLogPipeline;
         this.securityUtils = securityUtils;
     }
 
@@ -126,29 +120,29 @@ public class FolderEventService {
         persist(folder, FolderEventType.RESTORED, "Folder restored from trash", null, newValue);
     }
 
+    /**
+     * Log RESTORED cho cả một cây folder: user hiện tại chỉ lấy một lần.
+     *
+     * @param folders các folder vừa được restore
+     */
+    public void logRestoredAll(List<Folder> folders) {
+        if (folders.isEmpty()) {
+            return;
+        }
+        Long userId = securityUtils.getCurrentUserId();
+        for (Folder folder : folders) {
+            String newValue = buildFolderSnapshot(folder.getName(), folder.getParent());
+            eventLogPipeline.folderEvent(folder.getId(), userId, FolderEventType.RESTORED,
+                    "Folder restored from trash", null, newValue);
+        }
+    }
+
     // ── Private helpers ───────────────────────────────────────────────────────
 
     private void persist(Folder folder, FolderEventType eventType,
                          String description, String oldValue, String newValue) {
-        try {
-            Long userId = securityUtils.getCurrentUserId();
-            User user = userId != null
-                    ? userRepository.findById(userId).orElse(null)
-                    : null;
-
-            FolderEvent event = new FolderEvent();
-            event.setFolder(folder);
-            event.setUser(user);
-            event.setEventType(eventType);
-            event.setDescription(description);
-            event.setOldValue(oldValue);
-            event.setNewValue(newValue);
-            folderEventRepository.save(event);
-        } catch (Exception ex) {
-            // Audit log thất bại không được làm gián đoạn business flow
-            logger.warn("Failed to persist folder event [{}] for folderId={}: {}",
-                    eventType, folder.getId(), ex.getMessage());
-        }
+        eventLogPipeline.folderEvent(folder.getId(), securityUtils.getCurrentUserId(),
+                eventType, description, oldValue, newValue);
     }
 
     /**
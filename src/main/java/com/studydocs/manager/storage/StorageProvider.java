@@ -4,6 +4,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * StorageProvider - Interface trừu tượng cho storage providers
@@ -22,6 +24,47 @@ public interface StorageProvider {
      */
     StoredFile uploadFile(MultipartFile file, String folder) throws IOException;
 
+    /**
+     * Upload nội dung từ stream, đọc đúng một lần (stream có thể là tee sang
+     * hashing/extraction).
+     *
+     * @param inputStream      Nội dung file
+     * @param size             Kích thước (bytes)
+     * @param contentType      MIME type
+     * @param originalFilename Tên file gốc, giữ lại trong object name
+     * @param folder           Folder/prefix để lưu file
+     */
+    StoredFile uploadStream(InputStream inputStream, long size, String contentType, String originalFilename,
+            String folder) throws IOException;
+
+    /**
+     * Bắt đầu multipart upload: client gửi từng part qua nhiều request.
+     *
+     * @param contentType      MIME type
+     * @param originalFilename Tên file gốc, giữ lại trong object name
+     * @param folder           Folder/prefix để lưu file
+     * @return Object name và upload id của provider
+     */
+    MultipartUploadTarget initiateMultipartUpload(String contentType, String originalFilename, String folder)
+            throws IOException;
+
+    /**
+     * Upload một part (partNumber bắt đầu từ 1).
+     *
+     * @return ETag của part, cần khi complete
+     */
+    String uploadPart(String objectName, String uploadId, int partNumber, byte[] data) throws IOException;
+
+    /**
+     * Ghép các part (theo thứ tự partNumber) thành object hoàn chỉnh.
+     */
+    void completeMultipartUpload(String objectName, String uploadId, List<UploadedPart> parts) throws IOException;
+
+    /**
+     * Hủy multipart upload và giải phóng các part đã lưu.
+     */
+    void abortMultipartUpload(String objectName, String uploadId) throws IOException;
+
     /**
      * Copy file already stored in the provider into a new object.
      *
@@ -39,6 +82,14 @@ public interface StorageProvider {
      */
     void deleteFile(String objectName) throws IOException;
 
+    /**
+     * Xóa nhiều file trong một request batch (object không tồn tại coi như đã xóa)
+     * 
+     * @param objectNames Object names
+     * @return object name xóa không thành công
+     */
+    List<String> deleteFiles(Collection<String> objectNames) throws IOException;
+
     /**
      * Download file dưới dạng InputStream (tối ưu cho file lớn)
      * 
@@ -63,4 +114,13 @@ public interface StorageProvider {
      * @return true nếu tồn tại, false nếu không
      */
     boolean fileExists(String objectName);
+
+    /**
+     * Fingerprint nội dung của object (ETag). Hai object có cùng nội dung, ví dụ
+     * bản copy server-side, cho cùng fingerprint.
+     *
+     * @param objectName Object name
+     * @return ETag của object
+     */
+    String getObjectFingerprint(String objectName) throws IOException;
 }
@@ -0,0 +1,6 @@
+package com.studydocs.manager.storage;
+
+public record UploadedPart(
+        int partNumber,
+        String etag) {
+}
@@ -1,10 +1,15 @@
 package com.studydocs.manager.storage.impl;
 
+import com.studydocs.manager.storage.MultipartUploadTarget;
 import com.studydocs.manager.storage.StoredFile;
 import com.studydocs.manager.config.MinIOProperties;
 import com.studydocs.manager.storage.StorageProvider;
+import com.studydocs.manager.storage.UploadedPart;
 import io.minio.*;
 import io.minio.http.Method;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
+import io.minio.messages.Part;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -13,6 +18,10 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -29,38 +38,49 @@ public class MinIOStorageProvider implements StorageProvider {
     private static final Logger logger = LoggerFactory.getLogger(MinIOStorageProvider.class);
 
     private final MinioClient minioClient;
+    private final MinioMultipartClient minioMultipartClient;
     private final MinIOProperties minIOProperties;
 
-    public MinIOStorageProvider(MinioClient minioClient, MinIOProperties minIOProperties) {
+    public MinIOStorageProvider(MinioClient minioClient, MinioMultipartClient minioMultipartClient,
+            MinIOProperties minIOProperties) {
         this.minioClient = minioClient;
+        this.minioMultipartClient = minioMultipartClient;
         this.minIOProperties = minIOProperties;
     }
 
     @Override
     public StoredFile uploadFile(MultipartFile file, String folder) throws IOException {
-        try {
-            // Validate file
-            if (file == null || file.isEmpty()) {
-                throw new IllegalArgumentException("File cannot be empty");
-            }
+        // Validate file
+        if (file == null || file.isEmpty()) {
+            throw new IOException("Failed to upload file to MinIO",
+                    new IllegalArgumentException("File cannot be empty"));
+        }
+
+        try (InputStream inputStream = file.getInputStream()) {
+            return uploadStream(inputStream, file.getSize(), file.getContentType(), file.getOriginalFilename(), folder);
+        }
+    }
 
+    @Override
+    public StoredFile uploadStream(InputStream inputStream, long size, String contentType, String originalFilename,
+            String folder) throws IOException {
+        try {
             // Tạo tên file unique: UUID + tên file gốc
-            String originalFilename = file.getOriginalFilename();
             String fileName = UUID.randomUUID() + "_" + originalFilename;
 
             // Đường dẫn đầy đủ trong bucket
             String objectName = folder + fileName;
 
             logger.info("Uploading file to MinIO: bucket={}, object={}, size={}",
-                    minIOProperties.getBucketName(), objectName, file.getSize());
+                    minIOProperties.getBucketName(), objectName, size);
 
             // Upload file lên MinIO
             minioClient.putObject(
                     PutObjectArgs.builder()
                             .bucket(minIOProperties.getBucketName())
                             .object(objectName)
-                            .stream(file.getInputStream(), file.getSize(), -1)
-                            .contentType(file.getContentType())
+                            .stream(inputStream, size, -1)
+                            .contentType(contentType)
                             .build());
 
             logger.info("File uploaded successfully to MinIO: {}", objectName);
@@ -76,6 +96,38 @@ public class MinIOStorageProvider implements StorageProvider {
         }
     }
 
+    @Override
+    public MultipartUploadTarget initiateMultipartUpload(String contentType, String originalFilename, String folder)
+            throws IOException {
+        String objectName = folder + UUID.randomUUID() + "_" + originalFilename;
+        String uploadId = minioMultipartClient.createMultipartUpload(
+                minIOProperties.getBucketName(), objectName, contentType);
+        logger.info("Multipart upload initiated in MinIO: object={}, uploadId={}", objectName, uploadId);
+        return new MultipartUploadTarget(objectName, uploadId);
+    }
+
+    @Override
+    public String uploadPart(String objectName, String uploadId, int partNumber, byte[] data) throws IOException {
+        return minioMultipartClient.uploadPart(minIOProperties.getBucketName(), objectName, uploadId, partNumber, data);
+    }
+
+    @Override
+    public void completeMultipartUpload(String objectName, String uploadId, List<UploadedPart> parts)
+            throws IOException {
+        Part[] minioParts = parts.stream()
+                .sorted(Comparator.comparingInt(UploadedPart::partNumber))
+                .map(part -> new Part(part.partNumber(), part.etag()))
+                .toArray(Part[]::new);
+        minioMultipartClient.completeMultipartUpload(minIOProperties.getBucketName(), objectName, uploadId, minioParts);
+        logger.info("Multipart upload completed in MinIO: object={}, parts={}", objectName, minioParts.length);
+    }
+
+    @Override
+    public void abortMultipartUpload(String objectName, String uploadId) throws IOException {
+        minioMultipartClient.abortMultipartUpload(minIOProperties.getBucketName(), objectName, uploadId);
+        logger.info("Multipart upload aborted in MinIO: object={}, uploadId={}", objectName, uploadId);
+    }
+
     @Override
     public String copyFile(String sourceObjectName, String targetFolder, String originalFilename) throws IOException {
         try {
@@ -122,6 +174,38 @@ public class MinIOStorageProvider implements StorageProvider {
         }
     }
 
+    @Override
+    public List<String> deleteFiles(Collection<String> objectNames) throws IOException {
+        if (objectNames.isEmpty()) {
+            return List.of();
+        }
+        try {
+            logger.info("Deleting {} files from MinIO", objectNames.size());
+
+            List<DeleteObject> objects = new ArrayList<>(objectNames.size());
+            for (String objectName : objectNames) {
+                objects.add(new DeleteObject(objectName));
+            }
+            // Client tự chia thành các request tối đa 1000 object; kết quả lazy, phải duyệt hết
+            Iterable<Result<DeleteError>> results = minioClient.removeObjects(
+                    RemoveObjectsArgs.builder()
+                            .bucket(minIOProperties.getBucketName())
+                            .objects(objects)
+                            .build());
+
+            List<String> failed = new ArrayList<>();
+            for (Result<DeleteError> result : results) {
+                DeleteError error = result.get();
+                logger.error("Error deleting file from MinIO: {} - {}", error.objectName(), error.message());
+                failed.add(error.objectName());
+            }
+            return failed;
+        } catch (Exception e) {
+            logger.error("Error deleting files from MinIO: {}", e.getMessage(), e);
+            throw new IOException("Failed to delete files from MinIO", e);
+        }
+    }
+
     @Override
     public InputStream downloadFileAsStream(String objectName) throws IOException {
         try {
@@ -171,6 +255,21 @@ public class MinIOStorageProvider implements StorageProvider {
         }
     }
 
+    @Override
+    public String getObjectFingerprint(String objectName) throws IOException {
+        try {
+            StatObjectResponse stat = minioClient.statObject(
+                    StatObjectArgs.builder()
+                            .bucket(minIOProperties.getBucketName())
+                            .object(objectName)
+                            .build());
+            return stat.etag();
+        } catch (Exception e) {
+            logger.error("Error reading object fingerprint from MinIO: {}", e.getMessage(), e);
+            throw new IOException("Failed to read object fingerprint from MinIO", e);
+        }
+    }
+
     private String extractFilename(String objectName) {
         int lastSlash = objectName.lastIndexOf('/');
         return lastSlash >= 0 ? objectName.substring(lastSlash + 1) : objectName;
@@ -0,0 +1,78 @@
+package com.studydocs.manager.storage.impl;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.messages.Part;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Mở các thao tác S3 multipart upload ở mức thấp (create / upload part /
+ * complete / abort) mà MinioClient chỉ dùng nội bộ trong putObject.
+ * Cho phép client upload từng part qua nhiều request và resume khi lỗi mạng.
+ */
+public class MinioMultipartClient extends MinioAsyncClient {
+
+    public MinioMultipartClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    public String createMultipartUpload(String bucket, String objectName, String contentType) throws IOException {
+        try {
+            Multimap<String, String> headers = HashMultimap.create();
+            if (contentType != null && !contentType.isBlank()) {
+                headers.put("Content-Type", contentType);
+            }
+            return createMultipartUploadAsync(bucket, null, objectName, headers, null)
+                    .get()
+                    .result()
+                    .uploadId();
+        } catch (Exception e) {
+            throw unwrap("create multipart upload", e);
+        }
+    }
+
+    public String uploadPart(String bucket, String objectName, String uploadId, int partNumber, byte[] data)
+            throws IOException {
+        try {
+            return uploadPartAsync(bucket, null, objectName, data, data.length, uploadId, partNumber, null, null)
+                    .get()
+                    .etag();
+        } catch (Exception e) {
+            throw unwrap("upload part " + partNumber, e);
+        }
+    }
+
+    public ObjectWriteResponse completeMultipartUpload(String bucket, String objectName, String uploadId, Part[] parts)
+            throws IOException {
+        try {
+            return completeMultipartUploadAsync(bucket, null, objectName, uploadId, parts, null, null).get();
+        } catch (Exception e) {
+            throw unwrap("complete multipart upload", e);
+        }
+    }
+
+    public void abortMultipartUpload(String bucket, String objectName, String uploadId) throws IOException {
+        try {
+            abortMultipartUploadAsync(bucket, null, objectName, uploadId, null, null).get();
+        } catch (Exception e) {
+            throw unwrap("abort multipart upload", e);
+        }
+    }
+
+    private static IOException unwrap(String action, Exception e) {
+        Throwable cause = e;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        return new IOException("Failed to " + action + " in MinIO", cause);
+    }
+}
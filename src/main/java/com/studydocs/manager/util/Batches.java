@@ -0,0 +1,25 @@
+package com.studydocs.manager.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class Batches {
+
+    private Batches() {
+    }
+
+    /**
+     * Chia list thành các đoạn liên tiếp tối đa {@code size} phần tử
+     * (vd. để giới hạn số tham số của mệnh đề IN).
+     */
+    public static <T> List<List<T>> partition(List<T> values, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        List<List<T>> batches = new ArrayList<>((values.size() + size - 1) / size);
+        for (int from = 0; from < values.size(); from += size) {
+            batches.add(values.subList(from, Math.min(values.size(), from + size)));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,162 @@
+package com.studydocs.manager.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipe byte giữa hai thread với bộ đệm có giới hạn (chunk x số chunk).
+ * <p>
+ * Khác PipedInputStream: không gắn với thread cụ thể, và khi phía đọc đóng sớm
+ * (vd. parser dừng vì đủ dữ liệu) thì phía ghi được báo lỗi ngay thay vì bị chặn.
+ * Với {@link #setWriteDeadline(long)}, phía ghi cũng chỉ chờ tới hạn đó khi phía đọc
+ * bị treo (không đọc nhưng cũng không đóng).
+ */
+public final class BoundedPipe {
+
+    private static final byte[] END = new byte[0];
+    private static final long OFFER_POLL_MS = 100;
+
+    private final BlockingQueue<byte[]> chunks;
+    private final int maxChunkSize;
+    private volatile boolean sourceClosed;
+    // Hạn chót theo System.nanoTime() cho phía ghi; null = chờ tới khi phía đọc đóng
+    private volatile Long writeDeadlineNanos;
+
+    private final OutputStream sink = new PipeSink();
+    private final InputStream source = new PipeSource();
+
+    public BoundedPipe(int maxChunkSize, int maxChunks) {
+        this.maxChunkSize = Math.max(1, maxChunkSize);
+        this.chunks = new ArrayBlockingQueue<>(Math.max(1, maxChunks));
+    }
+
+    public OutputStream sink() {
+        return sink;
+    }
+
+    public InputStream source() {
+        return source;
+    }
+
+    /**
+     * Sau thời điểm này (System.nanoTime()), ghi vào pipe đang đầy báo IOException
+     * thay vì chờ tiếp.
+     */
+    public void setWriteDeadline(long deadlineNanos) {
+        this.writeDeadlineNanos = deadlineNanos;
+    }
+
+    private boolean writeDeadlinePassed() {
+        Long deadline = writeDeadlineNanos;
+        return deadline != null && System.nanoTime() - deadline >= 0;
+    }
+
+    private final class PipeSink extends OutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Pipe sink is closed");
+            }
+            for (int from = off; from < off + len; from += maxChunkSize) {
+                int to = Math.min(off + len, from + maxChunkSize);
+                put(Arrays.copyOfRange(b, from, to));
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (sourceClosed || writeDeadlinePassed()) {
+                // Phía đọc đã đóng (queue đã được dọn, offer luôn có chỗ) hoặc bị treo quá hạn:
+                // báo hết dữ liệu nếu còn chỗ, không chờ
+                chunks.offer(END);
+                return;
+            }
+            put(END);
+        }
+
+        private void put(byte[] chunk) throws IOException {
+            try {
+                while (!chunks.offer(chunk, OFFER_POLL_MS, TimeUnit.MILLISECONDS)) {
+                    if (sourceClosed) {
+                        throw new IOException("Pipe source is closed");
+                    }
+                    if (writeDeadlinePassed()) {
+                        throw new IOException("Pipe source did not read before the write deadline");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing to pipe");
+            }
+        }
+    }
+
+    private final class PipeSource extends InputStream {
+
+        private byte[] current;
+        private int position;
+        private boolean finished;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (sourceClosed) {
+                throw new IOException("Pipe source is closed");
+            }
+            if (finished) {
+                return -1;
+            }
+            if (current == null || position == current.length) {
+                try {
+                    current = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while reading from pipe");
+                }
+                position = 0;
+                if (current == END) {
+                    finished = true;
+                    return -1;
+                }
+            }
+
+            int count = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            sourceClosed = true;
+            chunks.clear();
+        }
+    }
+}
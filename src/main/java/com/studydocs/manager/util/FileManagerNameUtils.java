@@ -40,6 +40,16 @@ public final class FileManagerNameUtils {
         return baseName + suffix + extension;
     }
 
+    /**
+     * Phần tên trước extension; mọi tên sinh ra bởi {@link #buildCopyName} và
+     * {@link #buildIndexedName} đều bắt đầu bằng phần này.
+     */
+    public static String baseName(String value) {
+        String safeValue = hasText(value) ? value.trim() : "Untitled";
+        int extensionIndex = extensionIndex(safeValue);
+        return extensionIndex >= 0 ? safeValue.substring(0, extensionIndex) : safeValue;
+    }
+
     public static String resolveCopyName(String sourceName, Predicate<String> existsPredicate) {
         int copyIndex = 1;
         String candidate = buildCopyName(sourceName, copyIndex);
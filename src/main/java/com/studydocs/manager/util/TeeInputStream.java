@@ -0,0 +1,93 @@
+package com.studydocs.manager.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+/**
+ * InputStream đọc một lần nhưng phục vụ nhiều đích: mọi byte đọc qua đều cập nhật
+ * digest (nếu có) và được copy sang một nhánh phụ (nếu có).
+ * <p>
+ * Nhánh phụ là best-effort: ghi lỗi (vd. consumer đã dừng) thì bỏ nhánh đó và
+ * tiếp tục phục vụ người đọc chính. Stream không đóng nhánh phụ.
+ */
+public class TeeInputStream extends FilterInputStream {
+
+    private final MessageDigest digest;
+    private OutputStream branch;
+    private long bytesRead;
+
+    public TeeInputStream(InputStream source, MessageDigest digest, OutputStream branch) {
+        super(source);
+        this.digest = digest;
+        this.branch = branch;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0) {
+            copy(new byte[] { (byte) value }, 0, 1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            copy(b, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Byte bị skip vẫn phải đi qua digest/nhánh phụ
+        byte[] buffer = new byte[(int) Math.min(8192, Math.max(0, n))];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read < 0) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        // không hỗ trợ: reset sẽ làm digest tính trùng byte
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    private void copy(byte[] b, int off, int len) {
+        bytesRead += len;
+        if (digest != null) {
+            digest.update(b, off, len);
+        }
+        if (branch != null) {
+            try {
+                branch.write(b, off, len);
+            } catch (IOException e) {
+                branch = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.studydocs.manager.application.document.usecase;
+
+import com.studydocs.manager.dto.document.DocumentResponse;
+import com.studydocs.manager.entity.Document;
+import com.studydocs.manager.entity.DocumentAsset;
+import com.studydocs.manager.entity.DocumentSubject;
+import com.studydocs.manager.entity.DocumentTag;
+import com.studydocs.manager.entity.Folder;
+import com.studydocs.manager.entity.Role;
+import com.studydocs.manager.entity.Subject;
+import com.studydocs.manager.entity.Tag;
+import com.studydocs.manager.entity.User;
+import com.studydocs.manager.service.document.DocumentPermissionService;
+import com.studydocs.manager.service.file.PresignedUrlCache;
+import com.studydocs.manager.service.filemanager.FileManagerNamePolicy;
+import com.studydocs.manager.service.filemanager.FileManagerResponseMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Trang document phải tốn số câu SQL cố định, không phụ thuộc số dòng trong trang
+ * (user, folder, asset, subject, tag không được lazy-load theo từng document).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false"
+})
+@Import({ DocumentQueryUseCase.class, FileManagerResponseMapper.class, FileManagerNamePolicy.class })
+class DocumentQueryUseCaseQueryCountTest {
+
+    private static final int DOCUMENT_COUNT = 6;
+    private static final int LARGE_PAGE_SIZE = 5;
+
+    @Autowired
+    private DocumentQueryUseCase documentQueryUseCase;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DocumentPermissionService permissionService;
+
+    @MockitoBean
+    private PresignedUrlCache presignedUrlCache;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role("USER");
+        entityManager.persist(role);
+        User owner = persistUser("owner", role);
+        User editor = persistUser("editor", role);
+
+        Folder folder = new Folder();
+        folder.setUser(owner);
+        folder.setName("Giai tich");
+        entityManager.persist(folder);
+
+        Subject subject = new Subject();
+        subject.setName("Toan");
+        subject.setSlug("toan");
+        entityManager.persist(subject);
+
+        Tag tag = new Tag();
+        tag.setName("de-thi");
+        tag.setSlug("de-thi");
+        entityManager.persist(tag);
+
+        for (int i = 0; i < DOCUMENT_COUNT; i++) {
+            persistDocument(i, owner, editor, folder, subject, tag);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        when(permissionService.requireCurrentUserId()).thenReturn(owner.getId());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void myDocumentsPageUsesSameStatementCountForOneAndManyRows() {
+        long singleRowStatements = countStatements(1);
+        long manyRowStatements = countStatements(LARGE_PAGE_SIZE);
+
+        assertThat(manyRowStatements).isEqualTo(singleRowStatements);
+    }
+
+    @Test
+    void myDocumentsPageMapsBatchLoadedAssociations() {
+        Page<DocumentResponse> page = documentQueryUseCase.getMyDocuments(null, null,
+                PageRequest.of(0, LARGE_PAGE_SIZE));
+
+        assertThat(page.getTotalElements()).isEqualTo(DOCUMENT_COUNT);
+        assertThat(page.getContent()).hasSize(LARGE_PAGE_SIZE).allSatisfy(response -> {
+            assertThat(response.getUsername()).isEqualTo("owner");
+            assertThat(response.getUpdatedByUsername()).isEqualTo("editor");
+            assertThat(response.getFolderName()).isEqualTo("Giai tich");
+            assertThat(response.getFileName()).startsWith("file-");
+            assertThat(response.getSubjects()).containsExactly("Toan");
+            assertThat(response.getTags()).containsExactly("de-thi");
+        });
+    }
+
+    private long countStatements(int pageSize) {
+        // Mỗi lần đo bắt đầu với persistence context rỗng, như một request mới
+        entityManager.clear();
+        statistics.clear();
+        Page<DocumentResponse> page = documentQueryUseCase.getMyDocuments(null, null, PageRequest.of(0, pageSize));
+        assertThat(page.getContent()).hasSize(pageSize);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User persistUser(String username, Role role) {
+        User user = new User(username, username + "@example.com", "secret");
+        user.setFullname(username);
+        user.setRole(role);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private void persistDocument(int index, User owner, User editor, Folder folder, Subject subject, Tag tag) {
+        Document document = new Document();
+        document.setUser(owner);
+        document.setUpdatedBy(editor);
+        document.setFolder(folder);
+        document.setTitle("Tai lieu " + index);
+        entityManager.persist(document);
+
+        DocumentAsset asset = new DocumentAsset();
+        asset.setDocument(document);
+        asset.setObjectName("documents/" + index);
+        asset.setFileName("file-" + index + ".pdf");
+        asset.setFileSize(1024L);
+        asset.setFileType("pdf");
+        entityManager.persist(asset);
+
+        DocumentSubject documentSubject = new DocumentSubject();
+        documentSubject.setDocument(document);
+        documentSubject.setSubject(subject);
+        entityManager.persist(documentSubject);
+
+        DocumentTag documentTag = new DocumentTag();
+        documentTag.setDocument(document);
+        documentTag.setTag(tag);
+        entityManager.persist(documentTag);
+    }
+}
@@ -0,0 +1,170 @@
+package com.studydocs.manager.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "test-secret-key-with-at-least-256-bits-for-hs256";
+
+    @Test
+    void verifyReturnsClaimsOfGeneratedToken() {
+        JwtTokenProvider provider = provider(100);
+        String token = provider.generateToken(authentication("alice"), 42L);
+
+        Optional<Claims> claims = provider.verify(token);
+
+        assertThat(claims).isPresent();
+        assertThat(claims.get().getSubject()).isEqualTo("alice");
+        assertThat(claims.get().get("roles", String.class)).isEqualTo("ROLE_USER");
+        assertThat(provider.getUserId(claims.get())).isEqualTo(42L);
+    }
+
+    @Test
+    void verifyServesRepeatedTokenFromCache() {
+        JwtTokenProvider provider = provider(100);
+        String token = provider.generateToken(authentication("alice"), 42L);
+
+        Claims first = provider.verify(token).orElseThrow();
+        Claims second = provider.verify(token).orElseThrow();
+
+        // Parse lại sẽ tạo object claims mới; cùng instance nghĩa là lấy từ cache
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void verifyParsesEveryTimeWhenCacheDisabled() {
+        JwtTokenProvider provider = provider(0);
+        String token = provider.generateToken(authentication("alice"), 42L);
+
+        Claims first = provider.verify(token).orElseThrow();
+        Claims second = provider.verify(token).orElseThrow();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getSubject()).isEqualTo("alice");
+    }
+
+    @Test
+    void verifiedCacheStaysWithinMaxEntries() {
+        JwtTokenProvider provider = provider(2);
+        for (String username : List.of("alice", "bob", "carol", "dave", "erin")) {
+            assertThat(provider.verify(provider.generateToken(authentication(username), 1L))).isPresent();
+        }
+
+        Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(provider, "verifiedCache");
+        assertThat(cache).hasSizeLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void verifyRejectsCachedTokenAfterExpiry() throws InterruptedException {
+        JwtTokenProvider provider = provider(100);
+        // Claim exp được làm tròn xuống giây, nên hạn thực tế nằm trong khoảng 1-2s tới
+        Date expiration = new Date(System.currentTimeMillis() + 2000);
+        String token = Jwts.builder()
+                .subject("alice")
+                .expiration(expiration)
+                .signWith(provider.getSigningKey())
+                .compact();
+
+        Claims claims = provider.verify(token).orElseThrow();
+        long waitMillis = claims.getExpiration().getTime() - System.currentTimeMillis() + 50;
+        if (waitMillis > 0) {
+            Thread.sleep(waitMillis);
+        }
+
+        assertThat(provider.verify(token)).isEmpty();
+    }
+
+    @Test
+    void verifyRejectsExpiredToken() {
+        JwtTokenProvider provider = provider(100);
+        String token = Jwts.builder()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(provider.getSigningKey())
+                .compact();
+
+        assertThat(provider.verify(token)).isEmpty();
+    }
+
+    @Test
+    void verifyRejectsTamperedPayloadEvenWhenOriginalIsCached() {
+        JwtTokenProvider provider = provider(100);
+        String token = provider.generateToken(authentication("alice"), 42L);
+        assertThat(provider.verify(token)).isPresent();
+
+        String[] parts = token.split("\\.");
+        String forgedPayload = Jwts.builder()
+                .subject("mallory")
+                .claim("uid", 1L)
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(provider.getSigningKey())
+                .compact()
+                .split("\\.")[1];
+        String tampered = parts[0] + "." + forgedPayload + "." + parts[2];
+
+        assertThat(provider.verify(tampered)).isEmpty();
+    }
+
+    @Test
+    void verifyRejectsTamperedSignature() {
+        JwtTokenProvider provider = provider(100);
+        String token = provider.generateToken(authentication("alice"), 42L);
+        // Đổi một ký tự giữa chữ ký (ký tự cuối có thể chỉ mang bit đệm của base64url)
+        int index = token.lastIndexOf('.') + 10;
+        char replacement = token.charAt(index) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, index) + replacement + token.substring(index + 1);
+
+        assertThat(provider.verify(tampered)).isEmpty();
+    }
+
+    @Test
+    void verifyRejectsTokenSignedWithAnotherKey() {
+        JwtTokenProvider provider = provider(100);
+        String token = Jwts.builder()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(
+                        "another-secret-key-with-at-least-256-bits-hs256".getBytes(StandardCharsets.UTF_8)))
+                .compact();
+
+        assertThat(provider.verify(token)).isEmpty();
+    }
+
+    @Test
+    void verifyRejectsMalformedInput() {
+        JwtTokenProvider provider = provider(100);
+
+        assertThat(provider.verify(null)).isEmpty();
+        assertThat(provider.verify("")).isEmpty();
+        assertThat(provider.verify("not-a-jwt")).isEmpty();
+    }
+
+    private static JwtTokenProvider provider(int cacheMaxEntries) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxEntries", cacheMaxEntries);
+        provider.init();
+        return provider;
+    }
+
+    private static UsernamePasswordAuthenticationToken authentication(String username) {
+        User principal = new User(username, "password", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
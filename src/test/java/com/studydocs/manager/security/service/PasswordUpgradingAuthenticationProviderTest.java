@@ -0,0 +1,54 @@
+package com.studydocs.manager.security.service;
+
+import com.studydocs.manager.exception.TooManyRequestsException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordUpgradingAuthenticationProviderTest {
+
+    private static final String OLD_HASH = "old-hash";
+
+    private InMemoryUserDetailsManager users;
+    private PasswordEncoder passwordEncoder;
+    private PasswordUpgradingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        users = new InMemoryUserDetailsManager(User.withUsername("alice").password(OLD_HASH).roles("USER").build());
+        passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.matches("secret", OLD_HASH)).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(OLD_HASH)).thenReturn(true);
+        provider = new PasswordUpgradingAuthenticationProvider(users, users, passwordEncoder);
+    }
+
+    @Test
+    void rehashesOutdatedPasswordOnLogin() {
+        when(passwordEncoder.encode("secret")).thenReturn("new-hash");
+
+        Authentication result = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "secret"));
+
+        assertThat(result.isAuthenticated()).isTrue();
+        assertThat(users.loadUserByUsername("alice").getPassword()).isEqualTo("new-hash");
+    }
+
+    @Test
+    void loginSucceedsWhenHashingPoolIsBusy() {
+        when(passwordEncoder.encode("secret"))
+                .thenThrow(new TooManyRequestsException("busy", "PASSWORD_HASHING_BUSY", null));
+
+        Authentication result = provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("alice", "secret"));
+
+        // Hash cũ được giữ nguyên, lần đăng nhập sau sẽ nâng cấp
+        assertThat(result.isAuthenticated()).isTrue();
+        assertThat(users.loadUserByUsername("alice").getPassword()).isEqualTo(OLD_HASH);
+    }
+}
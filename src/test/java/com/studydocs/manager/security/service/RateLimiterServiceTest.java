@@ -0,0 +1,126 @@
+package com.studydocs.manager.security.service;
+
+import com.studydocs.manager.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterServiceTest {
+
+    private static final long WINDOW_MILLIS = 1_000;
+    private static final int LIMIT = 10;
+    private static final long KEY = RateLimiterService.hashKey("login", "10.0.0.1");
+
+    @Test
+    void allowsUpToLimitWithinWindow() {
+        RateLimiterService limiter = limiter(100);
+
+        assertThat(consume(limiter, KEY, LIMIT, 5_000)).isEqualTo(LIMIT);
+        assertThat(limiter.tryConsume(KEY, LIMIT, WINDOW_MILLIS, 5_500)).isFalse();
+    }
+
+    @Test
+    void doesNotAllowDoubleBurstAtWindowBoundary() {
+        RateLimiterService limiter = limiter(100);
+
+        // Dùng hết limit ở ms cuối của window
+        assertThat(consume(limiter, KEY, LIMIT, 5_999)).isEqualTo(LIMIT);
+
+        // Đầu window kế tiếp: window trước còn tính đủ, fixed window sẽ cho thêm LIMIT ở đây
+        assertThat(limiter.tryConsume(KEY, LIMIT, WINDOW_MILLIS, 6_000)).isFalse();
+
+        // Giữa window: window trước chỉ còn tính một nửa
+        assertThat(consume(limiter, KEY, LIMIT, 6_500)).isEqualTo(LIMIT / 2);
+    }
+
+    @Test
+    void restoresFullBudgetAfterTwoWindows() {
+        RateLimiterService limiter = limiter(100);
+        consume(limiter, KEY, LIMIT, 5_000);
+
+        assertThat(consume(limiter, KEY, LIMIT, 7_000)).isEqualTo(LIMIT);
+    }
+
+    @Test
+    void rejectsNonPositiveLimit() {
+        RateLimiterService limiter = limiter(100);
+
+        assertThat(limiter.tryConsume(KEY, 0, WINDOW_MILLIS, 5_000)).isFalse();
+        assertThat(limiter.getStats()).containsEntry("rejectedRequests", 1L);
+    }
+
+    @Test
+    void evictIdleKeepsKeysActiveInPreviousWindow() {
+        RateLimiterService limiter = limiter(100);
+        limiter.tryConsume(KEY, LIMIT, WINDOW_MILLIS, 5_000);
+
+        limiter.evictIdle(6_999);
+        assertThat(limiter.getStats()).containsEntry("trackedKeys", 1);
+
+        limiter.evictIdle(7_000);
+        assertThat(limiter.getStats())
+                .containsEntry("trackedKeys", 0)
+                .containsEntry("evictedKeys", 1L);
+    }
+
+    @Test
+    void fullMapEvictsLeastRecentKeyForNewClient() {
+        RateLimiterService limiter = limiter(2);
+        long older = RateLimiterService.hashKey("login", "10.0.0.2");
+        long newer = RateLimiterService.hashKey("login", "10.0.0.3");
+        long newcomer = RateLimiterService.hashKey("login", "10.0.0.4");
+        long window = 10_000;
+
+        consume(limiter, older, LIMIT, 0, window);
+        consume(limiter, newer, LIMIT, 10_000, window);
+
+        // Client mới có counter riêng, không bị chặn vì map đầy
+        assertThat(consume(limiter, newcomer, LIMIT, 12_000, window)).isEqualTo(LIMIT);
+        assertThat(limiter.getStats())
+                .containsEntry("trackedKeys", 2)
+                .containsEntry("evictedForNewKeys", 1L);
+
+        // Key hoạt động gần đây hơn giữ nguyên counter
+        assertThat(limiter.tryConsume(newer, LIMIT, window, 12_000)).isFalse();
+    }
+
+    @Test
+    void floodOfDistinctClientsDoesNotThrottleNewClient() {
+        int maxTrackedKeys = 64;
+        RateLimiterService limiter = limiter(maxTrackedKeys);
+        for (int i = 0; i < maxTrackedKeys * 20; i++) {
+            limiter.tryConsume(RateLimiterService.hashKey("login", "attacker-" + i), LIMIT, WINDOW_MILLIS, 5_000);
+        }
+
+        assertThat(consume(limiter, KEY, LIMIT, 5_000)).isEqualTo(LIMIT);
+        assertThat((int) limiter.getStats().get("trackedKeys")).isLessThanOrEqualTo(maxTrackedKeys);
+    }
+
+    @Test
+    void hashKeySeparatesScopeFromClient() {
+        assertThat(RateLimiterService.hashKey("ab", "c")).isNotEqualTo(RateLimiterService.hashKey("a", "bc"));
+        assertThat(RateLimiterService.hashKey("login", "1.2.3.4"))
+                .isEqualTo(RateLimiterService.hashKey("login", "1.2.3.4"));
+    }
+
+    private static RateLimiterService limiter(int maxTrackedKeys) {
+        RateLimitProperties props = new RateLimitProperties();
+        props.setMaxTrackedKeys(maxTrackedKeys);
+        return new RateLimiterService(props);
+    }
+
+    private static int consume(RateLimiterService limiter, long key, int limit, long now) {
+        return consume(limiter, key, limit, now, WINDOW_MILLIS);
+    }
+
+    // Gửi tối đa 2 × limit request tại cùng thời điểm, trả về số request được phép
+    private static int consume(RateLimiterService limiter, long key, int limit, long now, long windowMillis) {
+        int allowed = 0;
+        for (int i = 0; i < limit * 2; i++) {
+            if (limiter.tryConsume(key, limit, windowMillis, now)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,91 @@
+package com.studydocs.manager.service.filemanager;
+
+import com.studydocs.manager.entity.Document;
+import com.studydocs.manager.entity.Folder;
+import com.studydocs.manager.entity.Role;
+import com.studydocs.manager.entity.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rename / restore (hasConflict) và create / copy (findOccupiedNames) phải cùng quy tắc
+ * so sánh tên: khác dấu là khác tên, khác hoa/thường là trùng tên.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import({ FileManagerNamespaceService.class, FileManagerNamePolicy.class })
+class FileManagerNamespaceServiceTest {
+
+    @Autowired
+    private FileManagerNamespaceService namespaceService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long userId;
+    private Long parentId;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role("USER");
+        entityManager.persist(role);
+        User user = new User("owner", "owner@example.com", "secret");
+        user.setFullname("owner");
+        user.setRole(role);
+        entityManager.persist(user);
+
+        Folder parent = new Folder();
+        parent.setUser(user);
+        parent.setName("Học kỳ 1");
+        entityManager.persist(parent);
+
+        Folder folder = new Folder();
+        folder.setUser(user);
+        folder.setParent(parent);
+        folder.setName("Bài 1");
+        entityManager.persist(folder);
+
+        Document document = new Document();
+        document.setUser(user);
+        document.setFolder(parent);
+        document.setTitle("Đề thi");
+        document.setDisplayName("Đề thi");
+        entityManager.persist(document);
+
+        entityManager.flush();
+        entityManager.clear();
+        userId = user.getId();
+        parentId = parent.getId();
+    }
+
+    @Test
+    void accentedNearDuplicatesDoNotConflict() {
+        assertThat(namespaceService.hasConflict(userId, parentId, "Bai 1", null, null)).isFalse();
+        assertThat(namespaceService.hasConflict(userId, parentId, "Bải 1", null, null)).isFalse();
+        assertThat(namespaceService.hasConflict(userId, parentId, "De thi", null, null)).isFalse();
+        assertThat(namespaceService.hasConflict(userId, null, "Hoc ky 1", null, null)).isFalse();
+
+        assertThat(namespaceService.findOccupiedNames(userId, parentId, List.of("Bai 1", "De thi"))).isEmpty();
+    }
+
+    @Test
+    void sameNameIgnoringCaseConflicts() {
+        assertThat(namespaceService.hasConflict(userId, parentId, "bài 1", null, null)).isTrue();
+        assertThat(namespaceService.hasConflict(userId, parentId, "  BÀI 1 ", null, null)).isTrue();
+        assertThat(namespaceService.hasConflict(userId, parentId, "ĐỀ THI", null, null)).isTrue();
+        assertThat(namespaceService.hasConflict(userId, null, "học kỳ 1", null, null)).isTrue();
+
+        assertThat(namespaceService.findOccupiedNames(userId, parentId, List.of("BÀI 1", "đề thi")))
+                .containsExactlyInAnyOrder("bài 1", "đề thi");
+    }
+}
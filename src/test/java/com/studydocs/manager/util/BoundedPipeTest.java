@@ -0,0 +1,49 @@
+package com.studydocs.manager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPipeTest {
+
+    @Test
+    void readerReceivesWrittenBytes() throws IOException {
+        BoundedPipe pipe = new BoundedPipe(4, 4);
+        pipe.sink().write("hello".getBytes());
+        pipe.sink().close();
+
+        assertThat(new String(pipe.source().readAllBytes())).isEqualTo("hello");
+    }
+
+    @Test
+    void writerFailsWhenReaderClosedEarly() throws IOException {
+        BoundedPipe pipe = new BoundedPipe(1, 1);
+        pipe.source().close();
+
+        assertThatThrownBy(() -> pipe.sink().write(new byte[] { 1, 2, 3 })).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void writerStopsWaitingForStalledReaderAtDeadline() throws IOException {
+        BoundedPipe pipe = new BoundedPipe(1, 2);
+        pipe.setWriteDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200));
+        OutputStream sink = pipe.sink();
+
+        // Không ai đọc: pipe đầy sau 2 byte, byte thứ 3 phải báo lỗi thay vì chặn mãi
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> sink.write(new byte[] { 1, 2, 3 })).isInstanceOf(IOException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(5_000);
+
+        // close không chặn; phía đọc nhận phần đã ghi rồi kết thúc
+        sink.close();
+        InputStream source = pipe.source();
+        assertThat(source.read()).isEqualTo(1);
+        assertThat(source.read()).isEqualTo(2);
+    }
+}